@@ -14,8 +14,12 @@ public enum BeanNames {
 
 	ANNOTATION_BASED_BEHAVIOUR_REGISTRAR("annotationBasedBehaviourRegistrar"),
 
+	ASYNC_BEHAVIOUR_EXECUTOR("asyncBehaviourExecutor"),
+
 	ANNOTATION_BASED_WEB_SCRIPT_BUILDER("annotationBasedWebScriptBuilder"),
 
+	ANNOTATION_INDEX("annotationIndex"),
+
 	ANNOTATION_BASED_WEB_SCRIPT_REGISTRAR("annotationBasedWebScriptRegistrar"),
 
 	TYPE_BASED_WORKFLOW_REGISTRAR("typeBasedWorkflowRegistrar"),
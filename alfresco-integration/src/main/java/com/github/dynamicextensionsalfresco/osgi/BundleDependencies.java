@@ -6,12 +6,22 @@ import com.springsource.util.osgi.manifest.ExportedPackage;
 import com.springsource.util.osgi.manifest.ImportedPackage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.Bundle;
 
 /**
  * Sort a list of bundles by their dependency graph. Bundles without or satisfied dependencies come first.
+ * <p>
+ * The imported and exported packages of each bundle are parsed from its headers once, and cached by bundle id and
+ * last modified time, so sorting again after an update only parses the bundles that changed. The
+ * {@link FrameworkManager} evicts uninstalled bundles and clears the cache when the framework stops.
  *
  * @author Laurent Van der Linden.
  * @author Toon Geens
@@ -20,6 +30,8 @@ public final class BundleDependencies {
 
     private static final BundleMetadataProvider bundleMetadataProvider = new BundleMetadataProvider();
 
+    private static final Map<Long, BundlePackages> packagesCache = new ConcurrentHashMap<>();
+
     private BundleDependencies() {
 
     }
@@ -46,6 +58,49 @@ public final class BundleDependencies {
         });
     }
 
+    /**
+     * Determines for each bundle the other bundles that export one of its imported packages.
+     */
+    public static Map<Bundle, Set<Bundle>> dependencyGraph(List<Bundle> bundles) {
+        List<BundleDescriptor> descriptors = Mapper.map(bundles, new MappingFunc<Bundle, BundleDescriptor>() {
+            @Override
+            public BundleDescriptor map(Bundle item) {
+                return new BundleDescriptor(item);
+            }
+        });
+
+        Map<BundleDescriptor, Set<BundleDescriptor>> dependencies = DependencySorter
+                .dependencies(descriptors, bundleMetadataProvider);
+
+        Map<Bundle, Set<Bundle>> graph = new LinkedHashMap<>();
+        for (Map.Entry<BundleDescriptor, Set<BundleDescriptor>> entry : dependencies.entrySet()) {
+            Set<Bundle> bundleDependencies = new LinkedHashSet<>();
+            for (BundleDescriptor dependency : entry.getValue()) {
+                bundleDependencies.add(dependency.getBundle());
+            }
+            graph.put(entry.getKey().getBundle(), bundleDependencies);
+        }
+        return graph;
+    }
+
+    /**
+     * Removes the cached packages of a bundle, once it has been uninstalled.
+     */
+    public static void evict(long bundleId) {
+        packagesCache.remove(bundleId);
+    }
+
+    /**
+     * Removes the cached packages of all bundles, once the framework has stopped.
+     */
+    public static void clearCache() {
+        packagesCache.clear();
+    }
+
+    static boolean isCached(long bundleId) {
+        return packagesCache.containsKey(bundleId);
+    }
+
     public static class BundleMetadataProvider implements
             DependencyMetadataProvider<BundleDependencies.BundleDescriptor> {
 
@@ -57,24 +112,12 @@ public final class BundleDependencies {
 
         @Override
         public Collection<Object> imports(BundleDependencies.BundleDescriptor item) {
-            List<ImportedPackage> imports = item.getManifest().getImportPackage().getImportedPackages();
-            return Mapper.map(imports, new MappingFunc<ImportedPackage, Object>() {
-                @Override
-                public Object map(ImportedPackage item) {
-                    return item.getPackageName();
-                }
-            });
+            return item.getPackages().imports;
         }
 
         @Override
         public Collection<Object> exports(BundleDependencies.BundleDescriptor item) {
-            List<ExportedPackage> exports = item.getManifest().getExportPackage().getExportedPackages();
-            return Mapper.map(exports, new MappingFunc<ExportedPackage, Object>() {
-                @Override
-                public Object map(ExportedPackage item) {
-                    return item.getPackageName();
-                }
-            });
+            return item.getPackages().exports;
         }
     }
 
@@ -82,7 +125,7 @@ public final class BundleDependencies {
     public static class BundleDescriptor {
 
         private final Bundle bundle;
-        private final BundleManifest manifest;
+        private final BundlePackages packages;
 
         BundleDescriptor(@NotNull Bundle bundle) {
             if (bundle == null) {
@@ -90,7 +133,12 @@ public final class BundleDependencies {
             }
 
             this.bundle = bundle;
-            this.manifest = BundleManifestFactory.createBundleManifest(bundle.getHeaders());
+            BundlePackages cached = packagesCache.get(bundle.getBundleId());
+            if (cached == null || cached.lastModified != bundle.getLastModified()) {
+                cached = new BundlePackages(bundle);
+                packagesCache.put(bundle.getBundleId(), cached);
+            }
+            this.packages = cached;
         }
 
         @Override
@@ -98,8 +146,8 @@ public final class BundleDependencies {
             return String.format("%3d: %s", bundle.getBundleId(), bundle.getSymbolicName());
         }
 
-        BundleManifest getManifest() {
-            return manifest;
+        BundlePackages getPackages() {
+            return packages;
         }
 
         Bundle getBundle() {
@@ -107,6 +155,35 @@ public final class BundleDependencies {
         }
     }
 
+    /**
+     * The names of the packages imported and exported by a bundle, as of its last modification.
+     */
+    static class BundlePackages {
+
+        private final long lastModified;
+        private final List<Object> imports;
+        private final List<Object> exports;
+
+        BundlePackages(Bundle bundle) {
+            this.lastModified = bundle.getLastModified();
+            BundleManifest manifest = BundleManifestFactory.createBundleManifest(bundle.getHeaders());
+            this.imports = Collections.unmodifiableList(Mapper.map(manifest.getImportPackage().getImportedPackages(),
+                    new MappingFunc<ImportedPackage, Object>() {
+                        @Override
+                        public Object map(ImportedPackage item) {
+                            return item.getPackageName();
+                        }
+                    }));
+            this.exports = Collections.unmodifiableList(Mapper.map(manifest.getExportPackage().getExportedPackages(),
+                    new MappingFunc<ExportedPackage, Object>() {
+                        @Override
+                        public Object map(ExportedPackage item) {
+                            return item.getPackageName();
+                        }
+                    }));
+        }
+    }
+
     /*
      * Functional interface to support list mapping on Java 7
      */
@@ -26,6 +26,12 @@ public class Configuration {
         this.repositoryBundlesEnabled = repositoryBundlesEnabled;
     }
 
+    private int bundleStartParallelism = 1;
+    public int getBundleStartParallelism() { return bundleStartParallelism; }
+    public void setBundleStartParallelism(int bundleStartParallelism) {
+        this.bundleStartParallelism = Math.max(1, bundleStartParallelism);
+    }
+
     private File storageDirectory = null;
     public File getStorageDirectory() {
         if(storageDirectory == null) {
@@ -38,6 +44,31 @@ public class Configuration {
         this.storageDirectory = storageDirectory;
     }
 
+    private boolean wrappedBundleCacheEnabled = true;
+    public boolean getWrappedBundleCacheEnabled() { return wrappedBundleCacheEnabled; }
+    public void setWrappedBundleCacheEnabled(boolean wrappedBundleCacheEnabled) {
+        this.wrappedBundleCacheEnabled = wrappedBundleCacheEnabled;
+    }
+
+    /**
+     * Sibling of the storage directory, as the framework cleans the storage directory on its first initialization.
+     */
+    public File getWrappedBundleCacheDirectory() {
+        File storage = getStorageDirectory().getAbsoluteFile();
+        return new File(storage.getParentFile(), storage.getName() + "-wrapped");
+    }
+
+    private boolean repositoryBundleMirrorEnabled = true;
+    public boolean getRepositoryBundleMirrorEnabled() { return repositoryBundleMirrorEnabled; }
+    public void setRepositoryBundleMirrorEnabled(boolean repositoryBundleMirrorEnabled) {
+        this.repositoryBundleMirrorEnabled = repositoryBundleMirrorEnabled;
+    }
+
+    public File getRepositoryBundleMirrorDirectory() {
+        File storage = getStorageDirectory().getAbsoluteFile();
+        return new File(storage.getParentFile(), storage.getName() + "-repository");
+    }
+
     private PackageCacheMode systemPackageCacheMode = null;
     public PackageCacheMode getSystemPackageCacheMode() {
         return this.systemPackageCacheMode;
@@ -46,10 +77,18 @@ public class Configuration {
         this.systemPackageCacheMode = packageCacheMode;
     }
 
+    private PackageScanMode systemPackageScanMode = PackageScanMode.ENTRIES;
+    public PackageScanMode getSystemPackageScanMode() {
+        return this.systemPackageScanMode;
+    }
+    public void setSystemPackageScanMode(PackageScanMode packageScanMode) {
+        this.systemPackageScanMode = packageScanMode;
+    }
+
     private File systemPackageCache = null;
     public File getSystemPackageCache() {
         if(systemPackageCache == null) {
-            systemPackageCache = createTempFile("system-packages.txt");
+            systemPackageCache = createTempFile("system-packages.bin");
         }
 
         return this.systemPackageCache;
@@ -1,19 +1,40 @@
 package com.github.dynamicextensionsalfresco.osgi;
 
 import aQute.bnd.osgi.Constants;
+import com.github.dynamicextensionsalfresco.metrics.DefaultStartupTimeline;
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
 import com.github.dynamicextensionsalfresco.osgi.io.FileUtil;
+import com.github.dynamicextensionsalfresco.osgi.io.RepositoryBundleMirror;
+import com.github.dynamicextensionsalfresco.osgi.io.WrappedBundleCache;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.alfresco.model.ContentModel;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.service.cmr.model.FileInfo;
+import org.alfresco.service.cmr.repository.ContentData;
 import org.alfresco.service.cmr.repository.ContentReader;
 import org.alfresco.service.cmr.repository.ContentService;
+import org.alfresco.service.transaction.TransactionService;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
 import org.osgi.framework.BundleListener;
 import org.osgi.framework.ServiceRegistration;
@@ -27,6 +48,7 @@ import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import org.springframework.util.ResourceUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -52,6 +74,17 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
 
     private ResourcePatternResolver resourcePatternResolver;
     private ArrayList<ServiceRegistration<?>> serviceRegistrations = new ArrayList<>();
+    private StartupTimeline startupTimeline = new DefaultStartupTimeline();
+
+    @Nullable
+    private TransactionService transactionService;
+
+    /* Keeps the package cache of BundleDependencies from holding on to uninstalled bundles. */
+    private final BundleListener bundleDependenciesEvictor = event -> {
+        if (event.getType() == BundleEvent.UNINSTALLED) {
+            BundleDependencies.evict(event.getBundle().getBundleId());
+        }
+    };
 
     public DefaultFrameworkManager(
             Framework framework,
@@ -84,17 +117,54 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
         this.resourcePatternResolver = (ResourcePatternResolver) resourceLoader;
     }
 
+    public void setStartupTimeline(StartupTimeline startupTimeline) {
+        Assert.notNull(startupTimeline);
+        this.startupTimeline = startupTimeline;
+    }
+
+    /**
+     * Sets the {@link TransactionService} used to start bundles in a transaction when they are started concurrently.
+     */
+    public void setTransactionService(@Nullable TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
     /**
      * Starts the {@link Framework} and registers services and {@link BundleListener}s.
      */
     public final void initialize() {
-        this.startFramework();
-        this.registerServices();
-        this.startBundles(this.installCoreBundles());
-        if (this.getRepositoryInstallEnabled()) {
-            this.startBundles(this.installRepositoryBundles());
+        StartupSpan span = startupTimeline.start("Initialize framework");
+        try {
+            this.runPhase("Start framework", this::startFramework);
+            this.runPhase("Register services", this::registerServices);
+            final List<Bundle> coreBundles = this.callPhase("Install core bundles", this::installCoreBundles);
+            this.runPhase("Start core bundles", () -> this.startBundles(coreBundles));
+            if (this.getRepositoryInstallEnabled()) {
+                final List<Bundle> repositoryBundles = this.callPhase("Install repository bundles",
+                        this::installRepositoryBundles);
+                this.runPhase("Start repository bundles", () -> this.startBundles(repositoryBundles));
+            }
+        } finally {
+            span.end();
         }
+    }
 
+    private void runPhase(String name, Runnable phase) {
+        StartupSpan span = startupTimeline.start(name);
+        try {
+            phase.run();
+        } finally {
+            span.end();
+        }
+    }
+
+    private <T> T callPhase(String name, Supplier<T> phase) {
+        StartupSpan span = startupTimeline.start(name);
+        try {
+            return phase.get();
+        } finally {
+            span.end();
+        }
     }
 
     private boolean getRepositoryInstallEnabled() {
@@ -105,6 +175,7 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
         try {
             logger.debug("Starting Framework");
             framework.start();
+            framework.getBundleContext().addBundleListener(bundleDependenciesEvictor);
         } catch (BundleException e) {
             logger.error("Could not start Framework.", e);
         }
@@ -133,6 +204,8 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
      */
     protected List<Bundle> installCoreBundles() {
         List<Bundle> bundles = new ArrayList<>();
+        WrappedBundleCache wrappedBundleCache = configuration.getWrappedBundleCacheEnabled()
+                ? new WrappedBundleCache(configuration.getWrappedBundleCacheDirectory()) : null;
         try {
             List<String> locationPatterns = new ArrayList<>();
             locationPatterns.add(blueprintBundlesLocation);
@@ -151,7 +224,7 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
                         String location = bundleResource.getURI().toString();
                         logger.debug("Installing Bundle: {}", location);
                         try {
-                            Bundle bundle = installBundle(bundleResource, location);
+                            Bundle bundle = installBundle(bundleResource, location, wrappedBundleCache);
                             bundles.add(bundle);
                         } catch (BundleException e) {
                             logger.error("Error installing Bundle in {}: {}", location, e);
@@ -164,25 +237,75 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
         } catch (IOException ioe) {
             throw new RuntimeException("Error installing core Bundles: " + ioe.getMessage(), ioe);
         }
+        if (wrappedBundleCache != null) {
+            wrappedBundleCache.removeUnusedEntries();
+        }
 
         return bundles;
     }
 
     /**
-     * optimistic install: first install & if it turns out to be a regular jar, replace with wrapped jar
+     * Installs a bundle in a single pass: the manifest is read from the central directory of the JAR, so a plain JAR
+     * is wrapped with bnd before it is installed, instead of being installed, uninstalled and installed again.
+     * <p>
+     * A {@link Resource} that is not a file is spooled to a temporary file once, which is also the input for wrapping.
+     * Wrapped bundles are taken from the {@link WrappedBundleCache}, if any.
+     */
+    private Bundle installBundle(Resource bundleResource, String location,
+            @Nullable WrappedBundleCache wrappedBundleCache) throws IOException, BundleException {
+        File spooledCopy = null;
+        File wrappedCopy = null;
+        try {
+            File jar;
+            if (isFileResource(bundleResource)) {
+                jar = bundleResource.getFile();
+            } else {
+                spooledCopy = FileUtil.toTempFile(bundleResource.getInputStream(), "bundle", ".jar");
+                jar = spooledCopy;
+            }
+            boolean wrapped = false;
+            if (!FileUtil.isBundle(jar)) {
+                if (wrappedBundleCache != null) {
+                    jar = wrappedBundleCache.getWrappedBundle(jar, bundleResource.getFilename());
+                    if (!wrappedBundleCache.contains(jar)) {
+                        wrappedCopy = jar;
+                    }
+                } else {
+                    wrappedCopy = FileUtil.convertToBundle(jar, bundleResource.getFilename());
+                    jar = wrappedCopy;
+                }
+                wrapped = true;
+            }
+
+            Bundle bundle;
+            try (InputStream inputStream = new FileInputStream(jar)) {
+                bundle = framework.getBundleContext().installBundle(location, inputStream);
+            }
+            if (wrapped) {
+                logger.info("Wrapped plain jar as a OSGi bundle: " + bundle.getSymbolicName());
+            }
+            return bundle;
+        } finally {
+            deleteQuietly(spooledCopy);
+            deleteQuietly(wrappedCopy);
+        }
+    }
+
+    /**
+     * Resource#isFile() is not available on the Spring version of older Alfresco releases.
      */
-    private Bundle installBundle(Resource bundleResource, String location) throws IOException, BundleException {
-        Bundle bundle = framework.getBundleContext().installBundle(location, bundleResource.getInputStream());
-
-        if (bundle.getSymbolicName() == null) {
-            bundle.uninstall();
-            File localCopy = FileUtil.toTempFile(bundleResource.getInputStream(), "wrapped", ".jar");
-            File bundleFile = FileUtil.convertToBundle(localCopy, bundleResource.getFilename());
-            bundle = framework.getBundleContext().installBundle(location, new FileInputStream(bundleFile));
-            logger.info("Wrapped plain jar as a OSGi bundle: " + bundle.getSymbolicName());
+    private static boolean isFileResource(Resource resource) {
+        try {
+            return ResourceUtils.isFileURL(resource.getURL());
+        } catch (IOException e) {
+            return false;
         }
+    }
 
-        return bundle;
+    private void deleteQuietly(File file) {
+        if (file != null && !file.delete()) {
+            logger.debug("Could not delete temporary file {}", file);
+        }
     }
 
     protected void startBundles(List<Bundle> bundles) {
@@ -197,18 +320,110 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
             if((bundle.getState() & Bundle.RESOLVED) != Bundle.RESOLVED) {
                 logger.error("Bundle {} failed to resolve. State: {}", bundle.getSymbolicName(), bundle.getState());
             }
-            if (!isFragmentBundle(bundle)) {
-                this.startBundle(bundle);
+        }
+
+        int parallelism = configuration.getBundleStartParallelism();
+        if (parallelism > 1 && sortedByDependency.size() > 1) {
+            startBundlesConcurrently(sortedByDependency, BundleDependencies.dependencyGraph(sortedByDependency),
+                    parallelism);
+        } else {
+            for (Bundle bundle : sortedByDependency) {
+                if (!isFragmentBundle(bundle)) {
+                    this.startBundle(bundle);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts bundles on a pool of the given size. A bundle is started once all bundles that export one of its imported
+     * packages have been started, so independent bundles and their Spring contexts start at the same time.
+     *
+     * Dependencies on bundles that come later in the sorted list are ignored: these are part of a cycle that the
+     * sequential start order breaks in the same way.
+     *
+     * The pool threads do not inherit the authentication and transaction of the calling thread, which bundle
+     * activators and Spring contexts may rely on. Each bundle is therefore started as the run-as user of the calling
+     * thread and, if a {@link TransactionService} is set, in its own transaction. If that fails, the error is logged
+     * and the dependent bundles are still started, as in the sequential start order.
+     *
+     * @param sortedByDependency bundles sorted by {@link BundleDependencies#sortByDependencies(List)}
+     * @param dependencies the dependencies of each bundle
+     * @param parallelism the maximum number of bundles that are started at the same time
+     */
+    protected void startBundlesConcurrently(List<Bundle> sortedByDependency, Map<Bundle, Set<Bundle>> dependencies,
+            int parallelism) {
+        logger.debug("Starting {} bundles using {} threads.", sortedByDependency.size(), parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new BundleStartThreadFactory());
+        final StartupSpan parentSpan = startupTimeline.current();
+        final String runAsUser = AuthenticationUtil.getRunAsUser();
+        try {
+            Map<Bundle, CompletableFuture<Void>> started = new HashMap<>();
+            for (final Bundle bundle : sortedByDependency) {
+                List<CompletableFuture<Void>> prerequisites = new ArrayList<>();
+                for (Bundle dependency : dependencies.get(bundle)) {
+                    CompletableFuture<Void> dependencyStarted = started.get(dependency);
+                    if (dependencyStarted != null) {
+                        prerequisites.add(dependencyStarted);
+                    }
+                }
+                CompletableFuture<Void> bundleStarted;
+                if (isFragmentBundle(bundle)) {
+                    bundleStarted = CompletableFuture.completedFuture(null);
+                } else {
+                    bundleStarted = CompletableFuture
+                            .allOf(prerequisites.toArray(new CompletableFuture<?>[0]))
+                            .thenRunAsync(() -> startBundle(bundle, parentSpan, runAsUser), executor)
+                            .exceptionally(e -> {
+                                logger.error("Error starting bundle {}:", bundle.getSymbolicName(),
+                                        e instanceof CompletionException ? e.getCause() : e);
+                                return null;
+                            });
+                }
+                started.put(bundle, bundleStarted);
             }
+            CompletableFuture.allOf(started.values().toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            executor.shutdown();
         }
     }
 
     protected void startBundle(Bundle bundle) {
+        startBundle(bundle, startupTimeline.current());
+    }
+
+    private void startBundle(Bundle bundle, StartupSpan parentSpan, @Nullable String runAsUser) {
+        if (runAsUser == null) {
+            startBundleInTransaction(bundle, parentSpan);
+            return;
+        }
+        AuthenticationUtil.runAs(() -> {
+            startBundleInTransaction(bundle, parentSpan);
+            return null;
+        }, runAsUser);
+    }
+
+    private void startBundleInTransaction(Bundle bundle, StartupSpan parentSpan) {
+        if (transactionService == null) {
+            startBundle(bundle, parentSpan);
+            return;
+        }
+        // starting an already active bundle has no effect, so the start can be retried safely
+        transactionService.getRetryingTransactionHelper().doInTransaction(() -> {
+            startBundle(bundle, parentSpan);
+            return null;
+        }, false, true);
+    }
+
+    private void startBundle(Bundle bundle, StartupSpan parentSpan) {
+        StartupSpan span = startupTimeline.start(parentSpan, "Start bundle " + bundle.getSymbolicName());
         try {
             logger.debug("Starting Bundle {}.", bundle.getSymbolicName());
             bundle.start();
         } catch (Exception e) {
             logger.error("Error starting bundle {}:", bundle.getSymbolicName(), e);
+        } finally {
+            span.end();
         }
     }
 
@@ -217,35 +432,67 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
         return bundle.getHeaders().get(Constants.FRAGMENT_HOST) != null;
     }
 
+    private static class BundleStartThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "dynamic-extensions-bundle-start-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /**
      * Installs the {@link Bundle}s in the repository.
      *
      *
-     * This implementation uses {@link RepositoryStoreService}.
+     * This implementation uses {@link RepositoryStoreService}. Unless disabled, bundles are installed from the
+     * {@link RepositoryBundleMirror}, so the content store is only read for bundles that changed.
      */
     protected List<Bundle> installRepositoryBundles() {
         List<Bundle> bundles = new ArrayList<>();
+        RepositoryBundleMirror mirror = configuration.getRepositoryBundleMirrorEnabled()
+                ? new RepositoryBundleMirror(configuration.getRepositoryBundleMirrorDirectory()) : null;
         for (FileInfo jarFile : repositoryStoreService.getBundleJarFiles()) {
             try {
                 String location = String
                         .format("%s/%s", repositoryStoreService.getBundleRepositoryLocation(), jarFile.getName());
                 logger.debug("Installing Bundle: {}", location);
-                ContentReader reader = contentService.getReader(jarFile.getNodeRef(), ContentModel.PROP_CONTENT);
-                if (reader != null) {
-                    Bundle bundle = framework.getBundleContext()
-                            .installBundle(location, reader.getContentInputStream());
-                    bundles.add(bundle);
+                ContentData contentData = jarFile.getContentData();
+                Bundle bundle;
+                if (mirror != null && contentData != null && contentData.getContentUrl() != null) {
+                    File mirroredBundle = mirror.getBundle(contentData.getContentUrl(), contentData.getSize(),
+                            () -> openContent(jarFile));
+                    try (InputStream inputStream = new FileInputStream(mirroredBundle)) {
+                        bundle = framework.getBundleContext().installBundle(location, inputStream);
+                    }
                 } else {
-                    logger.warn("unable to read extension content for {}", jarFile.getNodeRef());
+                    try (InputStream inputStream = openContent(jarFile)) {
+                        bundle = framework.getBundleContext().installBundle(location, inputStream);
+                    }
                 }
+                bundles.add(bundle);
             } catch (Exception e) {
-                logger.warn("Error installing Bundle: {}", jarFile.getNodeRef());
+                logger.warn("Error installing Bundle: {}", jarFile.getNodeRef(), e);
             }
 
         }
+        if (mirror != null) {
+            mirror.removeUnusedEntries();
+        }
         return bundles;
     }
 
+    private InputStream openContent(FileInfo jarFile) throws IOException {
+        ContentReader reader = contentService.getReader(jarFile.getNodeRef(), ContentModel.PROP_CONTENT);
+        if (reader == null) {
+            throw new FileNotFoundException("unable to read extension content for " + jarFile.getNodeRef());
+        }
+        return reader.getContentInputStream();
+    }
+
     /**
      * Unregisters services and {@link BundleListener}s and stops the {@link Framework}.
      */
@@ -278,6 +525,8 @@ public class DefaultFrameworkManager implements ResourceLoaderAware, FrameworkMa
         } catch (BundleException e) {
             logger.error("Could not stop Framework.", e);
         } catch (InterruptedException ignore) {
+        } finally {
+            BundleDependencies.clearCache();
         }
     }
 }
@@ -7,7 +7,11 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Created by jasper on 17/07/17.
@@ -15,18 +19,50 @@ import java.util.Map;
 public class DependencySorter {
     public static Logger logger = LoggerFactory.getLogger(com.github.dynamicextensionsalfresco.osgi.DependencySorter.class);
 
+    /**
+     * Sorts the items so that each item comes after the items that export something it imports.
+     * <p>
+     * The dependency graph is built once, with each item's imports and exports requested only once, and sorted
+     * depth-first in time linear to the number of items and dependencies. A cycle is reported with its full path.
+     *
+     * @throws IllegalArgumentException If a cycle is found and the provider does not allow circular references.
+     */
     public static <T> Collection<T> sort(Collection<T> input, DependencyMetadataProvider<T> metadataProvider) {
-        ArrayList<T> result = new ArrayList<T>();
-        Map<Object, T> exports = collectExports(input, metadataProvider);
-        ArrayList<T> visitedItems = new ArrayList<T>();
+        Map<T, Set<T>> graph = dependencies(input, metadataProvider);
+        boolean allowCircularReferences = metadataProvider.allowCircularReferences();
 
-        for (T item : input) {
-            DependencySorter.visit(item, exports, result, visitedItems, metadataProvider);
+        ArrayList<T> result = new ArrayList<T>(graph.size());
+        Set<T> sorted = new HashSet<T>();
+        // the items on the current depth-first path, in order, to report cycles
+        LinkedHashSet<T> path = new LinkedHashSet<T>();
+        for (T item : graph.keySet()) {
+            visit(item, graph, result, sorted, path, allowCircularReferences);
         }
         LogDebug(input, result);
         return result;
     }
 
+    /**
+     * Determines the direct dependencies of each item: the other items that export something it imports.
+     *
+     * @return The dependencies of each item, in the order of the input.
+     */
+    public static <T> Map<T, Set<T>> dependencies(Collection<T> input, DependencyMetadataProvider<T> metadataProvider) {
+        Map<Object, T> exports = collectExports(input, metadataProvider);
+        Map<T, Set<T>> result = new LinkedHashMap<T, Set<T>>();
+        for (T item : input) {
+            Set<T> dependencies = new LinkedHashSet<T>();
+            for (Object importz : metadataProvider.imports(item)) {
+                T exportingItem = exports.get(importz);
+                if (exportingItem != null && exportingItem != item) {
+                    dependencies.add(exportingItem);
+                }
+            }
+            result.put(item, dependencies);
+        }
+        return result;
+    }
+
     private static <T> void LogDebug(Collection<T> input, ArrayList<T> result) {
         if (logger.isDebugEnabled()) {
             Iterator<T> it = (input == null) ? null : input.iterator();
@@ -49,29 +85,44 @@ public class DependencySorter {
 
     private static <T> void visit(
             T item,
-            Map<Object, T> exports,
+            Map<T, Set<T>> graph,
             ArrayList<T> output,
-            ArrayList<T> visited,
-            DependencyMetadataProvider<T> metadataProvider) {
-        visited.add(item);
-        Collection<Object> imports = metadataProvider.imports(item);
-        for (Object importz : imports) {
-            T exportingItem = exports.get(importz);
-            if (exportingItem != null && exportingItem != item && !output.contains(exportingItem)) {
-                logger.debug("visit {} from {} for import {}", exportingItem, item, importz);
-                if (!visited.contains(exportingItem)) {
-                    visit(exportingItem, exports, output, visited, metadataProvider);
-                } else if (!metadataProvider.allowCircularReferences()) {
-                    String message = String.format("Circular dependency detected between %s and %s for import %s", item, exportingItem, importz);
-                    throw new IllegalArgumentException(message);
-
+            Set<T> sorted,
+            LinkedHashSet<T> path,
+            boolean allowCircularReferences) {
+        if (sorted.contains(item)) {
+            return;
+        }
+        path.add(item);
+        for (T dependency : graph.get(item)) {
+            if (path.contains(dependency)) {
+                String cycle = describeCycle(path, dependency);
+                if (!allowCircularReferences) {
+                    throw new IllegalArgumentException("Circular dependency detected: " + cycle);
                 }
+                logger.debug("Ignoring circular dependency: {}", cycle);
+            } else {
+                visit(dependency, graph, output, sorted, path, allowCircularReferences);
             }
         }
+        path.remove(item);
+        sorted.add(item);
+        output.add(item);
+    }
 
-        if (!output.contains(item)) {
-            output.add(item);
+    /**
+     * @return The cycle from the first occurrence of the given item on the path, e.g. "a -> b -> c -> a".
+     */
+    private static <T> String describeCycle(LinkedHashSet<T> path, T item) {
+        StringBuilder cycle = new StringBuilder();
+        boolean inCycle = false;
+        for (T pathItem : path) {
+            inCycle |= pathItem.equals(item);
+            if (inCycle) {
+                cycle.append(pathItem).append(" -> ");
+            }
         }
+        return cycle.append(item).toString();
     }
 
     private static <T> Map<Object, T> collectExports(Collection<T> items, DependencyMetadataProvider<T> metadataProvider) {
@@ -15,14 +15,20 @@ import org.springframework.web.context.ServletContextAware;
 import org.springframework.web.context.support.ServletContextResourcePatternResolver;
 
 import javax.servlet.ServletContext;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 import static com.github.dynamicextensionsalfresco.osgi.ManifestUtils.getImplementationVersion;
@@ -42,6 +48,10 @@ public class JavaPackageScanner implements ServletContextAware {
 
 	private static final Collection<String> frameworkPackages = asList(OSGI_PACKAGE, FELIX_PACKAGE);
 
+	private static final String INDEX_LIST = "META-INF/INDEX.LIST";
+
+	private static final String VERSIONS_DIRECTORY = "META-INF/versions/";
+
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
 	/* Dependencies */
@@ -52,6 +62,12 @@ public class JavaPackageScanner implements ServletContextAware {
 
 	private DescriptorService descriptorService;
 
+	/* Configuration */
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private PackageScanMode packageScanMode = PackageScanMode.ENTRIES;
+
 	/* Main operations */
 
 	/**
@@ -64,6 +80,19 @@ public class JavaPackageScanner implements ServletContextAware {
 	 * Note: calling this for a second time during Framework restart will currently fail.
 	 */
 	public Set<SystemPackage> scanWebApplicationPackages() {
+		return scanWebApplicationPackages(null);
+	}
+
+	/**
+	 * Obtains the Java packages by scanning JARs in /WEB-INF/lib, only scanning the JARs that are not in the given
+	 * {@link SystemPackageCache} or that changed since they were cached.
+	 * <p>
+	 * The cache is updated with the scanned JARs and entries of JARs that were removed are dropped.
+	 * 
+	 * @param cache
+	 *            The cache, or null to scan all JARs.
+	 */
+	public Set<SystemPackage> scanWebApplicationPackages(final SystemPackageCache cache) {
 		if (resourcePatternResolver == null) {
 			if (logger.isWarnEnabled()) {
 				logger.warn("ResourcePatternResolver was not configured. This is normal during a unit test.");
@@ -76,23 +105,31 @@ public class JavaPackageScanner implements ServletContextAware {
 		final long before = System.currentTimeMillis();
 		final Set<SystemPackage> systemPackages = new LinkedHashSet<SystemPackage>(4500, 0.1f);
 		try {
+			final List<Resource> jarResources = new ArrayList<Resource>(
+					asList(resourcePatternResolver.getResources("/WEB-INF/lib/*.jar")));
+			// Sort by filename so the first JAR that provides a package is the same on every startup.
+			Collections.sort(jarResources, new Comparator<Resource>() {
+				@Override
+				public int compare(final Resource a, final Resource b) {
+					return a.getFilename().compareTo(b.getFilename());
+				}
+			});
 
-			for (final Resource jarResource : resourcePatternResolver.getResources("/WEB-INF/lib/*.jar")) {
-				final String jarPath = servletContext.getRealPath(String.format("/WEB-INF/lib/%s",
-						jarResource.getFilename()));
-				final JarFile jarFile = new JarFile(jarPath);
-				final Set<SystemPackage> exportPackages = scanBundleExportPackages(jarFile);
-				if (exportPackages != null) {
-					systemPackages.addAll(exportPackages);
-				} else {
-					final Set<SystemPackage> javaPackages = scanJavaPackages(jarFile);
-					systemPackages.addAll(javaPackages);
+			for (final Set<SystemPackage> jarPackages : scanJars(jarResources, cache)) {
+				systemPackages.addAll(jarPackages);
+			}
+			if (cache != null) {
+				final List<String> jarNames = new ArrayList<String>(jarResources.size());
+				for (final Resource jarResource : jarResources) {
+					jarNames.add(jarResource.getFilename());
 				}
+				cache.retainAll(jarNames);
 			}
 
 			final long after = System.currentTimeMillis();
 			if (logger.isInfoEnabled()) {
-				logger.info("Found {} Java packages. Time taken: {}ms.", systemPackages.size(), (after - before));
+				logger.info("Found {} Java packages in {} JARs. Time taken: {}ms.", systemPackages.size(),
+						jarResources.size(), (after - before));
 			}
 
 		} catch (final IOException e) {
@@ -104,6 +141,94 @@ public class JavaPackageScanner implements ServletContextAware {
 		return systemPackages;
 	}
 
+	/**
+	 * Scans the given JARs concurrently on a {@link ForkJoinPool} that is bounded by the configured parallelism.
+	 * 
+	 * @param jarResources
+	 * @param cache
+	 *            The cache, or null to scan all JARs.
+	 * @return The packages of each JAR, in the order of the given JARs.
+	 */
+	protected List<Set<SystemPackage>> scanJars(final List<Resource> jarResources, final SystemPackageCache cache) {
+		final int poolSize = Math.max(1, Math.min(parallelism, jarResources.size()));
+		final List<Callable<Set<SystemPackage>>> tasks = new ArrayList<Callable<Set<SystemPackage>>>(
+				jarResources.size());
+		for (final Resource jarResource : jarResources) {
+			tasks.add(new Callable<Set<SystemPackage>>() {
+				@Override
+				public Set<SystemPackage> call() {
+					return scanJar(jarResource, cache);
+				}
+			});
+		}
+
+		final ForkJoinPool pool = new ForkJoinPool(poolSize);
+		try {
+			final List<Set<SystemPackage>> results = new ArrayList<Set<SystemPackage>>(tasks.size());
+			for (final Future<Set<SystemPackage>> future : pool.invokeAll(tasks)) {
+				try {
+					results.add(future.get());
+				} catch (final ExecutionException e) {
+					throw new IllegalStateException("Error scanning JAR for Java packages.", e.getCause());
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while scanning JARs for Java packages.", e);
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Scans a single JAR, preferring its 'Export-Package' header over content scanning. The {@link JarFile} is closed
+	 * before this method returns.
+	 * 
+	 * @param jarResource
+	 * @param cache
+	 *            The cache, or null to always scan the JAR.
+	 * @return The packages in the JAR or an empty set if the JAR cannot be read.
+	 */
+	protected Set<SystemPackage> scanJar(final Resource jarResource, final SystemPackageCache cache) {
+		final String jarName = jarResource.getFilename();
+		final String jarPath = servletContext.getRealPath(String.format("/WEB-INF/lib/%s", jarName));
+		final File file = new File(jarPath);
+		final long size = file.length();
+		final long lastModified = file.lastModified();
+		if (cache != null) {
+			final Set<SystemPackage> cachedPackages = cache.get(jarName, size, lastModified);
+			if (cachedPackages != null) {
+				return cachedPackages;
+			}
+		}
+		try {
+			final Set<SystemPackage> packages;
+			final JarFile jarFile = new JarFile(file);
+			try {
+				final Set<SystemPackage> exportPackages = scanBundleExportPackages(jarFile);
+				if (exportPackages != null) {
+					packages = exportPackages;
+				} else if (packageScanMode == PackageScanMode.INDEX) {
+					packages = scanIndexedJavaPackages(jarFile);
+				} else {
+					packages = scanJavaPackages(jarFile);
+				}
+			} finally {
+				jarFile.close();
+			}
+			if (cache != null) {
+				cache.put(jarName, size, lastModified, packages);
+			}
+			return packages;
+		} catch (final IOException e) {
+			if (logger.isWarnEnabled()) {
+				logger.warn(String.format("Error scanning JAR %s for Java packages, skipping.", jarPath), e);
+			}
+			return Collections.emptySet();
+		}
+	}
+
 	protected boolean isFrameworkPackage(final String packageName) {
 		for (final String frameworkPackage : frameworkPackages) {
 			if (packageName.startsWith(frameworkPackage)) {
@@ -183,17 +308,154 @@ public class JavaPackageScanner implements ServletContextAware {
 			if (foundPackages.contains(packageName)) {
 				continue;
 			}
-			if (isAlfrescoPackage(packageName)) {
-				final String alfrescoVersion = descriptorService.getServerDescriptor().getVersionNumber().toString();
-				systemPackages.add(new SystemPackage(packageName, alfrescoVersion));
-			} else {
-				systemPackages.add(new SystemPackage(packageName, implementationVersion));
-			}
+			systemPackages.add(createSystemPackage(packageName, implementationVersion));
 			foundPackages.add(packageName);
 		}
 		return systemPackages;
 	}
 
+	/**
+	 * Scans the given {@link JarFile} for Java packages using only index information, as described by
+	 * {@link PackageScanMode#INDEX}. Versions are determined as in {@link #scanJavaPackages(JarFile)}.
+	 * 
+	 * @param jarFile
+	 * @return
+	 * @throws IOException
+	 */
+	protected Set<SystemPackage> scanIndexedJavaPackages(final JarFile jarFile) throws IOException {
+		final String implementationVersion = getImplementationVersion(jarFile);
+		final Set<String> directories = readClassDirectories(jarFile);
+		final Set<String> indexedDirectories = readIndexListDirectories(jarFile);
+		if (indexedDirectories != null) {
+			// The index also lists resource directories, so it only narrows down the directories that contain classes.
+			directories.retainAll(indexedDirectories);
+		}
+		final Set<SystemPackage> systemPackages = new LinkedHashSet<SystemPackage>(directories.size());
+		for (final String directory : directories) {
+			final String packageName = directory.replace('/', '.');
+			if (isFrameworkPackage(packageName)) {
+				continue;
+			}
+			systemPackages.add(createSystemPackage(packageName, implementationVersion));
+		}
+		return systemPackages;
+	}
+
+	/**
+	 * Reads the directories that contain classes from the central directory of the given {@link JarFile}. Entries of
+	 * the same directory are usually adjacent, so a directory name is only created when it differs from the previous
+	 * one.
+	 * 
+	 * @param jarFile
+	 * @return
+	 */
+	protected Set<String> readClassDirectories(final JarFile jarFile) {
+		final Set<String> directories = new LinkedHashSet<String>(30);
+		String previousDirectory = "";
+		for (final Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements();) {
+			final String name = entries.nextElement().getName();
+			if (!name.endsWith(".class")) {
+				continue;
+			}
+			int start = 0;
+			if (name.startsWith("META-INF/")) {
+				if (!name.startsWith(VERSIONS_DIRECTORY)) {
+					continue;
+				}
+				start = name.indexOf('/', VERSIONS_DIRECTORY.length()) + 1;
+			}
+			final int end = name.lastIndexOf('/');
+			if (end <= start) {
+				continue;
+			}
+			final int length = end - start;
+			if (length == previousDirectory.length() && name.regionMatches(start, previousDirectory, 0, length)) {
+				continue;
+			}
+			previousDirectory = name.substring(start, end);
+			directories.add(previousDirectory);
+		}
+		return directories;
+	}
+
+	/**
+	 * Reads the directories listed for the given {@link JarFile} in its 'META-INF/INDEX.LIST'.
+	 * 
+	 * @param jarFile
+	 * @return The directories or null if the JAR has no index or the index does not list the JAR itself.
+	 * @throws IOException
+	 */
+	protected Set<String> readIndexListDirectories(final JarFile jarFile) throws IOException {
+		final ZipEntry indexEntry = jarFile.getEntry(INDEX_LIST);
+		if (indexEntry == null) {
+			return null;
+		}
+		final String jarName = new File(jarFile.getName()).getName();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(jarFile.getInputStream(indexEntry),
+				"UTF-8"));
+		try {
+			// The index starts with a header section, followed by a section per JAR: the JAR name and its directories.
+			String line = reader.readLine();
+			while (line != null && !line.trim().isEmpty()) {
+				line = reader.readLine();
+			}
+			Set<String> directories = null;
+			boolean sectionStart = true;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty()) {
+					if (directories != null) {
+						break;
+					}
+					sectionStart = true;
+				} else if (sectionStart) {
+					sectionStart = false;
+					if (line.equals(jarName)) {
+						directories = new LinkedHashSet<String>(30);
+					}
+				} else if (directories != null && isPackageDirectory(line)) {
+					directories.add(line);
+				}
+			}
+			return directories;
+		} finally {
+			reader.close();
+		}
+	}
+
+	/**
+	 * Tests if the given INDEX.LIST entry is a directory that can be a Java package. (As opposed to a file or a
+	 * META-INF directory.)
+	 */
+	protected boolean isPackageDirectory(final String entry) {
+		if (entry.startsWith("META-INF")) {
+			return false;
+		}
+		for (final String segment : entry.split("/")) {
+			if (segment.isEmpty() || !Character.isJavaIdentifierStart(segment.charAt(0))) {
+				return false;
+			}
+			for (int i = 1; i < segment.length(); i++) {
+				if (!Character.isJavaIdentifierPart(segment.charAt(i))) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Creates the {@link SystemPackage} for a package found by scanning, using the {@link DescriptorService} to
+	 * determine the version of 'org.alfresco' packages.
+	 */
+	protected SystemPackage createSystemPackage(final String packageName, final String implementationVersion) {
+		if (isAlfrescoPackage(packageName)) {
+			final String alfrescoVersion = descriptorService.getServerDescriptor().getVersionNumber().toString();
+			return new SystemPackage(packageName, alfrescoVersion);
+		}
+		return new SystemPackage(packageName, implementationVersion);
+	}
+
 	/**
 	 * Tests if the given {@link ZipEntry} represents a Java class in a package. (I.e. one that is not in the default
 	 * package.)
@@ -210,28 +472,6 @@ public class JavaPackageScanner implements ServletContextAware {
 		return packageName.startsWith("org.alfresco");
 	}
 
-    /**
-	 * Check if the cache node exists and postdates the WEB-INF/lib directory
-	 * @param systemPackageCache file storing the package list
-	 * @return true if node exists and postdates the lib directory
-	 */
-	public boolean isCacheValid(File systemPackageCache) {
-		if (!systemPackageCache.isFile()) {
-			return false;
-		}
-		final Resource libDir = resourcePatternResolver.getResource("/WEB-INF/lib");
-		try {
-			final boolean stale = libDir.lastModified() > systemPackageCache.lastModified();
-			if (stale) {
-				logger.info("system package cache is older then WEB-INF/lib, rescan packages");
-			}
-			return !stale;
-		} catch (IOException e) {
-			logger.warn("unable to read WEB-INF/lib directory, keeping package cache");
-			return true;
-		}
-	}
-
 	/* Dependencies */
 
 	@Override
@@ -244,4 +484,22 @@ public class JavaPackageScanner implements ServletContextAware {
 		Assert.notNull(descriptorService);
 		this.descriptorService = descriptorService;
 	}
+
+	/* Configuration */
+
+	/**
+	 * Sets the maximum number of JARs that are scanned concurrently. Defaults to the number of available processors.
+	 */
+	public void setParallelism(final int parallelism) {
+		Assert.isTrue(parallelism > 0, "Parallelism must be positive.");
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Sets the strategy for JARs without an 'Export-Package' header. Defaults to {@link PackageScanMode#ENTRIES}.
+	 */
+	public void setPackageScanMode(final PackageScanMode packageScanMode) {
+		Assert.notNull(packageScanMode);
+		this.packageScanMode = packageScanMode;
+	}
 }
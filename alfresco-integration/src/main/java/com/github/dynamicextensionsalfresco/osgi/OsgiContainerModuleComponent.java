@@ -1,5 +1,8 @@
 package com.github.dynamicextensionsalfresco.osgi;
 
+import com.github.dynamicextensionsalfresco.metrics.DefaultStartupTimeline;
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
 import org.alfresco.repo.module.AbstractModuleComponent;
 import org.alfresco.repo.security.authentication.AuthenticationUtil;
 import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
@@ -50,6 +53,8 @@ public class OsgiContainerModuleComponent extends AbstractModuleComponent implem
 
 	private TransactionService transactionService;
 
+	private StartupTimeline startupTimeline = new DefaultStartupTimeline();
+
 	/* Main module operations */
 
 	/**
@@ -105,12 +110,17 @@ public class OsgiContainerModuleComponent extends AbstractModuleComponent implem
 	}
 
 	private void initializeOsgiContainerApplicationContext() {
-		childApplicationContext = new EventHandlingXmlWebApplicationContext();
-		childApplicationContext.setParent(getApplicationContext());
-		childApplicationContext.setServletContext(getApplicationContext().getServletContext());
-		childApplicationContext.setConfigLocation(StringUtils.arrayToDelimitedString(
-				getApplicationContextConfigLocations(), ","));
-		childApplicationContext.refresh();
+		final StartupSpan span = startupTimeline.start("OSGi container startup");
+		try {
+			childApplicationContext = new EventHandlingXmlWebApplicationContext();
+			childApplicationContext.setParent(getApplicationContext());
+			childApplicationContext.setServletContext(getApplicationContext().getServletContext());
+			childApplicationContext.setConfigLocation(StringUtils.arrayToDelimitedString(
+					getApplicationContextConfigLocations(), ","));
+			childApplicationContext.refresh();
+		} finally {
+			span.end();
+		}
 	}
 
 	protected void stopFramework() {
@@ -142,6 +152,11 @@ public class OsgiContainerModuleComponent extends AbstractModuleComponent implem
 		return transactionService;
 	}
 
+	public void setStartupTimeline(final StartupTimeline startupTimeline) {
+		Assert.notNull(startupTimeline);
+		this.startupTimeline = startupTimeline;
+	}
+
 	/* Configuration */
 
 	public void setApplicationContextConfigLocations(final String[] applicationContextConfigLocations) {
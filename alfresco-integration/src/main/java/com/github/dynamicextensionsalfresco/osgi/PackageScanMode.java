@@ -0,0 +1,19 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+/**
+ * Strategy for discovering the Java packages of JARs that do not have an OSGi 'Export-Package' header.
+ *
+ * @author Laurent Van der Linden
+ */
+public enum PackageScanMode {
+	/**
+	 * Derives the package of every class entry in the JAR.
+	 */
+	ENTRIES,
+	/**
+	 * Derives the packages from the directory part of the class entry names in the zip central directory, handling each
+	 * directory only once and mapping Multi-Release entries under 'META-INF/versions' to their base package. When the
+	 * JAR has a 'META-INF/INDEX.LIST', only the directories it lists are used. No class entries are inflated.
+	 */
+	INDEX
+}
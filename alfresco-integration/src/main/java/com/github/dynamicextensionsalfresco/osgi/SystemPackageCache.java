@@ -0,0 +1,212 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the {@link SystemPackage}s found in each JAR, keyed by the JAR's filename, size and modification time.
+ * <p>
+ * The {@link PackageScanMode} that found the packages is stored in the file header. A cache created with another mode
+ * is treated as empty, as the modes may find different packages for the same JAR.
+ * <p>
+ * A JAR is only rescanned when its fingerprint changes, so deploying a single JAR does not require scanning all others.
+ * The cache is stored in a compact binary format. An unreadable or outdated cache file is treated as empty.
+ * <p>
+ * This class is thread-safe, so JARs can be looked up and added while they are scanned concurrently.
+ *
+ * @author Laurent Van der Linden
+ */
+public class SystemPackageCache {
+
+	private static final int MAGIC = 0x44455350;
+
+	private static final int FORMAT_VERSION = 2;
+
+	private static final Logger logger = LoggerFactory.getLogger(SystemPackageCache.class);
+
+	/**
+	 * Reads the cache from the given file.
+	 *
+	 * @param file
+	 * @param packageScanMode
+	 *            The mode used to scan JARs that are not cached.
+	 * @return The cache, which is empty if the file does not exist, cannot be read or was created with another mode.
+	 */
+	public static SystemPackageCache read(final File file, final PackageScanMode packageScanMode) {
+		final SystemPackageCache cache = new SystemPackageCache(packageScanMode);
+		if (!file.isFile()) {
+			return cache;
+		}
+		try {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+					logger.info("System package cache {} has an unknown format, rescanning all JARs.", file);
+					return cache;
+				}
+				final String cachedScanMode = in.readUTF();
+				if (!cachedScanMode.equals(packageScanMode.name())) {
+					logger.info("System package cache {} was created with package scan mode {}, rescanning all JARs.",
+							file, cachedScanMode);
+					return cache;
+				}
+				final int jarCount = in.readInt();
+				for (int i = 0; i < jarCount; i++) {
+					final String jarName = in.readUTF();
+					final long size = in.readLong();
+					final long lastModified = in.readLong();
+					final int packageCount = in.readInt();
+					final Set<SystemPackage> packages = new LinkedHashSet<SystemPackage>(packageCount);
+					for (int j = 0; j < packageCount; j++) {
+						final String name = in.readUTF();
+						final String version = in.readBoolean() ? in.readUTF() : null;
+						packages.add(new SystemPackage(name, version));
+					}
+					cache.entries.put(jarName, new Entry(size, lastModified, packages));
+				}
+			} finally {
+				in.close();
+			}
+		} catch (final IOException e) {
+			logger.warn("Error reading system package cache {}, rescanning all JARs: {}", file, e.getMessage());
+			cache.entries.clear();
+		}
+		cache.modified = false;
+		return cache;
+	}
+
+	private final PackageScanMode packageScanMode;
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+	private volatile boolean modified;
+
+	public SystemPackageCache(final PackageScanMode packageScanMode) {
+		if (packageScanMode == null) {
+			throw new IllegalArgumentException("packageScanMode is null");
+		}
+		this.packageScanMode = packageScanMode;
+	}
+
+	/* Main operations */
+
+	/**
+	 * Obtains the cached packages of a JAR.
+	 *
+	 * @param jarName
+	 * @param size
+	 * @param lastModified
+	 * @return The packages or null if the JAR is not cached or its size or modification time changed.
+	 */
+	public Set<SystemPackage> get(final String jarName, final long size, final long lastModified) {
+		final Entry entry = entries.get(jarName);
+		if (entry == null || entry.size != size || entry.lastModified != lastModified) {
+			return null;
+		}
+		return entry.packages;
+	}
+
+	public void put(final String jarName, final long size, final long lastModified, final Set<SystemPackage> packages) {
+		entries.put(jarName, new Entry(size, lastModified, Collections.unmodifiableSet(packages)));
+		modified = true;
+	}
+
+	/**
+	 * Removes the entries of JARs that are no longer present.
+	 *
+	 * @param jarNames
+	 *            The names of the JARs that are present.
+	 */
+	public void retainAll(final Collection<String> jarNames) {
+		if (entries.keySet().retainAll(jarNames)) {
+			modified = true;
+		}
+	}
+
+	/**
+	 * Indicates whether entries were added or removed since the cache was read.
+	 */
+	public boolean isModified() {
+		return modified;
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Writes the cache to the given file. The file is replaced in a single step, so concurrent readers never see a
+	 * partially written cache.
+	 *
+	 * @param file
+	 * @throws IOException
+	 */
+	public void write(final File file) throws IOException {
+		final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+		final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(packageScanMode.name());
+			final Map<String, Entry> snapshot = new TreeMap<String, Entry>(entries);
+			out.writeInt(snapshot.size());
+			for (final Map.Entry<String, Entry> mapEntry : snapshot.entrySet()) {
+				final Entry entry = mapEntry.getValue();
+				out.writeUTF(mapEntry.getKey());
+				out.writeLong(entry.size);
+				out.writeLong(entry.lastModified);
+				out.writeInt(entry.packages.size());
+				for (final SystemPackage systemPackage : entry.packages) {
+					out.writeUTF(systemPackage.getName());
+					out.writeBoolean(systemPackage.getVersion() != null);
+					if (systemPackage.getVersion() != null) {
+						out.writeUTF(systemPackage.getVersion());
+					}
+				}
+			}
+		} finally {
+			out.close();
+		}
+		try {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		modified = false;
+	}
+
+	private static class Entry {
+
+		private final long size;
+
+		private final long lastModified;
+
+		private final Set<SystemPackage> packages;
+
+		private Entry(final long size, final long lastModified, final Set<SystemPackage> packages) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.packages = packages;
+		}
+	}
+}
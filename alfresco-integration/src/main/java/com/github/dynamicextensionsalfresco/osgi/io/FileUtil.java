@@ -1,19 +1,28 @@
 package com.github.dynamicextensionsalfresco.osgi.io;
 
 import aQute.bnd.osgi.Analyzer;
+import aQute.bnd.osgi.Constants;
 import com.github.dynamicextensionsalfresco.osgi.ManifestUtils;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.jar.Attributes;
 import java.util.jar.JarFile;
 import java.util.jar.Manifest;
 import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
 
 public class FileUtil {
 
+    static final String WRAP_IMPORT_PACKAGE = "*;resolution:=optional";
+
+    static final String WRAP_EXPORT_PACKAGE = "*";
+
     public static Attributes jarAttributes(File file) throws IOException {
 
         try (JarFile jarFile = new JarFile(file)) {
@@ -38,11 +47,57 @@ public class FileUtil {
         }
     }
 
-    public static File convertToBundle(File file, String fileName) {
+    /**
+     * Moves a file into place, atomically if the file system supports it, replacing an existing target.
+     */
+    public static void moveIntoPlace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // the source is on another file system
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static MessageDigest sha256() {
         try {
-            JarFile jar = new JarFile(file);
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
 
-            Analyzer analyzer = new Analyzer();
+    public static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Reads the manifest of a JAR through the central directory of the zip file, without reading any other entry.
+     *
+     * @return The manifest, or null if the JAR has none.
+     */
+    @Nullable
+    public static Manifest readManifest(File file) throws IOException {
+        try (JarFile jarFile = new JarFile(file, false)) {
+            return jarFile.getManifest();
+        }
+    }
+
+    /**
+     * @return Whether the JAR has a manifest with a <code>Bundle-SymbolicName</code> header.
+     */
+    public static boolean isBundle(File file) throws IOException {
+        Manifest manifest = readManifest(file);
+        return manifest != null && manifest.getMainAttributes().getValue(Constants.BUNDLE_SYMBOLICNAME) != null;
+    }
+
+    public static File convertToBundle(File file, String fileName) {
+        try (JarFile jar = new JarFile(file); Analyzer analyzer = new Analyzer()) {
             String manifestVersion = ManifestUtils.getImplementationVersion(jar);
 
             if (manifestVersion != null) {
@@ -56,14 +111,19 @@ public class FileUtil {
             analyzer.setBundleSymbolicName(name);
 
             analyzer.setJar(file);
-            analyzer.setImportPackage("*;resolution:=optional");
-            analyzer.setExportPackage("*");
+            analyzer.setImportPackage(WRAP_IMPORT_PACKAGE);
+            analyzer.setExportPackage(WRAP_EXPORT_PACKAGE);
 
             analyzer.analyze();
             Manifest manifest = analyzer.calcManifest();
             analyzer.getJar().setManifest(manifest);
             File wrappedTempFile = File.createTempFile("bundled", ".jar");
-            analyzer.save(wrappedTempFile, true);
+            try {
+                analyzer.save(wrappedTempFile, true);
+            } catch (Exception e) {
+                wrappedTempFile.delete();
+                throw e;
+            }
 
             return wrappedTempFile;
         } catch (Exception ex) {
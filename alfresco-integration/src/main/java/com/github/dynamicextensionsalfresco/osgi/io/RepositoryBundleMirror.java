@@ -0,0 +1,115 @@
+package com.github.dynamicextensionsalfresco.osgi.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local mirror of the bundles stored in the repository, so unchanged bundles are installed from local disk instead of
+ * being read from a (possibly remote) content store at every startup.
+ * <p>
+ * Bundles are stored as <code>&lt;key&gt;.jar</code>, where the key is the SHA-256 of the content URL. Content URLs
+ * are immutable in Alfresco: updating a bundle in the repository gives it a new content URL, and therefore a new
+ * mirror entry. An entry whose size does not match the size of the content is fetched again.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Laurent Van der Linden
+ */
+public class RepositoryBundleMirror {
+
+    /**
+     * Opens the content of a bundle in the repository.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+
+        InputStream open() throws IOException;
+
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryBundleMirror.class);
+
+    private static final String EXTENSION = ".jar";
+
+    private final File directory;
+
+    private final Set<String> usedKeys = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public RepositoryBundleMirror(@NotNull File directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory is null");
+        }
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the local copy of a bundle, reading its content from the repository only if it is not mirrored yet.
+     * <p>
+     * The returned file is owned by the mirror and must not be deleted by the caller.
+     *
+     * @param contentUrl The content URL of the bundle.
+     * @param size The size of the content, or a negative value if unknown.
+     * @param contentSource Opens the content, if it has to be mirrored.
+     */
+    public File getBundle(String contentUrl, long size, ContentSource contentSource) throws IOException {
+        final String key = computeKey(contentUrl);
+        usedKeys.add(key);
+        final File mirroredBundle = new File(directory, key + EXTENSION);
+        if (mirroredBundle.isFile() && (size < 0 || mirroredBundle.length() == size)) {
+            logger.debug("Installing {} from local mirror {}", contentUrl, mirroredBundle);
+            return mirroredBundle;
+        }
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create repository bundle mirror directory " + directory);
+        }
+        // copy to the mirror directory first, so the final move is atomic and a partial copy is never used
+        final File tempFile = File.createTempFile("mirror", ".tmp", directory);
+        try {
+            try (InputStream in = contentSource.open()) {
+                Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            FileUtil.moveIntoPlace(tempFile, mirroredBundle);
+        } finally {
+            if (tempFile.exists() && !tempFile.delete()) {
+                logger.debug("Could not delete temporary file {}", tempFile);
+            }
+        }
+        return mirroredBundle;
+    }
+
+    /**
+     * Deletes the entries that were not requested through {@link #getBundle(String, long, ContentSource)} since this
+     * mirror was created, so bundles that were updated or removed in the repository do not leave stale copies behind.
+     */
+    public void removeUnusedEntries() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String key = file.getName().substring(0, file.getName().length() - EXTENSION.length());
+            if (!usedKeys.contains(key) && !file.delete()) {
+                logger.debug("Could not delete unused mirrored bundle {}", file);
+            }
+        }
+    }
+
+    static String computeKey(String contentUrl) {
+        return FileUtil.toHex(FileUtil.sha256().digest(contentUrl.getBytes(StandardCharsets.UTF_8)));
+    }
+}
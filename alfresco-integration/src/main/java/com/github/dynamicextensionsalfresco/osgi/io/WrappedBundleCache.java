@@ -0,0 +1,121 @@
+package com.github.dynamicextensionsalfresco.osgi.io;
+
+import aQute.bnd.osgi.Analyzer;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of plain JARs that were wrapped as OSGi bundles by {@link FileUtil#convertToBundle(File, String)}.
+ * <p>
+ * Wrapped bundles are stored as <code>&lt;key&gt;.jar</code>, where the key is the SHA-256 of the source JAR's content
+ * combined with the filename and the bnd settings used for wrapping. Changing the JAR, its name, the wrapping settings
+ * or the bnd version therefore produces a new entry instead of reusing an outdated one.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Laurent Van der Linden
+ */
+public class WrappedBundleCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(WrappedBundleCache.class);
+
+    private static final String EXTENSION = ".jar";
+
+    private final File directory;
+
+    private final Set<String> usedKeys = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+    public WrappedBundleCache(@NotNull File directory) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory is null");
+        }
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the wrapped bundle for the given plain JAR, wrapping it only if the cache has no entry for it yet.
+     * <p>
+     * The returned file is owned by the cache and must not be deleted by the caller, unless {@link #contains(File)}
+     * returns false because the cache directory could not be created.
+     *
+     * @param jar The plain JAR.
+     * @param fileName The original filename of the JAR, used as fallback Bundle-SymbolicName.
+     */
+    public File getWrappedBundle(File jar, String fileName) throws IOException {
+        final String key = computeKey(jar, fileName);
+        usedKeys.add(key);
+        final File cachedBundle = new File(directory, key + EXTENSION);
+        if (cachedBundle.isFile()) {
+            logger.debug("Reusing wrapped bundle {} for {}", cachedBundle, fileName);
+            return cachedBundle;
+        }
+
+        final File wrappedBundle = FileUtil.convertToBundle(jar, fileName);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            logger.warn("Could not create wrapped bundle cache directory {}", directory);
+            return wrappedBundle;
+        }
+        try {
+            FileUtil.moveIntoPlace(wrappedBundle, cachedBundle);
+        } catch (IOException e) {
+            if (!wrappedBundle.delete()) {
+                logger.debug("Could not delete temporary file {}", wrappedBundle);
+            }
+            throw e;
+        }
+        return cachedBundle;
+    }
+
+    /**
+     * @return True if the file is an entry of this cache, as opposed to a temporary file.
+     */
+    public boolean contains(@NotNull File file) {
+        return directory.equals(file.getParentFile());
+    }
+
+    /**
+     * Deletes the entries that were not requested through {@link #getWrappedBundle(File, String)} since this cache
+     * was created, so JARs that were upgraded or removed do not leave stale entries behind.
+     */
+    public void removeUnusedEntries() {
+        final File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            final String key = file.getName().substring(0, file.getName().length() - EXTENSION.length());
+            if (!usedKeys.contains(key) && !file.delete()) {
+                logger.debug("Could not delete unused wrapped bundle {}", file);
+            }
+        }
+    }
+
+    static String computeKey(File jar, String fileName) throws IOException {
+        final MessageDigest digest = FileUtil.sha256();
+        try (InputStream in = new FileInputStream(jar)) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        final String settings = String.join("\n", String.valueOf(fileName), FileUtil.WRAP_IMPORT_PACKAGE,
+                FileUtil.WRAP_EXPORT_PACKAGE, String.valueOf(Analyzer.class.getPackage().getImplementationVersion()));
+        digest.update(settings.getBytes(StandardCharsets.UTF_8));
+        return FileUtil.toHex(digest.digest());
+    }
+}
@@ -1,30 +1,28 @@
 package com.github.dynamicextensionsalfresco.osgi.spring;
 
+import com.github.dynamicextensionsalfresco.metrics.DefaultStartupTimeline;
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
 import com.github.dynamicextensionsalfresco.osgi.Configuration;
 import com.github.dynamicextensionsalfresco.osgi.JavaPackageScanner;
 import com.github.dynamicextensionsalfresco.osgi.PackageCacheMode;
+import com.github.dynamicextensionsalfresco.osgi.PackageScanMode;
 import com.github.dynamicextensionsalfresco.osgi.SystemPackage;
+import com.github.dynamicextensionsalfresco.osgi.SystemPackageCache;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
-import java.io.PrintWriter;
-import java.util.Collections;
-import java.util.LinkedHashSet;
 import java.util.Set;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.util.Assert;
-import org.springframework.util.CollectionUtils;
 
 /**
  * Provides {@link SystemPackage}s by scanning the web application for Java packages.
+ * <p>
+ * When the {@link PackageCacheMode} allows it, the packages of each JAR are kept in a {@link SystemPackageCache}, so
+ * only new or changed JARs are scanned on the next startup.
  *
  * @author Laurens Fridael
  *
@@ -39,6 +37,8 @@ public class WebApplicationSystemPackageFactoryBean implements FactoryBean<Set<S
 
 	private Configuration configuration;
 
+	private StartupTimeline startupTimeline = new DefaultStartupTimeline();
+
 	/* Main operations */
 
 	@Override
@@ -55,7 +55,13 @@ public class WebApplicationSystemPackageFactoryBean implements FactoryBean<Set<S
 	@Override
 	public Set<SystemPackage> getObject() {
 		final long start = System.currentTimeMillis();
-		Set<SystemPackage> systemPackages = createSystemPackages();
+		final StartupSpan span = startupTimeline.start("Scan system packages");
+		Set<SystemPackage> systemPackages;
+		try {
+			systemPackages = createSystemPackages();
+		} finally {
+			span.end();
+		}
 		final long finish = System.currentTimeMillis();
 		if (finish - start > 1500L) {
 			logger.info("System Package scanning took '{}' milliseconds. Possible improvement: enable System Package "
@@ -69,77 +75,38 @@ public class WebApplicationSystemPackageFactoryBean implements FactoryBean<Set<S
 
 	protected Set<SystemPackage> createSystemPackages() {
 		final JavaPackageScanner packageScanner = javaPackageScanner.getObject();
-		final boolean validCache = packageScanner.isCacheValid(configuration.getSystemPackageCache());
-
-		Set<SystemPackage> packages;
-		if (validCache) {
-			packages = getCachedPackages();
-		} else {
-			packages = Collections.emptySet();
-		}
-		final boolean cacheDoesNotExist = CollectionUtils.isEmpty(packages);
-
+		final PackageScanMode packageScanMode = configuration.getSystemPackageScanMode();
+		packageScanner.setPackageScanMode(packageScanMode);
 		final PackageCacheMode packageCacheMode = configuration.getSystemPackageCacheMode();
-		if (!packageCacheMode.isReadFromCache() || cacheDoesNotExist || !validCache) {
-			packages = packageScanner.scanWebApplicationPackages();
-		}
-
-		if (packageCacheMode.isForceWriteToCache() || (cacheDoesNotExist && packageCacheMode.isWriteToCache())) {
-			writeCachedPackages(packages);
-		}
+		final File cacheFile = configuration.getSystemPackageCache();
 
 		if (!packageCacheMode.isWriteToCache()) {
-            final File cacheFile = configuration.getSystemPackageCache();
 			if (cacheFile.isFile()) {
 				cacheFile.delete();
 			}
+			return packageScanner.scanWebApplicationPackages();
 		}
 
-		return packages;
-	}
+		final SystemPackageCache cache;
+		if (packageCacheMode.isReadFromCache()) {
+			cache = SystemPackageCache.read(cacheFile, packageScanMode);
+		} else {
+			cache = new SystemPackageCache(packageScanMode);
+		}
+		final Set<SystemPackage> packages = packageScanner.scanWebApplicationPackages(cache);
 
-    private Set<SystemPackage> getCachedPackages() {
-        File packageCache = configuration.getSystemPackageCache();
-		if (packageCache.isFile()) {
-            try {
-                final LineNumberReader in = new LineNumberReader(new InputStreamReader(new FileInputStream(packageCache)));
-                try {
-                    final Set<SystemPackage> systemPackages = new LinkedHashSet<SystemPackage>(4500, 0.1f);
-                    for (String line; (line = in.readLine()) != null;) {
-                        line = line.trim();
-                        if (!line.isEmpty()) {
-                            systemPackages.add(SystemPackage.fromString(line));
-                        }
-                    }
-                    return systemPackages;
-                } catch (final IOException e) {
-                    if (logger.isWarnEnabled()) {
-                        logger.warn("Error reading cached system package configuration from repository: {}.",
-                                e.getMessage());
-                    }
-                } finally {
-                    IOUtils.closeQuietly(in);
-                }
-            } catch (IOException e) {
-                logger.warn("Failed to open Java packages cache reader", e);
-            }
-        }
-		return null;
+		if (packageCacheMode.isForceWriteToCache() || cache.isModified() || !cacheFile.isFile()) {
+			writeCachedPackages(cache, cacheFile);
+		}
+		return packages;
 	}
 
-	private void writeCachedPackages(final Set<SystemPackage> packages) {
-		final File packageCache = configuration.getSystemPackageCache();
-        PrintWriter writer = null;
-        try {
-            writer = new PrintWriter(new FileOutputStream(packageCache));
-            for (final SystemPackage systemPackage : packages) {
-                writer.println(systemPackage.toString());
-            }
-            logger.debug("Wrote system package list to {}.", packageCache.getAbsolutePath());
-		} catch (FileNotFoundException e) {
-            logger.warn("Failed t");
-        } finally {
-			IOUtils.closeQuietly(writer);
+	private void writeCachedPackages(final SystemPackageCache cache, final File cacheFile) {
+		try {
+			cache.write(cacheFile);
+			logger.debug("Wrote system packages of {} JARs to {}.", cache.size(), cacheFile.getAbsolutePath());
+		} catch (final IOException e) {
+			logger.warn("Failed to write system package cache to {}: {}", cacheFile.getAbsolutePath(), e.getMessage());
 		}
 	}
 
@@ -150,6 +117,11 @@ public class WebApplicationSystemPackageFactoryBean implements FactoryBean<Set<S
 		this.javaPackageScanner = javaPackageScanner;
 	}
 
+	public void setStartupTimeline(final StartupTimeline startupTimeline) {
+		Assert.notNull(startupTimeline);
+		this.startupTimeline = startupTimeline;
+	}
+
 	/* Configuration */
 
 	public void setConfiguration(Configuration configuration) {
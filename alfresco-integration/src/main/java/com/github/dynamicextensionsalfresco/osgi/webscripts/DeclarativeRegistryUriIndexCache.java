@@ -0,0 +1,136 @@
+package com.github.dynamicextensionsalfresco.osgi.webscripts;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.github.dynamicextensionsalfresco.webscripts.UriIndexCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.extensions.webscripts.Container;
+import org.springframework.extensions.webscripts.DeclarativeRegistry;
+import org.springframework.extensions.webscripts.Registry;
+import org.springframework.util.Assert;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link UriIndexCache} for the lookup cache of the {@link DeclarativeRegistry}.
+ * <p>
+ * The {@link DeclarativeRegistry} caches the outcome of every lookup, including misses, which can hide new Web Script
+ * deployments. There is no public API for invalidating this cache, so this implementation accesses it through
+ * reflection. Only the entries for request URIs that contain the literal part of an affected URI template are
+ * removed. The whole cache is cleared when a URI template has no usable literal part.
+ *
+ * @author Laurent Van der Linden
+ */
+public class DeclarativeRegistryUriIndexCache implements UriIndexCache, BeanFactoryAware {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/* Dependencies */
+
+	private BeanFactory beanFactory;
+
+	/* Configuration */
+
+	private String webScriptsContainerBeanName = "webscripts.container";
+
+	/* Main operations */
+
+	@Override
+	public void invalidate(final Collection<String> uriTemplates) {
+		final Map<?, ?> cache = getCache();
+		if (cache == null || cache.isEmpty()) {
+			return;
+		}
+		final List<String> prefixes = new ArrayList<String>(uriTemplates.size());
+		for (final String uriTemplate : uriTemplates) {
+			final String prefix = getLiteralPrefix(uriTemplate);
+			if (prefix.length() <= 1) {
+				synchronized (cache) {
+					cache.clear();
+				}
+				return;
+			}
+			prefixes.add(prefix);
+		}
+		int invalidated = 0;
+		synchronized (cache) {
+			for (final Iterator<?> it = cache.keySet().iterator(); it.hasNext();) {
+				final String key = String.valueOf(it.next());
+				for (final String prefix : prefixes) {
+					if (key.contains(prefix)) {
+						it.remove();
+						invalidated++;
+						break;
+					}
+				}
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Invalidated {} cached Web Script lookups for URI templates {}.", invalidated, uriTemplates);
+		}
+	}
+
+	/* Utility operations */
+
+	/**
+	 * Obtains the literal part of a URI template, up to the first variable or query string.
+	 */
+	static String getLiteralPrefix(final String uriTemplate) {
+		String prefix = uriTemplate;
+		final int variable = prefix.indexOf('{');
+		if (variable >= 0) {
+			prefix = prefix.substring(0, variable);
+		}
+		final int query = prefix.indexOf('?');
+		if (query >= 0) {
+			prefix = prefix.substring(0, query);
+		}
+		return prefix;
+	}
+
+	/**
+	 * Looks up the cache lazily, as the Web Scripts {@link Container} is not available yet when the
+	 * {@link com.github.dynamicextensionsalfresco.webscripts.WebScriptUriRegistry} is created.
+	 */
+	private Map<?, ?> getCache() {
+		if (beanFactory == null || !beanFactory.containsBean(webScriptsContainerBeanName)) {
+			return null;
+		}
+		final Container container = beanFactory.getBean(webScriptsContainerBeanName, Container.class);
+		final Registry registry = container.getRegistry();
+		if (!(registry instanceof DeclarativeRegistry)) {
+			return null;
+		}
+		final Field cacheField = ReflectionUtils.findField(DeclarativeRegistry.class, "uriIndexCache");
+		if (cacheField == null) {
+			logger.warn("Cannot find the uriIndexCache of the DeclarativeRegistry.");
+			return null;
+		}
+		ReflectionUtils.makeAccessible(cacheField);
+		return (Map<?, ?>) ReflectionUtils.getField(cacheField, registry);
+	}
+
+	/* Dependencies */
+
+	@Override
+	public void setBeanFactory(final BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	/* Configuration */
+
+	public void setWebScriptsContainerBeanName(final String webScriptsContainerBeanName) {
+		Assert.hasText(webScriptsContainerBeanName);
+		this.webScriptsContainerBeanName = webScriptsContainerBeanName;
+	}
+
+}
@@ -0,0 +1,252 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.transaction.RetryingTransactionHelper;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.osgi.framework.launch.Framework;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Laurent Van der Linden
+ */
+public class DefaultFrameworkManagerTest {
+    private final DefaultFrameworkManager frameworkManager = new DefaultFrameworkManager(null,
+            Collections.<BundleContextRegistrar>emptyList(), null, null, new Configuration(), null, null, null);
+
+    private final List<String> startOrder = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void testIndependentBundlesStartConcurrently() throws Exception {
+        final CountDownLatch independentStarted = new CountDownLatch(1);
+        final CountDownLatch apiStarted = new CountDownLatch(1);
+        final Bundle api = bundle("api", new Runnable() {
+            @Override
+            public void run() {
+                // only completes when the independent bundle starts at the same time
+                await(independentStarted);
+                apiStarted.countDown();
+            }
+        });
+        final Bundle independent = bundle("independent", new Runnable() {
+            @Override
+            public void run() {
+                independentStarted.countDown();
+            }
+        });
+        final Bundle extension = bundle("extension", new Runnable() {
+            @Override
+            public void run() {
+                assertEquals(0, apiStarted.getCount());
+            }
+        });
+
+        final Map<Bundle, Set<Bundle>> dependencies = new LinkedHashMap<Bundle, Set<Bundle>>();
+        dependencies.put(api, Collections.<Bundle>emptySet());
+        dependencies.put(independent, Collections.<Bundle>emptySet());
+        dependencies.put(extension, Collections.singleton(api));
+
+        frameworkManager.startBundlesConcurrently(Arrays.asList(api, independent, extension), dependencies, 2);
+
+        assertEquals(new HashSet<String>(Arrays.asList("api", "independent", "extension")),
+                new HashSet<String>(startOrder));
+        assertTrue(startOrder.indexOf("extension") > startOrder.indexOf("api"));
+    }
+
+    @Test
+    public void testDependentBundleWaitsForChainOfDependencies() throws Exception {
+        final Bundle first = bundle("first", null);
+        final Bundle second = bundle("second", null);
+        final Bundle third = bundle("third", null);
+
+        final Map<Bundle, Set<Bundle>> dependencies = new LinkedHashMap<Bundle, Set<Bundle>>();
+        dependencies.put(first, Collections.singleton(third));
+        dependencies.put(second, Collections.singleton(first));
+        dependencies.put(third, Collections.singleton(second));
+
+        frameworkManager.startBundlesConcurrently(Arrays.asList(first, second, third), dependencies, 4);
+
+        // the dependency of 'first' on 'third' closes a cycle and is ignored, like in the sorted start order
+        assertEquals(Arrays.asList("first", "second", "third"), startOrder);
+    }
+
+    @Test
+    public void testBundlesStartAsCallingUserInTransaction() throws Exception {
+        final RetryingTransactionHelper transactionHelper = mock(RetryingTransactionHelper.class);
+        final List<Boolean> inTransaction = Collections.synchronizedList(new ArrayList<Boolean>());
+        final ThreadLocal<Boolean> transaction = new ThreadLocal<Boolean>();
+        when(transactionHelper.doInTransaction(any(RetryingTransactionCallback.class), anyBoolean(), anyBoolean()))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        transaction.set(true);
+                        try {
+                            return ((RetryingTransactionCallback<?>) invocation.getArguments()[0]).execute();
+                        } finally {
+                            transaction.remove();
+                        }
+                    }
+                });
+        final TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getRetryingTransactionHelper()).thenReturn(transactionHelper);
+        frameworkManager.setTransactionService(transactionService);
+
+        final List<String> users = Collections.synchronizedList(new ArrayList<String>());
+        final Runnable onStart = new Runnable() {
+            @Override
+            public void run() {
+                users.add(AuthenticationUtil.getRunAsUser());
+                inTransaction.add(Boolean.TRUE.equals(transaction.get()));
+            }
+        };
+        final Bundle first = bundle("first", onStart);
+        final Bundle second = bundle("second", onStart);
+
+        final Map<Bundle, Set<Bundle>> dependencies = new LinkedHashMap<Bundle, Set<Bundle>>();
+        dependencies.put(first, Collections.<Bundle>emptySet());
+        dependencies.put(second, Collections.<Bundle>emptySet());
+
+        AuthenticationUtil.setRunAsUserSystem();
+        try {
+            frameworkManager.startBundlesConcurrently(Arrays.asList(first, second), dependencies, 2);
+        } finally {
+            AuthenticationUtil.clearCurrentSecurityContext();
+        }
+
+        assertEquals(Arrays.asList(AuthenticationUtil.getSystemUserName(), AuthenticationUtil.getSystemUserName()),
+                users);
+        assertEquals(Arrays.asList(true, true), inTransaction);
+    }
+
+    @Test
+    public void testFailedTransactionDoesNotKeepDependentsFromStarting() throws Exception {
+        final ThreadLocal<Boolean> failCommit = new ThreadLocal<Boolean>();
+        final RetryingTransactionHelper transactionHelper = mock(RetryingTransactionHelper.class);
+        when(transactionHelper.doInTransaction(any(RetryingTransactionCallback.class), anyBoolean(), anyBoolean()))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        try {
+                            ((RetryingTransactionCallback<?>) invocation.getArguments()[0]).execute();
+                            if (Boolean.TRUE.equals(failCommit.get())) {
+                                throw new IllegalStateException("Commit failed");
+                            }
+                            return null;
+                        } finally {
+                            failCommit.remove();
+                        }
+                    }
+                });
+        final TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getRetryingTransactionHelper()).thenReturn(transactionHelper);
+        frameworkManager.setTransactionService(transactionService);
+
+        final Bundle api = bundle("api", new Runnable() {
+            @Override
+            public void run() {
+                failCommit.set(true);
+            }
+        });
+        final Bundle extension = bundle("extension", null);
+        final Bundle independent = bundle("independent", null);
+
+        final Map<Bundle, Set<Bundle>> dependencies = new LinkedHashMap<Bundle, Set<Bundle>>();
+        dependencies.put(api, Collections.<Bundle>emptySet());
+        dependencies.put(extension, Collections.singleton(api));
+        dependencies.put(independent, Collections.<Bundle>emptySet());
+
+        frameworkManager.startBundlesConcurrently(Arrays.asList(api, extension, independent), dependencies, 2);
+
+        assertEquals(new HashSet<String>(Arrays.asList("api", "extension", "independent")),
+                new HashSet<String>(startOrder));
+        assertTrue(startOrder.indexOf("api") < startOrder.indexOf("extension"));
+    }
+
+    @Test
+    public void testUninstalledBundlesAreEvictedFromDependencyCache() throws Exception {
+        final Framework framework = mock(Framework.class);
+        final BundleContext bundleContext = mock(BundleContext.class);
+        when(framework.getBundleContext()).thenReturn(bundleContext);
+        final DefaultFrameworkManager manager = new DefaultFrameworkManager(framework,
+                Collections.<BundleContextRegistrar>emptyList(), null, null, new Configuration(), null, null, null);
+        manager.startFramework();
+        final ArgumentCaptor<BundleListener> listener = ArgumentCaptor.forClass(BundleListener.class);
+        verify(bundleContext).addBundleListener(listener.capture());
+
+        final Bundle api = bundleWithHeader(101L, "Export-Package", "org.example.api");
+        final Bundle extension = bundleWithHeader(102L, "Import-Package", "org.example.api");
+        BundleDependencies.sortByDependencies(Arrays.asList(extension, api));
+        assertTrue(BundleDependencies.isCached(101L));
+        assertTrue(BundleDependencies.isCached(102L));
+
+        listener.getValue().bundleChanged(new BundleEvent(BundleEvent.UNINSTALLED, extension));
+        assertTrue(BundleDependencies.isCached(101L));
+        assertFalse(BundleDependencies.isCached(102L));
+
+        manager.stopFramework();
+        assertFalse(BundleDependencies.isCached(101L));
+    }
+
+    private Bundle bundleWithHeader(final long id, final String header, final String value) {
+        final Bundle bundle = mock(Bundle.class);
+        final Hashtable<String, String> headers = new Hashtable<String, String>();
+        headers.put(header, value);
+        when(bundle.getBundleId()).thenReturn(id);
+        when(bundle.getHeaders()).thenReturn(headers);
+        return bundle;
+    }
+
+    private Bundle bundle(final String name, final Runnable onStart) throws Exception {
+        final Bundle bundle = mock(Bundle.class);
+        when(bundle.getSymbolicName()).thenReturn(name);
+        when(bundle.getHeaders()).thenReturn(new Hashtable<String, String>());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                if (onStart != null) {
+                    onStart.run();
+                }
+                startOrder.add(name);
+                return null;
+            }
+        }).when(bundle).start();
+        return bundle;
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out");
+            }
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class DependencySorterTest {
+
+    @Test
+    public void itemsComeAfterTheItemsTheyImportFrom() {
+        Provider provider = new Provider(false)
+                .item("web", "web", "service", "api")
+                .item("service", "service", "api")
+                .item("api", "api");
+
+        Collection<String> sorted = DependencySorter.sort(Arrays.asList("web", "service", "api"), provider);
+
+        assertEquals(Arrays.asList("api", "service", "web"), new ArrayList<>(sorted));
+    }
+
+    @Test
+    public void cycleIsReportedWithItsPath() {
+        Provider provider = new Provider(false)
+                .item("a", "a", "b")
+                .item("b", "b", "c")
+                .item("c", "c", "b")
+                .item("d", "d");
+
+        try {
+            DependencySorter.sort(Arrays.asList("a", "b", "c", "d"), provider);
+            fail("Expected a circular dependency");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Circular dependency detected: b -> c -> b", e.getMessage());
+        }
+    }
+
+    @Test
+    public void allowedCycleIsIgnored() {
+        Provider provider = new Provider(true)
+                .item("slf4j-api", "slf4j-api", "slf4j-impl")
+                .item("slf4j-impl", "slf4j-impl", "slf4j-api");
+
+        Collection<String> sorted = DependencySorter.sort(Arrays.asList("slf4j-api", "slf4j-impl"), provider);
+
+        assertEquals(Arrays.asList("slf4j-impl", "slf4j-api"), new ArrayList<>(sorted));
+    }
+
+    /**
+     * Each item exports its first package and imports the others.
+     */
+    private static class Provider implements DependencyMetadataProvider<String> {
+
+        private final boolean allowCircularReferences;
+        private final Map<String, List<Object>> packages = new HashMap<>();
+
+        Provider(boolean allowCircularReferences) {
+            this.allowCircularReferences = allowCircularReferences;
+        }
+
+        Provider item(String item, String... itemPackages) {
+            packages.put(item, Arrays.<Object>asList(itemPackages));
+            return this;
+        }
+
+        @Override
+        public boolean allowCircularReferences() {
+            return allowCircularReferences;
+        }
+
+        @Override
+        public Collection<Object> imports(String item) {
+            List<Object> itemPackages = packages.get(item);
+            return itemPackages.size() > 1 ? itemPackages.subList(1, itemPackages.size()) : Collections.emptyList();
+        }
+
+        @Override
+        public Collection<Object> exports(String item) {
+            return Collections.singletonList(packages.get(item).get(0));
+        }
+    }
+}
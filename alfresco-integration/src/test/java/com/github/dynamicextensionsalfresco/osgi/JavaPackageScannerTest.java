@@ -0,0 +1,156 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.servlet.ServletContext;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Laurent Van der Linden
+ */
+public class JavaPackageScannerTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final JavaPackageScanner scanner = new JavaPackageScanner();
+
+    @Test
+    public void testIndexedScanReadsCentralDirectory() throws IOException {
+        final File file = createJar("library.jar", null,
+                "org/example/A.class", "org/example/B.class", "org/example/sub/C.class", "org/example/D.class",
+                "org/example/resource.txt", "Default.class", "org/osgi/framework/E.class",
+                "META-INF/versions/9/module-info.class", "META-INF/versions/11/org/example/multi/F.class");
+
+        final JarFile jarFile = new JarFile(file);
+        try {
+            final Set<SystemPackage> packages = scanner.scanIndexedJavaPackages(jarFile);
+            assertEquals(Arrays.asList("org.example;1.2.3", "org.example.sub;1.2.3", "org.example.multi;1.2.3"),
+                    toStrings(packages));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testIndexedScanLimitsClassDirectoriesToIndexList() throws IOException {
+        final String index = "JarIndex-Version: 1.0\n\nother.jar\norg/other\n\nlibrary.jar\norg/example\norg/example/sub\n"
+                + "META-INF/services\nlog4j.properties\n\n";
+        final File file = createJar("library.jar", index, "org/example/A.class", "org/example/sub/messages.properties",
+                "org/unlisted/B.class");
+
+        final JarFile jarFile = new JarFile(file);
+        try {
+            final Set<SystemPackage> packages = scanner.scanIndexedJavaPackages(jarFile);
+            // 'org/example/sub' only contains resources and 'org/unlisted' is not in the index
+            assertEquals(Arrays.asList("org.example;1.2.3"), toStrings(packages));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testIndexedScanFindsSamePackagesAsEntryScan() throws IOException {
+        final File file = createJar("library.jar", null,
+                "org/example/A.class", "org/example/sub/B.class", "org/example/C.class", "com/example/D.class");
+
+        final JarFile jarFile = new JarFile(file);
+        try {
+            assertEquals(toStrings(scanner.scanJavaPackages(jarFile)), toStrings(scanner.scanIndexedJavaPackages(jarFile)));
+        } finally {
+            jarFile.close();
+        }
+    }
+
+    @Test
+    public void testParallelScanFindsSamePackagesAsSequentialScan() throws IOException {
+        final File lib = temporaryFolder.newFolder("lib");
+        final Set<String> jarPaths = new LinkedHashSet<String>();
+        for (int i = 0; i < 8; i++) {
+            final String name = String.format("library-%d.jar", i);
+            createJar(new File(lib, name), null, String.format("org/example/jar%d/A.class", i),
+                    "org/example/shared/B.class", String.format("com/example/jar%d/sub/C.class", i));
+            jarPaths.add("/WEB-INF/lib/" + name);
+        }
+        jarPaths.add("/WEB-INF/lib/unreadable.jar");
+        assertTrue(new File(lib, "unreadable.jar").createNewFile());
+
+        final ServletContext servletContext = mock(ServletContext.class);
+        when(servletContext.getResource("/WEB-INF/lib/")).thenReturn(lib.toURI().toURL());
+        when(servletContext.getResourcePaths("/WEB-INF/lib/")).thenReturn(jarPaths);
+        when(servletContext.getRealPath(anyString())).thenAnswer(new Answer<String>() {
+            @Override
+            public String answer(final InvocationOnMock invocation) {
+                final String path = (String) invocation.getArguments()[0];
+                return new File(lib, path.substring("/WEB-INF/lib/".length())).getPath();
+            }
+        });
+
+        final JavaPackageScanner sequentialScanner = new JavaPackageScanner();
+        sequentialScanner.setServletContext(servletContext);
+        sequentialScanner.setParallelism(1);
+        final JavaPackageScanner parallelScanner = new JavaPackageScanner();
+        parallelScanner.setServletContext(servletContext);
+        parallelScanner.setParallelism(4);
+
+        final List<String> sequentialPackages = toStrings(sequentialScanner.scanWebApplicationPackages());
+        assertEquals(17, sequentialPackages.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(sequentialPackages, toStrings(parallelScanner.scanWebApplicationPackages()));
+        }
+    }
+
+    private File createJar(final String name, final String index, final String... entries) throws IOException {
+        return createJar(new File(temporaryFolder.getRoot(), name), index, entries);
+    }
+
+    private File createJar(final File file, final String index, final String... entries) throws IOException {
+        final Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, "1.2.3");
+        final JarOutputStream out = new JarOutputStream(new FileOutputStream(file), manifest);
+        try {
+            if (index != null) {
+                out.putNextEntry(new ZipEntry("META-INF/INDEX.LIST"));
+                out.write(index.getBytes("UTF-8"));
+                out.closeEntry();
+            }
+            for (final String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.closeEntry();
+            }
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    private static List<String> toStrings(final Set<SystemPackage> packages) {
+        final List<String> strings = new ArrayList<String>(packages.size());
+        for (final SystemPackage systemPackage : packages) {
+            strings.add(systemPackage.toString());
+        }
+        return strings;
+    }
+}
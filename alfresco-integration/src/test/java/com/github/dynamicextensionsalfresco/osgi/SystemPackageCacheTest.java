@@ -0,0 +1,88 @@
+package com.github.dynamicextensionsalfresco.osgi;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Laurent Van der Linden
+ */
+public class SystemPackageCacheTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "system-packages.bin");
+        final SystemPackageCache cache = new SystemPackageCache(PackageScanMode.ENTRIES);
+        cache.put("a.jar", 100L, 1000L, packages(new SystemPackage("org.a", "1.2.0"), new SystemPackage("org.a.b", null)));
+        cache.put("b.jar", 200L, 2000L, packages(new SystemPackage("org.b", "2.0.0")));
+        assertTrue(cache.isModified());
+        cache.write(file);
+        assertFalse(cache.isModified());
+
+        final SystemPackageCache readCache = SystemPackageCache.read(file, PackageScanMode.ENTRIES);
+        assertEquals(2, readCache.size());
+        assertFalse(readCache.isModified());
+        final Set<SystemPackage> packages = readCache.get("a.jar", 100L, 1000L);
+        assertNotNull(packages);
+        assertEquals("[org.a;1.2.0, org.a.b]", packages.toString());
+    }
+
+    @Test
+    public void testCacheOfOtherScanModeIsIgnored() throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), "system-packages.bin");
+        final SystemPackageCache cache = new SystemPackageCache(PackageScanMode.ENTRIES);
+        cache.put("a.jar", 100L, 1000L, packages(new SystemPackage("org.a", "1.0.0")));
+        cache.write(file);
+
+        assertEquals(0, SystemPackageCache.read(file, PackageScanMode.INDEX).size());
+        assertEquals(1, SystemPackageCache.read(file, PackageScanMode.ENTRIES).size());
+    }
+
+    @Test
+    public void testChangedJarIsNotCached() {
+        final SystemPackageCache cache = new SystemPackageCache(PackageScanMode.ENTRIES);
+        cache.put("a.jar", 100L, 1000L, packages(new SystemPackage("org.a", "1.0.0")));
+        assertNotNull(cache.get("a.jar", 100L, 1000L));
+        assertNull(cache.get("a.jar", 101L, 1000L));
+        assertNull(cache.get("a.jar", 100L, 1001L));
+        assertNull(cache.get("b.jar", 100L, 1000L));
+    }
+
+    @Test
+    public void testRemovedJarsAreDropped() {
+        final SystemPackageCache cache = new SystemPackageCache(PackageScanMode.ENTRIES);
+        cache.put("a.jar", 100L, 1000L, packages(new SystemPackage("org.a", "1.0.0")));
+        cache.put("b.jar", 200L, 2000L, packages(new SystemPackage("org.b", "1.0.0")));
+        cache.retainAll(Collections.singleton("b.jar"));
+        assertEquals(1, cache.size());
+        assertNull(cache.get("a.jar", 100L, 1000L));
+    }
+
+    @Test
+    public void testUnknownFormatIsIgnored() throws IOException {
+        final File file = temporaryFolder.newFile("system-packages.txt");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write("org.a;1.0.0\n".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        assertEquals(0, SystemPackageCache.read(file, PackageScanMode.ENTRIES).size());
+    }
+
+    private static Set<SystemPackage> packages(final SystemPackage... packages) {
+        return new LinkedHashSet<SystemPackage>(Arrays.asList(packages));
+    }
+}
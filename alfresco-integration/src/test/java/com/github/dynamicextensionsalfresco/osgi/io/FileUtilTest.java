@@ -0,0 +1,62 @@
+package com.github.dynamicextensionsalfresco.osgi.io;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileUtilTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void jarWithBundleSymbolicNameIsABundle() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Bundle-SymbolicName", "test.bundle");
+
+        assertTrue(FileUtil.isBundle(createJar(manifest)));
+    }
+
+    @Test
+    public void jarWithoutBundleSymbolicNameIsNotABundle() throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, "plain");
+
+        assertFalse(FileUtil.isBundle(createJar(manifest)));
+    }
+
+    @Test
+    public void jarWithoutManifestIsNotABundle() throws IOException {
+        File jar = temporaryFolder.newFile("no-manifest.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar))) {
+            zip.putNextEntry(new ZipEntry("com/example/Example.class"));
+            zip.closeEntry();
+        }
+
+        assertNull(FileUtil.readManifest(jar));
+        assertFalse(FileUtil.isBundle(jar));
+    }
+
+    private File createJar(Manifest manifest) throws IOException {
+        File jar = temporaryFolder.newFile();
+        try (JarOutputStream jarOutputStream = new JarOutputStream(new FileOutputStream(jar), manifest)) {
+            jarOutputStream.putNextEntry(new ZipEntry("com/example/Example.class"));
+            jarOutputStream.closeEntry();
+        }
+        return jar;
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.dynamicextensionsalfresco.osgi.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RepositoryBundleMirrorTest {
+
+    private static final byte[] CONTENT = "bundle content".getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private final RepositoryBundleMirror.ContentSource contentSource = () -> {
+        reads.incrementAndGet();
+        return new ByteArrayInputStream(CONTENT);
+    };
+
+    @Test
+    public void contentIsOnlyReadWhenNotMirroredYet() throws IOException {
+        File directory = new File(temporaryFolder.getRoot(), "bundles-repository");
+
+        File bundle = new RepositoryBundleMirror(directory).getBundle("s3://2021/5/10/bundle.bin", CONTENT.length,
+                contentSource);
+        assertArrayEquals(CONTENT, Files.readAllBytes(bundle.toPath()));
+
+        File mirroredBundle = new RepositoryBundleMirror(directory).getBundle("s3://2021/5/10/bundle.bin",
+                CONTENT.length, contentSource);
+        assertEquals(bundle, mirroredBundle);
+        assertEquals(1, reads.get());
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void incompleteCopyIsReadAgain() throws IOException {
+        File directory = temporaryFolder.newFolder("bundles-repository");
+        String contentUrl = "store://2021/5/10/bundle.bin";
+        File truncated = new File(directory, RepositoryBundleMirror.computeKey(contentUrl) + ".jar");
+        Files.write(truncated.toPath(), new byte[3]);
+
+        File bundle = new RepositoryBundleMirror(directory).getBundle(contentUrl, CONTENT.length, contentSource);
+
+        assertEquals(1, reads.get());
+        assertArrayEquals(CONTENT, Files.readAllBytes(bundle.toPath()));
+    }
+
+    @Test
+    public void bundlesNoLongerInTheRepositoryAreRemoved() throws IOException {
+        File directory = temporaryFolder.newFolder("bundles-repository");
+        File removed = new RepositoryBundleMirror(directory).getBundle("store://old.bin", -1, contentSource);
+
+        RepositoryBundleMirror mirror = new RepositoryBundleMirror(directory);
+        File current = mirror.getBundle("store://new.bin", -1, contentSource);
+        mirror.removeUnusedEntries();
+
+        assertTrue(current.isFile());
+        assertFalse(removed.exists());
+    }
+}
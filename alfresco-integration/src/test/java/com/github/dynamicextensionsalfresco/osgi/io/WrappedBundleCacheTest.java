@@ -0,0 +1,57 @@
+package com.github.dynamicextensionsalfresco.osgi.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class WrappedBundleCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void keyDependsOnContentAndFilename() throws IOException {
+        File jar = createFile("library.jar", "version 1");
+        String key = WrappedBundleCache.computeKey(jar, "library.jar");
+
+        assertEquals(64, key.length());
+        assertEquals(key, WrappedBundleCache.computeKey(jar, "library.jar"));
+        assertNotEquals(key, WrappedBundleCache.computeKey(jar, "library-1.0.jar"));
+        Files.write(jar.toPath(), "version 2".getBytes(StandardCharsets.UTF_8));
+        assertNotEquals(key, WrappedBundleCache.computeKey(jar, "library.jar"));
+    }
+
+    @Test
+    public void existingEntryIsReusedAndUnusedEntriesAreRemoved() throws IOException {
+        File directory = temporaryFolder.newFolder("bundles-wrapped");
+        File jar = createFile("library.jar", "plain jar");
+        File cachedBundle = new File(directory, WrappedBundleCache.computeKey(jar, "library.jar") + ".jar");
+        Files.write(cachedBundle.toPath(), "wrapped".getBytes(StandardCharsets.UTF_8));
+        File staleBundle = new File(directory, "0000.jar");
+        Files.write(staleBundle.toPath(), "outdated".getBytes(StandardCharsets.UTF_8));
+
+        WrappedBundleCache cache = new WrappedBundleCache(directory);
+        assertEquals(cachedBundle, cache.getWrappedBundle(jar, "library.jar"));
+        assertTrue(cache.contains(cachedBundle));
+        assertFalse(cache.contains(jar));
+
+        cache.removeUnusedEntries();
+        assertTrue(cachedBundle.isFile());
+        assertFalse(staleBundle.exists());
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -29,6 +29,8 @@ public abstract class AbstractAnnotationBasedRegistrar implements BeanFactoryAwa
 
 	private NamespacePrefixResolver namespacePrefixResolver;
 
+	private AnnotationIndex annotationIndex = AnnotationIndex.none();
+
 	/* Utility operations */
 
 	protected QName[] parseQNames(final String[] values, final Annotation annotation) {
@@ -83,4 +85,13 @@ public abstract class AbstractAnnotationBasedRegistrar implements BeanFactoryAwa
 		return namespacePrefixResolver;
 	}
 
+	public void setAnnotationIndex(final AnnotationIndex annotationIndex) {
+		Assert.notNull(annotationIndex, "AnnotationIndex cannot be null.");
+		this.annotationIndex = annotationIndex;
+	}
+
+	protected AnnotationIndex getAnnotationIndex() {
+		return annotationIndex;
+	}
+
 }
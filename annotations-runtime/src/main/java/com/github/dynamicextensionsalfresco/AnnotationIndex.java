@@ -0,0 +1,127 @@
+package com.github.dynamicextensionsalfresco;
+
+import com.github.dynamicextensionsalfresco.annotations.processing.AnnotationIndexProcessor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The annotation index of an extension, generated at build time by {@link AnnotationIndexProcessor}.
+ * <p>
+ * Registrars use the index to skip beans without the annotations they handle. Classes that are not in the index, like
+ * JDK proxies, infrastructure beans or classes from libraries compiled without the processor, are always candidates.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class AnnotationIndex {
+
+    public enum Kind {
+        BEHAVIOUR(AnnotationIndexProcessor.BEHAVIOUR),
+        ACTION(AnnotationIndexProcessor.ACTION),
+        WEB_SCRIPT(AnnotationIndexProcessor.WEB_SCRIPT);
+
+        private final String id;
+
+        Kind(String id) {
+            this.id = id;
+        }
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(AnnotationIndex.class);
+
+    private static final AnnotationIndex NONE = new AnnotationIndex(Collections.<String, Set<Kind>>emptyMap());
+
+    private final Map<String, Set<Kind>> kindsByClassName;
+
+    private AnnotationIndex(@NotNull Map<String, Set<Kind>> kindsByClassName) {
+        this.kindsByClassName = kindsByClassName;
+    }
+
+    /**
+     * @return An index in which every class is a candidate.
+     */
+    @NotNull
+    public static AnnotationIndex none() {
+        return NONE;
+    }
+
+    /**
+     * Merges the indexes visible to the given ClassLoader, including the ones of embedded libraries.
+     *
+     * @return The merged index, or {@link #none()} if there is no index or it cannot be read.
+     */
+    @NotNull
+    public static AnnotationIndex load(@NotNull ClassLoader classLoader) {
+        if (classLoader == null) {
+            throw new IllegalArgumentException("classLoader is null");
+        }
+
+        final Map<String, Set<Kind>> kindsByClassName = new HashMap<>();
+        try {
+            final Enumeration<URL> resources = classLoader.getResources(AnnotationIndexProcessor.INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+                final URL resource = resources.nextElement();
+                final Properties properties = new Properties();
+                try (InputStream in = resource.openStream()) {
+                    properties.load(in);
+                }
+                for (String className : properties.stringPropertyNames()) {
+                    final Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+                    for (String id : StringUtils.commaDelimitedListToSet(properties.getProperty(className))) {
+                        for (Kind kind : Kind.values()) {
+                            if (kind.id.equals(id.trim())) {
+                                kinds.add(kind);
+                            }
+                        }
+                    }
+                    final Set<Kind> existing = kindsByClassName.get(className);
+                    if (existing != null) {
+                        existing.addAll(kinds);
+                    } else {
+                        kindsByClassName.put(className, kinds);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            logger.warn("Could not read the annotation index, scanning all beans instead.", e);
+            return NONE;
+        }
+
+        if (kindsByClassName.isEmpty()) {
+            return NONE;
+        }
+        logger.debug("Loaded the annotation index of {} classes.", kindsByClassName.size());
+        return new AnnotationIndex(kindsByClassName);
+    }
+
+    /**
+     * @return False if the index shows that the type carries no annotations of the given kind.
+     */
+    public boolean isCandidate(@NotNull Class<?> type, @NotNull Kind kind) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is null");
+        }
+        if (kind == null) {
+            throw new IllegalArgumentException("kind is null");
+        }
+
+        final Set<Kind> kinds = kindsByClassName.get(ClassUtils.getUserClass(type).getName());
+        return kinds == null || kinds.contains(kind);
+    }
+
+    public boolean isEmpty() {
+        return kindsByClassName.isEmpty();
+    }
+}
@@ -1,6 +1,8 @@
 package com.github.dynamicextensionsalfresco.actions;
 
 import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
+import com.github.dynamicextensionsalfresco.invoke.MethodInvoker;
+import com.github.dynamicextensionsalfresco.invoke.ReflectionMethodInvokerFactory;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
@@ -11,7 +13,6 @@ import org.alfresco.service.cmr.repository.NodeRef;
 import org.alfresco.service.cmr.rule.RuleServiceException;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.springframework.util.ReflectionUtils;
 
 /**
  * Represents a mapping from {@link ActionExecuter#execute} to an {@link ActionMethod} -annotated method.
@@ -26,16 +27,22 @@ public final class ActionMethodMapping {
     private final HashMap<String, ParameterMapping> parameterMappingsByName;
     private final Object bean;
     private final Method method;
+    private final MethodInvoker methodInvoker;
 
     public ActionMethodMapping(@NotNull Object bean, @NotNull Method method) {
+        this(bean, new ReflectionMethodInvokerFactory().createMethodInvoker(method));
+    }
+
+    public ActionMethodMapping(@NotNull Object bean, @NotNull MethodInvoker methodInvoker) {
         if (bean == null) {
             throw new IllegalArgumentException("bean is null");
         }
-        if (method == null) {
-            throw new IllegalArgumentException("method is null");
+        if (methodInvoker == null) {
+            throw new IllegalArgumentException("methodInvoker is null");
         }
         this.bean = bean;
-        this.method = method;
+        this.method = methodInvoker.getMethod();
+        this.methodInvoker = methodInvoker;
         this.parameterMappingsByName = new HashMap<>();
         this.parameterCount = this.method.getParameterTypes().length;
     }
@@ -85,7 +92,7 @@ public final class ActionMethodMapping {
             parameters[parameterMapping.getIndex()] = value;
         }
 
-        ReflectionUtils.invokeMethod(this.method, this.bean, Arrays.copyOf(parameters, parameters.length));
+        this.methodInvoker.invoke(this.bean, parameters);
     }
 
     public final boolean hasParameter(@NotNull String name) {
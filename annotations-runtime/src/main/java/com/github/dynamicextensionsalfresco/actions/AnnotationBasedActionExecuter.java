@@ -1,5 +1,6 @@
 package com.github.dynamicextensionsalfresco.actions;
 
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
 import org.alfresco.repo.action.executer.ActionExecuter;
 import org.alfresco.repo.action.executer.LoggingAwareExecuter;
 import org.alfresco.service.cmr.action.Action;
@@ -15,11 +16,19 @@ class AnnotationBasedActionExecuter implements ActionExecuter, LoggingAwareExecu
 
 	private final String queueName;
 
+	private final MetricRecorder recorder;
+
 	AnnotationBasedActionExecuter(final ActionDefinition actionDefinition, final ActionMethodMapping mapping,
 			final String queueName) {
+		this(actionDefinition, mapping, queueName, MetricRecorder.NOOP);
+	}
+
+	AnnotationBasedActionExecuter(final ActionDefinition actionDefinition, final ActionMethodMapping mapping,
+			final String queueName, final MetricRecorder recorder) {
 		this.actionDefinition = actionDefinition;
 		this.mapping = mapping;
 		this.queueName = queueName;
+		this.recorder = recorder;
 	}
 
 	@Override
@@ -34,12 +43,18 @@ class AnnotationBasedActionExecuter implements ActionExecuter, LoggingAwareExecu
 
 	@Override
 	public void execute(final Action action, final NodeRef actionedUponNodeRef) {
+		final boolean recording = recorder.isRecording();
+		final long start = recording ? System.nanoTime() : 0L;
 		try {
 			mapping.invokeActionMethod(action, actionedUponNodeRef);
 		} catch (final RuntimeException e) {
 			throw e;
 		} catch (final Exception e) {
 			throw new RuntimeException(e);
+		} finally {
+			if (recording) {
+				recorder.record(System.nanoTime() - start);
+			}
 		}
 	}
 
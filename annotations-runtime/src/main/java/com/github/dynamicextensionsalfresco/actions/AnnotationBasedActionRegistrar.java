@@ -7,8 +7,14 @@ import java.lang.reflect.Type;
 import java.util.*;
 
 import com.github.dynamicextensionsalfresco.AbstractAnnotationBasedRegistrar;
+import com.github.dynamicextensionsalfresco.AnnotationIndex.Kind;
 import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
 import com.github.dynamicextensionsalfresco.actions.annotations.ActionParam;
+import com.github.dynamicextensionsalfresco.invoke.MethodHandleInvokerFactory;
+import com.github.dynamicextensionsalfresco.invoke.MethodInvokerFactory;
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+import com.github.dynamicextensionsalfresco.metrics.MetricType;
+import com.github.dynamicextensionsalfresco.metrics.Timer;
 
 import com.google.common.collect.ImmutableMap;
 import org.alfresco.repo.action.ActionDefinitionImpl;
@@ -52,6 +58,10 @@ public class AnnotationBasedActionRegistrar extends AbstractAnnotationBasedRegis
 
 	private RuntimeActionService runtimeActionService;
 
+	private MethodInvokerFactory methodInvokerFactory = new MethodHandleInvokerFactory();
+
+	private Timer timer;
+
 	private final ParameterNameDiscoverer parameterNameDiscoverer = new LocalVariableTableParameterNameDiscoverer();
 
 	private final Map<Class<?>,QName> parameterTypes = getActionParameterMapping();
@@ -66,7 +76,8 @@ public class AnnotationBasedActionRegistrar extends AbstractAnnotationBasedRegis
 		final ConfigurableListableBeanFactory beanFactory = getBeanFactory();
 		for (final String beanName : beanFactory.getBeanDefinitionNames()) {
 			final Class<?> type = beanFactory.getType(beanName);
-			if (type != null) { // bean might be abstract
+			if (type != null // bean might be abstract
+					&& getAnnotationIndex().isCandidate(type, Kind.ACTION)) {
 				ReflectionUtils.doWithMethods(type, new MethodCallback() {
 
 					@Override
@@ -115,8 +126,12 @@ public class AnnotationBasedActionRegistrar extends AbstractAnnotationBasedRegis
 			final ActionMethod actionMethod) {
 		final List<ParameterDefinition> parameterDefinitions = new ArrayList<ParameterDefinition>();
 		final ActionMethodMapping mapping = resolveActionMethodMapping(bean, method, parameterDefinitions);
-		return new AnnotationBasedActionExecuter(createActionDefinition(method, actionMethod, parameterDefinitions),
-				mapping, nullForEmptyString(actionMethod.queueName()));
+		final ActionDefinition actionDefinition = createActionDefinition(method, actionMethod, parameterDefinitions);
+		final MetricRecorder recorder = timer != null
+				? timer.getRecorder(MetricType.ACTION, actionDefinition.getName())
+				: MetricRecorder.NOOP;
+		return new AnnotationBasedActionExecuter(actionDefinition, mapping,
+				nullForEmptyString(actionMethod.queueName()), recorder);
 	}
 
 	protected ActionDefinition createActionDefinition(final Method method, final ActionMethod actionMethod,
@@ -158,7 +173,8 @@ public class AnnotationBasedActionRegistrar extends AbstractAnnotationBasedRegis
 
 	protected ActionMethodMapping resolveActionMethodMapping(final Object bean, final Method method,
 			final List<ParameterDefinition> parameterDefinitions) {
-		final ActionMethodMapping mapping = new ActionMethodMapping(bean, method);
+		final ActionMethodMapping mapping = new ActionMethodMapping(bean,
+				getMethodInvokerFactory().createMethodInvoker(method));
 		final Annotation[][] parameterAnnotations = method.getParameterAnnotations();
 		final Type[] parameterTypes = method.getGenericParameterTypes();
 		final String[] methodParameterNames = parameterNameDiscoverer.getParameterNames(method);
@@ -318,4 +334,20 @@ public class AnnotationBasedActionRegistrar extends AbstractAnnotationBasedRegis
 	public void setRuntimeActionService(final RuntimeActionService runtimeActionService) {
 		this.runtimeActionService = runtimeActionService;
 	}
+
+	public void setMethodInvokerFactory(final MethodInvokerFactory methodInvokerFactory) {
+		this.methodInvokerFactory = methodInvokerFactory;
+	}
+
+	protected MethodInvokerFactory getMethodInvokerFactory() {
+		return methodInvokerFactory;
+	}
+
+	public void setTimer(final Timer timer) {
+		this.timer = timer;
+	}
+
+	protected Timer getTimer() {
+		return timer;
+	}
 }
@@ -22,7 +22,10 @@ public class DefaultActionExecuterRegistry implements ActionExecuterRegistry, Ap
 	@Override
 	public boolean hasActionExecuter(final String name) {
 		/* Note: we must verify the ApplicationContext for matching bean names as well. */
-		return actionExecutersByName.containsKey(name) || applicationContext.containsBeanDefinition(name);
+		final ActionExecuter actionExecuter = actionExecutersByName.get(name);
+		/* Placeholders of lazily activated extensions are replaced by the actual ActionExecuter. */
+		return (actionExecuter != null && actionExecuter instanceof LazyActionExecuter == false)
+				|| applicationContext.containsBeanDefinition(name);
 	}
 
 	@Override
@@ -41,9 +44,8 @@ public class DefaultActionExecuterRegistry implements ActionExecuterRegistry, Ap
 
 	@Override
 	public void unregisterActionExecuter(final ActionExecuter actionExecuter) {
-		if (getActionExecutersByName().containsValue(actionExecuter)) {
-			actionExecutersByName.remove(actionExecuter.getActionDefinition().getName());
-		}
+		/* Only removes the given instance, as a placeholder may have been replaced by now. */
+		actionExecutersByName.remove(actionExecuter.getActionDefinition().getName(), actionExecuter);
 	}
 
 	/* Dependencies */
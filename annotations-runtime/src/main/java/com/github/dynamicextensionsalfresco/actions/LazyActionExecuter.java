@@ -0,0 +1,83 @@
+package com.github.dynamicextensionsalfresco.actions;
+
+import org.alfresco.repo.action.executer.ActionExecuter;
+import org.alfresco.service.cmr.action.Action;
+import org.alfresco.service.cmr.action.ActionDefinition;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.springframework.util.Assert;
+
+/**
+ * Placeholder {@link ActionExecuter} for an extension whose Spring context is created on first use.
+ * <p>
+ * Executing the placeholder activates the extension. Activation registers the actual {@link ActionExecuter} under the
+ * same name with the {@link ActionExecuterRegistry}, replacing the placeholder, after which the {@link Action} is
+ * passed on to it. The {@link ActionDefinition} of a placeholder has no parameter definitions or applicable types, as
+ * these can only be determined from the loaded classes.
+ *
+ * @author Laurent Van der Linden
+ */
+public class LazyActionExecuter implements ActionExecuter {
+
+	/**
+	 * Creates the Spring context of an extension and registers its {@link ActionExecuter}s.
+	 */
+	public interface Activation {
+
+		/**
+		 * Activates the extension, if not done already. Implementations must be thread-safe.
+		 */
+		void activate();
+
+	}
+
+	private final ActionDefinition actionDefinition;
+
+	private final String queueName;
+
+	private final ActionExecuterRegistry actionExecuterRegistry;
+
+	private final Activation activation;
+
+	public LazyActionExecuter(final ActionDefinition actionDefinition, final String queueName,
+			final ActionExecuterRegistry actionExecuterRegistry, final Activation activation) {
+		Assert.notNull(actionDefinition);
+		Assert.notNull(actionExecuterRegistry);
+		Assert.notNull(activation);
+		this.actionDefinition = actionDefinition;
+		this.queueName = queueName;
+		this.actionExecuterRegistry = actionExecuterRegistry;
+		this.activation = activation;
+	}
+
+	@Override
+	public ActionDefinition getActionDefinition() {
+		return actionDefinition;
+	}
+
+	@Override
+	public String getQueueName() {
+		return queueName;
+	}
+
+	@Override
+	public boolean getIgnoreLock() {
+		return false;
+	}
+
+	@Override
+	public boolean getTrackStatus() {
+		return false;
+	}
+
+	@Override
+	public void execute(final Action action, final NodeRef actionedUponNodeRef) {
+		activation.activate();
+		final ActionExecuter actionExecuter = actionExecuterRegistry.getActionExecuter(actionDefinition.getName());
+		if (actionExecuter == null || actionExecuter instanceof LazyActionExecuter) {
+			throw new IllegalStateException(String.format(
+					"Action '%s' is currently unavailable. Its extension could not be activated.",
+					actionDefinition.getName()));
+		}
+		actionExecuter.execute(action, actionedUponNodeRef);
+	}
+}
@@ -0,0 +1,94 @@
+package com.github.dynamicextensionsalfresco.invoke;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link MethodInvokerFactory} that binds methods to a {@link MethodHandle} with a fixed
+ * {@code (Object, Object[])Object} signature. This avoids the access checks, argument checks and exception
+ * wrapping of {@link Method#invoke(Object, Object...)} on every call.
+ * <p>
+ * Falls back on the {@link ReflectionMethodInvokerFactory} for methods that cannot be unreflected.
+ *
+ * @author Laurent Van der Linden
+ */
+public class MethodHandleInvokerFactory implements MethodInvokerFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(MethodHandleInvokerFactory.class);
+
+    private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    private final MethodInvokerFactory fallback;
+
+    public MethodHandleInvokerFactory() {
+        this(new ReflectionMethodInvokerFactory());
+    }
+
+    public MethodHandleInvokerFactory(MethodInvokerFactory fallback) {
+        if (fallback == null) {
+            throw new IllegalArgumentException("fallback is null");
+        }
+        this.fallback = fallback;
+    }
+
+    @Override
+    public MethodInvoker createMethodInvoker(final Method method) {
+        if (method == null) {
+            throw new IllegalArgumentException("method is null");
+        }
+        try {
+            ReflectionUtils.makeAccessible(method);
+            MethodHandle methodHandle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers())) {
+                methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+            }
+            methodHandle = methodHandle
+                    .asSpreader(Object[].class, method.getParameterTypes().length)
+                    .asType(INVOKER_TYPE);
+            return new MethodHandleInvoker(method, methodHandle);
+        } catch (IllegalAccessException | RuntimeException e) {
+            logger.debug("Cannot create MethodHandle for {}, falling back on reflection.", method, e);
+            return fallback.createMethodInvoker(method);
+        }
+    }
+
+    private static class MethodHandleInvoker implements MethodInvoker {
+
+        private final Method method;
+
+        private final MethodHandle methodHandle;
+
+        private MethodHandleInvoker(Method method, MethodHandle methodHandle) {
+            this.method = method;
+            this.methodHandle = methodHandle;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] arguments) {
+            try {
+                return methodHandle.invokeExact(target, arguments);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public String toString() {
+            return "MethodHandleInvoker[" + method + "]";
+        }
+    }
+}
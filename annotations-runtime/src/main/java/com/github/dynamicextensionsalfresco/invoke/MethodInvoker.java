@@ -0,0 +1,30 @@
+package com.github.dynamicextensionsalfresco.invoke;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Invokes a single {@link Method} that was bound once, when the invoker was created.
+ * <p>
+ * Implementations follow the exception semantics of
+ * {@link org.springframework.util.ReflectionUtils#invokeMethod(Method, Object, Object...)}: unchecked exceptions and
+ * errors thrown by the method are propagated as is, checked exceptions are wrapped in an
+ * {@link UndeclaredThrowableException}.
+ *
+ * @author Laurent Van der Linden
+ * @see MethodInvokerFactory
+ */
+public interface MethodInvoker {
+
+    /**
+     * Invokes the bound method.
+     *
+     * @param target The object to invoke the method on, ignored for static methods.
+     * @param arguments The method arguments.
+     * @return The return value of the method, or null if the method returns void.
+     */
+    Object invoke(Object target, Object[] arguments);
+
+    Method getMethod();
+
+}
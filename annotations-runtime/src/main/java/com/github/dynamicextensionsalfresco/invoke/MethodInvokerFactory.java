@@ -0,0 +1,14 @@
+package com.github.dynamicextensionsalfresco.invoke;
+
+import java.lang.reflect.Method;
+
+/**
+ * Strategy for binding handler methods to {@link MethodInvoker}s at registration time.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface MethodInvokerFactory {
+
+    MethodInvoker createMethodInvoker(Method method);
+
+}
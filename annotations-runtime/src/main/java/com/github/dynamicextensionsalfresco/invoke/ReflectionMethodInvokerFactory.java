@@ -0,0 +1,45 @@
+package com.github.dynamicextensionsalfresco.invoke;
+
+import java.lang.reflect.Method;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * {@link MethodInvokerFactory} that invokes methods using plain reflection.
+ *
+ * @author Laurent Van der Linden
+ */
+public class ReflectionMethodInvokerFactory implements MethodInvokerFactory {
+
+    @Override
+    public MethodInvoker createMethodInvoker(final Method method) {
+        if (method == null) {
+            throw new IllegalArgumentException("method is null");
+        }
+        ReflectionUtils.makeAccessible(method);
+        return new ReflectionMethodInvoker(method);
+    }
+
+    private static class ReflectionMethodInvoker implements MethodInvoker {
+
+        private final Method method;
+
+        private ReflectionMethodInvoker(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object invoke(Object target, Object[] arguments) {
+            return ReflectionUtils.invokeMethod(method, target, arguments);
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public String toString() {
+            return "ReflectionMethodInvoker[" + method + "]";
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MetricsRegistry} that keeps its {@link TimerMetric}s in memory and exposes them as an MXBean on the platform
+ * {@link MBeanServer}.
+ *
+ * @author Laurent Van der Linden
+ */
+public class DefaultMetricsRegistry implements MetricsRegistry, MetricsRegistryMXBean {
+
+    public static final String DEFAULT_OBJECT_NAME = "com.github.dynamicextensionsalfresco:type=Metrics";
+
+    private static final Comparator<TimerSnapshot> SNAPSHOT_ORDER = Comparator.comparing(TimerSnapshot::getType)
+            .thenComparing(TimerSnapshot::getName);
+
+    private final Logger logger = LoggerFactory.getLogger(DefaultMetricsRegistry.class);
+
+    private final ConcurrentMap<String, TimerMetric> timers = new ConcurrentHashMap<>();
+
+    private String objectName = DEFAULT_OBJECT_NAME;
+
+    private ObjectName registeredObjectName;
+
+    @NotNull
+    @Override
+    public TimerMetric getTimer(@NotNull MetricType type, @NotNull String name) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is null");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+
+        return timers.computeIfAbsent(type.id() + ":" + name, key -> new TimerMetric(type, name));
+    }
+
+    @NotNull
+    @Override
+    public List<TimerSnapshot> getSnapshots() {
+        final List<TimerSnapshot> snapshots = new ArrayList<>(timers.size());
+        for (TimerMetric timer : timers.values()) {
+            snapshots.add(timer.snapshot());
+        }
+        snapshots.sort(SNAPSHOT_ORDER);
+        return snapshots;
+    }
+
+    @Override
+    public List<TimerSnapshot> getTimers() {
+        return getSnapshots();
+    }
+
+    @Override
+    public void reset() {
+        // Timers are reset in place, as their users hold on to them.
+        for (TimerMetric timer : timers.values()) {
+            timer.reset();
+        }
+    }
+
+    /* Lifecycle */
+
+    public synchronized void registerMBean() {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(objectName);
+            if (mBeanServer.isRegistered(name)) {
+                // left behind by an earlier instance, e.g. after a restart of the OSGi container
+                mBeanServer.unregisterMBean(name);
+            }
+            mBeanServer.registerMBean(this, name);
+            registeredObjectName = name;
+        } catch (JMException e) {
+            logger.warn("Could not register metrics MBean '{}'.", objectName, e);
+        }
+    }
+
+    public synchronized void unregisterMBean() {
+        if (registeredObjectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredObjectName);
+        } catch (JMException e) {
+            logger.warn("Could not unregister metrics MBean '{}'.", registeredObjectName, e);
+        } finally {
+            registeredObjectName = null;
+        }
+    }
+
+    /* Configuration */
+
+    public void setObjectName(String objectName) {
+        this.objectName = objectName;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link StartupTimeline} that keeps a bounded number of root spans in memory, so every framework restart adds a new
+ * timeline without growing without limit.
+ *
+ * @author Laurent Van der Linden
+ */
+public class DefaultStartupTimeline implements StartupTimeline {
+
+    public static final int DEFAULT_MAX_ROOT_SPANS = 50;
+
+    private final Deque<StartupSpan> rootSpans = new ConcurrentLinkedDeque<>();
+
+    private final ThreadLocal<Deque<StartupSpan>> runningSpans = new ThreadLocal<Deque<StartupSpan>>() {
+        @Override
+        protected Deque<StartupSpan> initialValue() {
+            // spans may end on another thread than the one that started them
+            return new ConcurrentLinkedDeque<>();
+        }
+    };
+
+    private int maxRootSpans = DEFAULT_MAX_ROOT_SPANS;
+
+    @NotNull
+    @Override
+    public StartupSpan start(@NotNull String name) {
+        return start(current(), name);
+    }
+
+    @NotNull
+    @Override
+    public StartupSpan start(@Nullable StartupSpan parent, @NotNull String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+
+        final Deque<StartupSpan> running = runningSpans.get();
+        final StartupSpan span = new StartupSpan(name, running);
+        if (parent != null) {
+            parent.addChild(span);
+        } else {
+            rootSpans.addLast(span);
+            while (rootSpans.size() > maxRootSpans) {
+                rootSpans.pollFirst();
+            }
+        }
+        running.addLast(span);
+        return span;
+    }
+
+    @Nullable
+    @Override
+    public StartupSpan current() {
+        return runningSpans.get().peekLast();
+    }
+
+    @NotNull
+    @Override
+    public List<StartupSpan> getSpans() {
+        return new ArrayList<>(rootSpans);
+    }
+
+    @Override
+    public void reset() {
+        rootSpans.clear();
+    }
+
+    public void setMaxRootSpans(int maxRootSpans) {
+        if (maxRootSpans <= 0) {
+            throw new IllegalArgumentException("maxRootSpans must be positive");
+        }
+        this.maxRootSpans = maxRootSpans;
+    }
+}
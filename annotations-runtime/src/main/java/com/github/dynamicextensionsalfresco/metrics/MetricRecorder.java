@@ -0,0 +1,31 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+/**
+ * Records durations for a single named operation. Obtained once through {@link Timer#getRecorder(MetricType,
+ * String)} and then held on to by the code that invokes the operation, so recording does not involve any lookups.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface MetricRecorder {
+
+    /**
+     * {@link MetricRecorder} that discards all durations.
+     */
+    MetricRecorder NOOP = new MetricRecorder() {
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public void record(long durationNanos) {
+        }
+    };
+
+    /**
+     * @return false if {@link #record(long)} discards durations, so callers can skip reading the clock.
+     */
+    boolean isRecording();
+
+    void record(long durationNanos);
+}
@@ -0,0 +1,24 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+/**
+ * The kinds of extension code that are timed by a {@link MetricsRegistry}.
+ *
+ * @author Laurent Van der Linden
+ */
+public enum MetricType {
+
+    BEHAVIOUR("behaviour"),
+    ACTION("action"),
+    WEB_SCRIPT("webscript"),
+    SCHEDULED_TASK("task");
+
+    private final String id;
+
+    MetricType(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+}
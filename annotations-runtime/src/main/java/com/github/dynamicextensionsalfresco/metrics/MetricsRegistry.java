@@ -0,0 +1,31 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registry of the {@link TimerMetric}s collected for extension code. A single instance is shared by all Dynamic
+ * Extensions through the OSGi service registry, so timings survive the redeployment of a bundle.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Obtains the {@link TimerMetric} for the given operation, creating it if necessary. Callers are expected to hold
+     * on to the result instead of looking it up for every invocation.
+     */
+    @NotNull
+    TimerMetric getTimer(@NotNull MetricType type, @NotNull String name);
+
+    /**
+     * @return Snapshots of all timers, ordered by type and name.
+     */
+    @NotNull
+    List<TimerSnapshot> getSnapshots();
+
+    /**
+     * Clears the durations recorded by all timers.
+     */
+    void reset();
+}
@@ -0,0 +1,15 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.util.List;
+
+/**
+ * JMX management interface of the {@link MetricsRegistry}.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface MetricsRegistryMXBean {
+
+    List<TimerSnapshot> getTimers();
+
+    void reset();
+}
@@ -0,0 +1,55 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link Timer} that records the durations of extension code in a {@link MetricsRegistry}. Transaction-scoped
+ * {@link #start(String)}/{@link #stop()} timing is handed to a delegate, typically a {@link SpringTimer}.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class MetricsTimer implements Timer {
+
+    @NotNull
+    private final MetricsRegistry metricsRegistry;
+
+    @NotNull
+    private final Timer delegate;
+
+    public MetricsTimer(@NotNull MetricsRegistry metricsRegistry) {
+        this(metricsRegistry, new SpringTimer());
+    }
+
+    public MetricsTimer(@NotNull MetricsRegistry metricsRegistry, @NotNull Timer delegate) {
+        if (metricsRegistry == null) {
+            throw new IllegalArgumentException("metricsRegistry is null");
+        }
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate is null");
+        }
+
+        this.metricsRegistry = metricsRegistry;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void start(String label) {
+        delegate.start(label);
+    }
+
+    @Override
+    public void stop() {
+        delegate.stop();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return delegate.isEnabled();
+    }
+
+    @NotNull
+    @Override
+    public MetricRecorder getRecorder(@NotNull MetricType type, @NotNull String name) {
+        return metricsRegistry.getTimer(type, name);
+    }
+}
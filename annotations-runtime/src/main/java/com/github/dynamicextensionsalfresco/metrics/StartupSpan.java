@@ -0,0 +1,99 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A named, timed phase of the startup recorded by a {@link StartupTimeline}. Durations are in milliseconds.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class StartupSpan {
+
+    private final String name;
+
+    private final String threadName;
+
+    private final long startTime;
+
+    private final long startNanos;
+
+    private final List<StartupSpan> children = new CopyOnWriteArrayList<>();
+
+    /**
+     * The spans that are running on the starting thread, from which this span removes itself when it ends.
+     */
+    private final Collection<StartupSpan> runningSpans;
+
+    private volatile long endNanos = -1;
+
+    StartupSpan(@NotNull String name, @NotNull Collection<StartupSpan> runningSpans) {
+        this.name = name;
+        this.threadName = Thread.currentThread().getName();
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.runningSpans = runningSpans;
+    }
+
+    void addChild(@NotNull StartupSpan child) {
+        children.add(child);
+    }
+
+    /**
+     * Ends this span, and any of its children that are still running. Ending a span more than once has no effect.
+     */
+    public void end() {
+        synchronized (this) {
+            if (endNanos >= 0) {
+                return;
+            }
+            for (StartupSpan child : children) {
+                child.end();
+            }
+            endNanos = System.nanoTime();
+        }
+        runningSpans.remove(this);
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public String getThreadName() {
+        return threadName;
+    }
+
+    /**
+     * @return The start time in milliseconds since the epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public boolean isRunning() {
+        return endNanos < 0;
+    }
+
+    /**
+     * @return The duration, or the time elapsed so far for a running span.
+     */
+    public double getDuration() {
+        final long end = isRunning() ? System.nanoTime() : endNanos;
+        return (end - startNanos) / 1000000.0;
+    }
+
+    @NotNull
+    public List<StartupSpan> getChildren() {
+        return new ArrayList<>(children);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%.1fms)", name, getDuration());
+    }
+}
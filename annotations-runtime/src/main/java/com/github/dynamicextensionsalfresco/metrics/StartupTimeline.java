@@ -0,0 +1,48 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Records the phases of the OSGi container and extension startup as a tree of {@link StartupSpan}s. A single instance
+ * is shared by the container and all Dynamic Extensions through the OSGi service registry.
+ * <p>
+ * Each thread has its own current span. A span that is started becomes the current span of the starting thread until
+ * it ends, so spans started within it become its children.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface StartupTimeline {
+
+    /**
+     * Starts a span as a child of the current span of this thread, or as a root span if there is none.
+     */
+    @NotNull
+    StartupSpan start(@NotNull String name);
+
+    /**
+     * Starts a span as a child of the given parent, for work that continues on another thread.
+     *
+     * @param parent The parent span or null to start a root span.
+     */
+    @NotNull
+    StartupSpan start(@Nullable StartupSpan parent, @NotNull String name);
+
+    /**
+     * @return The innermost running span started by this thread, or null.
+     */
+    @Nullable
+    StartupSpan current();
+
+    /**
+     * @return The most recent root spans, oldest first.
+     */
+    @NotNull
+    List<StartupSpan> getSpans();
+
+    /**
+     * Removes all root spans.
+     */
+    void reset();
+}
@@ -1,6 +1,7 @@
 package com.github.dynamicextensionsalfresco.metrics;
 
 import java.util.function.Supplier;
+import org.jetbrains.annotations.NotNull;
 
 /**
  * register timing information during a transaction and report after commit (reporting dependant of implementation)
@@ -15,6 +16,17 @@ public interface Timer {
 
     boolean isEnabled();
 
+    /**
+     * Obtains the {@link MetricRecorder} for the durations of the given operation. Unlike {@link #start(String)}, the
+     * name should identify the operation rather than a single invocation of it.
+     *
+     * @return {@link MetricRecorder#NOOP} if this implementation does not keep metrics.
+     */
+    @NotNull
+    default MetricRecorder getRecorder(@NotNull MetricType type, @NotNull String name) {
+        return MetricRecorder.NOOP;
+    }
+
     default <T, E extends Throwable> T time(Supplier<String> labelProvider, ThrowingSupplier<T, E> operation) throws E {
         if (isEnabled()) {
             start(labelProvider.get());
@@ -0,0 +1,60 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link MetricRecorder} that keeps a {@link Histogram} of the durations of a single named operation.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class TimerMetric implements MetricRecorder {
+
+    @NotNull
+    private final MetricType type;
+
+    @NotNull
+    private final String name;
+
+    private final Histogram histogram = new Histogram();
+
+    TimerMetric(@NotNull MetricType type, @NotNull String name) {
+        if (type == null) {
+            throw new IllegalArgumentException("type is null");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+
+        this.type = type;
+        this.name = name;
+    }
+
+    @NotNull
+    public MetricType getType() {
+        return type;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean isRecording() {
+        return true;
+    }
+
+    @Override
+    public void record(long durationNanos) {
+        histogram.record(durationNanos / 1000);
+    }
+
+    @NotNull
+    public TimerSnapshot snapshot() {
+        return new TimerSnapshot(type, name, histogram.snapshot());
+    }
+
+    void reset() {
+        histogram.reset();
+    }
+}
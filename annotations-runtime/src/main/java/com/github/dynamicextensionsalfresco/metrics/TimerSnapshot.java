@@ -0,0 +1,78 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Immutable view on the durations recorded by a {@link TimerMetric}. All durations are in milliseconds.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class TimerSnapshot {
+
+    private final String type;
+
+    private final String name;
+
+    private final long count;
+
+    private final double total;
+
+    private final double max;
+
+    private final double p50;
+
+    private final double p95;
+
+    private final double p99;
+
+    TimerSnapshot(@NotNull MetricType type, @NotNull String name, @NotNull Histogram.Snapshot histogram) {
+        this.type = type.id();
+        this.name = name;
+        this.count = histogram.getCount();
+        this.total = toMillis(histogram.getTotal());
+        this.max = toMillis(histogram.getMax());
+        this.p50 = toMillis(histogram.getValueAtQuantile(0.50));
+        this.p95 = toMillis(histogram.getValueAtQuantile(0.95));
+        this.p99 = toMillis(histogram.getValueAtQuantile(0.99));
+    }
+
+    private static double toMillis(long micros) {
+        return micros / 1000.0;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getTotal() {
+        return total;
+    }
+
+    public double getMean() {
+        return count > 0 ? total / count : 0;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public double getP95() {
+        return p95;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+}
@@ -1,10 +1,9 @@
 package com.github.dynamicextensionsalfresco.policy;
 
 import com.github.dynamicextensionsalfresco.AbstractAnnotationBasedRegistrar;
+import com.github.dynamicextensionsalfresco.AnnotationIndex.Kind;
 import com.github.dynamicextensionsalfresco.behaviours.annotations.*;
 import com.github.dynamicextensionsalfresco.util.EventUtil;
-import org.alfresco.repo.policy.Behaviour.NotificationFrequency;
-import org.alfresco.repo.policy.JavaBehaviour;
 import org.alfresco.repo.policy.Policy;
 import org.alfresco.repo.policy.PolicyComponent;
 import org.alfresco.repo.policy.PolicyType;
@@ -37,6 +36,14 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 
 	private PolicyComponent policyComponent;
 
+	private AsyncBehaviourExecutor asyncBehaviourExecutor;
+
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	/* State */
+
+	private final List<BehaviourCircuitBreaker> registeredCircuitBreakers = new ArrayList<BehaviourCircuitBreaker>();
+
 	/* Operations */
 
 	/**
@@ -44,6 +51,10 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 	 */
 	public void bindBehaviours() {
 		for (final String beanName : getBeanFactory().getBeanDefinitionNames()) {
+			final Class<?> type = getBeanFactory().getType(beanName);
+			if (type != null && getAnnotationIndex().isCandidate(type, Kind.BEHAVIOUR) == false) {
+				continue;
+			}
 			final Behaviour behaviour = getBeanFactory().findAnnotationOnBean(beanName, Behaviour.class);
 			if (behaviour != null) {
 				bindBehaviours(getBeanFactory().getBean(beanName), behaviour);
@@ -51,11 +62,25 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 		}
 	}
 
+	/**
+	 * Unregisters the circuit breakers of the bound Behaviours from the {@link CircuitBreakerRegistry}.
+	 */
+	public void unregisterCircuitBreakers() {
+		if (getCircuitBreakerRegistry() != null) {
+			for (final BehaviourCircuitBreaker circuitBreaker : registeredCircuitBreakers) {
+				getCircuitBreakerRegistry().unregister(circuitBreaker);
+			}
+		}
+		registeredCircuitBreakers.clear();
+	}
+
 	protected void bindBehaviours(final Object bean, final Behaviour behaviour) {
 		Assert.notNull(bean, "Bean cannot be null.");
 
 		final QName[] classNames = parseQNames(behaviour.value(), behaviour);
-		final NotificationFrequency notificationFrequency = EventUtil.toNotificationFrequency(behaviour.event());
+		final Event event = behaviour.event();
+		final long budget = behaviour.budget();
+		final CircuitBreaker circuitBreaker = behaviour.circuitBreaker();
 
 		for (final Entry<PolicyType, List<BehaviourMethod>> entry : getBehaviourMethodsByType(bean.getClass())
 				.entrySet()) {
@@ -63,15 +88,15 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 				switch (entry.getKey()) {
 				case Class:
 					bindClassPolicyBehaviour(bean, behaviourMethod.method, behaviourMethod.policyName, classNames,
-							notificationFrequency);
+							event, budget, circuitBreaker);
 					break;
 				case Association:
 					bindAssocationPolicyBehaviour(bean, behaviourMethod.method, behaviourMethod.policyName, classNames,
-							notificationFrequency);
+							event, budget, circuitBreaker);
 					break;
 				case Property:
 					bindPropertyPolicyBehaviour(bean, behaviourMethod.method, behaviourMethod.policyName, classNames,
-							notificationFrequency);
+							event, budget, circuitBreaker);
 					break;
 				}
 			}
@@ -80,30 +105,37 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 
 	@SuppressWarnings("unchecked")
 	protected void bindClassPolicyBehaviour(final Object bean, final Method method, final QName policyName,
-			QName[] classNames, NotificationFrequency notificationFrequency) {
+			QName[] classNames, Event event, long budget, CircuitBreaker circuitBreaker) {
 		final ClassPolicy classPolicy = AnnotationUtils.findAnnotation(method, ClassPolicy.class);
 		if (classPolicy != null) {
 			classNames = parseQNames(classPolicy.value(), classPolicy);
 			if (classPolicy.event().equals(Event.INHERITED_OR_ALL) == false) {
-				notificationFrequency = EventUtil.toNotificationFrequency(classPolicy.event());
+				event = classPolicy.event();
+			}
+			if (classPolicy.budget() > 0) {
+				budget = classPolicy.budget();
+			}
+			if (classPolicy.circuitBreaker().equals(CircuitBreaker.INHERITED_OR_NONE) == false) {
+				circuitBreaker = classPolicy.circuitBreaker();
 			}
 		}
-		final JavaBehaviour behaviour = new DescriptiveJavaBehaviour(bean, method, notificationFrequency);
+		final org.alfresco.repo.policy.Behaviour behaviour = createBehaviour(bean, method, event, budget,
+				circuitBreaker);
 		if (classNames.length > 0) {
 			for (final QName className : classNames) {
 				if (className != null) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(
-								"Binding class Behaviour for policy {} and class {} for method {} with notification frequency {}.",
-                            policyName, className, method, notificationFrequency);
+								"Binding class Behaviour for policy {} and class {} for method {} with event {}.",
+                            policyName, className, method, event);
 					}
 					getPolicyComponent().bindClassBehaviour(policyName, className, behaviour);
 				}
 			}
 		} else {
 			if (logger.isDebugEnabled()) {
-				logger.debug("Binding class Behaviour for policy {} for method {} with notification frequency {}.",
-                    policyName, method, notificationFrequency);
+				logger.debug("Binding class Behaviour for policy {} for method {} with event {}.",
+                    policyName, method, event);
 			}
 			getPolicyComponent().bindClassBehaviour(policyName, bean, behaviour);
 		}
@@ -112,7 +144,7 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 
 	@SuppressWarnings("unchecked")
 	protected void bindAssocationPolicyBehaviour(final Object bean, final Method method, final QName policyName,
-			QName[] classNames, NotificationFrequency notificationFrequency) {
+			QName[] classNames, Event event, long budget, CircuitBreaker circuitBreaker) {
 		final AssociationPolicy associationPolicy = AnnotationUtils.findAnnotation(method, AssociationPolicy.class);
 		QName assocationName = null;
 		if (associationPolicy != null) {
@@ -123,24 +155,31 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
       }
 			assocationName = parseQName(associationPolicy.association(), associationPolicy);
 			if (associationPolicy.event().equals(Event.INHERITED_OR_ALL) == false) {
-				notificationFrequency = EventUtil.toNotificationFrequency(associationPolicy.event());
+				event = associationPolicy.event();
+			}
+			if (associationPolicy.budget() > 0) {
+				budget = associationPolicy.budget();
+			}
+			if (associationPolicy.circuitBreaker().equals(CircuitBreaker.INHERITED_OR_NONE) == false) {
+				circuitBreaker = associationPolicy.circuitBreaker();
 			}
 		}
-		final JavaBehaviour behaviour = new DescriptiveJavaBehaviour(bean, method, notificationFrequency);
+		final org.alfresco.repo.policy.Behaviour behaviour = createBehaviour(bean, method, event, budget,
+				circuitBreaker);
 		if (classNames.length > 0) {
 			for (final QName className : classNames) {
 				if (assocationName != null) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(
-								"Binding association Behaviour for policy {}, class {} and association {} for method {} with notification frequency {}.",
-                            policyName, className, assocationName, method, notificationFrequency);
+								"Binding association Behaviour for policy {}, class {} and association {} for method {} with event {}.",
+                            policyName, className, assocationName, method, event);
 					}
 					getPolicyComponent().bindAssociationBehaviour(policyName, className, assocationName, behaviour);
 				} else {
 					if (logger.isDebugEnabled()) {
 						logger.debug(
-								"Binding association Behaviour for policy {} and class {} for method {} with notification frequency {}.",
-                            policyName, className, method, notificationFrequency);
+								"Binding association Behaviour for policy {} and class {} for method {} with event {}.",
+                            policyName, className, method, event);
 					}
 					getPolicyComponent().bindAssociationBehaviour(policyName, className, behaviour);
 				}
@@ -148,8 +187,8 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 		} else {
 			if (logger.isDebugEnabled()) {
 				logger.debug(
-						"Binding association Behaviour for policy {} for method {} with notification frequency {}.",
-                    policyName, method, notificationFrequency);
+						"Binding association Behaviour for policy {} for method {} with event {}.",
+                    policyName, method, event);
 			}
 			getPolicyComponent().bindAssociationBehaviour(policyName, bean, behaviour);
 		}
@@ -162,7 +201,7 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 	 */
 	@SuppressWarnings("unchecked")
 	protected void bindPropertyPolicyBehaviour(final Object bean, final Method method, final QName policyName,
-			QName[] classNames, NotificationFrequency notificationFrequency) {
+			QName[] classNames, Event event, long budget, CircuitBreaker circuitBreaker) {
 		final PropertyPolicy propertyPolicy = AnnotationUtils.findAnnotation(method, PropertyPolicy.class);
 		QName propertyName = null;
 		if (propertyPolicy != null) {
@@ -171,32 +210,39 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 			}
 			propertyName = parseQName(propertyPolicy.property(), propertyPolicy);
 			if (propertyPolicy.event().equals(Event.INHERITED_OR_ALL) == false) {
-				notificationFrequency = EventUtil.toNotificationFrequency(propertyPolicy.event());
+				event = propertyPolicy.event();
+			}
+			if (propertyPolicy.budget() > 0) {
+				budget = propertyPolicy.budget();
+			}
+			if (propertyPolicy.circuitBreaker().equals(CircuitBreaker.INHERITED_OR_NONE) == false) {
+				circuitBreaker = propertyPolicy.circuitBreaker();
 			}
 		}
-		final JavaBehaviour behaviour = new DescriptiveJavaBehaviour(bean, method, notificationFrequency);
+		final org.alfresco.repo.policy.Behaviour behaviour = createBehaviour(bean, method, event, budget,
+				circuitBreaker);
 		if (classNames.length > 0) {
 			for (final QName className : classNames) {
 				if (propertyName != null) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(
-								"Binding property Behaviour for policy {}, class {} and property {} for method {} with notification frequency {}.",
-                            policyName, className, propertyName, method, notificationFrequency);
+								"Binding property Behaviour for policy {}, class {} and property {} for method {} with event {}.",
+                            policyName, className, propertyName, method, event);
 					}
 					getPolicyComponent().bindPropertyBehaviour(policyName, className, propertyName, behaviour);
 				} else {
 					if (logger.isDebugEnabled()) {
 						logger.debug(
-								"Binding property Behaviour for policy {} and class {} for method {} with notification frequency {}.",
-                            policyName, className, method, notificationFrequency);
+								"Binding property Behaviour for policy {} and class {} for method {} with event {}.",
+                            policyName, className, method, event);
 					}
 					getPolicyComponent().bindPropertyBehaviour(policyName, className, behaviour);
 				}
 			}
 		} else {
 			if (logger.isDebugEnabled()) {
-				logger.debug("Binding property Behaviour for policy {} for method {} with notification frequency {}.",
-                    policyName, method, notificationFrequency);
+				logger.debug("Binding property Behaviour for policy {} for method {} with event {}.",
+                    policyName, method, event);
 			}
 			getPolicyComponent().bindPropertyBehaviour(policyName, bean, behaviour);
 		}
@@ -206,6 +252,75 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 
 	/* Utility operations */
 
+	/**
+	 * Creates the Behaviour for the event, wrapped in a {@link GuardedBehaviour} if it has a budget or
+	 * {@link CircuitBreaker}.
+	 */
+	private org.alfresco.repo.policy.Behaviour createBehaviour(final Object bean, final Method method,
+			final Event event, final long budget, final CircuitBreaker circuitBreaker) {
+		final org.alfresco.repo.policy.Behaviour behaviour = createBehaviour(bean, method, event);
+		if (budget <= 0 && (circuitBreaker == CircuitBreaker.NONE
+				|| circuitBreaker == CircuitBreaker.INHERITED_OR_NONE)) {
+			return behaviour;
+		}
+		/* The guard would only time capturing the invocation, not the invocation after commit. */
+		if (event == Event.BATCH_COMMIT || event == Event.ASYNC_COMMIT) {
+			throw new IllegalStateException(String.format(
+					"Behaviour method %s uses Event.%s, which cannot be combined with a budget or circuit breaker.",
+					method, event));
+		}
+
+		org.alfresco.repo.policy.Behaviour fallback = null;
+		if (circuitBreaker == CircuitBreaker.DEFER) {
+			if (method.getReturnType() != void.class) {
+				throw new IllegalStateException(String.format(
+						"Behaviour method %s uses CircuitBreaker.DEFER, which is only supported for policy methods "
+								+ "that return void.",
+						method));
+			}
+			fallback = createBehaviour(bean, method, Event.ASYNC_COMMIT);
+		}
+		final BehaviourCircuitBreaker behaviourCircuitBreaker = new BehaviourCircuitBreaker(behaviour.toString(),
+				budget, circuitBreaker);
+		if (getCircuitBreakerRegistry() != null) {
+			getCircuitBreakerRegistry().register(behaviourCircuitBreaker);
+			registeredCircuitBreakers.add(behaviourCircuitBreaker);
+		}
+		return new GuardedBehaviour(behaviour, behaviourCircuitBreaker, fallback);
+	}
+
+	/**
+	 * Creates a {@link BatchingBehaviour} for {@link Event#BATCH_COMMIT}, an {@link AsyncBehaviour} for
+	 * {@link Event#ASYNC_COMMIT}, a {@link DescriptiveJavaBehaviour} otherwise.
+	 */
+	private org.alfresco.repo.policy.Behaviour createBehaviour(final Object bean, final Method method,
+			final Event event) {
+		if (event == Event.BATCH_COMMIT) {
+			if (method.getReturnType() != void.class) {
+				throw new IllegalStateException(String.format(
+						"Behaviour method %s uses Event.BATCH_COMMIT, which is only supported for policy methods "
+								+ "that return void.",
+						method));
+			}
+			return new BatchingBehaviour(bean, method);
+		}
+		if (event == Event.ASYNC_COMMIT) {
+			if (method.getReturnType() != void.class) {
+				throw new IllegalStateException(String.format(
+						"Behaviour method %s uses Event.ASYNC_COMMIT, which is only supported for policy methods "
+								+ "that return void.",
+						method));
+			}
+			if (getAsyncBehaviourExecutor() == null) {
+				throw new IllegalStateException(String.format(
+						"Behaviour method %s uses Event.ASYNC_COMMIT, but no AsyncBehaviourExecutor is configured.",
+						method));
+			}
+			return new AsyncBehaviour(bean, method, getAsyncBehaviourExecutor());
+		}
+		return new DescriptiveJavaBehaviour(bean, method, EventUtil.toNotificationFrequency(event));
+	}
+
 	private QName getPolicyQName(final Class<? extends Policy> policyClass) {
 		QName qName = null;
 		try {
@@ -292,6 +407,22 @@ public class AnnotationBasedBehaviourRegistrar extends AbstractAnnotationBasedRe
 		return policyComponent;
 	}
 
+	public void setAsyncBehaviourExecutor(final AsyncBehaviourExecutor asyncBehaviourExecutor) {
+		this.asyncBehaviourExecutor = asyncBehaviourExecutor;
+	}
+
+	protected AsyncBehaviourExecutor getAsyncBehaviourExecutor() {
+		return asyncBehaviourExecutor;
+	}
+
+	public void setCircuitBreakerRegistry(final CircuitBreakerRegistry circuitBreakerRegistry) {
+		this.circuitBreakerRegistry = circuitBreakerRegistry;
+	}
+
+	protected CircuitBreakerRegistry getCircuitBreakerRegistry() {
+		return circuitBreakerRegistry;
+	}
+
 	/* Utility classes */
 
 	private static class BehaviourMethod {
@@ -0,0 +1,156 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Event;
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.alfresco.repo.policy.BaseBehaviour;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.TransactionListenerAdapter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Behaviour for {@link Event#ASYNC_COMMIT}: captures the policy arguments and the current user during the transaction
+ * and passes them to the {@link AsyncBehaviourExecutor} after the transaction has committed. Outside of a transaction,
+ * invocations are passed to the executor immediately.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class AsyncBehaviour extends BaseBehaviour {
+
+    @NotNull
+    private final Object instance;
+
+    @NotNull
+    private final Method method;
+
+    @NotNull
+    private final AsyncBehaviourExecutor executor;
+
+    @NotNull
+    private final MetricRecorder recorder;
+
+    private final Map<Class<?>, Object> policyProxies = new ConcurrentHashMap<>();
+
+    public AsyncBehaviour(@NotNull Object instance, @NotNull Method method, @NotNull AsyncBehaviourExecutor executor) {
+        super(NotificationFrequency.EVERY_EVENT);
+        if (instance == null) {
+            throw new IllegalArgumentException("instance is null");
+        }
+        if (method == null) {
+            throw new IllegalArgumentException("method is null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor is null");
+        }
+        this.instance = instance;
+        this.method = method;
+        this.executor = executor;
+        this.recorder = executor.getRecorder(toString());
+        ReflectionUtils.makeAccessible(method);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getInterface(Class<T> policy) {
+        return (T) policyProxies.computeIfAbsent(policy, policyClass -> Proxy.newProxyInstance(
+                policyClass.getClassLoader(), new Class<?>[]{policyClass}, new CapturingInvocationHandler()));
+    }
+
+    @Override
+    public String toString() {
+        return method.getDeclaringClass().getName() + "." + method.getName();
+    }
+
+    @NotNull
+    MetricRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * Passes an invocation to the executor after the current transaction commits, binding the listener on the first
+     * invocation in the transaction.
+     */
+    void capture(@NotNull Object[] arguments) {
+        final String runAsUser = AuthenticationUtil.getRunAsUser();
+        if (AlfrescoTransactionSupport.getTransactionReadState() == TxnReadState.TXN_NONE) {
+            executor.submit(this, arguments, runAsUser);
+            return;
+        }
+
+        PendingInvocations pendingInvocations = AlfrescoTransactionSupport.getResource(this);
+        if (pendingInvocations == null) {
+            pendingInvocations = new PendingInvocations();
+            AlfrescoTransactionSupport.bindResource(this, pendingInvocations);
+            AlfrescoTransactionSupport.bindListener(pendingInvocations);
+        }
+        pendingInvocations.add(arguments, runAsUser);
+    }
+
+    /**
+     * Invokes the policy method on the calling thread. Like {@link org.alfresco.repo.policy.JavaBehaviour}, changes made
+     * by the Behaviour itself do not trigger it again.
+     */
+    void invoke(@NotNull Object[] arguments) {
+        disable();
+        try {
+            ReflectionUtils.invokeMethod(method, instance, arguments);
+        } finally {
+            enable();
+        }
+    }
+
+    private final class CapturingInvocationHandler implements InvocationHandler {
+
+        @Override
+        @Nullable
+        public Object invoke(@NotNull Object proxy, @NotNull Method method, @Nullable Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return AsyncBehaviour.this.toString();
+                }
+            }
+            /* The registrar only creates AsyncBehaviours for policy methods that return void. */
+            if (isEnabled()) {
+                capture(args != null ? args : new Object[0]);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The invocations of a single transaction, submitted in order once it has committed and discarded on rollback.
+     */
+    private final class PendingInvocations extends TransactionListenerAdapter {
+
+        private final List<Object[]> arguments = new ArrayList<>();
+
+        private final List<String> runAsUsers = new ArrayList<>();
+
+        void add(@NotNull Object[] arguments, @Nullable String runAsUser) {
+            this.arguments.add(arguments);
+            this.runAsUsers.add(runAsUser);
+        }
+
+        @Override
+        public void afterCommit() {
+            for (int i = 0; i < arguments.size(); i++) {
+                executor.submit(AsyncBehaviour.this, arguments.get(i), runAsUsers.get(i));
+            }
+        }
+    }
+}
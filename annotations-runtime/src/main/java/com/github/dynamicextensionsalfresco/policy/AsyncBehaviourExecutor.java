@@ -0,0 +1,290 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Event;
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+import com.github.dynamicextensionsalfresco.metrics.MetricType;
+import com.github.dynamicextensionsalfresco.metrics.Timer;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
+import org.alfresco.repo.transaction.RetryingTransactionHelper.RetryingTransactionCallback;
+import org.alfresco.service.transaction.TransactionService;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Bounded executor for the {@link Event#ASYNC_COMMIT} Behaviours of a single Dynamic Extension.
+ * <p>
+ * The threads are created on the first invocation, so extensions without asynchronous Behaviours do not start any.
+ * When the queue is full, invocations run on the submitting thread instead of being dropped. The pool size, queue
+ * depth and number of rejected invocations are exposed as an MXBean.
+ *
+ * @author Laurent Van der Linden
+ */
+public class AsyncBehaviourExecutor implements AsyncBehaviourExecutorMXBean {
+
+    public static final String OBJECT_NAME_PREFIX = "com.github.dynamicextensionsalfresco:type=AsyncBehaviours,name=";
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncBehaviourExecutor.class);
+
+    @NotNull
+    private final String name;
+
+    private TransactionService transactionService;
+
+    private Timer timer;
+
+    private int poolSize = 2;
+
+    private int queueCapacity = 1000;
+
+    private long shutdownTimeoutSeconds = 30;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /* guarded by this */
+    private ThreadPoolExecutor executor;
+
+    /* guarded by this */
+    private boolean shutdown;
+
+    /* guarded by this */
+    private ObjectName registeredObjectName;
+
+    public AsyncBehaviourExecutor(@NotNull String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+        this.name = name;
+    }
+
+    /**
+     * Obtains the {@link MetricRecorder} for the asynchronous invocations of a Behaviour.
+     */
+    @NotNull
+    MetricRecorder getRecorder(@NotNull String behaviourName) {
+        return timer != null ? timer.getRecorder(MetricType.BEHAVIOUR, behaviourName + " (async)")
+                : MetricRecorder.NOOP;
+    }
+
+    /**
+     * Invokes the Behaviour in a new retrying transaction, as the given user.
+     */
+    void submit(@NotNull final AsyncBehaviour behaviour, @NotNull final Object[] arguments,
+            @Nullable final String runAsUser) {
+        final MetricRecorder recorder = behaviour.getRecorder();
+        execute(() -> {
+            final long start = System.nanoTime();
+            try {
+                runAs(runAsUser, () -> transactionService.getRetryingTransactionHelper()
+                        .doInTransaction((RetryingTransactionCallback<Object>) () -> {
+                            behaviour.invoke(arguments);
+                            return null;
+                        }, false, true));
+            } catch (RuntimeException e) {
+                // there is no caller left to report to
+                logger.error("Error invoking asynchronous Behaviour {}.", behaviour, e);
+            } finally {
+                recorder.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    void execute(@NotNull Runnable task) {
+        getExecutor().execute(task);
+    }
+
+    private static void runAs(@Nullable String user, @NotNull RunAsWork<Object> work) {
+        if (user == null) {
+            try {
+                work.doWork();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return;
+        }
+        AuthenticationUtil.runAs(work, user);
+    }
+
+    @NotNull
+    private synchronized ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), new AsyncBehaviourThreadFactory(),
+                    new RunOnSubmitterPolicy());
+            if (shutdown) {
+                // invocations after the context has been closed are discarded by the rejection policy
+                executor.shutdown();
+            } else {
+                registerMBean();
+            }
+        }
+        return executor;
+    }
+
+    /* Lifecycle */
+
+    /**
+     * Waits for the queued invocations to complete and stops the threads.
+     */
+    public void shutdown() {
+        final ThreadPoolExecutor executor;
+        synchronized (this) {
+            shutdown = true;
+            executor = this.executor;
+            unregisterMBean();
+        }
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+                logger.warn("Discarding {} asynchronous Behaviour invocations of '{}' that did not complete within {}s.",
+                        executor.shutdownNow().size(), name, shutdownTimeoutSeconds);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void registerMBean() {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName(OBJECT_NAME_PREFIX + ObjectName.quote(name));
+            if (mBeanServer.isRegistered(objectName)) {
+                // left behind by an earlier deployment of the same extension
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+            registeredObjectName = objectName;
+        } catch (JMException e) {
+            logger.warn("Could not register asynchronous Behaviour MBean for '{}'.", name, e);
+        }
+    }
+
+    private void unregisterMBean() {
+        if (registeredObjectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredObjectName);
+        } catch (JMException e) {
+            logger.warn("Could not unregister asynchronous Behaviour MBean '{}'.", registeredObjectName, e);
+        } finally {
+            registeredObjectName = null;
+        }
+    }
+
+    /* State */
+
+    @Override
+    public synchronized int getPoolSize() {
+        return executor != null ? executor.getPoolSize() : 0;
+    }
+
+    @Override
+    public synchronized int getActiveCount() {
+        return executor != null ? executor.getActiveCount() : 0;
+    }
+
+    @Override
+    public synchronized int getQueueDepth() {
+        return executor != null ? executor.getQueue().size() : 0;
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public synchronized long getCompletedCount() {
+        return executor != null ? executor.getCompletedTaskCount() : 0;
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /* Dependencies */
+
+    @Autowired
+    public void setTransactionService(TransactionService transactionService) {
+        this.transactionService = transactionService;
+    }
+
+    @Autowired(required = false)
+    public void setTimer(Timer timer) {
+        this.timer = timer;
+    }
+
+    /* Configuration */
+
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("poolSize must be at least 1");
+        }
+        this.poolSize = poolSize;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("queueCapacity must be at least 1");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public void setShutdownTimeoutSeconds(long shutdownTimeoutSeconds) {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    private class AsyncBehaviourThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(@NotNull Runnable runnable) {
+            final Thread thread = new Thread(runnable, name + "-async-behaviour-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Runs rejected invocations on the submitting thread, so a full queue slows down commits instead of losing
+     * Behaviour invocations. Invocations submitted after {@link #shutdown()} are discarded.
+     */
+    private class RunOnSubmitterPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                logger.warn("Discarding asynchronous Behaviour invocation of '{}', its context has been closed.", name);
+                return;
+            }
+            if (rejectedCount.getAndIncrement() == 0) {
+                logger.warn("Asynchronous Behaviour queue of '{}' is full ({} invocations), running invocations on the "
+                        + "committing thread.", name, queueCapacity);
+            }
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+/**
+ * JMX management interface of the {@link AsyncBehaviourExecutor} of a Dynamic Extension.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface AsyncBehaviourExecutorMXBean {
+
+    int getPoolSize();
+
+    int getActiveCount();
+
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    long getCompletedCount();
+
+    /**
+     * @return The number of invocations that ran on the committing thread because the queue was full.
+     */
+    long getRejectedCount();
+}
@@ -0,0 +1,71 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Event;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The policy invocations for a single node within a transaction, passed to a Behaviour with
+ * {@link Event#BATCH_COMMIT}.
+ * <p>
+ * Only the arguments of the first and last invocation are kept. For <code>onUpdateProperties</code>, for example, the
+ * properties before the transaction are the second argument of {@link #getFirstArguments()}, and the properties at its
+ * end are the third argument of {@link #getLastArguments()}.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class BatchedInvocation {
+
+    @Nullable
+    private final NodeRef nodeRef;
+
+    @NotNull
+    private final Object[] firstArguments;
+
+    @NotNull
+    private Object[] lastArguments;
+
+    private int invocationCount = 1;
+
+    BatchedInvocation(@Nullable NodeRef nodeRef, @NotNull Object[] arguments) {
+        this.nodeRef = nodeRef;
+        this.firstArguments = arguments;
+        this.lastArguments = arguments;
+    }
+
+    void add(@NotNull Object[] arguments) {
+        this.lastArguments = arguments;
+        invocationCount++;
+    }
+
+    /**
+     * @return The node the policy was invoked for, or null if the policy arguments have no node.
+     */
+    @Nullable
+    public NodeRef getNodeRef() {
+        return nodeRef;
+    }
+
+    @NotNull
+    public Object[] getFirstArguments() {
+        return firstArguments.clone();
+    }
+
+    @NotNull
+    public Object[] getLastArguments() {
+        return lastArguments.clone();
+    }
+
+    /**
+     * @return The number of policy invocations that were coalesced.
+     */
+    public int getInvocationCount() {
+        return invocationCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%d invocations)", nodeRef, invocationCount);
+    }
+}
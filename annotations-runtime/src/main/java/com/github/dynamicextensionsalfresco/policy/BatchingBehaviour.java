@@ -0,0 +1,238 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Event;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.alfresco.repo.policy.BaseBehaviour;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport;
+import org.alfresco.repo.transaction.AlfrescoTransactionSupport.TxnReadState;
+import org.alfresco.repo.transaction.TransactionListener;
+import org.alfresco.service.cmr.repository.AssociationRef;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Behaviour for {@link Event#BATCH_COMMIT}: collects the policy invocations of a transaction, coalesced per node, and
+ * passes them to the batch method of the Behaviour in a single call before the transaction commits.
+ * <p>
+ * The batch method has the same name as the policy method and takes either a collection of {@link NodeRef}s or a
+ * <code>List&lt;{@link BatchedInvocation}&gt;</code>. Outside of a transaction, the batch method is called immediately
+ * for each invocation.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class BatchingBehaviour extends BaseBehaviour {
+
+    @NotNull
+    private final Object instance;
+
+    @NotNull
+    private final Method batchMethod;
+
+    private final boolean nodeRefBatch;
+
+    private final Map<Class<?>, Object> policyProxies = new ConcurrentHashMap<>();
+
+    public BatchingBehaviour(@NotNull Object instance, @NotNull Method policyMethod) {
+        super(NotificationFrequency.EVERY_EVENT);
+        if (instance == null) {
+            throw new IllegalArgumentException("instance is null");
+        }
+        if (policyMethod == null) {
+            throw new IllegalArgumentException("policyMethod is null");
+        }
+        this.instance = instance;
+        this.batchMethod = findBatchMethod(instance.getClass(), policyMethod);
+        this.nodeRefBatch = getElementType(batchMethod) == NodeRef.class;
+        ReflectionUtils.makeAccessible(batchMethod);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getInterface(Class<T> policy) {
+        return (T) policyProxies.computeIfAbsent(policy, policyClass -> Proxy.newProxyInstance(
+                policyClass.getClassLoader(), new Class<?>[]{policyClass}, new CollectingInvocationHandler()));
+    }
+
+    @Override
+    public String toString() {
+        return batchMethod.getDeclaringClass().getName() + "." + batchMethod.getName();
+    }
+
+    /**
+     * Adds an invocation to the batch of the current transaction, creating the batch on the first invocation.
+     */
+    void collect(@NotNull Object[] arguments) {
+        final NodeRef nodeRef = getNodeRef(arguments);
+        if (AlfrescoTransactionSupport.getTransactionReadState() != TxnReadState.TXN_READ_WRITE) {
+            invokeBatchMethod(Collections.singletonList(new BatchedInvocation(nodeRef, arguments)));
+            return;
+        }
+
+        Batch batch = AlfrescoTransactionSupport.getResource(this);
+        if (batch == null) {
+            batch = new Batch();
+            AlfrescoTransactionSupport.bindResource(this, batch);
+            AlfrescoTransactionSupport.bindListener(batch);
+        }
+        batch.add(nodeRef, arguments);
+    }
+
+    private void invokeBatchMethod(@NotNull Collection<BatchedInvocation> invocations) {
+        final Object argument;
+        if (nodeRefBatch) {
+            final Set<NodeRef> nodeRefs = new LinkedHashSet<>(invocations.size());
+            for (BatchedInvocation invocation : invocations) {
+                if (invocation.getNodeRef() != null) {
+                    nodeRefs.add(invocation.getNodeRef());
+                }
+            }
+            if (nodeRefs.isEmpty()) {
+                return;
+            }
+            argument = batchMethod.getParameterTypes()[0] == List.class ? new ArrayList<>(nodeRefs) : nodeRefs;
+        } else {
+            argument = new ArrayList<>(invocations);
+        }
+        // like JavaBehaviour, do not trigger the Behaviour for changes made by the Behaviour itself
+        disable();
+        try {
+            ReflectionUtils.invokeMethod(batchMethod, instance, argument);
+        } finally {
+            enable();
+        }
+    }
+
+    @Nullable
+    private static NodeRef getNodeRef(@NotNull Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof NodeRef) {
+                return (NodeRef) argument;
+            } else if (argument instanceof ChildAssociationRef) {
+                return ((ChildAssociationRef) argument).getChildRef();
+            } else if (argument instanceof AssociationRef) {
+                return ((AssociationRef) argument).getSourceRef();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds the public method with the name of the policy method and a single <code>Collection&lt;NodeRef&gt;</code>,
+     * <code>List&lt;NodeRef&gt;</code>, <code>Set&lt;NodeRef&gt;</code> or <code>List&lt;BatchedInvocation&gt;</code>
+     * parameter.
+     */
+    @NotNull
+    static Method findBatchMethod(@NotNull Class<?> beanClass, @NotNull Method policyMethod) {
+        for (Method method : beanClass.getMethods()) {
+            if (!method.getName().equals(policyMethod.getName()) || method.getParameterTypes().length != 1) {
+                continue;
+            }
+            final Class<?> parameterType = method.getParameterTypes()[0];
+            final Type elementType = getElementType(method);
+            if (elementType == NodeRef.class && (parameterType == Collection.class || parameterType == List.class
+                    || parameterType == Set.class)) {
+                return method;
+            }
+            if (elementType == BatchedInvocation.class
+                    && (parameterType == Collection.class || parameterType == List.class)) {
+                return method;
+            }
+        }
+        throw new IllegalStateException(String.format(
+                "Behaviour %s uses Event.BATCH_COMMIT for %s, but declares no public method %s(Collection<NodeRef>) "
+                        + "or %s(List<BatchedInvocation>).", beanClass.getName(), policyMethod.getName(),
+                policyMethod.getName(), policyMethod.getName()));
+    }
+
+    @Nullable
+    private static Type getElementType(@NotNull Method method) {
+        final Type parameterType = method.getGenericParameterTypes()[0];
+        if (parameterType instanceof ParameterizedType) {
+            final Type[] typeArguments = ((ParameterizedType) parameterType).getActualTypeArguments();
+            if (typeArguments.length == 1) {
+                return typeArguments[0];
+            }
+        }
+        return null;
+    }
+
+    private final class CollectingInvocationHandler implements InvocationHandler {
+
+        @Override
+        @Nullable
+        public Object invoke(@NotNull Object proxy, @NotNull Method method, @Nullable Object[] args) {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        return BatchingBehaviour.this.toString();
+                }
+            }
+            /* The registrar only creates BatchingBehaviours for policy methods that return void. */
+            if (isEnabled()) {
+                collect(args != null ? args : new Object[0]);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The invocations of a single transaction, keyed by node. Invocations without a node are never coalesced.
+     */
+    private final class Batch implements TransactionListener {
+
+        private final Map<Object, BatchedInvocation> invocations = new LinkedHashMap<>();
+
+        void add(@Nullable NodeRef nodeRef, @NotNull Object[] arguments) {
+            final Object key = nodeRef != null ? nodeRef : new Object();
+            final BatchedInvocation invocation = invocations.get(key);
+            if (invocation != null) {
+                invocation.add(arguments);
+            } else {
+                invocations.put(key, new BatchedInvocation(nodeRef, arguments));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // invocations caused by the batch itself, or by later listeners, start a new batch
+            AlfrescoTransactionSupport.unbindResource(BatchingBehaviour.this);
+            invokeBatchMethod(invocations.values());
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCommit() {
+        }
+
+        @Override
+        public void afterRollback() {
+        }
+    }
+}
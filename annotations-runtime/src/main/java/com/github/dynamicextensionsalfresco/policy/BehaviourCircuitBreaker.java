@@ -0,0 +1,220 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.CircuitBreaker;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the budget and the circuit of a single Behaviour, as configured by {@link CircuitBreaker}.
+ * <p>
+ * After {@link #FAILURE_THRESHOLD} consecutive slow or failing invocations, the circuit opens for
+ * {@link #OPEN_MILLIS}. After that, one invocation at a time is allowed through as a trial: a fast, successful trial
+ * closes the circuit, anything else opens it again. With {@link CircuitBreaker#NONE}, the circuit never opens.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class BehaviourCircuitBreaker {
+
+    public static final int FAILURE_THRESHOLD = 5;
+
+    public static final long OPEN_MILLIS = 60_000;
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Outcome of {@link #allowInvocation()}.
+     */
+    public enum Permission {
+        /**
+         * The circuit is open: the invocation is skipped or deferred.
+         */
+        DENIED,
+        /**
+         * The circuit is closed.
+         */
+        ALLOWED,
+        /**
+         * The circuit is half-open and this invocation is the trial that decides whether it closes.
+         */
+        TRIAL
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(BehaviourCircuitBreaker.class);
+
+    @NotNull
+    private final String name;
+
+    private final long budgetMillis;
+
+    private final long budgetNanos;
+
+    @NotNull
+    private final CircuitBreaker mode;
+
+    @NotNull
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean trialInProgress = new AtomicBoolean();
+
+    private volatile boolean open;
+
+    private volatile long openedAtNanos;
+
+    private final LongAdder invocationCount = new LongAdder();
+
+    private final LongAdder slowCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    private final LongAdder skippedCount = new LongAdder();
+
+    public BehaviourCircuitBreaker(@NotNull String name, long budgetMillis, @NotNull CircuitBreaker mode) {
+        this(name, budgetMillis, mode, System::nanoTime);
+    }
+
+    BehaviourCircuitBreaker(@NotNull String name, long budgetMillis, @NotNull CircuitBreaker mode,
+            @NotNull LongSupplier nanoClock) {
+        if (name == null) {
+            throw new IllegalArgumentException("name is null");
+        }
+        if (mode == null) {
+            throw new IllegalArgumentException("mode is null");
+        }
+        if (mode == CircuitBreaker.INHERITED_OR_NONE) {
+            mode = CircuitBreaker.NONE;
+        }
+        this.name = name;
+        this.budgetMillis = Math.max(budgetMillis, 0);
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(this.budgetMillis);
+        this.mode = mode;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return {@link Permission#DENIED} if the invocation should be skipped or deferred, because the circuit is open.
+     */
+    @NotNull
+    public Permission allowInvocation() {
+        if (!open) {
+            return Permission.ALLOWED;
+        }
+        if (nanoClock.getAsLong() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS)
+                || !trialInProgress.compareAndSet(false, true)) {
+            skippedCount.increment();
+            return Permission.DENIED;
+        }
+        return Permission.TRIAL;
+    }
+
+    /**
+     * Records an invocation that was allowed by {@link #allowInvocation()}.
+     *
+     * @param trial Whether the invocation was allowed as {@link Permission#TRIAL}. Only the trial itself lets the
+     * next trial through, invocations that started before the circuit opened do not.
+     * @return True if the invocation exceeded the budget.
+     */
+    public boolean recordInvocation(long durationNanos, boolean failed, boolean trial) {
+        invocationCount.increment();
+        final boolean slow = budgetNanos > 0 && durationNanos > budgetNanos;
+        if (slow) {
+            slowCount.increment();
+        }
+        if (failed) {
+            failureCount.increment();
+        }
+
+        if (slow || failed) {
+            final int failures = consecutiveFailures.incrementAndGet();
+            if (mode != CircuitBreaker.NONE && (open || failures >= FAILURE_THRESHOLD)) {
+                openedAtNanos = nanoClock.getAsLong();
+                if (!open) {
+                    open = true;
+                    logger.warn("Opened circuit of Behaviour {} after {} consecutive slow or failing invocations, "
+                            + "invocations are {} for {} ms.", name, failures,
+                            mode == CircuitBreaker.DEFER ? "deferred" : "skipped", OPEN_MILLIS);
+                }
+            }
+        } else {
+            consecutiveFailures.set(0);
+            if (open) {
+                open = false;
+                logger.info("Closed circuit of Behaviour {}.", name);
+            }
+        }
+        if (trial) {
+            trialInProgress.set(false);
+        }
+        return slow;
+    }
+
+    /**
+     * Closes the circuit and clears the counters.
+     */
+    public void reset() {
+        open = false;
+        consecutiveFailures.set(0);
+        trialInProgress.set(false);
+        invocationCount.reset();
+        slowCount.reset();
+        failureCount.reset();
+        skippedCount.reset();
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    @NotNull
+    public CircuitBreaker getMode() {
+        return mode;
+    }
+
+    @NotNull
+    public State getState() {
+        if (!open) {
+            return State.CLOSED;
+        }
+        return nanoClock.getAsLong() - openedAtNanos < TimeUnit.MILLISECONDS.toNanos(OPEN_MILLIS) ? State.OPEN
+                : State.HALF_OPEN;
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getInvocationCount() {
+        return invocationCount.sum();
+    }
+
+    public long getSlowCount() {
+        return slowCount.sum();
+    }
+
+    public long getFailureCount() {
+        return failureCount.sum();
+    }
+
+    /**
+     * @return The number of invocations that were skipped or deferred while the circuit was open.
+     */
+    public long getSkippedCount() {
+        return skippedCount.sum();
+    }
+}
@@ -1,38 +1,55 @@
 package com.github.dynamicextensionsalfresco.policy;
 
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+import com.github.dynamicextensionsalfresco.metrics.MetricType;
 import com.github.dynamicextensionsalfresco.metrics.Timer;
+import com.github.dynamicextensionsalfresco.policy.BehaviourCircuitBreaker.Permission;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 import org.alfresco.repo.policy.Behaviour;
 import org.alfresco.repo.policy.Policy;
 import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
 import org.alfresco.service.cmr.repository.NodeRef;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Proxy that allows a {@link Behaviour} to be garbage-collected.
  *
  *
  * This class prevents dangling references to {@link Behaviour} instances when code is undeployed from an OSGi
- * container, as the {@link PolicyComponent} interface offers no means of unregistering {@link Behaviour}s. Dangling
- * references to the {@link BehaviourProxy} itself will continue to exist throughout the lifetime of the Alfresco
- * process, however. There will be a slight memory leak for every time you redeploy a Dynamic Extension that contains a
- * Behaviour. (Further revisions of this class may add the ability to reattach a Behaviour once a module gets updated.)
+ * container, as the {@link PolicyComponent} interface offers no means of unregistering {@link Behaviour}s. References
+ * to the {@link BehaviourProxy} itself continue to exist throughout the lifetime of the Alfresco process. To keep
+ * these from piling up, a released proxy is kept in the {@link BehaviourSlotRegistry} and {@link #retarget(Behaviour,
+ * Timer) retargeted} when the Dynamic Extension is redeployed.
  *
  * @author Laurens Fridael
  */
 public final class BehaviourProxy implements Behaviour {
 
+    private static final Logger logger = LoggerFactory.getLogger(BehaviourProxy.class);
+
     private final ConcurrentHashMap<Class<?>, ProxyPolicy> proxiesByPolicyClass;
-    private Behaviour behaviour;
+    private volatile Behaviour behaviour;
     @NotNull
-    private final Timer timer;
+    private volatile Timer timer;
+    /* guarded by this */
+    private boolean released;
 
     public BehaviourProxy(@NotNull Behaviour behaviour, @NotNull Timer timer) {
         if (behaviour == null) {
@@ -53,25 +70,38 @@ public final class BehaviourProxy implements Behaviour {
         if (policy == null) {
             return null;
         }
+        ProxyPolicy proxyPolicy = proxiesByPolicyClass.get(policy);
+        if (proxyPolicy == null) {
+            proxyPolicy = createProxyPolicy(policy);
+        }
+        return (T) proxyPolicy.getProxy();
+    }
+
+    /**
+     * Synchronized with {@link #retarget(Behaviour, Timer)}, so a new policy proxy is never bound to the Behaviour of
+     * the previous deployment.
+     */
+    @NotNull
+    private synchronized ProxyPolicy createProxyPolicy(@NotNull Class<?> policy) {
         ProxyPolicy proxyPolicy = proxiesByPolicyClass.get(policy);
         if (proxyPolicy == null) {
             if (behaviour instanceof NoOpBehaviour) {
-                ProxyPolicyInvocationHandler proxyHandler = new ProxyPolicyInvocationHandler(null, this.behaviour,
-                        this.timer);
+                ProxyPolicyInvocationHandler proxyHandler = new ProxyPolicyInvocationHandler(policy, null,
+                        this.behaviour, this.timer);
                 Object proxy = Proxy
                         .newProxyInstance(this.getClass().getClassLoader(), new Class[]{policy}, proxyHandler);
                 proxyPolicy = new ProxyPolicy(proxy, proxyHandler);
             } else {
                 Object originalHandler = this.behaviour.getInterface(policy);
-                ProxyPolicyInvocationHandler proxyHandler = new ProxyPolicyInvocationHandler(originalHandler,
-                        this.behaviour, this.timer);
+                ProxyPolicyInvocationHandler proxyHandler = new ProxyPolicyInvocationHandler(policy,
+                        originalHandler, this.behaviour, this.timer);
                 Object proxy = Proxy
                         .newProxyInstance(this.getClass().getClassLoader(), new Class[]{policy}, proxyHandler);
                 proxyPolicy = new ProxyPolicy(proxy, proxyHandler);
             }
             proxiesByPolicyClass.put(policy, proxyPolicy);
         }
-        return (T) proxyPolicy.getProxy();
+        return proxyPolicy;
     }
 
     /**
@@ -83,6 +113,33 @@ public final class BehaviourProxy implements Behaviour {
         for (ProxyPolicy proxyPolicy : proxiesByPolicyClass.values()) {
             proxyPolicy.handler.release();
         }
+        this.released = true;
+    }
+
+    /**
+     * Points a released proxy to the {@link Behaviour} of a new deployment. The policy proxies handed out by {@link
+     * #getInterface(Class)} remain the same, as the PolicyComponent caches them.
+     *
+     * @return False if this proxy has not been released, so it cannot be retargeted.
+     */
+    public final synchronized boolean retarget(@NotNull Behaviour behaviour, @NotNull Timer timer) {
+        if (behaviour == null) {
+            throw new IllegalArgumentException("behaviour is null");
+        }
+        if (timer == null) {
+            throw new IllegalArgumentException("timer is null");
+        }
+        if (!released) {
+            return false;
+        }
+
+        this.behaviour = behaviour;
+        this.timer = timer;
+        for (Map.Entry<Class<?>, ProxyPolicy> entry : proxiesByPolicyClass.entrySet()) {
+            entry.getValue().handler.bind(entry.getKey(), behaviour.getInterface(entry.getKey()), behaviour, timer);
+        }
+        this.released = false;
+        return true;
     }
 
     @Override
@@ -118,80 +175,238 @@ public final class BehaviourProxy implements Behaviour {
 
     private static final class ProxyPolicyInvocationHandler implements InvocationHandler {
 
-        private Object target;
-        private Behaviour behaviour;
-        @NotNull
-        private final Timer timer;
+        /**
+         * Cleared on {@link #release()} and replaced on {@link #bind(Class, Object, Behaviour, Timer)}. Held in a
+         * single volatile field so a concurrent invocation sees either the complete binding or none at all.
+         */
+        @Nullable
+        private volatile PolicyBinding binding;
 
-        public ProxyPolicyInvocationHandler(@Nullable Object target, @Nullable Behaviour behaviour,
-                @NotNull Timer timer) {
+        public ProxyPolicyInvocationHandler(@NotNull Class<?> policy, @Nullable Object target,
+                @Nullable Behaviour behaviour, @NotNull Timer timer) {
+            if (policy == null) {
+                throw new IllegalArgumentException("policy is null");
+            }
             if (timer == null) {
                 throw new IllegalArgumentException("timer is null");
             }
 
-            this.target = target;
-            this.behaviour = behaviour;
-            this.timer = timer;
+            if (target != null && behaviour != null) {
+                bind(policy, target, behaviour, timer);
+            }
         }
 
         @Override
         @Nullable
         public Object invoke(@NotNull Object proxy, @NotNull final Method method, @Nullable final Object[] args)
                 throws Throwable {
-            if (proxy == null) {
-                throw new IllegalArgumentException("proxy is null");
+            if (method.getDeclaringClass() == Object.class) {
+                // Direct Object methods to ourselves.
+                try {
+                    return method.invoke(this, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+
+            /* Policy interface operations always return void. */
+            final PolicyBinding binding = this.binding;
+            if (binding == null) {
+                return null;
+            }
+            final int methodIndex = binding.getMethodIndex(method);
+            final BehaviourCircuitBreaker circuitBreaker = binding.circuitBreaker;
+            final Permission permission = circuitBreaker != null ? circuitBreaker.allowInvocation() : null;
+            if (permission == Permission.DENIED) {
+                final MethodHandle[] fallbackHandles = binding.fallbackHandles;
+                return fallbackHandles != null ? fallbackHandles[methodIndex].invokeExact(args) : null;
             }
-            if (method == null) {
-                throw new IllegalArgumentException("method is null");
+            final MethodHandle methodHandle = binding.methodHandles[methodIndex];
+            final MetricRecorder recorder = binding.recorder;
+            final Timer timer = binding.timer;
+            final boolean tracing = timer.isEnabled();
+            if (!tracing && !recorder.isRecording() && circuitBreaker == null) {
+                return methodHandle.invokeExact(args);
             }
 
-            if (method.getDeclaringClass().isAssignableFrom(Object.class)) {
-                // Direct Object methods to ourselves.
-                if (args != null) {
-                    return method.invoke(this, Arrays.copyOf(args, args.length));
-                } else {
-                    return method.invoke(this);
+            if (tracing) {
+                timer.start(createLabel(binding.behaviour, args));
+            }
+            final long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                final Object result = methodHandle.invokeExact(args);
+                failed = false;
+                return result;
+            } finally {
+                final long duration = System.nanoTime() - start;
+                recorder.record(duration);
+                if (circuitBreaker != null && circuitBreaker.recordInvocation(duration, failed,
+                        permission == Permission.TRIAL)) {
+                    logger.warn("Behaviour invocation {} took {} ms, exceeding its budget of {} ms.",
+                            createLabel(binding.behaviour, args), TimeUnit.NANOSECONDS.toMillis(duration),
+                            circuitBreaker.getBudgetMillis());
                 }
-            } else if (Policy.class.isAssignableFrom(method.getDeclaringClass())) {
-                /* Policy interface operations always return void. */
-                if (this.behaviour != null) {
-                    try {
-                        return timer.time(
-                                () -> {
-                                    StringBuilder labelBuilder = new StringBuilder();
-                                    labelBuilder.append(behaviour.toString()).append(" ");
-
-                                    if (args != null) {
-                                        labelBuilder.append(
-                                                Arrays.stream(args)
-                                                        .filter(arg -> arg instanceof NodeRef)
-                                                        .map(Object::toString)
-                                                        .collect(Collectors.joining(",")));
-                                    }
-                                    return labelBuilder.toString();
-                                },
-                                () -> (args != null) ?
-                                        method.invoke(target, Arrays.copyOf(args, args.length)) :
-                                        method.invoke(target));
-                    } catch (InvocationTargetException e) {
-                        throw e.getTargetException();
+                if (tracing) {
+                    timer.stop();
+                }
+            }
+        }
+
+        final void bind(@NotNull Class<?> policy, @NotNull Object target, @NotNull Behaviour behaviour,
+                @NotNull Timer timer) {
+            this.binding = new PolicyBinding(policy, target, behaviour, timer,
+                    timer.getRecorder(MetricType.BEHAVIOUR, behaviour.toString()));
+        }
+
+        public final void release() {
+            this.binding = null;
+        }
+
+        @NotNull
+        private static String createLabel(@NotNull Behaviour behaviour, @Nullable Object[] args) {
+            final StringBuilder labelBuilder = new StringBuilder();
+            labelBuilder.append(behaviour.toString()).append(" ");
+            if (args != null) {
+                boolean first = true;
+                for (Object arg : args) {
+                    final NodeRef nodeRef;
+                    if (arg instanceof NodeRef) {
+                        nodeRef = (NodeRef) arg;
+                    } else if (arg instanceof ChildAssociationRef) {
+                        nodeRef = ((ChildAssociationRef) arg).getChildRef();
+                    } else {
+                        continue;
+                    }
+                    if (!first) {
+                        labelBuilder.append(",");
                     }
+                    labelBuilder.append(nodeRef);
+                    first = false;
+                }
+            }
+            return labelBuilder.toString();
+        }
+    }
+
+    /**
+     * Dispatch table from the operations of a single {@link Policy} interface to {@link MethodHandle}s bound to the
+     * original policy handler. The handles take the invocation arguments as an array, so the argument array of the
+     * proxy invocation is passed along without copying.
+     */
+    private static final class PolicyBinding {
+
+        private static final MethodType DISPATCH_TYPE = MethodType.methodType(Object.class, Object[].class);
+
+        /**
+         * Fallback for policy methods that cannot be unreflected: {@code (Method, Object, Object[])Object}.
+         */
+        private static final MethodHandle REFLECTIVE_INVOKE = createReflectiveInvoke();
+
+        @NotNull
+        private final Behaviour behaviour;
+        @NotNull
+        private final Timer timer;
+        @NotNull
+        private final MetricRecorder recorder;
+        /**
+         * Index of each policy method in {@link #methodHandles}. Built once and never modified, so concurrent
+         * invocations can read it without locking.
+         */
+        @NotNull
+        private final Map<Method, Integer> methodIndexes;
+        @NotNull
+        private final MethodHandle[] methodHandles;
+        /**
+         * Set if the Behaviour is a {@link GuardedBehaviour}.
+         */
+        @Nullable
+        private final BehaviourCircuitBreaker circuitBreaker;
+        /**
+         * Dispatch table to the fallback of a {@link GuardedBehaviour}, in the same order as {@link #methodHandles}.
+         */
+        @Nullable
+        private final MethodHandle[] fallbackHandles;
+
+        PolicyBinding(@NotNull Class<?> policy, @NotNull Object target, @NotNull Behaviour behaviour,
+                @NotNull Timer timer, @NotNull MetricRecorder recorder) {
+            this.behaviour = behaviour;
+            this.timer = timer;
+            this.recorder = recorder;
+
+            final List<Method> policyMethods = new ArrayList<>();
+            for (Method method : policy.getMethods()) {
+                if (Policy.class.isAssignableFrom(method.getDeclaringClass())) {
+                    policyMethods.add(method);
+                }
+            }
+            final Map<Method, Integer> methodIndexes = new HashMap<>();
+            this.methodHandles = new MethodHandle[policyMethods.size()];
+            for (int i = 0; i < policyMethods.size(); i++) {
+                methodIndexes.put(policyMethods.get(i), i);
+                this.methodHandles[i] = createMethodHandle(policyMethods.get(i), target);
+            }
+            this.methodIndexes = Collections.unmodifiableMap(methodIndexes);
+
+            if (behaviour instanceof GuardedBehaviour) {
+                final GuardedBehaviour guardedBehaviour = (GuardedBehaviour) behaviour;
+                this.circuitBreaker = guardedBehaviour.getCircuitBreaker();
+                final Behaviour fallback = guardedBehaviour.getFallback();
+                if (fallback != null) {
+                    final Object fallbackTarget = fallback.getInterface(policy);
+                    this.fallbackHandles = new MethodHandle[policyMethods.size()];
+                    for (int i = 0; i < policyMethods.size(); i++) {
+                        this.fallbackHandles[i] = createMethodHandle(policyMethods.get(i), fallbackTarget);
+                    }
+                } else {
+                    this.fallbackHandles = null;
                 }
-                return null;
             } else {
+                this.circuitBreaker = null;
+                this.fallbackHandles = null;
+            }
+        }
+
+        int getMethodIndex(@NotNull Method method) {
+            final Integer methodIndex = methodIndexes.get(method);
+            if (methodIndex == null) {
                 /* We should never get to this point. */
                 throw new AssertionError("Cannot handle methods from " + method.getDeclaringClass());
             }
+            return methodIndex;
         }
 
-        public final void release() {
-            this.target = null;
-            this.behaviour = null;
+        @NotNull
+        private static MethodHandle createMethodHandle(@NotNull Method method, @NotNull Object target) {
+            MethodHandle methodHandle;
+            try {
+                methodHandle = MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException e) {
+                methodHandle = REFLECTIVE_INVOKE.bindTo(method);
+            }
+            return methodHandle.bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterTypes().length)
+                    .asType(DISPATCH_TYPE);
         }
 
         @NotNull
-        public final Timer getTimer() {
-            return this.timer;
+        private static MethodHandle createReflectiveInvoke() {
+            try {
+                return MethodHandles.lookup().findStatic(PolicyBinding.class, "invokeReflectively",
+                        MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Nullable
+        private static Object invokeReflectively(@NotNull Method method, @NotNull Object target,
+                @Nullable Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
         }
     }
 
@@ -1,6 +1,7 @@
 package com.github.dynamicextensionsalfresco.policy;
 
 import org.alfresco.repo.policy.Behaviour;
+import org.alfresco.repo.policy.BehaviourDefinition;
 
 /**
  * Defines factory operations for creating {@link BehaviourProxy} instances.
@@ -12,4 +13,24 @@ public interface BehaviourProxyFactory {
 
 	BehaviourProxy createBehaviourProxy(Behaviour behaviour);
 
+	/**
+	 * Binds a {@link BehaviourProxy} for the given {@link Behaviour}. Implementations may retarget the proxy that an
+	 * earlier deployment bound for the same slot, in which case the binding is not invoked.
+	 *
+	 * @param slotKey Identifies the policy, the class or service and the Behaviour method of the binding.
+	 */
+	default BehaviourDefinition<?> bindBehaviourProxy(String slotKey, Behaviour behaviour, Binding binding)
+			throws Throwable {
+		return binding.bind(createBehaviourProxy(behaviour));
+	}
+
+	/**
+	 * Binds a {@link BehaviourProxy} to the PolicyComponent.
+	 */
+	@FunctionalInterface
+	interface Binding {
+
+		BehaviourDefinition<?> bind(BehaviourProxy behaviourProxy) throws Throwable;
+	}
+
 }
@@ -0,0 +1,38 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import org.alfresco.repo.policy.BehaviourDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A {@link BehaviourProxy} that is bound to the PolicyComponent, together with the {@link BehaviourDefinition} of that
+ * binding.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class BehaviourSlot {
+
+    @NotNull
+    private final BehaviourProxy behaviourProxy;
+
+    @Nullable
+    private final BehaviourDefinition<?> behaviourDefinition;
+
+    public BehaviourSlot(@NotNull BehaviourProxy behaviourProxy, @Nullable BehaviourDefinition<?> behaviourDefinition) {
+        if (behaviourProxy == null) {
+            throw new IllegalArgumentException("behaviourProxy is null");
+        }
+        this.behaviourProxy = behaviourProxy;
+        this.behaviourDefinition = behaviourDefinition;
+    }
+
+    @NotNull
+    public BehaviourProxy getBehaviourProxy() {
+        return behaviourProxy;
+    }
+
+    @Nullable
+    public BehaviourDefinition<?> getBehaviourDefinition() {
+        return behaviourDefinition;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import org.alfresco.repo.policy.PolicyComponent;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Registry of the {@link BehaviourSlot}s bound to the {@link PolicyComponent} by Dynamic Extensions. A single instance
+ * lives in the host application context, like the {@link PolicyComponent} itself, so a redeployed extension can
+ * retarget the {@link BehaviourProxy}s of its earlier deployment instead of binding new ones.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface BehaviourSlotRegistry {
+
+    /**
+     * @return The slot with the given key, or null if no Behaviour was bound for it yet.
+     */
+    @Nullable
+    BehaviourSlot getSlot(@NotNull String key);
+
+    void putSlot(@NotNull String key, @NotNull BehaviourSlot slot);
+
+    /**
+     * @return The number of slots, which does not grow when extensions are redeployed.
+     */
+    int getSlotCount();
+}
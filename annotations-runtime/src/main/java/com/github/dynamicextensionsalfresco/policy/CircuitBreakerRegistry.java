@@ -0,0 +1,34 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import java.util.List;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Registry of the {@link BehaviourCircuitBreaker}s of all Dynamic Extensions, so their state can be shown in the
+ * control panel. A single instance is shared through the OSGi service registry.
+ *
+ * @author Laurent Van der Linden
+ */
+public interface CircuitBreakerRegistry {
+
+    /**
+     * Registers a circuit breaker, replacing the one with the same name from an earlier deployment.
+     */
+    void register(@NotNull BehaviourCircuitBreaker circuitBreaker);
+
+    /**
+     * Unregisters a circuit breaker, unless it has already been replaced by one of a later deployment.
+     */
+    void unregister(@NotNull BehaviourCircuitBreaker circuitBreaker);
+
+    /**
+     * @return The circuit breakers, ordered by name.
+     */
+    @NotNull
+    List<BehaviourCircuitBreaker> getCircuitBreakers();
+
+    /**
+     * Closes all circuits and clears their counters.
+     */
+    void reset();
+}
@@ -1,9 +1,12 @@
 package com.github.dynamicextensionsalfresco.policy;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.github.dynamicextensionsalfresco.metrics.Timer;
 import org.alfresco.repo.policy.Behaviour;
+import org.alfresco.repo.policy.BehaviourDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,8 +21,13 @@ public class DefaultBehaviourProxyFactory  implements BehaviourProxyFactory, App
     @Autowired
     protected Timer timer;
 
+    private BehaviourSlotRegistry behaviourSlotRegistry;
+
     private ArrayList<BehaviourProxy> behaviourProxies = new ArrayList<BehaviourProxy>();
 
+    /* The number of bindings per slot key in this context, so identical bindings get distinct slots. */
+    private final Map<String, Integer> slotKeyCounts = new HashMap<String, Integer>();
+
     @Override
     public BehaviourProxy createBehaviourProxy(Behaviour behaviour) {
         logger.debug("Creating BehaviourProxy for {} instance.", behaviour.getClass().getName());
@@ -28,6 +36,34 @@ public class DefaultBehaviourProxyFactory  implements BehaviourProxyFactory, App
         return behaviourProxy;
     }
 
+    /**
+     * Retargets the {@link BehaviourProxy} of the slot if an earlier deployment released it, so redeploying an
+     * extension does not bind additional proxies to the PolicyComponent.
+     */
+    @Override
+    public synchronized BehaviourDefinition<?> bindBehaviourProxy(String slotKey, Behaviour behaviour, Binding binding)
+            throws Throwable {
+        if (behaviourSlotRegistry == null) {
+            return binding.bind(createBehaviourProxy(behaviour));
+        }
+
+        final Integer count = slotKeyCounts.get(slotKey);
+        slotKeyCounts.put(slotKey, count != null ? count + 1 : 1);
+        final String key = count != null ? slotKey + "#" + count : slotKey;
+
+        final BehaviourSlot slot = behaviourSlotRegistry.getSlot(key);
+        if (slot != null && slot.getBehaviourProxy().retarget(behaviour, timer)) {
+            logger.debug("Retargeting BehaviourProxy for {} to {} instance.", key, behaviour.getClass().getName());
+            behaviourProxies.add(slot.getBehaviourProxy());
+            return slot.getBehaviourDefinition();
+        }
+
+        final BehaviourProxy behaviourProxy = createBehaviourProxy(behaviour);
+        final BehaviourDefinition<?> behaviourDefinition = binding.bind(behaviourProxy);
+        behaviourSlotRegistry.putSlot(key, new BehaviourSlot(behaviourProxy, behaviourDefinition));
+        return behaviourDefinition;
+    }
+
     /* Callback operations */
 
     public void  onApplicationEvent( ContextClosedEvent event) {
@@ -36,11 +72,18 @@ public class DefaultBehaviourProxyFactory  implements BehaviourProxyFactory, App
 
     /* Utility operations */
 
-    protected void releaseBehaviourReferences() {
+    protected synchronized void releaseBehaviourReferences() {
         for (BehaviourProxy behaviourProxy: behaviourProxies) {
             logger.debug("Releasing reference from BehaviourProxy to "+behaviourProxy.toString()+" instance." );
             behaviourProxy.release();
         }
         behaviourProxies.clear();
+        slotKeyCounts.clear();
+    }
+
+    /* Dependencies */
+
+    public void setBehaviourSlotRegistry(BehaviourSlotRegistry behaviourSlotRegistry) {
+        this.behaviourSlotRegistry = behaviourSlotRegistry;
     }
 }
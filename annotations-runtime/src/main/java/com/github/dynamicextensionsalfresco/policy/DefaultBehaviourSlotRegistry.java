@@ -0,0 +1,41 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link BehaviourSlotRegistry} that keeps its slots in memory.
+ *
+ * @author Laurent Van der Linden
+ */
+public class DefaultBehaviourSlotRegistry implements BehaviourSlotRegistry {
+
+    private final ConcurrentMap<String, BehaviourSlot> slots = new ConcurrentHashMap<>();
+
+    @Nullable
+    @Override
+    public BehaviourSlot getSlot(@NotNull String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        return slots.get(key);
+    }
+
+    @Override
+    public void putSlot(@NotNull String key, @NotNull BehaviourSlot slot) {
+        if (key == null) {
+            throw new IllegalArgumentException("key is null");
+        }
+        if (slot == null) {
+            throw new IllegalArgumentException("slot is null");
+        }
+        slots.put(key, slot);
+    }
+
+    @Override
+    public int getSlotCount() {
+        return slots.size();
+    }
+}
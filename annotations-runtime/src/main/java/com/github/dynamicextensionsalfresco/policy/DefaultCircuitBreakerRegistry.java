@@ -0,0 +1,49 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link CircuitBreakerRegistry} that keeps its circuit breakers in memory.
+ *
+ * @author Laurent Van der Linden
+ */
+public class DefaultCircuitBreakerRegistry implements CircuitBreakerRegistry {
+
+    private final ConcurrentMap<String, BehaviourCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    @Override
+    public void register(@NotNull BehaviourCircuitBreaker circuitBreaker) {
+        if (circuitBreaker == null) {
+            throw new IllegalArgumentException("circuitBreaker is null");
+        }
+        circuitBreakers.put(circuitBreaker.getName(), circuitBreaker);
+    }
+
+    @Override
+    public void unregister(@NotNull BehaviourCircuitBreaker circuitBreaker) {
+        if (circuitBreaker == null) {
+            throw new IllegalArgumentException("circuitBreaker is null");
+        }
+        circuitBreakers.remove(circuitBreaker.getName(), circuitBreaker);
+    }
+
+    @NotNull
+    @Override
+    public List<BehaviourCircuitBreaker> getCircuitBreakers() {
+        final List<BehaviourCircuitBreaker> result = new ArrayList<>(circuitBreakers.values());
+        result.sort(Comparator.comparing(BehaviourCircuitBreaker::getName));
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        for (BehaviourCircuitBreaker circuitBreaker : circuitBreakers.values()) {
+            circuitBreaker.reset();
+        }
+    }
+}
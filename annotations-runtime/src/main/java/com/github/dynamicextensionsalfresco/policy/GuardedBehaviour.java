@@ -0,0 +1,80 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import org.alfresco.repo.policy.Behaviour;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link Behaviour} with a budget and circuit breaker. The {@link BehaviourProxy} checks the
+ * {@link BehaviourCircuitBreaker} before invoking the Behaviour, and invokes the fallback instead while the circuit is
+ * open. All other operations are delegated.
+ *
+ * @author Laurent Van der Linden
+ */
+public final class GuardedBehaviour implements Behaviour {
+
+    @NotNull
+    private final Behaviour behaviour;
+
+    @NotNull
+    private final BehaviourCircuitBreaker circuitBreaker;
+
+    @Nullable
+    private final Behaviour fallback;
+
+    /**
+     * @param fallback Invoked while the circuit is open, or null to skip invocations.
+     */
+    public GuardedBehaviour(@NotNull Behaviour behaviour, @NotNull BehaviourCircuitBreaker circuitBreaker,
+            @Nullable Behaviour fallback) {
+        if (behaviour == null) {
+            throw new IllegalArgumentException("behaviour is null");
+        }
+        if (circuitBreaker == null) {
+            throw new IllegalArgumentException("circuitBreaker is null");
+        }
+        this.behaviour = behaviour;
+        this.circuitBreaker = circuitBreaker;
+        this.fallback = fallback;
+    }
+
+    @NotNull
+    public BehaviourCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    @Nullable
+    public Behaviour getFallback() {
+        return fallback;
+    }
+
+    @Override
+    public <T> T getInterface(Class<T> policy) {
+        return behaviour.getInterface(policy);
+    }
+
+    @Override
+    public void disable() {
+        behaviour.disable();
+    }
+
+    @Override
+    public void enable() {
+        behaviour.enable();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return behaviour.isEnabled();
+    }
+
+    @Override
+    public NotificationFrequency getNotificationFrequency() {
+        return behaviour.getNotificationFrequency();
+    }
+
+    @Override
+    public String toString() {
+        return behaviour.toString();
+    }
+}
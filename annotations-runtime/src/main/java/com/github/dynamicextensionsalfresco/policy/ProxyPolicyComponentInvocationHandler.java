@@ -4,11 +4,14 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 
 import org.alfresco.repo.policy.Behaviour;
+import org.alfresco.repo.policy.BehaviourDefinition;
 import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.service.namespace.QName;
 
 /**
  * {@link InvocationHandler} for {@link PolicyComponent} operations that replaces {@link Behaviour} arguments in method
- * invocations with a {@link BehaviourProxy}.
+ * invocations with a {@link BehaviourProxy}. The {@link BehaviourProxyFactory} may instead retarget a proxy that was
+ * bound for the same slot by an earlier deployment, in which case the {@link PolicyComponent} is not invoked.
  * <p>
  * The reason we don't implement {@link PolicyComponent} directly, is because the {@link PolicyComponent} interface has
  * references to package-level classes and interfaces in the <code>org.alfresco.repo.policy</code> package.
@@ -31,7 +34,18 @@ class ProxyPolicyComponentInvocationHandler implements InvocationHandler {
 	@Override
 	public Object invoke(final Object object, final Method method, final Object[] args) throws Throwable {
 		if (isBehaviourBindingMethod(method)) {
-			replaceBehaviourArgumentsWithProxies(args);
+			final int behaviourIndex = indexOfBehaviour(args);
+			if (behaviourIndex >= 0) {
+				return behaviourProxyFactory.bindBehaviourProxy(createSlotKey(method, args),
+						(Behaviour) args[behaviourIndex], new BehaviourProxyFactory.Binding() {
+
+							@Override
+							public BehaviourDefinition<?> bind(final BehaviourProxy behaviourProxy) throws Throwable {
+								args[behaviourIndex] = behaviourProxy;
+								return (BehaviourDefinition<?>) method.invoke(policyComponent, args);
+							}
+						});
+			}
 		}
 		return method.invoke(policyComponent, args);
 	}
@@ -40,12 +54,32 @@ class ProxyPolicyComponentInvocationHandler implements InvocationHandler {
 		return method.getName().matches("bind\\w+?Behaviour");
 	}
 
-	private void replaceBehaviourArgumentsWithProxies(final Object[] args) {
+	private static int indexOfBehaviour(final Object[] args) {
 		for (int i = 0; i < args.length; i++) {
 			if (args[i] instanceof Behaviour) {
-				args[i] = behaviourProxyFactory.createBehaviourProxy((Behaviour) args[i]);
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Creates a key that is stable across deployments: the binding method, the policy and class, association or
+	 * property names, the class of a service and the Behaviour method and notification frequency.
+	 */
+	static String createSlotKey(final Method method, final Object[] args) {
+		final StringBuilder key = new StringBuilder(method.getName());
+		for (final Object arg : args) {
+			key.append('|');
+			if (arg instanceof Behaviour) {
+				key.append(arg).append('@').append(((Behaviour) arg).getNotificationFrequency());
+			} else if (arg instanceof QName) {
+				key.append(arg);
+			} else if (arg != null) {
+				key.append(arg.getClass().getName());
 			}
 		}
+		return key.toString();
 	}
 
 }
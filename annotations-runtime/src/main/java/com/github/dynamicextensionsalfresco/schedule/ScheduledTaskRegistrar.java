@@ -1,6 +1,9 @@
 package com.github.dynamicextensionsalfresco.schedule;
 
 import com.github.dynamicextensionsalfresco.jobs.ScheduledQuartzJob;
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+import com.github.dynamicextensionsalfresco.metrics.MetricType;
+import com.github.dynamicextensionsalfresco.metrics.Timer;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.Properties;
@@ -32,6 +35,9 @@ public class ScheduledTaskRegistrar implements ApplicationContextAware, Initiali
     @Qualifier("global-properties")
     protected Properties globalProperties = new Properties();
 
+    @Autowired(required = false)
+    protected Timer timer;
+
     private ArrayList<TaskRegistration> registeredTasks = new ArrayList<>();
 
     private ApplicationContext applicationContext;
@@ -60,7 +66,7 @@ public class ScheduledTaskRegistrar implements ApplicationContextAware, Initiali
 
         TaskConfiguration config = getTaskConfiguration(bean);
 
-        TaskRegistration registration = scheduler.scheduleTask(config, bean);
+        TaskRegistration registration = scheduler.scheduleTask(config, timed(config, bean));
         registeredTasks.add(registration);
 
         logger.debug("Scheduled task {} from group {} with cron {}",
@@ -69,6 +75,15 @@ public class ScheduledTaskRegistrar implements ApplicationContextAware, Initiali
         return registration;
     }
 
+    private Object timed(TaskConfiguration config, Object bean) {
+        if (timer == null || !(bean instanceof Task)) {
+            return bean;
+        }
+        MetricRecorder recorder = timer.getRecorder(MetricType.SCHEDULED_TASK,
+                config.getGroup() + "." + config.getName());
+        return recorder.isRecording() ? new TimedTask((Task) bean, recorder) : bean;
+    }
+
     TaskConfiguration getTaskConfiguration(Object bean) {
         TaskConfiguration.Builder builder = TaskConfiguration.builder();
 
@@ -108,4 +123,8 @@ public class ScheduledTaskRegistrar implements ApplicationContextAware, Initiali
     public void setScheduler(TaskScheduler scheduler) {
         this.scheduler = scheduler;
     }
+
+    public void setTimer(Timer timer) {
+        this.timer = timer;
+    }
 }
\ No newline at end of file
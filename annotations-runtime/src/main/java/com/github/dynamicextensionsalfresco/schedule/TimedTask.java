@@ -0,0 +1,40 @@
+package com.github.dynamicextensionsalfresco.schedule;
+
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
+
+/**
+ * {@link Task} decorator that records the duration of every execution with a {@link MetricRecorder}.
+ */
+final class TimedTask implements Task {
+
+    private final Task task;
+
+    private final MetricRecorder recorder;
+
+    TimedTask(Task task, MetricRecorder recorder) {
+        if (task == null) throw new IllegalArgumentException("argument 'task' is null");
+        if (recorder == null) throw new IllegalArgumentException("argument 'recorder' is null");
+
+        this.task = task;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void execute() {
+        final long start = System.nanoTime();
+        try {
+            task.execute();
+        } finally {
+            recorder.record(System.nanoTime() - start);
+        }
+    }
+
+    Task getTask() {
+        return task;
+    }
+
+    @Override
+    public String toString() {
+        return task.toString();
+    }
+}
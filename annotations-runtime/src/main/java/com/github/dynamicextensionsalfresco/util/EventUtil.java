@@ -20,6 +20,12 @@ public class EventUtil {
                 return NotificationFrequency.EVERY_EVENT;
             case COMMIT:
                 return NotificationFrequency.TRANSACTION_COMMIT;
+            case BATCH_COMMIT:
+                // invocations are collected at every event and passed to the Behaviour at the commit
+                return NotificationFrequency.EVERY_EVENT;
+            case ASYNC_COMMIT:
+                // invocations are collected at every event and dispatched after the commit
+                return NotificationFrequency.EVERY_EVENT;
             case INHERITED_OR_ALL:
                 return NotificationFrequency.EVERY_EVENT;
             default:
@@ -1,18 +1,22 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
+import com.github.dynamicextensionsalfresco.invoke.MethodInvoker;
+import com.github.dynamicextensionsalfresco.metrics.MetricRecorder;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Attribute;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.arguments.ArgumentResolutionPlan;
 import com.github.dynamicextensionsalfresco.webscripts.arguments.HandlerMethodArgumentsResolver;
 import com.github.dynamicextensionsalfresco.webscripts.messages.AnnotationWebScriptOutputMessage;
 import com.github.dynamicextensionsalfresco.webscripts.resolutions.DefaultResolutionParameters;
 import com.github.dynamicextensionsalfresco.webscripts.resolutions.Resolution;
 import com.github.dynamicextensionsalfresco.webscripts.resolutions.TemplateResolution;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.alfresco.repo.security.authentication.AuthenticationUtil.RunAsWork;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.extensions.webscripts.*;
 import org.springframework.http.*;
-import org.springframework.http.MediaType;
-import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
@@ -21,8 +25,27 @@ import org.springframework.web.HttpMediaTypeNotSupportedException;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.*;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link WebScript} that delegates to the annotated handler methods of a bean.
+ * <p>
+ * {@link Uri} methods may return a {@link CompletionStage} or a {@link Callable} to produce their result later on.
+ * When the Web Script runs on a servlet container that supports asynchronous requests, and writes directly to the
+ * servlet response, the request thread is released and the response is completed once the result is available. This
+ * requires the Web Script to run without a transaction or with a transaction buffer size of 0. In all other cases the
+ * result is awaited on the request thread.
+ */
 public class AnnotationWebScript implements WebScript {
+
+	private static final boolean asyncServletPresent = ClassUtils.isPresent("javax.servlet.AsyncContext",
+			AnnotationWebScript.class.getClassLoader());
+
 	/* Dependencies */
 
 	private HandlerMethodArgumentsResolver argumentsResolver;
@@ -39,12 +62,36 @@ public class AnnotationWebScript implements WebScript {
 
 	private final String id;
 
+	/* State */
+
+	private Map<Method, ArgumentResolutionPlan> argumentResolutionPlans;
+
+	private final Map<Method, MethodInvoker> methodInvokers;
+
+	private MetricRecorder metricRecorder = MetricRecorder.NOOP;
+
+	private Executor asyncExecutor;
 
 	/* Main operations */
 
 	public AnnotationWebScript(final Description description, final Object handler,
 			final HandlerMethods handlerMethods, final HandlerMethodArgumentsResolver argumentsResolver,
                                final MessageConverterRegistry messageConverterRegistry) {
+		this(description, handler, handlerMethods, argumentsResolver, messageConverterRegistry,
+				Collections.<Method, ArgumentResolutionPlan>emptyMap(), Collections.<Method, MethodInvoker>emptyMap());
+	}
+
+	/**
+	 * Creates an instance that resolves handler method arguments using the given precompiled plans and invokes handler
+	 * methods through the given {@link MethodInvoker}s. Handler methods without a plan fall back on
+	 * {@link HandlerMethodArgumentsResolver#resolveHandlerMethodArguments}, handler methods without an invoker are
+	 * invoked using reflection.
+	 */
+	public AnnotationWebScript(final Description description, final Object handler,
+			final HandlerMethods handlerMethods, final HandlerMethodArgumentsResolver argumentsResolver,
+			final MessageConverterRegistry messageConverterRegistry,
+			final Map<Method, ArgumentResolutionPlan> argumentResolutionPlans,
+			final Map<Method, MethodInvoker> methodInvokers) {
 		Assert.notNull(description, "Description cannot be null.");
 		Assert.hasText(description.getId(), "No ID provided in Description.");
 		Assert.notNull(handler, "Handler cannot be null.");
@@ -56,6 +103,8 @@ public class AnnotationWebScript implements WebScript {
 		this.argumentsResolver = argumentsResolver;
 		this.messageConverterRegistry = messageConverterRegistry;
 		this.id = description.getId();
+		this.argumentResolutionPlans = argumentResolutionPlans;
+		this.methodInvokers = methodInvokers;
 	}
 
 	public Object getHandler() {
@@ -68,15 +117,42 @@ public class AnnotationWebScript implements WebScript {
 
 	@Override
 	public final void execute(final WebScriptRequest request, final WebScriptResponse response) throws IOException {
+		final MetricRecorder recorder = metricRecorder;
+		final boolean recording = recorder.isRecording();
+		final long start = recording ? System.nanoTime() : 0L;
 		final AnnotationWebScriptRequest annotationRequest = new AnnotationWebScriptRequest(request);
 		final AnnotationWebscriptResponse wrappedResponse = new AnnotationWebscriptResponse(response);
+		boolean async = false;
 		try {
 			invokeAttributeHandlerMethods(annotationRequest, wrappedResponse);
 			invokeBeforeHandlerMethods(annotationRequest, wrappedResponse);
 			final Object returnValue = invokeUriHandlerMethod(annotationRequest, wrappedResponse);
-			handleUriMethodReturnValue(handlerMethods, annotationRequest, wrappedResponse, returnValue);
+			if (returnValue instanceof CompletionStage || returnValue instanceof Callable) {
+				final AsyncWebScriptExecution execution = asyncServletPresent
+						? AsyncWebScriptExecution.start(request, response) : null;
+				if (execution != null) {
+					async = true;
+					try {
+						handleAsyncReturnValue(execution, annotationRequest, wrappedResponse, returnValue,
+								recording ? recorder : MetricRecorder.NOOP, start);
+					} catch (final Throwable e) {
+						// the request is already in asynchronous mode, so the container will not finish the response
+						async = false;
+						execution.fail(e);
+						execution.complete();
+					}
+				} else {
+					handleDeferredResult(annotationRequest, wrappedResponse, awaitDeferredResult(returnValue));
+				}
+			} else {
+				handleUriMethodReturnValue(handlerMethods, annotationRequest, wrappedResponse, returnValue);
+			}
 		} catch (final Throwable e) {
 			invokeExceptionHandlerMethods(e, annotationRequest, wrappedResponse);
+		} finally {
+			if (recording && !async) {
+				recorder.record(System.nanoTime() - start);
+			}
 		}
 	}
 
@@ -109,10 +185,8 @@ public class AnnotationWebScript implements WebScript {
 	protected boolean invokeBeforeHandlerMethods(final AnnotationWebScriptRequest request,
 			final WebScriptResponse response) {
 		for (final Method method : handlerMethods.getBeforeMethods()) {
-			method.setAccessible(true);
-			final Object[] arguments = getArgumentsResolver().resolveHandlerMethodArguments(method, handler, request,
-					response);
-			final Object returnValue = ReflectionUtils.invokeMethod(method, handler, arguments);
+			final Object[] arguments = resolveHandlerMethodArguments(method, request, response);
+			final Object returnValue = invokeHandlerMethod(method, arguments);
 			if (Boolean.FALSE.equals(returnValue)) {
 				return false;
 			}
@@ -124,10 +198,8 @@ public class AnnotationWebScript implements WebScript {
 	protected void invokeAttributeHandlerMethods(final AnnotationWebScriptRequest request,
 			final WebScriptResponse response) {
 		for (final Method method : handlerMethods.getAttributeMethods()) {
-			method.setAccessible(true);
-			final Object[] arguments = getArgumentsResolver().resolveHandlerMethodArguments(method, handler, request,
-					response);
-			final Object attribute = ReflectionUtils.invokeMethod(method, handler, arguments);
+			final Object[] arguments = resolveHandlerMethodArguments(method, request, response);
+			final Object attribute = invokeHandlerMethod(method, arguments);
 			if (attribute == null) {
 				continue;
 			}
@@ -148,10 +220,8 @@ public class AnnotationWebScript implements WebScript {
 	protected Object invokeUriHandlerMethod(final AnnotationWebScriptRequest request,
 			final AnnotationWebscriptResponse response) {
 		final Method uriMethod = handlerMethods.getUriMethod();
-		final Object[] arguments = argumentsResolver.resolveHandlerMethodArguments(uriMethod, handler, request,
-				response);
-		uriMethod.setAccessible(true);
-		return ReflectionUtils.invokeMethod(uriMethod, handler, arguments);
+		final Object[] arguments = resolveHandlerMethodArguments(uriMethod, request, response);
+		return invokeHandlerMethod(uriMethod, arguments);
 	}
 
 	@SuppressWarnings("unchecked")
@@ -224,6 +294,113 @@ public class AnnotationWebScript implements WebScript {
 		}
     }
 
+    /**
+     * Handles the result of a {@link CompletionStage} or {@link Callable} returned by the {@link Uri} method. A
+     * <code>null</code> result is treated like a <code>void</code> {@link Uri} method.
+     */
+    protected void handleDeferredResult(final AnnotationWebScriptRequest request,
+                                        final AnnotationWebscriptResponse response, final Object result) throws Exception {
+        if (result == null && handlerMethods.useResponseBody()) {
+            return;
+        }
+        handleUriMethodReturnValue(handlerMethods, request, response, result);
+    }
+
+    private static Object awaitDeferredResult(final Object returnValue) throws Throwable {
+        if (returnValue instanceof Callable) {
+            return ((Callable<?>) returnValue).call();
+        }
+        try {
+            return ((CompletionStage<?>) returnValue).toCompletableFuture().get();
+        } catch (final ExecutionException e) {
+            throw e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private void handleAsyncReturnValue(final AsyncWebScriptExecution execution,
+                                        final AnnotationWebScriptRequest request,
+                                        final AnnotationWebscriptResponse response, final Object returnValue,
+                                        final MetricRecorder recorder, final long start) {
+        // the result is handled on another thread, which does not inherit the authentication of the request
+        final String user = AuthenticationUtil.getFullyAuthenticatedUser();
+        final CompletionStage<?> stage;
+        if (returnValue instanceof Callable) {
+            final Callable<?> callable = (Callable<?>) returnValue;
+            final CompletableFuture<Object> future = new CompletableFuture<Object>();
+            final Runnable task = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        future.complete(runAs(user, callable));
+                    } catch (final Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            };
+            try {
+                if (asyncExecutor != null) {
+                    asyncExecutor.execute(task);
+                } else {
+                    execution.start(task);
+                }
+            } catch (final RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+            stage = future;
+        } else {
+            stage = (CompletionStage<?>) returnValue;
+        }
+        stage.whenComplete((result, failure) -> {
+            try {
+                runAs(user, () -> {
+                    completeAsyncExecution(execution, request, response, result, failure);
+                    return null;
+                });
+            } catch (final Throwable e) {
+                execution.fail(e);
+            } finally {
+                execution.complete();
+                if (recorder != MetricRecorder.NOOP) {
+                    recorder.record(System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private void completeAsyncExecution(final AsyncWebScriptExecution execution,
+                                        final AnnotationWebScriptRequest request,
+                                        final AnnotationWebscriptResponse response, final Object result,
+                                        final Throwable failure) {
+        if (execution.isCompleted()) {
+            return;
+        }
+        try {
+            if (failure != null) {
+                throw failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure;
+            }
+            handleDeferredResult(request, response, result);
+        } catch (final Throwable e) {
+            try {
+                invokeExceptionHandlerMethods(e, request, response);
+            } catch (final Throwable unhandled) {
+                execution.fail(unhandled);
+            }
+        }
+    }
+
+    private static <T> T runAs(final String user, final Callable<T> callable) throws Exception {
+        if (user == null) {
+            return callable.call();
+        }
+        return AuthenticationUtil.runAs(new RunAsWork<T>() {
+            @Override
+            public T doWork() throws Exception {
+                return callable.call();
+            }
+        }, user);
+    }
+
     private void handleHttpEntityResponse(AnnotationWebScriptRequest request, AnnotationWebscriptResponse response, HttpEntity<?> returnValue) throws IOException, HttpMediaTypeNotAcceptableException, HttpMediaTypeNotSupportedException {
 		if (returnValue == null) {
 			return;
@@ -251,74 +428,12 @@ public class AnnotationWebScript implements WebScript {
 	}
 
     private void handleResponseBody(AnnotationWebScriptRequest request, AnnotationWebscriptResponse response, Object returnValue) throws HttpMediaTypeNotSupportedException, HttpMediaTypeNotAcceptableException, IOException {
-        MediaType defaultResponseType = null;
-        String defaultResponse = this.getDescription().getDefaultFormat();
-        if (defaultResponse != null && !defaultResponse.isEmpty()) {
-            defaultResponseType = MediaType.parseMediaType(defaultResponse);
-        }
-
-        String[] headerResponseTypes = request.getHeaderValues("Accept"); // multiple accept headers can occur
-        Set<MediaType> acceptResponseTypes = new HashSet<MediaType>();
-        if (headerResponseTypes != null){
-            for(String headerResponseType : headerResponseTypes){
-
-                String[] responses = headerResponseType.split(","); // can also be comma seperated https://www.w3.org/Protocols/rfc2616/rfc2616-sec4.html#sec4.2
-                for (String acceptResponse : responses) {
-                    acceptResponseTypes.add(MediaType.parseMediaType(acceptResponse));
-                }
-            }
-        }
-
-        MediaType responseType = null;
-        if(defaultResponse == null && acceptResponseTypes.isEmpty()) { // no Content-Type information given anywhere
-             // both default and accept cannot be null together
-            throw new HttpMediaTypeNotSupportedException(null, this.messageConverterRegistry.getSupportedMediaTypes(), "Unable to convert, mediatype is null");
-        }
-        else if (acceptResponseTypes.isEmpty()) { // use the default
-             responseType = defaultResponseType;
-        }
-        else { // loop over the set, and select the first that works
-            for (MediaType mediaType : acceptResponseTypes){
-                if (defaultResponse != null) { // first, check against the default type
-                    if (mediaType.isCompatibleWith(defaultResponseType)){
-                        responseType = defaultResponseType;
-                        break;
-                    }
-                }
-
-                if (this.messageConverterRegistry.carWrite(returnValue.getClass(), mediaType) != null) {
-                    responseType = mediaType;
-                    break;
-                }
-
-            }
-        }
-
-        if (responseType == null) {
-            /**
-             * When there is no default, and there is no support for the headers, this exception is thrown.
-             */
-            throw new HttpMediaTypeNotAcceptableException(this.messageConverterRegistry.getSupportedMediaTypes());
-        }
-
-        HttpMessageConverter converter = this.messageConverterRegistry.carWrite(returnValue.getClass(), responseType);
-
-        if(converter == null) {
-            // unsupported type requested
-            List<MediaType> supported = this.messageConverterRegistry.getSupportedMediaTypes();
-
-            /**
-             * the {@link Jaxb2RootElementHttpMessageConverter} cannot convert a class
-             * if the {@link javax.xml.bind.annotation.XmlRootElement} is missing from the class
-             *
-             * If this annotation is missing, the can write will return false.
-             */
-            throw new HttpMediaTypeNotSupportedException(responseType, supported);
-        }
-
+        // multiple accept headers can occur, the outcome of content negotiation is cached by the registry
+        final MessageConverterRegistry.NegotiatedConverter negotiated = this.messageConverterRegistry.negotiateWrite(
+                returnValue.getClass(), request.getHeaderValues("Accept"), this.getDescription().getDefaultFormat());
 
         AnnotationWebScriptOutputMessage outputMessage = new AnnotationWebScriptOutputMessage(response);
-        converter.write(returnValue, responseType, outputMessage);
+        negotiated.getConverter().write(returnValue, negotiated.getMediaType(), outputMessage);
     }
 
     protected void invokeExceptionHandlerMethods(final Throwable exception, final AnnotationWebScriptRequest request,
@@ -330,10 +445,8 @@ public class AnnotationWebScript implements WebScript {
 		try {
 			request.setThrownException(exception);
 			for (final Method exceptionHandler : exceptionHandlerMethods) {
-				final Object[] arguments = getArgumentsResolver().resolveHandlerMethodArguments(exceptionHandler,
-						handler, request, response);
-				exceptionHandler.setAccessible(true);
-				ReflectionUtils.invokeMethod(exceptionHandler, handler, arguments);
+				final Object[] arguments = resolveHandlerMethodArguments(exceptionHandler, request, response);
+				invokeHandlerMethod(exceptionHandler, arguments);
 			}
 		} catch (final Throwable e) {
 			translateException(e);
@@ -345,6 +458,24 @@ public class AnnotationWebScript implements WebScript {
 
 	/* Utility operations */
 
+	protected Object[] resolveHandlerMethodArguments(final Method method, final WebScriptRequest request,
+			final WebScriptResponse response) {
+		final ArgumentResolutionPlan argumentResolutionPlan = argumentResolutionPlans.get(method);
+		if (argumentResolutionPlan != null) {
+			return argumentResolutionPlan.resolveArguments(request, response);
+		}
+		return getArgumentsResolver().resolveHandlerMethodArguments(method, handler, request, response);
+	}
+
+	protected Object invokeHandlerMethod(final Method method, final Object[] arguments) {
+		final MethodInvoker methodInvoker = methodInvokers.get(method);
+		if (methodInvoker != null) {
+			return methodInvoker.invoke(handler, arguments);
+		}
+		method.setAccessible(true);
+		return ReflectionUtils.invokeMethod(method, handler, arguments);
+	}
+
 	protected void translateException(final Throwable e) throws IOException {
 		if (e instanceof IOException) {
 			throw (IOException) e;
@@ -360,6 +491,24 @@ public class AnnotationWebScript implements WebScript {
 	public void setArgumentsResolver(final HandlerMethodArgumentsResolver handlerMethodArgumentsResolver) {
 		Assert.notNull(handlerMethodArgumentsResolver);
 		this.argumentsResolver = handlerMethodArgumentsResolver;
+		// plans are bound to the resolver that created them
+		this.argumentResolutionPlans = Collections.emptyMap();
+	}
+
+	/**
+	 * Sets the {@link MetricRecorder} that records the duration of every execution of this Web Script.
+	 */
+	public void setMetricRecorder(final MetricRecorder metricRecorder) {
+		Assert.notNull(metricRecorder);
+		this.metricRecorder = metricRecorder;
+	}
+
+	/**
+	 * Sets the {@link Executor} that runs {@link Callable}s returned by {@link Uri} methods when the request is
+	 * processed asynchronously. If not set, the servlet container runs them.
+	 */
+	public void setAsyncExecutor(final Executor asyncExecutor) {
+		this.asyncExecutor = asyncExecutor;
 	}
 
 	protected HandlerMethodArgumentsResolver getArgumentsResolver() {
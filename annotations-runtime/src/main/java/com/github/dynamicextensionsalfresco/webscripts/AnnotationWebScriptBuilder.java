@@ -1,5 +1,10 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
+import com.github.dynamicextensionsalfresco.invoke.MethodHandleInvokerFactory;
+import com.github.dynamicextensionsalfresco.invoke.MethodInvoker;
+import com.github.dynamicextensionsalfresco.invoke.MethodInvokerFactory;
+import com.github.dynamicextensionsalfresco.metrics.MetricType;
+import com.github.dynamicextensionsalfresco.metrics.Timer;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Attribute;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Authentication;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Before;
@@ -8,14 +13,18 @@ import com.github.dynamicextensionsalfresco.webscripts.annotations.ExceptionHand
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Transaction;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import com.github.dynamicextensionsalfresco.webscripts.arguments.ArgumentResolutionPlan;
 import com.github.dynamicextensionsalfresco.webscripts.arguments.HandlerMethodArgumentsResolver;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.springframework.beans.factory.BeanFactory;
@@ -48,6 +57,12 @@ public final class AnnotationWebScriptBuilder implements BeanFactoryAware {
     private HandlerMethodArgumentsResolver handlerMethodArgumentsResolver;
     @Autowired
     private MessageConverterRegistry messageConverterRegistry;
+    @NotNull
+    private MethodInvokerFactory methodInvokerFactory = new MethodHandleInvokerFactory();
+    @Nullable
+    private Timer timer;
+    @Nullable
+    private Executor asyncExecutor;
 
     public final void setHandlerMethodArgumentsResolver(@NotNull HandlerMethodArgumentsResolver value) {
         if (value == null) {
@@ -63,6 +78,21 @@ public final class AnnotationWebScriptBuilder implements BeanFactoryAware {
         this.messageConverterRegistry = value;
     }
 
+    public final void setMethodInvokerFactory(@NotNull MethodInvokerFactory value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value is null");
+        }
+        this.methodInvokerFactory = value;
+    }
+
+    public final void setTimer(@Nullable Timer value) {
+        this.timer = value;
+    }
+
+    public final void setAsyncExecutor(@Nullable Executor value) {
+        this.asyncExecutor = value;
+    }
+
     /* Dependencies */
 
     @Nullable
@@ -255,8 +285,59 @@ public final class AnnotationWebScriptBuilder implements BeanFactoryAware {
         if (handlerMethods == null) {
             throw new IllegalArgumentException("handlerMethods is null");
         }
-        return new AnnotationWebScript(description, handler, handlerMethods, this.handlerMethodArgumentsResolver,
-                this.messageConverterRegistry);
+        final AnnotationWebScript webScript = new AnnotationWebScript(description, handler, handlerMethods,
+                this.handlerMethodArgumentsResolver, this.messageConverterRegistry,
+                createArgumentResolutionPlans(handler, handlerMethods), createMethodInvokers(handlerMethods));
+        if (this.timer != null) {
+            webScript.setMetricRecorder(this.timer.getRecorder(MetricType.WEB_SCRIPT, description.getId()));
+        }
+        webScript.setAsyncExecutor(this.asyncExecutor);
+        return webScript;
+    }
+
+    /**
+     * Compiles the {@link ArgumentResolutionPlan}s for all handler methods up front, so request handling does not have
+     * to inspect parameter annotations, parameter names or look up argument resolvers.
+     */
+    @NotNull
+    protected final Map<Method, ArgumentResolutionPlan> createArgumentResolutionPlans(@NotNull Object handler,
+            @NotNull HandlerMethods handlerMethods) {
+        final List<Method> methods = getAllHandlerMethods(handlerMethods);
+        final Map<Method, ArgumentResolutionPlan> argumentResolutionPlans = new HashMap<>(methods.size() * 2);
+        for (Method method : methods) {
+            ArgumentResolutionPlan argumentResolutionPlan =
+                    this.handlerMethodArgumentsResolver.createArgumentResolutionPlan(method, handler);
+            if (argumentResolutionPlan != null) {
+                argumentResolutionPlans.put(method, argumentResolutionPlan);
+            }
+        }
+        return Collections.unmodifiableMap(argumentResolutionPlans);
+    }
+
+    /**
+     * Binds all handler methods to {@link MethodInvoker}s once, so reflective dispatch is kept out of request
+     * handling.
+     */
+    @NotNull
+    protected final Map<Method, MethodInvoker> createMethodInvokers(@NotNull HandlerMethods handlerMethods) {
+        final List<Method> methods = getAllHandlerMethods(handlerMethods);
+        final Map<Method, MethodInvoker> methodInvokers = new HashMap<>(methods.size() * 2);
+        for (Method method : methods) {
+            methodInvokers.put(method, this.methodInvokerFactory.createMethodInvoker(method));
+        }
+        return Collections.unmodifiableMap(methodInvokers);
+    }
+
+    @NotNull
+    private static List<Method> getAllHandlerMethods(@NotNull HandlerMethods handlerMethods) {
+        final List<Method> methods = new ArrayList<>();
+        methods.addAll(handlerMethods.getBeforeMethods());
+        methods.addAll(handlerMethods.getAttributeMethods());
+        for (ExceptionHandlerMethod exceptionHandlerMethod : handlerMethods.getExceptionHandlerMethods()) {
+            methods.add(exceptionHandlerMethod.getMethod());
+        }
+        methods.add(handlerMethods.getUriMethod());
+        return methods;
     }
 
     protected final void handleHandlerMethodAnnotation(@NotNull Uri uri, @NotNull Method method,
@@ -1,12 +1,14 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
+import com.github.dynamicextensionsalfresco.AnnotationIndex;
+import com.github.dynamicextensionsalfresco.AnnotationIndex.Kind;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.extensions.webscripts.WebScript;
+import org.springframework.util.Assert;
 
 public class AnnotationWebScriptRegistrar implements ApplicationContextAware {
 
@@ -19,6 +21,8 @@ public class AnnotationWebScriptRegistrar implements ApplicationContextAware {
 
 	private WebScriptUriRegistry webScriptUriRegistry;
 
+	private AnnotationIndex annotationIndex = AnnotationIndex.none();
+
 	/* State */
 
 	private final List<WebScript> webScripts = new ArrayList<WebScript>();
@@ -26,21 +30,22 @@ public class AnnotationWebScriptRegistrar implements ApplicationContextAware {
 	/* Main operations */
 
 	public void registerWebScripts() {
+		final List<WebScript> createdWebScripts = new ArrayList<WebScript>();
 		for (final String beanName : applicationContext.getBeanDefinitionNames()) {
-			for (final WebScript webScript : annotationBasedWebScriptBuilder.createWebScripts(beanName)) {
-				webScriptUriRegistry.registerWebScript(webScript);
-				webScripts.add(webScript);
+			final Class<?> type = applicationContext.getType(beanName);
+			if (type != null && !annotationIndex.isCandidate(type, Kind.WEB_SCRIPT)) {
+				continue;
 			}
+			createdWebScripts.addAll(annotationBasedWebScriptBuilder.createWebScripts(beanName));
 		}
+		// registering all Web Scripts of the bundle as a single batch avoids contention on the registry
+		webScriptUriRegistry.registerWebScripts(this, createdWebScripts);
+		webScripts.addAll(createdWebScripts);
 	}
 
 	public void unregisterWebScripts() {
-		for (final Iterator<WebScript> it = webScripts.iterator(); it.hasNext();) {
-			final WebScript webScript = it.next();
-			webScriptUriRegistry.unregisterWebScript(webScript);
-			it.remove();
-		}
-
+		webScriptUriRegistry.unregisterWebScripts(this);
+		webScripts.clear();
 	}
 
 	/* State */
@@ -64,4 +69,9 @@ public class AnnotationWebScriptRegistrar implements ApplicationContextAware {
 		this.webScriptUriRegistry = webScriptUriRegistry;
 	}
 
+	public void setAnnotationIndex(final AnnotationIndex annotationIndex) {
+		Assert.notNull(annotationIndex, "AnnotationIndex cannot be null.");
+		this.annotationIndex = annotationIndex;
+	}
+
 }
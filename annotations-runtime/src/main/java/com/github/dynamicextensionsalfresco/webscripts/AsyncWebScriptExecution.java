@@ -0,0 +1,132 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletResponse;
+
+/**
+ * Servlet 3 asynchronous processing of a single {@link AnnotationWebScript} execution.
+ * <p>
+ * This class references the Servlet 3 API and must only be loaded when that API is available.
+ *
+ * @author Laurent Van der Linden
+ */
+final class AsyncWebScriptExecution {
+
+	private static final Logger logger = LoggerFactory.getLogger(AsyncWebScriptExecution.class);
+
+	private final AsyncContext asyncContext;
+
+	private final HttpServletResponse httpServletResponse;
+
+	private final AtomicBoolean completed = new AtomicBoolean();
+
+	/**
+	 * Puts the servlet request of the given Web Script request in asynchronous mode.
+	 * <p>
+	 * Asynchronous processing is only possible when the Web Script writes directly to the servlet response. Responses
+	 * that are buffered by the Web Script container are written out as soon as the Web Script returns. This is the
+	 * case for Web Scripts with the default {@code @Transaction}, which has a non-zero buffer size, so these are always
+	 * handled synchronously. The buffering is already decided when this method is called: the container only passes
+	 * the servlet response itself when it does not buffer.
+	 *
+	 * @return The execution, or null if the request cannot be processed asynchronously.
+	 */
+	static AsyncWebScriptExecution start(final WebScriptRequest request, final WebScriptResponse response) {
+		if (!(response instanceof WebScriptServletResponse)) {
+			return null;
+		}
+		final HttpServletRequest httpServletRequest = WebScriptUtil.extractHttpServletRequest(request);
+		if (httpServletRequest == null || !httpServletRequest.isAsyncSupported()) {
+			return null;
+		}
+		final HttpServletResponse httpServletResponse = ((WebScriptServletResponse) response).getHttpServletResponse();
+		final AsyncContext asyncContext = httpServletRequest.startAsync(httpServletRequest, httpServletResponse);
+		try {
+			return new AsyncWebScriptExecution(asyncContext, httpServletResponse);
+		} catch (final RuntimeException e) {
+			asyncContext.complete();
+			throw e;
+		}
+	}
+
+	private AsyncWebScriptExecution(final AsyncContext asyncContext, final HttpServletResponse httpServletResponse) {
+		this.asyncContext = asyncContext;
+		this.httpServletResponse = httpServletResponse;
+		asyncContext.addListener(new AsyncListener() {
+
+			@Override
+			public void onTimeout(final AsyncEvent event) throws IOException {
+				if (completed.compareAndSet(false, true)) {
+					logger.warn("Asynchronous Web Script execution timed out.");
+					if (!httpServletResponse.isCommitted()) {
+						httpServletResponse.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+					}
+					asyncContext.complete();
+				}
+			}
+
+			@Override
+			public void onError(final AsyncEvent event) {
+				completed.set(true);
+			}
+
+			@Override
+			public void onComplete(final AsyncEvent event) {
+				completed.set(true);
+			}
+
+			@Override
+			public void onStartAsync(final AsyncEvent event) {
+			}
+		});
+	}
+
+	/**
+	 * Runs the given task on a thread managed by the servlet container.
+	 */
+	void start(final Runnable task) {
+		asyncContext.start(task);
+	}
+
+	/**
+	 * Indicates whether the response was already completed, for example because the request timed out.
+	 */
+	boolean isCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * Reports a failure that was not handled by any exception handler.
+	 */
+	void fail(final Throwable exception) {
+		logger.error("Error handling asynchronous Web Script result.", exception);
+		if (!isCompleted() && !httpServletResponse.isCommitted()) {
+			try {
+				httpServletResponse.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+			} catch (final IOException e) {
+				logger.debug("Could not send error response.", e);
+			}
+		}
+	}
+
+	/**
+	 * Completes the asynchronous request, which finishes the response.
+	 */
+	void complete() {
+		if (completed.compareAndSet(false, true)) {
+			asyncContext.complete();
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.extensions.webscripts.Container;
+import org.springframework.extensions.webscripts.Description;
+import org.springframework.extensions.webscripts.URLModelFactory;
+import org.springframework.extensions.webscripts.WebScript;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+import org.springframework.util.Assert;
+
+/**
+ * Placeholder {@link WebScript} for an extension whose Spring context is created on first use.
+ * <p>
+ * The {@link WebScriptUriRegistry} activates the extension when a request URI resolves to a placeholder. Activation
+ * registers the actual {@link WebScript}s for the same URIs, replacing the placeholders before the request is
+ * executed. A placeholder is only executed itself when activation failed, in which case it generates a
+ * "503 Service Unavailable" response.
+ *
+ * @author Laurent Van der Linden
+ */
+public class LazyWebScript implements WebScript {
+
+	/**
+	 * Creates the Spring context of an extension and registers its {@link WebScript}s.
+	 */
+	public interface Activation {
+
+		/**
+		 * Activates the extension, if not done already. Implementations must be thread-safe.
+		 */
+		void activate();
+
+	}
+
+	private final Description description;
+
+	private final Activation activation;
+
+	public LazyWebScript(final Description description, final Activation activation) {
+		Assert.notNull(description);
+		Assert.notNull(activation);
+		this.description = description;
+		this.activation = activation;
+	}
+
+	public void activate() {
+		activation.activate();
+	}
+
+	@Override
+	public void init(final Container container, final Description description) {
+	}
+
+	@Override
+	public void setURLModelFactory(final URLModelFactory urlModelFactory) {
+	}
+
+	@Override
+	public Description getDescription() {
+		return description;
+	}
+
+	@Override
+	public ResourceBundle getResources() {
+		return null;
+	}
+
+	@Override
+	public void execute(final WebScriptRequest request, final WebScriptResponse response) throws IOException {
+		response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+		response.setHeader("Cache-Control", "no-cache,no-store");
+		response.getWriter().write("This Web Script is currently unavailable. Its extension could not be activated.");
+	}
+}
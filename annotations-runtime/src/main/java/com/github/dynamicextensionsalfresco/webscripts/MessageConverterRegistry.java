@@ -1,7 +1,13 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
@@ -10,6 +16,8 @@ import org.springframework.http.converter.json.MappingJackson2HttpMessageConvert
 import org.springframework.http.converter.xml.Jaxb2RootElementHttpMessageConverter;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
 
 /**
  * This class is overwritten for older versions of Alfresco. When making changes here, make sure you also take a look to
@@ -19,8 +27,18 @@ public class MessageConverterRegistry {
     private static final Logger LOGGER = LoggerFactory.getLogger(
             MessageConverterRegistry.class);
 
+    /**
+     * Upper bound for the number of entries in each negotiation cache. The caches are cleared when the bound is
+     * reached, which only happens when clients send a large variety of headers.
+     */
+    static final int MAX_NEGOTIATION_CACHE_SIZE = 256;
+
     private final List<HttpMessageConverter<?>> messageConverters;
 
+    private final Map<NegotiationKey, NegotiatedConverter> writeNegotiationCache = new ConcurrentHashMap<>();
+
+    private final Map<NegotiationKey, NegotiatedConverter> readNegotiationCache = new ConcurrentHashMap<>();
+
     private static final boolean jaxb2Present =
             ClassUtils.isPresent("javax.xml.bind.Binder", MessageConverterRegistry.class.getClassLoader());
 
@@ -62,10 +80,12 @@ public class MessageConverterRegistry {
     public void RegisterMessageConvertor(HttpMessageConverter messageConverter) {
         Assert.notNull(messageConverter, "Cannot register 'null' as a messageConverter");
         this.messageConverters.add(messageConverter);
+        clearNegotiationCaches();
     }
 
     /**
-     * Returns all registered {@link HttpMessageConverter} from this Register class.
+     * Returns all registered {@link HttpMessageConverter} from this Register class. When modifying the returned list
+     * directly, call {@link #clearNegotiationCaches()} afterwards.
      * @return List of messageConverters
      * @since 1.7.0
      */
@@ -114,6 +134,125 @@ public class MessageConverterRegistry {
         return null;
     }
 
+    /**
+     * Selects the {@link HttpMessageConverter} and {@link MediaType} for writing a value of the given class as a
+     * response. The outcome is cached per combination of class, {@code Accept} header values and default format.
+     * @param clazz the class of the value to write
+     * @param acceptHeaders the values of the {@code Accept} headers of the request, can be {@code null}.
+     * @param defaultFormat the default format of the Web Script, can be {@code null}.
+     * @return The converter and media type to write with.
+     * @throws HttpMediaTypeNotSupportedException if no media type is given at all, or no converter can write the
+     * selected media type.
+     * @throws HttpMediaTypeNotAcceptableException if no acceptable media type can be written.
+     */
+    public NegotiatedConverter negotiateWrite(Class<?> clazz, String[] acceptHeaders, String defaultFormat)
+            throws HttpMediaTypeNotSupportedException, HttpMediaTypeNotAcceptableException {
+        final NegotiationKey key = new NegotiationKey(clazz, acceptHeaders, defaultFormat);
+        NegotiatedConverter negotiated = writeNegotiationCache.get(key);
+        if (negotiated == null) {
+            negotiated = doNegotiateWrite(clazz, acceptHeaders, defaultFormat);
+            cache(writeNegotiationCache, key, negotiated);
+        }
+        return negotiated;
+    }
+
+    private NegotiatedConverter doNegotiateWrite(Class<?> clazz, String[] acceptHeaders, String defaultFormat)
+            throws HttpMediaTypeNotSupportedException, HttpMediaTypeNotAcceptableException {
+        MediaType defaultResponseType = null;
+        if (defaultFormat != null && !defaultFormat.isEmpty()) {
+            defaultResponseType = MediaType.parseMediaType(defaultFormat);
+        }
+
+        Set<MediaType> acceptResponseTypes = new HashSet<MediaType>();
+        if (acceptHeaders != null) {
+            for (String acceptHeader : acceptHeaders) {
+                // can also be comma seperated https://www.w3.org/Protocols/rfc2616/rfc2616-sec4.html#sec4.2
+                for (String acceptResponse : acceptHeader.split(",")) {
+                    acceptResponseTypes.add(MediaType.parseMediaType(acceptResponse));
+                }
+            }
+        }
+
+        MediaType responseType = null;
+        if (defaultFormat == null && acceptResponseTypes.isEmpty()) { // no Content-Type information given anywhere
+            // both default and accept cannot be null together
+            throw new HttpMediaTypeNotSupportedException(null, getSupportedMediaTypes(),
+                    "Unable to convert, mediatype is null");
+        } else if (acceptResponseTypes.isEmpty()) { // use the default
+            responseType = defaultResponseType;
+        } else { // loop over the set, and select the first that works
+            for (MediaType mediaType : acceptResponseTypes) {
+                if (defaultFormat != null) { // first, check against the default type
+                    if (mediaType.isCompatibleWith(defaultResponseType)) {
+                        responseType = defaultResponseType;
+                        break;
+                    }
+                }
+
+                if (carWrite(clazz, mediaType) != null) {
+                    responseType = mediaType;
+                    break;
+                }
+            }
+        }
+
+        if (responseType == null) {
+            // When there is no default, and there is no support for the headers, this exception is thrown.
+            throw new HttpMediaTypeNotAcceptableException(getSupportedMediaTypes());
+        }
+
+        HttpMessageConverter converter = carWrite(clazz, responseType);
+        if (converter == null) {
+            /*
+             * the {@link Jaxb2RootElementHttpMessageConverter} cannot convert a class
+             * if the {@link javax.xml.bind.annotation.XmlRootElement} is missing from the class
+             *
+             * If this annotation is missing, the can write will return false.
+             */
+            throw new HttpMediaTypeNotSupportedException(responseType, getSupportedMediaTypes());
+        }
+        return new NegotiatedConverter(converter, responseType);
+    }
+
+    /**
+     * Selects the {@link HttpMessageConverter} for reading a request body of the given {@code Content-Type} into the
+     * given class. The outcome is cached per combination of class and {@code Content-Type} header value.
+     * @param clazz the class to read
+     * @param contentType the value of the {@code Content-Type} header.
+     * @return The converter and parsed media type to read with, or {@code null} if no converter can read.
+     */
+    public NegotiatedConverter negotiateRead(Class<?> clazz, String contentType) {
+        final NegotiationKey key = new NegotiationKey(clazz, new String[]{contentType}, null);
+        NegotiatedConverter negotiated = readNegotiationCache.get(key);
+        if (negotiated == null) {
+            final MediaType mediaType = MediaType.parseMediaType(contentType);
+            final HttpMessageConverter converter = canRead(clazz, mediaType);
+            if (converter == null) {
+                return null;
+            }
+            negotiated = new NegotiatedConverter(converter, mediaType);
+            cache(readNegotiationCache, key, negotiated);
+        }
+        return negotiated;
+    }
+
+    /**
+     * Clears the cached outcomes of {@link #negotiateWrite(Class, String[], String)} and {@link
+     * #negotiateRead(Class, String)}.
+     */
+    public void clearNegotiationCaches() {
+        writeNegotiationCache.clear();
+        readNegotiationCache.clear();
+    }
+
+    private static void cache(Map<NegotiationKey, NegotiatedConverter> cache, NegotiationKey key,
+            NegotiatedConverter negotiated) {
+        if (cache.size() >= MAX_NEGOTIATION_CACHE_SIZE) {
+            cache.clear();
+        }
+        cache.put(key, negotiated);
+    }
+
     /**
      * Return a List containing all supported {@link MediaType} objects that any registered messageConverter can support.
      * @return List of all supported mediatypes from all registered messageConverters.
@@ -127,4 +266,61 @@ public class MessageConverterRegistry {
         }
         return supported;
     }
+
+    /**
+     * The outcome of content negotiation: a {@link HttpMessageConverter} and the {@link MediaType} to use it with.
+     */
+    public static final class NegotiatedConverter {
+
+        private final HttpMessageConverter converter;
+
+        private final MediaType mediaType;
+
+        NegotiatedConverter(HttpMessageConverter converter, MediaType mediaType) {
+            this.converter = converter;
+            this.mediaType = mediaType;
+        }
+
+        public HttpMessageConverter getConverter() {
+            return converter;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+    }
+
+    private static final class NegotiationKey {
+
+        private final Class<?> clazz;
+
+        private final String[] headers;
+
+        private final String defaultFormat;
+
+        private final int hashCode;
+
+        private NegotiationKey(Class<?> clazz, String[] headers, String defaultFormat) {
+            this.clazz = clazz;
+            this.headers = headers;
+            this.defaultFormat = defaultFormat;
+            this.hashCode = 31 * (31 * clazz.hashCode() + Arrays.hashCode(headers)) + Objects.hashCode(defaultFormat);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            NegotiationKey that = (NegotiationKey) o;
+
+            return clazz == that.clazz && Arrays.equals(headers, that.headers)
+                    && Objects.equals(defaultFormat, that.defaultFormat);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
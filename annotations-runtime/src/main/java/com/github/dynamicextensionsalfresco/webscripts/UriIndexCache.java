@@ -0,0 +1,23 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import java.util.Collection;
+
+import org.springframework.extensions.webscripts.UriIndex;
+
+/**
+ * Cache of {@link UriIndex} lookups, which has to be invalidated when {@link WebScriptUriRegistry} bindings change.
+ * 
+ * @author Laurent Van der Linden
+ */
+public interface UriIndexCache {
+
+	/**
+	 * Invalidates the cached lookups that can be affected by a change in the bindings of the given URI templates.
+	 * 
+	 * @param uriTemplates
+	 *            The URI templates of the {@link org.springframework.extensions.webscripts.WebScript}s that were
+	 *            registered or unregistered.
+	 */
+	void invalidate(Collection<String> uriTemplates);
+
+}
@@ -22,7 +22,7 @@ class WebScriptProxy implements WebScript {
 
 	/* State */
 
-	private WebScript webScript;
+	private volatile WebScript webScript;
 
 	private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
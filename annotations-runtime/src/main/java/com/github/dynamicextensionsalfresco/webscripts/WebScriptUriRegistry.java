@@ -1,9 +1,14 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -38,15 +43,20 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 
 	private WebScript unavailableWebScript = new UnavailableWebScript();
 
+	private UriIndexCache uriIndexCache;
+
 	/* Configuration */
 
 	private String uriIndexBeanName;
 
 	/* State */
 
-	private final List<WebScript> webScripts = new ArrayList<WebScript>();
-
-	private final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod = new HashMap<UriMethod, WebScriptProxy>();
+	/**
+	 * Immutable snapshot of the registered {@link WebScript}s. Modifications are serialized by {@link #lock}, as
+	 * {@link UriIndex} implementations are not thread-safe, and are published by replacing the snapshot, so reads
+	 * never block.
+	 */
+	private volatile Registrations registrations = Registrations.EMPTY;
 
 	private final Lock lock = new ReentrantLock();
 
@@ -58,17 +68,41 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 	 * @param webScript
 	 */
 	public void registerWebScript(final WebScript webScript) {
+		registerWebScripts(null, Collections.singletonList(webScript));
+	}
+
+	/**
+	 * Registers a batch of {@link WebScript}s with the {@link UriIndex}. {@link WebScript}s registered for an owner
+	 * can be unregistered together using {@link #unregisterWebScripts(Object)}.
+	 * 
+	 * @param owner
+	 *            The owner of the {@link WebScript}s, typically the registrar of a single bundle. Can be null.
+	 * @param webScripts
+	 */
+	public void registerWebScripts(final Object owner, final Collection<? extends WebScript> webScripts) {
+		Assert.notNull(webScripts);
+		if (webScripts.isEmpty()) {
+			return;
+		}
 		lock.lock();
 		try {
-			if (uriIndex != null) {
-				doRegisterWebScript(webScript);
-			} else {
-				if (logger.isDebugEnabled()) {
-					logger.debug("Delaying registration of Web Script '{}' until UriIndex is available.", webScript
-							.getDescription().getId());
+			final Registrations current = registrations;
+			final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod = new HashMap<UriMethod, WebScriptProxy>(
+					current.webScriptProxiesByUriMethod);
+			for (final WebScript webScript : webScripts) {
+				if (uriIndex != null) {
+					doRegisterWebScript(webScript, webScriptProxiesByUriMethod);
+				} else {
+					if (logger.isDebugEnabled()) {
+						logger.debug("Delaying registration of Web Script '{}' until UriIndex is available.", webScript
+								.getDescription().getId());
+					}
 				}
 			}
-			webScripts.add(webScript);
+			registrations = current.add(owner, webScripts, webScriptProxiesByUriMethod);
+			if (uriIndex != null) {
+				invalidateUriIndexCache(webScripts);
+			}
 		} finally {
 			lock.unlock();
 		}
@@ -85,7 +119,23 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 	public void unregisterWebScript(final WebScript webScript) {
 		lock.lock();
 		try {
-			doUnregisterWebScript(webScript);
+			doUnregisterWebScripts(Collections.singletonList(webScript));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Unregisters all {@link WebScript}s that were registered for the given owner.
+	 * 
+	 * @param owner
+	 * @see #registerWebScripts(Object, Collection)
+	 */
+	public void unregisterWebScripts(final Object owner) {
+		Assert.notNull(owner);
+		lock.lock();
+		try {
+			doUnregisterWebScripts(registrations.getWebScripts(owner));
 		} finally {
 			lock.unlock();
 		}
@@ -100,8 +150,12 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 		lock.lock();
 		try {
 			uriIndex.clear();
-			webScriptProxiesByUriMethod.clear();
-			registerPendingWebScripts();
+			final Registrations current = registrations;
+			final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod = new HashMap<UriMethod, WebScriptProxy>();
+			for (final WebScript webScript : current.webScripts) {
+				doRegisterWebScript(webScript, webScriptProxiesByUriMethod);
+			}
+			registrations = current.withProxies(webScriptProxiesByUriMethod);
 		} finally {
 			lock.unlock();
 		}
@@ -130,7 +184,11 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 	}
 
 	public List<WebScript> getWebScripts() {
-		return webScripts;
+		return registrations.webScripts;
+	}
+
+	public List<WebScript> getWebScripts(final Object owner) {
+		return registrations.getWebScripts(owner);
 	}
 
 	/* Remaining delegated operations */
@@ -145,46 +203,78 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 		uriIndex.registerUri(script, uri);
 	}
 
+	/**
+	 * Finds the {@link WebScript} for a request. If the request resolves to a {@link LazyWebScript}, its extension is
+	 * activated first, so the returned {@link Match} refers to the actual {@link WebScript}.
+	 */
 	@Override
 	public Match findWebScript(final String method, final String uri) {
-		return uriIndex.findWebScript(method, uri);
+		final Match match = uriIndex.findWebScript(method, uri);
+		if (match != null && match.getWebScript() instanceof WebScriptProxy) {
+			final WebScript webScript = ((WebScriptProxy) match.getWebScript()).getWrappedWebScript();
+			if (webScript instanceof LazyWebScript) {
+				((LazyWebScript) webScript).activate();
+			}
+		}
+		return match;
 	}
 
 	/* Utility operations */
 
-	private void doRegisterWebScript(final WebScript webScript) {
+	private void doRegisterWebScript(final WebScript webScript,
+			final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod) {
 		Assert.state(uriIndex != null);
 		for (final String uri : webScript.getDescription().getURIs()) {
 			if (logger.isDebugEnabled()) {
 				logger.debug("Registering Web Script '{}' for URI '{}'", webScript.getDescription().getId(), uri);
 			}
-			final WebScriptProxy webScriptProxy;
 			final UriMethod key = UriMethod.forUriAndMethod(uri, webScript.getDescription().getMethod());
-			if (webScriptProxiesByUriMethod.containsKey(key) == false) {
+			WebScriptProxy webScriptProxy = webScriptProxiesByUriMethod.get(key);
+			if (webScriptProxy == null) {
 				webScriptProxy = new WebScriptProxy(webScript);
 				webScriptProxiesByUriMethod.put(key, webScriptProxy);
 			} else {
-				webScriptProxy = webScriptProxiesByUriMethod.get(key);
 				webScriptProxy.setWebScript(webScript);
 			}
 			uriIndex.registerUri(webScriptProxy, uri);
 		}
 	}
 
-	private void doUnregisterWebScript(final WebScript webScript) {
-		webScripts.remove(webScript);
-		for (final String uri : webScript.getDescription().getURIs()) {
-			final UriMethod key = UriMethod.forUriAndMethod(uri, webScript.getDescription().getMethod());
-			if (webScriptProxiesByUriMethod.containsKey(key)) {
-				final WebScriptProxy webScriptProxy = webScriptProxiesByUriMethod.get(key);
-				webScriptProxy.setWebScript(unavailableWebScript);
+	private void doUnregisterWebScripts(final Collection<WebScript> webScripts) {
+		if (webScripts.isEmpty()) {
+			return;
+		}
+		final Registrations current = registrations;
+		registrations = current.remove(webScripts);
+		for (final WebScript webScript : webScripts) {
+			for (final String uri : webScript.getDescription().getURIs()) {
+				final UriMethod key = UriMethod.forUriAndMethod(uri, webScript.getDescription().getMethod());
+				final WebScriptProxy webScriptProxy = current.webScriptProxiesByUriMethod.get(key);
+				// leave the binding alone if another Web Script has replaced this one in the meantime
+				if (webScriptProxy != null && webScriptProxy.getWrappedWebScript() == webScript) {
+					webScriptProxy.setWebScript(unavailableWebScript);
+				}
 			}
 		}
+		invalidateUriIndexCache(webScripts);
 	}
 
-	private void registerPendingWebScripts() {
+	/**
+	 * Invalidates the cached lookups for the URIs of the given {@link WebScript}s only, so registering or
+	 * unregistering the {@link WebScript}s of a single bundle does not require a full {@link Registry} reset.
+	 */
+	private void invalidateUriIndexCache(final Collection<? extends WebScript> webScripts) {
+		if (uriIndexCache == null) {
+			return;
+		}
+		final Set<String> uriTemplates = new HashSet<String>();
 		for (final WebScript webScript : webScripts) {
-			doRegisterWebScript(webScript);
+			uriTemplates.addAll(Arrays.asList(webScript.getDescription().getURIs()));
+		}
+		try {
+			uriIndexCache.invalidate(uriTemplates);
+		} catch (final RuntimeException e) {
+			logger.warn("Failed to invalidate the UriIndex cache.", e);
 		}
 	}
 
@@ -200,6 +290,21 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 		this.unavailableWebScript = unavailableWebScript;
 	}
 
+	/**
+	 * Sets the cache of {@link UriIndex} lookups to invalidate when {@link WebScript}s are registered or unregistered.
+	 */
+	public void setUriIndexCache(final UriIndexCache uriIndexCache) {
+		this.uriIndexCache = uriIndexCache;
+	}
+
+	/**
+	 * Indicates whether cached {@link UriIndex} lookups are invalidated incrementally when {@link WebScript}s are
+	 * registered or unregistered, making a full cache reset unnecessary.
+	 */
+	public boolean isUriIndexCacheInvalidated() {
+		return uriIndexCache != null;
+	}
+
 	/* Configuration */
 
 	public void setUriIndexBeanName(final String uriIndexBeanName) {
@@ -207,4 +312,82 @@ public class WebScriptUriRegistry implements UriIndex, BeanPostProcessor, Initia
 		this.uriIndexBeanName = uriIndexBeanName;
 	}
 
+	/**
+	 * Immutable state of a {@link WebScriptUriRegistry}.
+	 */
+	private static class Registrations {
+
+		static final Registrations EMPTY = new Registrations(Collections.<WebScript> emptyList(),
+				Collections.<Object, List<WebScript>> emptyMap(), Collections.<UriMethod, WebScriptProxy> emptyMap());
+
+		/**
+		 * All registered {@link WebScript}s, in order of registration.
+		 */
+		final List<WebScript> webScripts;
+
+		final Map<Object, List<WebScript>> webScriptsByOwner;
+
+		final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod;
+
+		private Registrations(final List<WebScript> webScripts, final Map<Object, List<WebScript>> webScriptsByOwner,
+				final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod) {
+			this.webScripts = webScripts;
+			this.webScriptsByOwner = webScriptsByOwner;
+			this.webScriptProxiesByUriMethod = webScriptProxiesByUriMethod;
+		}
+
+		List<WebScript> getWebScripts(final Object owner) {
+			final List<WebScript> webScripts = webScriptsByOwner.get(owner);
+			return webScripts != null ? webScripts : Collections.<WebScript> emptyList();
+		}
+
+		Registrations add(final Object owner, final Collection<? extends WebScript> addedWebScripts,
+				final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod) {
+			final List<WebScript> webScripts = new ArrayList<WebScript>(this.webScripts.size()
+					+ addedWebScripts.size());
+			webScripts.addAll(this.webScripts);
+			webScripts.addAll(addedWebScripts);
+			Map<Object, List<WebScript>> webScriptsByOwner = this.webScriptsByOwner;
+			if (owner != null) {
+				final List<WebScript> ownedWebScripts = new ArrayList<WebScript>(getWebScripts(owner));
+				ownedWebScripts.addAll(addedWebScripts);
+				final Map<Object, List<WebScript>> copy = new HashMap<Object, List<WebScript>>(webScriptsByOwner);
+				copy.put(owner, Collections.unmodifiableList(ownedWebScripts));
+				webScriptsByOwner = Collections.unmodifiableMap(copy);
+			}
+			return new Registrations(Collections.unmodifiableList(webScripts), webScriptsByOwner,
+					Collections.unmodifiableMap(webScriptProxiesByUriMethod));
+		}
+
+		Registrations remove(final Collection<WebScript> removedWebScripts) {
+			final Set<WebScript> removed = new HashSet<WebScript>(removedWebScripts);
+			final List<WebScript> webScripts = new ArrayList<WebScript>(this.webScripts.size());
+			for (final WebScript webScript : this.webScripts) {
+				if (!removed.contains(webScript)) {
+					webScripts.add(webScript);
+				}
+			}
+			final Map<Object, List<WebScript>> webScriptsByOwner = new HashMap<Object, List<WebScript>>(
+					this.webScriptsByOwner.size() * 2);
+			for (final Map.Entry<Object, List<WebScript>> entry : this.webScriptsByOwner.entrySet()) {
+				final List<WebScript> ownedWebScripts = new ArrayList<WebScript>(entry.getValue().size());
+				for (final WebScript webScript : entry.getValue()) {
+					if (!removed.contains(webScript)) {
+						ownedWebScripts.add(webScript);
+					}
+				}
+				if (!ownedWebScripts.isEmpty()) {
+					webScriptsByOwner.put(entry.getKey(), Collections.unmodifiableList(ownedWebScripts));
+				}
+			}
+			return new Registrations(Collections.unmodifiableList(webScripts),
+					Collections.unmodifiableMap(webScriptsByOwner), webScriptProxiesByUriMethod);
+		}
+
+		Registrations withProxies(final Map<UriMethod, WebScriptProxy> webScriptProxiesByUriMethod) {
+			return new Registrations(webScripts, webScriptsByOwner,
+					Collections.unmodifiableMap(webScriptProxiesByUriMethod));
+		}
+	}
+
 }
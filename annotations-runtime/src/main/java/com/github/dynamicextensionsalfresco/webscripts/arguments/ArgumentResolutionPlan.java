@@ -0,0 +1,138 @@
+package com.github.dynamicextensionsalfresco.webscripts.arguments;
+
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+import org.springframework.util.Assert;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+
+/**
+ * Immutable, precompiled plan for resolving the arguments of a single handler method.
+ * <p>
+ * The plan is created once by {@link HandlerMethodArgumentsResolver#createArgumentResolutionPlan(Method, Object)} and
+ * holds the parameter type, mapping annotation, parameter name and {@link ArgumentResolver} for every parameter. This
+ * leaves resolving the actual argument values as the only work to be done per request.
+ * <p>
+ * Parameters that are handled by a dynamically registered OSGi {@link ArgumentResolver}, or for which no resolver was
+ * available when the plan was created, are looked up on every invocation.
+ *
+ * @author Laurent Van der Linden
+ * @see HandlerMethodArgumentsResolver
+ */
+public final class ArgumentResolutionPlan {
+
+	private final Method method;
+
+	private final ParameterSlot[] slots;
+
+	ArgumentResolutionPlan(final Method method, final ParameterSlot[] slots) {
+		this.method = method;
+		this.slots = slots;
+	}
+
+	/**
+	 * Resolves the arguments for the handler method of this plan.
+	 *
+	 * @param request
+	 * @param response
+	 * @return The arguments to invoke the handler method with.
+	 */
+	public Object[] resolveArguments(final WebScriptRequest request, final WebScriptResponse response) {
+		Assert.notNull(request, "Request cannot be null.");
+		Assert.notNull(response, "Response cannot be null.");
+
+		final Object[] arguments = new Object[slots.length];
+		for (int index = 0; index < slots.length; index++) {
+			arguments[index] = slots[index].resolveArgument(request, response);
+		}
+		return arguments;
+	}
+
+	public Method getMethod() {
+		return method;
+	}
+
+	public int getParameterCount() {
+		return slots.length;
+	}
+
+	/**
+	 * Resolution state for a single handler method parameter.
+	 */
+	static class ParameterSlot {
+
+		private final Class<?> parameterType;
+
+		private final Annotation mappingAnnotation;
+
+		private final String name;
+
+		private final ArgumentResolver<Object, Annotation> argumentResolver;
+
+		ParameterSlot(final Class<?> parameterType, final Annotation mappingAnnotation, final String name,
+				final ArgumentResolver<Object, Annotation> argumentResolver) {
+			this.parameterType = parameterType;
+			this.mappingAnnotation = mappingAnnotation;
+			this.name = name;
+			this.argumentResolver = argumentResolver;
+		}
+
+		Object resolveArgument(final WebScriptRequest request, final WebScriptResponse response) {
+			return argumentResolver.resolveArgument(parameterType, mappingAnnotation, name, request, response);
+		}
+	}
+
+	/**
+	 * {@link ParameterSlot} that looks up its {@link ArgumentResolver} on every invocation, for parameters that
+	 * depend on {@link ArgumentResolver}s that can come and go as OSGi services.
+	 */
+	static class DynamicParameterSlot extends ParameterSlot {
+
+		private final HandlerMethodArgumentsResolver argumentsResolver;
+
+		private final String handlerName;
+
+		private final String methodName;
+
+		private final int index;
+
+		private final Annotation[] parameterAnnotations;
+
+		DynamicParameterSlot(final HandlerMethodArgumentsResolver argumentsResolver, final String handlerName,
+				final String methodName, final int index, final Class<?> parameterType,
+				final Annotation[] parameterAnnotations, final String name) {
+			super(parameterType, null, name, null);
+			this.argumentsResolver = argumentsResolver;
+			this.handlerName = handlerName;
+			this.methodName = methodName;
+			this.index = index;
+			this.parameterAnnotations = parameterAnnotations;
+		}
+
+		@Override
+		Object resolveArgument(final WebScriptRequest request, final WebScriptResponse response) {
+			final Class<?> parameterType = super.parameterType;
+			Annotation mappingAnnotation = null;
+			ArgumentResolver<Object, Annotation> argumentResolver = null;
+			if (parameterAnnotations.length == 0) {
+				argumentResolver = argumentsResolver.getArgumentResolver(parameterType, null);
+			} else {
+				for (final Annotation parameterAnnotation : parameterAnnotations) {
+					argumentResolver = argumentsResolver.getArgumentResolver(parameterType,
+							parameterAnnotation.annotationType());
+					if (argumentResolver != null) {
+						mappingAnnotation = parameterAnnotation;
+						break;
+					}
+				}
+			}
+			if (argumentResolver == null) {
+				throw new IllegalStateException(String.format("Cannot map parameter at index %d of method %s.%s.",
+						index, handlerName, methodName));
+			}
+			return argumentResolver.resolveArgument(parameterType, mappingAnnotation, super.name, request,
+					response);
+		}
+	}
+}
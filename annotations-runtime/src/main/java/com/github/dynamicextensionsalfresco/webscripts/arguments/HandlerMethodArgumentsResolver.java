@@ -12,6 +12,7 @@ import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.extensions.webscripts.WebScriptRequest;
 import org.springframework.extensions.webscripts.WebScriptResponse;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
@@ -29,6 +30,9 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
 
+	private static final boolean jacksonPresent = ClassUtils.isPresent(
+			"com.fasterxml.jackson.databind.MappingJsonFactory", HandlerMethodArgumentsResolver.class.getClassLoader());
+
 	/* Dependencies */
 
 	private StringValueConverter stringValueConverter;
@@ -68,6 +72,9 @@ public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
 		argumentResolvers.add((ArgumentResolver) new HttpServletRequestArgumentResolver());
 		argumentResolvers.add((ArgumentResolver) new HttpServletResponseArgumentResolver());
 		argumentResolvers.add((ArgumentResolver) new JsonObjectArgumentResolver());
+		if (jacksonPresent) {
+			argumentResolvers.add((ArgumentResolver) new JsonParserArgumentResolver());
+		}
 
         if (bundleContext != null) {
             resolverTracker = new ServiceTracker(bundleContext, ArgumentResolver.class, null);
@@ -77,6 +84,9 @@ public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
 
     /**
 	 * Resolves the arguments of the given handler method.
+	 * <p>
+	 * This compiles a new {@link ArgumentResolutionPlan} on every call. Callers that invoke the same method repeatedly
+	 * should create the plan once using {@link #createArgumentResolutionPlan(Method, Object)}.
 	 * 
 	 * @param method
 	 *            The handler method.
@@ -92,8 +102,25 @@ public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
 		Assert.notNull(request, "Request cannot be null.");
 		Assert.notNull(response, "Response cannot be null.");
 
+		return createArgumentResolutionPlan(method, handler).resolveArguments(request, response);
+	}
+
+	/**
+	 * Creates an {@link ArgumentResolutionPlan} for the given handler method. This performs the parameter annotation,
+	 * parameter name and {@link ArgumentResolver} lookups once, so they can be skipped when handling requests.
+	 * 
+	 * @param method
+	 *            The handler method.
+	 * @param handler
+	 *            The handler itself.
+	 * @return The plan for resolving the arguments of the handler method.
+	 */
+	public ArgumentResolutionPlan createArgumentResolutionPlan(Method method, final Object handler) {
+		Assert.notNull(method, "Method cannot be null.");
+		Assert.notNull(handler, "Handler cannot be null.");
+
 		final Class<?>[] parameterTypes = method.getParameterTypes();
-		final Object[] arguments = new Object[parameterTypes.length];
+		final ArgumentResolutionPlan.ParameterSlot[] slots = new ArgumentResolutionPlan.ParameterSlot[parameterTypes.length];
 		if (AopUtils.isAopProxy(handler)) {
 			method = AopUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(handler));
 		}
@@ -113,18 +140,21 @@ public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
 					}
 				}
 			}
-			if (argumentResolver == null) {
-				throw new IllegalStateException(String.format("Cannot map parameter at index %d of method %s.%s.", index,
-						handler.getClass().getSimpleName(), method.getName()));
-			}
 			String name = null;
 			if (methodParameterNames != null) {
 				name = methodParameterNames[index];
 			}
-			arguments[index] = argumentResolver.resolveArgument(parameterTypes[index], mappingAnnotation, name,
-					request, response);
+			if (argumentResolver != null && isCachedArgumentResolver(parameterTypes[index],
+					mappingAnnotation != null ? mappingAnnotation.annotationType() : null, argumentResolver)) {
+				slots[index] = new ArgumentResolutionPlan.ParameterSlot(parameterTypes[index], mappingAnnotation, name,
+						argumentResolver);
+			} else {
+				// OSGi resolvers can come and go, and a missing resolver may still be registered later on
+				slots[index] = new ArgumentResolutionPlan.DynamicParameterSlot(this, handler.getClass().getSimpleName(),
+						method.getName(), index, parameterTypes[index], parameterAnnotations[index], name);
+			}
 		}
-		return arguments;
+		return new ArgumentResolutionPlan(method, slots);
 	}
 
 	/* Utility Operations */
@@ -175,6 +205,11 @@ public class HandlerMethodArgumentsResolver implements ApplicationContextAware {
         return null;
 	}
 
+	private boolean isCachedArgumentResolver(final Class<?> parameterType,
+			final Class<? extends Annotation> annotationType, final ArgumentResolver<Object, Annotation> argumentResolver) {
+		return argumentResolverCache.get(new ArgumentResolverKey(parameterType, annotationType)) == argumentResolver;
+	}
+
 	/* Dependencies */
 
 	public void setStringValueConverter(final StringValueConverter stringValueConverter) {
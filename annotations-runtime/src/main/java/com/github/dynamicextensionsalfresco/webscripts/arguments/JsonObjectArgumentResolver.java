@@ -3,6 +3,8 @@ package com.github.dynamicextensionsalfresco.webscripts.arguments;
 import org.alfresco.repo.content.MimetypeMap;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.springframework.extensions.surf.util.Content;
 import org.springframework.extensions.webscripts.Status;
 import org.springframework.extensions.webscripts.WebScriptException;
 import org.springframework.extensions.webscripts.WebScriptRequest;
@@ -24,17 +26,16 @@ public class JsonObjectArgumentResolver extends AbstractTypeBasedArgumentResolve
     @Override
     protected JSONObject resolveArgument(WebScriptRequest request, WebScriptResponse response) {
         if (request.getContentType().startsWith(MimetypeMap.MIMETYPE_JSON)) {
-            try {
-                final String contentText = request.getContent().getContent();
-                if (contentText != null) {
-                    try {
-                        return new JSONObject(contentText);
-                    } catch (JSONException e) {
-                        throw new WebScriptException(Status.STATUS_BAD_REQUEST, "Failed to parse JSON body: " + contentText, e);
-                    }
+            final Content content = request.getContent();
+            if (content != null) {
+                try {
+                    // parse from the reader, rather than reading the body into a String first
+                    return new JSONObject(new JSONTokener(content.getReader()));
+                } catch (JSONException e) {
+                    throw new WebScriptException(Status.STATUS_BAD_REQUEST, "Failed to parse JSON body: " + e.getMessage(), e);
+                } catch (IOException ex) {
+                    throw new WebScriptException(Status.STATUS_BAD_REQUEST, "Failed to read body content", ex);
                 }
-            } catch (IOException ex) {
-                throw new WebScriptException(Status.STATUS_BAD_REQUEST, "Failed to read body content", ex);
             }
         }
         return null;
@@ -0,0 +1,57 @@
+package com.github.dynamicextensionsalfresco.webscripts.arguments;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingJsonFactory;
+import org.alfresco.repo.content.MimetypeMap;
+import org.springframework.extensions.surf.util.Content;
+import org.springframework.extensions.webscripts.Status;
+import org.springframework.extensions.webscripts.WebScriptException;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+import java.io.IOException;
+
+/**
+ * Allows adding optional Jackson {@link JsonParser} parameters to Uri handler methods, for reading large JSON request
+ * bodies incrementally, straight from the request input stream.
+ * <p>
+ * The parser has an {@code ObjectMapper} as codec, so {@link JsonParser#readValueAs(Class)} can be used to bind
+ * individual items.
+ *
+ * @author Laurent Van der Linden
+ */
+public class JsonParserArgumentResolver extends AbstractTypeBasedArgumentResolver<JsonParser> {
+
+	private final JsonFactory jsonFactory;
+
+	public JsonParserArgumentResolver() {
+		this(new MappingJsonFactory());
+	}
+
+	public JsonParserArgumentResolver(final JsonFactory jsonFactory) {
+		this.jsonFactory = jsonFactory;
+	}
+
+	@Override
+	protected Class<?> getExpectedArgumentType() {
+		return JsonParser.class;
+	}
+
+	@Override
+	protected JsonParser resolveArgument(final WebScriptRequest request, final WebScriptResponse response) {
+		final String contentType = request.getContentType();
+		if (contentType == null || !contentType.startsWith(MimetypeMap.MIMETYPE_JSON)) {
+			return null;
+		}
+		final Content content = request.getContent();
+		if (content == null) {
+			return null;
+		}
+		try {
+			return jsonFactory.createParser(content.getInputStream());
+		} catch (IOException ex) {
+			throw new WebScriptException(Status.STATUS_BAD_REQUEST, "Failed to read body content", ex);
+		}
+	}
+}
@@ -47,13 +47,13 @@ public class RequestBodyArgumentResolver implements ArgumentResolver<Object, Req
             }
         }
 
-        MediaType contentType = MediaType.parseMediaType(headerResponseTypes[0]);
+        MessageConverterRegistry.NegotiatedConverter negotiated =
+                this.messageConverterRegistry.negotiateRead(argumentType, headerResponseTypes[0]);
 
-        HttpMessageConverter messageConverter = this.messageConverterRegistry.canRead(argumentType, contentType);
-
-        if (messageConverter == null){
-            throw new RuntimeException("Unable to find Convertor for " + contentType.toString());
+        if (negotiated == null){
+            throw new RuntimeException("Unable to find Convertor for " + MediaType.parseMediaType(headerResponseTypes[0]));
         }
+        HttpMessageConverter messageConverter = negotiated.getConverter();
 
 
         // Because the required parameter is not available in the spring version that ships with Alfresco 4.2,
@@ -0,0 +1,115 @@
+package com.github.dynamicextensionsalfresco;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.dynamicextensionsalfresco.AnnotationIndex.Kind;
+import com.github.dynamicextensionsalfresco.annotations.processing.AnnotationIndexProcessor;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compiles classes with the {@link AnnotationIndexProcessor} and verifies the {@link AnnotationIndex} it produces.
+ */
+public class AnnotationIndexTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private URLClassLoader classLoader;
+
+    @Before
+    public void compile() throws IOException {
+        final File sources = temporaryFolder.newFolder("sources");
+        final File classes = temporaryFolder.newFolder("classes");
+        final File[] files = {
+                source(sources, "example/ExampleBehaviour.java",
+                        "package example;\n"
+                                + "@com.github.dynamicextensionsalfresco.behaviours.annotations.Behaviour(\"cm:content\")\n"
+                                + "public class ExampleBehaviour {}\n"),
+                source(sources, "example/ExampleActions.java",
+                        "package example;\n"
+                                + "public class ExampleActions {\n"
+                                + "  @com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod\n"
+                                + "  public void execute() {}\n"
+                                + "  public static class Nested extends ExampleActions {}\n"
+                                + "}\n"),
+                source(sources, "example/ExampleWebScript.java",
+                        "package example;\n"
+                                + "public class ExampleWebScript {\n"
+                                + "  @com.github.dynamicextensionsalfresco.webscripts.annotations.Uri(\"/example\")\n"
+                                + "  public void handle() {}\n"
+                                + "}\n"),
+                source(sources, "example/Plain.java",
+                        "package example;\n"
+                                + "public class Plain {}\n")
+        };
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            final CompilationTask task = compiler.getTask(null, fileManager, null,
+                    Arrays.asList("-d", classes.getPath(), "-classpath", System.getProperty("java.class.path")),
+                    null, fileManager.getJavaFileObjects(files));
+            task.setProcessors(Collections.singletonList(new AnnotationIndexProcessor()));
+            assertTrue("Compilation failed", task.call());
+        }
+        classLoader = new URLClassLoader(new URL[]{classes.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    @Test
+    public void indexListsTheAnnotationsOfEachClass() throws ClassNotFoundException {
+        final AnnotationIndex annotationIndex = AnnotationIndex.load(classLoader);
+
+        final Class<?> behaviour = classLoader.loadClass("example.ExampleBehaviour");
+        assertTrue(annotationIndex.isCandidate(behaviour, Kind.BEHAVIOUR));
+        assertFalse(annotationIndex.isCandidate(behaviour, Kind.ACTION));
+        assertFalse(annotationIndex.isCandidate(behaviour, Kind.WEB_SCRIPT));
+
+        assertTrue(annotationIndex.isCandidate(classLoader.loadClass("example.ExampleActions"), Kind.ACTION));
+        assertTrue(annotationIndex.isCandidate(classLoader.loadClass("example.ExampleActions$Nested"), Kind.ACTION));
+        assertTrue(annotationIndex.isCandidate(classLoader.loadClass("example.ExampleWebScript"), Kind.WEB_SCRIPT));
+
+        final Class<?> plain = classLoader.loadClass("example.Plain");
+        for (Kind kind : Kind.values()) {
+            assertFalse(annotationIndex.isCandidate(plain, kind));
+        }
+    }
+
+    @Test
+    public void classesOutsideTheIndexAreCandidates() {
+        final AnnotationIndex annotationIndex = AnnotationIndex.load(classLoader);
+
+        assertTrue(annotationIndex.isCandidate(String.class, Kind.BEHAVIOUR));
+        assertTrue(AnnotationIndex.none().isCandidate(String.class, Kind.ACTION));
+    }
+
+    @Test
+    public void missingIndexIsEmpty() {
+        final AnnotationIndex annotationIndex = AnnotationIndex.load(new URLClassLoader(new URL[0], null));
+
+        assertTrue(annotationIndex.isEmpty());
+        assertEquals(AnnotationIndex.none(), annotationIndex);
+    }
+
+    private static File source(File directory, String path, String content) throws IOException {
+        final File file = new File(directory, path);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
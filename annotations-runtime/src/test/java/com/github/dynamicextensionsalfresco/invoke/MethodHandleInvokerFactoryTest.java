@@ -0,0 +1,96 @@
+package com.github.dynamicextensionsalfresco.invoke;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+import org.junit.Test;
+
+/**
+ * Tests binding methods to {@link MethodInvoker}s using {@link MethodHandleInvokerFactory}.
+ *
+ * @author Laurent Van der Linden
+ */
+public class MethodHandleInvokerFactoryTest {
+
+    private final MethodInvokerFactory factory = new MethodHandleInvokerFactory();
+
+    @Test
+    public void testInvokeNonPublicMethod() throws Exception {
+        final MethodInvoker invoker = factory.createMethodInvoker(
+                Example.class.getDeclaredMethod("concat", String.class, int.class));
+        assertEquals("a1", invoker.invoke(new Example(), new Object[]{"a", 1}));
+    }
+
+    @Test
+    public void testInvokeVoidMethodWithoutArguments() throws Exception {
+        final Example example = new Example();
+        final MethodInvoker invoker = factory.createMethodInvoker(Example.class.getDeclaredMethod("touch"));
+        assertNull(invoker.invoke(example, null));
+        assertTrue(example.touched);
+    }
+
+    @Test
+    public void testInvokeStaticMethod() throws Exception {
+        final MethodInvoker invoker = factory.createMethodInvoker(
+                Example.class.getDeclaredMethod("increment", int.class));
+        assertEquals(2, invoker.invoke(null, new Object[]{1}));
+    }
+
+    @Test
+    public void testRuntimeExceptionIsPropagated() throws Exception {
+        final MethodInvoker invoker = factory.createMethodInvoker(Example.class.getDeclaredMethod("fail"));
+        try {
+            invoker.invoke(new Example(), new Object[0]);
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertEquals("fail", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testCheckedExceptionIsWrapped() throws Exception {
+        final MethodInvoker invoker = factory.createMethodInvoker(Example.class.getDeclaredMethod("read"));
+        try {
+            invoker.invoke(new Example(), new Object[0]);
+            fail("expected UndeclaredThrowableException");
+        } catch (UndeclaredThrowableException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testGetMethod() throws Exception {
+        final java.lang.reflect.Method method = Example.class.getDeclaredMethod("touch");
+        assertSame(method, factory.createMethodInvoker(method).getMethod());
+    }
+
+    static class Example {
+
+        boolean touched;
+
+        String concat(String value, int count) {
+            return value + count;
+        }
+
+        protected void touch() {
+            touched = true;
+        }
+
+        static int increment(int value) {
+            return value + 1;
+        }
+
+        public void fail() {
+            throw new IllegalStateException("fail");
+        }
+
+        public void read() throws IOException {
+            throw new IOException("read");
+        }
+    }
+}
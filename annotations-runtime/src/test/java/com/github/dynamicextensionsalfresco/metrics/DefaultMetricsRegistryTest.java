@@ -0,0 +1,100 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import org.junit.Test;
+
+public class DefaultMetricsRegistryTest {
+
+    private final DefaultMetricsRegistry registry = new DefaultMetricsRegistry();
+
+    @Test
+    public void timersAreCreatedOncePerTypeAndName() {
+        TimerMetric timer = registry.getTimer(MetricType.BEHAVIOUR, "com.example.Behaviour.onCreateNode");
+
+        assertSame(timer, registry.getTimer(MetricType.BEHAVIOUR, "com.example.Behaviour.onCreateNode"));
+        assertTrue(timer != registry.getTimer(MetricType.ACTION, "com.example.Behaviour.onCreateNode"));
+    }
+
+    @Test
+    public void snapshotReportsCountMaxAndPercentiles() {
+        TimerMetric timer = registry.getTimer(MetricType.WEB_SCRIPT, "example.get");
+        for (int millis = 1; millis <= 100; millis++) {
+            timer.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        TimerSnapshot snapshot = timer.snapshot();
+        assertEquals("webscript", snapshot.getType());
+        assertEquals("example.get", snapshot.getName());
+        assertEquals(100, snapshot.getCount());
+        assertEquals(100.0, snapshot.getMax(), 0.0);
+        assertEquals(5050.0, snapshot.getTotal(), 0.0);
+        assertEquals(50.5, snapshot.getMean(), 0.0);
+        assertEquals(50.0, snapshot.getP50(), 50.0 * 0.125);
+        assertEquals(95.0, snapshot.getP95(), 95.0 * 0.125);
+        assertEquals(99.0, snapshot.getP99(), 99.0 * 0.125);
+        assertTrue(snapshot.getP99() <= snapshot.getMax());
+    }
+
+    @Test
+    public void bucketsCoverTheFullRange() {
+        long previousUpperBound = -1;
+        for (int index = 0; index <= Histogram.bucketIndex(Long.MAX_VALUE); index++) {
+            long upperBound = Histogram.bucketUpperBound(index);
+            assertEquals(index, Histogram.bucketIndex(previousUpperBound + 1));
+            assertEquals(index, Histogram.bucketIndex(upperBound));
+            previousUpperBound = upperBound;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpperBound);
+    }
+
+    @Test
+    public void resetKeepsTimerInstances() {
+        TimerMetric timer = registry.getTimer(MetricType.SCHEDULED_TASK, "DEFAULT.cleanup");
+        timer.record(TimeUnit.SECONDS.toNanos(1));
+
+        registry.reset();
+
+        assertSame(timer, registry.getTimer(MetricType.SCHEDULED_TASK, "DEFAULT.cleanup"));
+        assertEquals(0, timer.snapshot().getCount());
+        assertEquals(0.0, timer.snapshot().getMax(), 0.0);
+    }
+
+    @Test
+    public void snapshotsAreSortedByTypeAndName() {
+        registry.getTimer(MetricType.WEB_SCRIPT, "b");
+        registry.getTimer(MetricType.WEB_SCRIPT, "a");
+        registry.getTimer(MetricType.ACTION, "c");
+
+        List<TimerSnapshot> snapshots = registry.getSnapshots();
+        assertEquals("action", snapshots.get(0).getType());
+        assertEquals("a", snapshots.get(1).getName());
+        assertEquals("b", snapshots.get(2).getName());
+    }
+
+    @Test
+    public void timersAreExposedThroughJmx() throws Exception {
+        registry.setObjectName("com.github.dynamicextensionsalfresco:type=Metrics,name=test");
+        registry.getTimer(MetricType.ACTION, "example-action").record(TimeUnit.MILLISECONDS.toNanos(10));
+        registry.registerMBean();
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            CompositeData[] timers = (CompositeData[]) mBeanServer.getAttribute(
+                    new ObjectName("com.github.dynamicextensionsalfresco:type=Metrics,name=test"), "Timers");
+
+            assertEquals(1, timers.length);
+            assertEquals("example-action", timers[0].get("name"));
+            assertEquals(1L, timers[0].get("count"));
+        } finally {
+            registry.unregisterMBean();
+        }
+    }
+}
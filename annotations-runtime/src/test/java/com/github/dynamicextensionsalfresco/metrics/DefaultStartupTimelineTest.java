@@ -0,0 +1,88 @@
+package com.github.dynamicextensionsalfresco.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+
+public class DefaultStartupTimelineTest {
+
+    private final DefaultStartupTimeline timeline = new DefaultStartupTimeline();
+
+    @Test
+    public void spansStartedWithinARunningSpanBecomeItsChildren() {
+        StartupSpan root = timeline.start("Initialize framework");
+        StartupSpan child = timeline.start("Start framework");
+        assertSame(child, timeline.current());
+        child.end();
+        assertSame(root, timeline.current());
+        StartupSpan sibling = timeline.start("Register services");
+        sibling.end();
+        root.end();
+
+        assertNull(timeline.current());
+        List<StartupSpan> spans = timeline.getSpans();
+        assertEquals(1, spans.size());
+        assertSame(root, spans.get(0));
+        assertEquals(2, root.getChildren().size());
+        assertSame(child, root.getChildren().get(0));
+        assertSame(sibling, root.getChildren().get(1));
+    }
+
+    @Test
+    public void endingASpanEndsItsRunningChildren() {
+        StartupSpan root = timeline.start("Spring context");
+        StartupSpan child = timeline.start("registrar");
+
+        root.end();
+
+        assertFalse(root.isRunning());
+        assertFalse(child.isRunning());
+        assertNull(timeline.current());
+        assertTrue(root.getDuration() >= child.getDuration());
+    }
+
+    @Test
+    public void spansCanBeStartedOnAnotherThreadWithAnExplicitParent() throws InterruptedException {
+        final StartupSpan root = timeline.start("Start core bundles");
+        final AtomicReference<StartupSpan> bundleSpan = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                assertNull(timeline.current());
+                StartupSpan span = timeline.start(root, "Start bundle");
+                bundleSpan.set(span);
+                span.end();
+            }
+        }, "bundle-start");
+        thread.start();
+        thread.join();
+        root.end();
+
+        assertEquals(1, root.getChildren().size());
+        assertSame(bundleSpan.get(), root.getChildren().get(0));
+        assertEquals("bundle-start", bundleSpan.get().getThreadName());
+        assertEquals(1, timeline.getSpans().size());
+    }
+
+    @Test
+    public void onlyTheMostRecentRootSpansAreKept() {
+        timeline.setMaxRootSpans(2);
+        for (int i = 0; i < 3; i++) {
+            timeline.start("startup " + i).end();
+        }
+
+        List<StartupSpan> spans = timeline.getSpans();
+        assertEquals(2, spans.size());
+        assertEquals("startup 1", spans.get(0).getName());
+        assertEquals("startup 2", spans.get(1).getName());
+
+        timeline.reset();
+        assertTrue(timeline.getSpans().isEmpty());
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Behaviour;
+import com.github.dynamicextensionsalfresco.behaviours.annotations.CircuitBreaker;
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Event;
+import java.util.List;
+import org.alfresco.repo.policy.ClassPolicy;
+import org.alfresco.repo.policy.PolicyComponent;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.namespace.NamespaceService;
+import org.alfresco.service.namespace.QName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Verifies which combinations of policy methods and {@link Event}s the {@link AnnotationBasedBehaviourRegistrar}
+ * accepts.
+ */
+public class AnnotationBasedBehaviourRegistrarTest {
+
+    private final PolicyComponent policyComponent = mock(PolicyComponent.class);
+
+    private final AsyncBehaviourExecutor asyncBehaviourExecutor = new AsyncBehaviourExecutor("test");
+
+    private final AnnotationBasedBehaviourRegistrar registrar = new AnnotationBasedBehaviourRegistrar();
+
+    @Before
+    public void setUp() {
+        registrar.setPolicyComponent(policyComponent);
+        registrar.setAsyncBehaviourExecutor(asyncBehaviourExecutor);
+        registrar.setNamespacePrefixResolver(new StaticNamespacePrefixResolver());
+    }
+
+    @After
+    public void tearDown() {
+        asyncBehaviourExecutor.shutdown();
+    }
+
+    @Test
+    public void asyncCommitIsBoundForVoidPolicyMethods() {
+        bind(new AsyncNotification());
+
+        verify(policyComponent).bindClassBehaviour(eq(NotificationPolicy.QNAME), any(Object.class),
+                any(org.alfresco.repo.policy.Behaviour.class));
+    }
+
+    @Test
+    public void asyncCommitIsRejectedForPolicyMethodsWithAResult() {
+        assertRejected(new AsyncLabel());
+    }
+
+    @Test
+    public void batchCommitIsRejectedForPolicyMethodsWithAResult() {
+        assertRejected(new BatchLabel());
+    }
+
+    @Test
+    public void deferIsBoundForVoidPolicyMethods() {
+        bind(new DeferredNotification());
+
+        verify(policyComponent).bindClassBehaviour(eq(NotificationPolicy.QNAME), any(Object.class),
+                any(GuardedBehaviour.class));
+    }
+
+    @Test
+    public void deferIsRejectedForPolicyMethodsWithAResult() {
+        assertRejected(new DeferredLabel());
+    }
+
+    @Test
+    public void budgetIsRejectedForAsyncCommit() {
+        assertRejected(new BudgetedAsyncNotification());
+    }
+
+    @Test
+    public void circuitBreakerIsRejectedForBatchCommit() {
+        assertRejected(new GuardedBatchNotification());
+    }
+
+    private void bind(Object bean) {
+        registrar.bindBehaviours(bean, bean.getClass().getAnnotation(Behaviour.class));
+    }
+
+    private void assertRejected(Object bean) {
+        try {
+            bind(bean);
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            verify(policyComponent, never()).bindClassBehaviour(any(QName.class), any(Object.class),
+                    any(org.alfresco.repo.policy.Behaviour.class));
+        }
+    }
+
+    public interface NotificationPolicy extends ClassPolicy {
+
+        QName QNAME = QName.createQName(NamespaceService.ALFRESCO_URI, "onNotification");
+
+        void onNotification(NodeRef nodeRef);
+    }
+
+    public interface LabelPolicy extends ClassPolicy {
+
+        QName QNAME = QName.createQName(NamespaceService.ALFRESCO_URI, "calculateLabel");
+
+        String calculateLabel(NodeRef nodeRef);
+    }
+
+    @Behaviour(event = Event.ASYNC_COMMIT)
+    public static class AsyncNotification implements NotificationPolicy {
+
+        @Override
+        public void onNotification(NodeRef nodeRef) {
+        }
+    }
+
+    @Behaviour(event = Event.ASYNC_COMMIT)
+    public static class AsyncLabel implements LabelPolicy {
+
+        @Override
+        public String calculateLabel(NodeRef nodeRef) {
+            return "label";
+        }
+    }
+
+    @Behaviour(event = Event.BATCH_COMMIT)
+    public static class BatchLabel implements LabelPolicy {
+
+        @Override
+        public String calculateLabel(NodeRef nodeRef) {
+            return "label";
+        }
+
+        public void calculateLabel(List<BatchedInvocation> invocations) {
+        }
+    }
+
+    @Behaviour(budget = 100, circuitBreaker = CircuitBreaker.DEFER)
+    public static class DeferredNotification implements NotificationPolicy {
+
+        @Override
+        public void onNotification(NodeRef nodeRef) {
+        }
+    }
+
+    @Behaviour(budget = 100, circuitBreaker = CircuitBreaker.DEFER)
+    public static class DeferredLabel implements LabelPolicy {
+
+        @Override
+        public String calculateLabel(NodeRef nodeRef) {
+            return "label";
+        }
+    }
+
+    @Behaviour(event = Event.ASYNC_COMMIT, budget = 100)
+    public static class BudgetedAsyncNotification implements NotificationPolicy {
+
+        @Override
+        public void onNotification(NodeRef nodeRef) {
+        }
+    }
+
+    @Behaviour(event = Event.BATCH_COMMIT, circuitBreaker = CircuitBreaker.SKIP)
+    public static class GuardedBatchNotification implements NotificationPolicy {
+
+        @Override
+        public void onNotification(NodeRef nodeRef) {
+        }
+
+        public void onNotification(List<NodeRef> nodeRefs) {
+        }
+    }
+}
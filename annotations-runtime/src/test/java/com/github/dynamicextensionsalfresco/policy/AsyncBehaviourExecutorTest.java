@@ -0,0 +1,65 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Test;
+
+public class AsyncBehaviourExecutorTest {
+
+    private final AsyncBehaviourExecutor executor = new AsyncBehaviourExecutor("test");
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    public void invocationsRunOnTheSubmitterWhenTheQueueIsFull() throws InterruptedException {
+        executor.setPoolSize(1);
+        executor.setQueueCapacity(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitRelease();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(this::awaitRelease);
+        assertEquals(1, executor.getQueueDepth());
+
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+
+        assertSame(Thread.currentThread(), thread.get());
+        assertEquals(1, executor.getRejectedCount());
+    }
+
+    @Test
+    public void invocationsAfterShutdownAreDiscarded() {
+        executor.shutdown();
+        final AtomicBoolean invoked = new AtomicBoolean();
+
+        executor.execute(() -> invoked.set(true));
+
+        assertFalse(invoked.get());
+        assertEquals(0, executor.getRejectedCount());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.alfresco.repo.node.NodeServicePolicies.OnUpdatePropertiesPolicy;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.alfresco.service.namespace.QName;
+import org.junit.Test;
+
+/**
+ * Outside of a transaction, a {@link BatchingBehaviour} passes each invocation to the batch method immediately.
+ */
+public class BatchingBehaviourTest {
+
+    private static final NodeRef NODE_REF = new NodeRef("workspace://SpacesStore/a");
+
+    @Test
+    public void nodeRefsArePassedToTheBatchMethod() throws NoSuchMethodException {
+        NodeRefBatch bean = new NodeRefBatch();
+        BatchingBehaviour behaviour = new BatchingBehaviour(bean, NodeRefBatch.class.getMethod("onUpdateProperties",
+                NodeRef.class, Map.class, Map.class));
+
+        behaviour.getInterface(OnUpdatePropertiesPolicy.class)
+                .onUpdateProperties(NODE_REF, Collections.<QName, Serializable>emptyMap(), null);
+
+        assertEquals(Collections.singletonList(NODE_REF), new ArrayList<>(bean.nodeRefs));
+    }
+
+    @Test
+    public void invocationsArePassedToTheBatchMethod() throws NoSuchMethodException {
+        InvocationBatch bean = new InvocationBatch();
+        BatchingBehaviour behaviour = new BatchingBehaviour(bean, InvocationBatch.class.getMethod("onUpdateProperties",
+                NodeRef.class, Map.class, Map.class));
+        Map<QName, Serializable> after = Collections.emptyMap();
+
+        behaviour.getInterface(OnUpdatePropertiesPolicy.class).onUpdateProperties(NODE_REF, null, after);
+
+        assertEquals(1, bean.invocations.size());
+        BatchedInvocation invocation = bean.invocations.get(0);
+        assertSame(NODE_REF, invocation.getNodeRef());
+        assertSame(after, invocation.getLastArguments()[2]);
+        assertEquals(1, invocation.getInvocationCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void batchMethodIsRequired() throws NoSuchMethodException {
+        new BatchingBehaviour(new NoBatch(), NoBatch.class.getMethod("onUpdateProperties",
+                NodeRef.class, Map.class, Map.class));
+    }
+
+    public static class NodeRefBatch implements OnUpdatePropertiesPolicy {
+
+        Collection<NodeRef> nodeRefs;
+
+        @Override
+        public void onUpdateProperties(NodeRef nodeRef, Map<QName, Serializable> before,
+                Map<QName, Serializable> after) {
+        }
+
+        public void onUpdateProperties(Collection<NodeRef> nodeRefs) {
+            this.nodeRefs = nodeRefs;
+        }
+    }
+
+    public static class InvocationBatch implements OnUpdatePropertiesPolicy {
+
+        List<BatchedInvocation> invocations;
+
+        @Override
+        public void onUpdateProperties(NodeRef nodeRef, Map<QName, Serializable> before,
+                Map<QName, Serializable> after) {
+        }
+
+        public void onUpdateProperties(List<BatchedInvocation> invocations) {
+            this.invocations = invocations;
+        }
+    }
+
+    public static class NoBatch implements OnUpdatePropertiesPolicy {
+
+        @Override
+        public void onUpdateProperties(NodeRef nodeRef, Map<QName, Serializable> before,
+                Map<QName, Serializable> after) {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.CircuitBreaker;
+import com.github.dynamicextensionsalfresco.policy.BehaviourCircuitBreaker.Permission;
+import com.github.dynamicextensionsalfresco.policy.BehaviourCircuitBreaker.State;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Test;
+
+public class BehaviourCircuitBreakerTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void circuitOpensAfterConsecutiveSlowInvocations() {
+        final BehaviourCircuitBreaker circuitBreaker = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.SKIP);
+        for (int i = 1; i < BehaviourCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            assertTrue(circuitBreaker.recordInvocation(SLOW, false, false));
+        }
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.recordInvocation(SLOW, false, false);
+
+        assertEquals(State.OPEN, circuitBreaker.getState());
+        assertEquals(Permission.DENIED, circuitBreaker.allowInvocation());
+        assertEquals(1, circuitBreaker.getSkippedCount());
+    }
+
+    @Test
+    public void fastInvocationResetsTheConsecutiveFailures() {
+        final BehaviourCircuitBreaker circuitBreaker = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.SKIP);
+        for (int i = 1; i < BehaviourCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            circuitBreaker.recordInvocation(0, true, false);
+        }
+
+        assertFalse(circuitBreaker.recordInvocation(FAST, false, false));
+
+        assertEquals(0, circuitBreaker.getConsecutiveFailures());
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(BehaviourCircuitBreaker.FAILURE_THRESHOLD - 1, circuitBreaker.getFailureCount());
+    }
+
+    @Test
+    public void circuitWithoutBreakerNeverOpens() {
+        final BehaviourCircuitBreaker circuitBreaker = new BehaviourCircuitBreaker("test", 10,
+                CircuitBreaker.INHERITED_OR_NONE);
+        for (int i = 0; i < BehaviourCircuitBreaker.FAILURE_THRESHOLD * 2; i++) {
+            circuitBreaker.recordInvocation(SLOW, false, false);
+        }
+
+        assertEquals(CircuitBreaker.NONE, circuitBreaker.getMode());
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(Permission.ALLOWED, circuitBreaker.allowInvocation());
+        assertEquals(BehaviourCircuitBreaker.FAILURE_THRESHOLD * 2, circuitBreaker.getSlowCount());
+    }
+
+    @Test
+    public void resetClosesTheCircuit() {
+        final BehaviourCircuitBreaker circuitBreaker = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.DEFER);
+        for (int i = 0; i < BehaviourCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            circuitBreaker.recordInvocation(SLOW, false, false);
+        }
+
+        circuitBreaker.reset();
+
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(Permission.ALLOWED, circuitBreaker.allowInvocation());
+        assertEquals(0, circuitBreaker.getInvocationCount());
+    }
+
+    @Test
+    public void onlyTheTrialInvocationLetsTheNextTrialThrough() {
+        final AtomicLong now = new AtomicLong();
+        final BehaviourCircuitBreaker circuitBreaker = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.SKIP,
+                now::get);
+        for (int i = 0; i < BehaviourCircuitBreaker.FAILURE_THRESHOLD; i++) {
+            circuitBreaker.recordInvocation(SLOW, false, false);
+        }
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(BehaviourCircuitBreaker.OPEN_MILLIS));
+        assertEquals(State.HALF_OPEN, circuitBreaker.getState());
+
+        assertEquals(Permission.TRIAL, circuitBreaker.allowInvocation());
+        // an invocation that started before the circuit opened completes while the trial is running
+        circuitBreaker.recordInvocation(SLOW, false, false);
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(BehaviourCircuitBreaker.OPEN_MILLIS));
+        assertEquals(Permission.DENIED, circuitBreaker.allowInvocation());
+
+        circuitBreaker.recordInvocation(FAST, false, true);
+        assertEquals(State.CLOSED, circuitBreaker.getState());
+        assertEquals(Permission.ALLOWED, circuitBreaker.allowInvocation());
+    }
+}
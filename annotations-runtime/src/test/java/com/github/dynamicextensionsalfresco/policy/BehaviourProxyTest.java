@@ -0,0 +1,148 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.github.dynamicextensionsalfresco.metrics.DefaultMetricsRegistry;
+import com.github.dynamicextensionsalfresco.metrics.MetricsTimer;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import org.alfresco.repo.policy.Behaviour;
+import org.alfresco.repo.policy.Policy;
+import org.junit.Test;
+
+/**
+ * Invokes {@link Behaviour}s through the policy proxies of a {@link BehaviourProxy}.
+ */
+public class BehaviourProxyTest {
+
+    @Test
+    public void invocationIsDispatchedToTheBehaviour() throws IOException {
+        final RecordingBehaviour behaviour = new RecordingBehaviour(null);
+        final ExamplePolicy policy = createProxy(behaviour).getInterface(ExamplePolicy.class);
+
+        policy.onFirst("a");
+        policy.onSecond("b", 2);
+
+        assertEquals("[onFirst a, onSecond b 2]", behaviour.invocations.toString());
+    }
+
+    @Test
+    public void checkedExceptionIsUnwrapped() {
+        final IOException exception = new IOException("checked");
+        final ExamplePolicy policy = createProxy(new RecordingBehaviour(exception)).getInterface(ExamplePolicy.class);
+
+        try {
+            policy.onFirst("a");
+            fail("Expected an IOException");
+        } catch (IOException e) {
+            assertSame(exception, e);
+        }
+    }
+
+    @Test
+    public void uncheckedExceptionIsUnwrapped() throws IOException {
+        final IllegalStateException exception = new IllegalStateException("unchecked");
+        final ExamplePolicy policy = createProxy(new RecordingBehaviour(exception)).getInterface(ExamplePolicy.class);
+
+        try {
+            policy.onSecond("b", 2);
+            fail("Expected an IllegalStateException");
+        } catch (IllegalStateException e) {
+            assertSame(exception, e);
+        }
+    }
+
+    @Test
+    public void equalMethodInstancesAreDispatched() throws Throwable {
+        final RecordingBehaviour behaviour = new RecordingBehaviour(null);
+        final ExamplePolicy policy = createProxy(behaviour).getInterface(ExamplePolicy.class);
+        final Method method = ExamplePolicy.class.getMethod("onSecond", String.class, int.class);
+        assertNotSame(method, ExamplePolicy.class.getMethod("onSecond", String.class, int.class));
+
+        Proxy.getInvocationHandler(policy).invoke(policy, method, new Object[]{"b", 2});
+        Proxy.getInvocationHandler(policy).invoke(policy, ExamplePolicy.class.getMethod("onFirst", String.class),
+                new Object[]{"a"});
+
+        assertEquals("[onSecond b 2, onFirst a]", behaviour.invocations.toString());
+    }
+
+    @Test
+    public void releasedProxyIgnoresInvocations() throws IOException {
+        final RecordingBehaviour behaviour = new RecordingBehaviour(null);
+        final BehaviourProxy behaviourProxy = createProxy(behaviour);
+        final ExamplePolicy policy = behaviourProxy.getInterface(ExamplePolicy.class);
+
+        behaviourProxy.release();
+        policy.onFirst("a");
+
+        assertEquals(0, behaviour.invocations.size());
+    }
+
+    private static BehaviourProxy createProxy(Behaviour behaviour) {
+        return new BehaviourProxy(behaviour, new MetricsTimer(new DefaultMetricsRegistry()));
+    }
+
+    public interface ExamplePolicy extends Policy {
+
+        void onFirst(String value) throws IOException;
+
+        void onSecond(String value, int count);
+    }
+
+    private static class RecordingBehaviour implements Behaviour, ExamplePolicy {
+
+        private final List<String> invocations = new ArrayList<>();
+
+        private final Exception exception;
+
+        RecordingBehaviour(Exception exception) {
+            this.exception = exception;
+        }
+
+        @Override
+        public void onFirst(String value) throws IOException {
+            invocations.add("onFirst " + value);
+            if (exception instanceof IOException) {
+                throw (IOException) exception;
+            }
+        }
+
+        @Override
+        public void onSecond(String value, int count) {
+            invocations.add("onSecond " + value + " " + count);
+            if (exception instanceof RuntimeException) {
+                throw (RuntimeException) exception;
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getInterface(Class<T> policy) {
+            return (T) this;
+        }
+
+        @Override
+        public void disable() {
+        }
+
+        @Override
+        public void enable() {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public NotificationFrequency getNotificationFrequency() {
+            return NotificationFrequency.EVERY_EVENT;
+        }
+    }
+}
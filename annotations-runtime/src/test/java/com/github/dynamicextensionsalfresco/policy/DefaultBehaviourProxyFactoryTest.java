@@ -0,0 +1,117 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+import com.github.dynamicextensionsalfresco.metrics.DefaultMetricsRegistry;
+import com.github.dynamicextensionsalfresco.metrics.MetricsTimer;
+import java.util.ArrayList;
+import java.util.List;
+import org.alfresco.repo.node.NodeServicePolicies.OnDeleteNodePolicy;
+import org.alfresco.repo.policy.Behaviour;
+import org.alfresco.service.cmr.repository.ChildAssociationRef;
+import org.junit.Test;
+
+/**
+ * Verifies that a redeployment retargets the {@link BehaviourProxy}s of its {@link BehaviourSlot}s instead of binding
+ * new ones.
+ */
+public class DefaultBehaviourProxyFactoryTest {
+
+    private static final String SLOT_KEY = "bindClassBehaviour|onDeleteNode|cm:content|Example.onDeleteNode";
+
+    private final BehaviourSlotRegistry registry = new DefaultBehaviourSlotRegistry();
+
+    private final List<BehaviourProxy> boundProxies = new ArrayList<>();
+
+    @Test
+    public void redeploymentRetargetsTheBoundProxy() throws Throwable {
+        final DefaultBehaviourProxyFactory firstDeployment = createFactory();
+        final RecordingBehaviour first = new RecordingBehaviour();
+        bind(firstDeployment, first);
+        final OnDeleteNodePolicy policy = boundProxies.get(0).getInterface(OnDeleteNodePolicy.class);
+        firstDeployment.releaseBehaviourReferences();
+
+        final RecordingBehaviour second = new RecordingBehaviour();
+        bind(createFactory(), second);
+        policy.onDeleteNode(null, false);
+
+        assertEquals(1, boundProxies.size());
+        assertEquals(1, registry.getSlotCount());
+        assertEquals(0, first.invocations);
+        assertEquals(1, second.invocations);
+    }
+
+    @Test
+    public void proxiesThatAreStillInUseAreNotRetargeted() throws Throwable {
+        final DefaultBehaviourProxyFactory factory = createFactory();
+        bind(factory, new RecordingBehaviour());
+        bind(factory, new RecordingBehaviour());
+
+        assertEquals(2, boundProxies.size());
+        assertNotSame(boundProxies.get(0), boundProxies.get(1));
+        assertEquals(2, registry.getSlotCount());
+    }
+
+    @Test
+    public void proxiesAreNotRetainedWithoutRegistry() throws Throwable {
+        final DefaultBehaviourProxyFactory firstDeployment = createFactory();
+        firstDeployment.setBehaviourSlotRegistry(null);
+        bind(firstDeployment, new RecordingBehaviour());
+        firstDeployment.releaseBehaviourReferences();
+        final DefaultBehaviourProxyFactory secondDeployment = createFactory();
+        secondDeployment.setBehaviourSlotRegistry(null);
+        bind(secondDeployment, new RecordingBehaviour());
+
+        assertEquals(2, boundProxies.size());
+        assertEquals(0, registry.getSlotCount());
+    }
+
+    private DefaultBehaviourProxyFactory createFactory() {
+        final DefaultBehaviourProxyFactory factory = new DefaultBehaviourProxyFactory();
+        factory.timer = new MetricsTimer(new DefaultMetricsRegistry());
+        factory.setBehaviourSlotRegistry(registry);
+        return factory;
+    }
+
+    private void bind(DefaultBehaviourProxyFactory factory, Behaviour behaviour) throws Throwable {
+        factory.bindBehaviourProxy(SLOT_KEY, behaviour, behaviourProxy -> {
+            boundProxies.add(behaviourProxy);
+            return null;
+        });
+    }
+
+    private static class RecordingBehaviour implements Behaviour, OnDeleteNodePolicy {
+
+        private int invocations;
+
+        @Override
+        public void onDeleteNode(ChildAssociationRef childAssocRef, boolean isNodeArchived) {
+            invocations++;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getInterface(Class<T> policy) {
+            return (T) this;
+        }
+
+        @Override
+        public void disable() {
+        }
+
+        @Override
+        public void enable() {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public NotificationFrequency getNotificationFrequency() {
+            return NotificationFrequency.EVERY_EVENT;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.dynamicextensionsalfresco.policy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.CircuitBreaker;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class DefaultCircuitBreakerRegistryTest {
+
+    private final DefaultCircuitBreakerRegistry registry = new DefaultCircuitBreakerRegistry();
+
+    @Test
+    public void unregisterRemovesTheCircuitBreaker() {
+        final BehaviourCircuitBreaker first = new BehaviourCircuitBreaker("first", 10, CircuitBreaker.SKIP);
+        final BehaviourCircuitBreaker second = new BehaviourCircuitBreaker("second", 10, CircuitBreaker.SKIP);
+        registry.register(second);
+        registry.register(first);
+        assertEquals(Arrays.asList(first, second), registry.getCircuitBreakers());
+
+        registry.unregister(first);
+
+        assertEquals(Collections.singletonList(second), registry.getCircuitBreakers());
+    }
+
+    @Test
+    public void unregisterKeepsTheCircuitBreakerOfALaterDeployment() {
+        final BehaviourCircuitBreaker earlier = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.SKIP);
+        final BehaviourCircuitBreaker later = new BehaviourCircuitBreaker("test", 10, CircuitBreaker.SKIP);
+        registry.register(earlier);
+        registry.register(later);
+
+        registry.unregister(earlier);
+
+        assertEquals(Collections.singletonList(later), registry.getCircuitBreakers());
+        registry.unregister(later);
+        assertTrue(registry.getCircuitBreakers().isEmpty());
+    }
+}
@@ -1,11 +1,15 @@
 package com.github.dynamicextensionsalfresco.webscripts;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import com.github.dynamicextensionsalfresco.webscripts.annotations.HttpMethod;
+import com.github.dynamicextensionsalfresco.webscripts.arguments.ArgumentResolutionPlan;
+import com.github.dynamicextensionsalfresco.webscripts.arguments.HandlerMethodArgumentsResolver;
 
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +32,9 @@ public class ArgumentResolverTest extends AbstractWebScriptAnnotationsTest {
 	@Autowired
 	private ArgumentResolverHandler handler;
 
+	@Autowired
+	private HandlerMethodArgumentsResolver argumentsResolver;
+
 	@Test
 	public void testHandleWebScriptRequest() {
 		handleGet("/handleWebScriptRequest");
@@ -78,4 +85,16 @@ public class ArgumentResolverTest extends AbstractWebScriptAnnotationsTest {
 				new MockWebScriptResponse().next(nextResponse));
 		verify(handler).handleHttpServletResponse(any(HttpServletResponse.class));
 	}
+
+	@Test
+	public void testArgumentResolutionPlan() throws NoSuchMethodException {
+		final ArgumentResolutionPlan plan = argumentsResolver.createArgumentResolutionPlan(
+				ArgumentResolverHandler.class.getMethod("handleWebScriptRequest", WebScriptRequest.class), handler);
+		assertEquals(1, plan.getParameterCount());
+
+		final MockWebScriptRequest request = new MockWebScriptRequest();
+		final Object[] arguments = plan.resolveArguments(request, mock(WebScriptResponse.class));
+		assertEquals(1, arguments.length);
+		assertSame(request, arguments[0]);
+	}
 }
@@ -0,0 +1,96 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletRequest;
+import org.springframework.extensions.webscripts.servlet.WebScriptServletResponse;
+import org.springframework.http.MediaType;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Inside a servlet container that supports asynchronous requests, the results of deferred
+ * {@link com.github.dynamicextensionsalfresco.webscripts.annotations.Uri} methods complete the {@link AsyncContext}.
+ */
+public class AsyncWebScriptTest extends AbstractWebScriptAnnotationsTest {
+
+    @Autowired
+    private DeferredResultHandler handler;
+
+    private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+    private AsyncContext asyncContext;
+
+    private HttpServletResponse httpServletResponse;
+
+    private MockWebScriptRequest request;
+
+    private WebScriptServletResponse response;
+
+    @Before
+    public void setupServletContainer() throws IOException {
+        asyncContext = mock(AsyncContext.class);
+        httpServletResponse = mock(HttpServletResponse.class);
+
+        final HttpServletRequest httpServletRequest = mock(HttpServletRequest.class);
+        when(httpServletRequest.isAsyncSupported()).thenReturn(true);
+        when(httpServletRequest.startAsync(httpServletRequest, httpServletResponse)).thenReturn(asyncContext);
+        final WebScriptServletRequest servletRequest = mock(WebScriptServletRequest.class);
+        when(servletRequest.getHttpServletRequest()).thenReturn(httpServletRequest);
+        request = new MockWebScriptRequest()
+                .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                .next(servletRequest);
+
+        response = mock(WebScriptServletResponse.class);
+        when(response.getHttpServletResponse()).thenReturn(httpServletResponse);
+        when(response.getOutputStream()).thenReturn(stream);
+
+        handler.illegalStateException = null;
+    }
+
+    @Test
+    public void testCompletion() throws IOException {
+        handleGet("/handleCompletableFuture", request.param("firstName", "Test").param("lastName", "User"), response);
+
+        verify(asyncContext, timeout(5000)).complete();
+        final Person result = new ObjectMapper().readValue(stream.toByteArray(), Person.class);
+        assertThat(result.getFirstName(), is("Test"));
+        assertThat(result.getLastName(), is("User"));
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        handleGet("/handleFailedFuture", request, response);
+
+        verify(asyncContext, timeout(5000)).complete();
+        assertNotNull(handler.illegalStateException);
+        verify(httpServletResponse, never()).sendError(anyInt());
+    }
+
+    @Test
+    public void testExceptionAfterStart() throws IOException {
+        handleGet("/handleUnobservableFuture", request, response);
+
+        verify(httpServletResponse).sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        verify(asyncContext).complete();
+        verify(asyncContext).addListener(any(AsyncListener.class));
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import com.github.dynamicextensionsalfresco.webscripts.annotations.ExceptionHandler;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.RequestParam;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+@Component
+public class DeferredResultHandler {
+
+    IllegalStateException illegalStateException;
+
+    @Uri("/handleCompletableFuture")
+    @ResponseBody
+    public CompletableFuture<Person> handleCompletableFuture(@RequestParam final String firstName,
+                                                             @RequestParam final String lastName) {
+        return CompletableFuture.supplyAsync(() -> new Person(firstName, lastName));
+    }
+
+    @Uri("/handleCallable")
+    @ResponseBody
+    public Callable<Person> handleCallable(@RequestParam final String firstName,
+                                           @RequestParam final String lastName) {
+        return () -> new Person(firstName, lastName);
+    }
+
+    @Uri("/handleEmptyFuture")
+    @ResponseBody
+    public CompletableFuture<Void> handleEmptyFuture() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Uri("/handleFailedFuture")
+    @ResponseBody
+    public CompletableFuture<Person> handleFailedFuture() {
+        final CompletableFuture<Person> future = new CompletableFuture<>();
+        future.completeExceptionally(new IllegalStateException());
+        return future;
+    }
+
+    @Uri("/handleUnobservableFuture")
+    @ResponseBody
+    public CompletableFuture<Person> handleUnobservableFuture() {
+        return new CompletableFuture<Person>() {
+            @Override
+            public CompletableFuture<Person> whenComplete(
+                    final BiConsumer<? super Person, ? super Throwable> action) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    protected void handleIllegalStateException(final IllegalStateException exception) {
+        this.illegalStateException = exception;
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Outside of a servlet container the results of deferred {@link com.github.dynamicextensionsalfresco.webscripts.annotations.Uri}
+ * methods are awaited on the request thread.
+ */
+public class DeferredResultTest extends AbstractWebScriptAnnotationsTest {
+
+    @Autowired
+    private DeferredResultHandler handler;
+
+    @Test
+    public void testHandleCompletableFuture() throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        handleGet("/handleCompletableFuture",
+                new MockWebScriptRequest()
+                        .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                        .param("firstName", "Test")
+                        .param("lastName", "User"),
+                new MockWebScriptResponse().setOutputStream(stream));
+
+        final Person result = new ObjectMapper().readValue(stream.toByteArray(), Person.class);
+        assertThat(result.getFirstName(), is("Test"));
+        assertThat(result.getLastName(), is("User"));
+    }
+
+    @Test
+    public void testHandleCallable() throws IOException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        handleGet("/handleCallable",
+                new MockWebScriptRequest()
+                        .header("Accept", MediaType.APPLICATION_JSON_VALUE)
+                        .param("firstName", "Test")
+                        .param("lastName", "User"),
+                new MockWebScriptResponse().setOutputStream(stream));
+
+        final Person result = new ObjectMapper().readValue(stream.toByteArray(), Person.class);
+        assertThat(result.getFirstName(), is("Test"));
+        assertThat(result.getLastName(), is("User"));
+    }
+
+    @Test
+    public void testHandleEmptyFuture() {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+
+        handleGet("/handleEmptyFuture",
+                new MockWebScriptRequest().header("Accept", MediaType.APPLICATION_JSON_VALUE),
+                new MockWebScriptResponse().setOutputStream(stream));
+
+        assertThat("Webscript response should be empty", stream.toByteArray().length, is(0));
+    }
+
+    @Test
+    public void testHandleFailedFuture() {
+        handleGet("/handleFailedFuture");
+
+        assertNotNull(handler.illegalStateException);
+    }
+}
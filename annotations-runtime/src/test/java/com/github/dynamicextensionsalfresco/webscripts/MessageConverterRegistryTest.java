@@ -0,0 +1,86 @@
+package com.github.dynamicextensionsalfresco.webscripts;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.dynamicextensionsalfresco.webscripts.MessageConverterRegistry.NegotiatedConverter;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.HttpMediaTypeNotSupportedException;
+
+public class MessageConverterRegistryTest {
+
+    private final MessageConverterRegistry registry = new MessageConverterRegistry();
+
+    @Test
+    public void writeNegotiationIsCached() throws Exception {
+        NegotiatedConverter negotiated = registry.negotiateWrite(Person.class,
+                new String[]{"text/html,application/json"}, null);
+
+        assertEquals(MediaType.APPLICATION_JSON, negotiated.getMediaType());
+        assertSame(MappingJackson2HttpMessageConverter.class, negotiated.getConverter().getClass());
+        assertSame(negotiated, registry.negotiateWrite(Person.class,
+                new String[]{"text/html,application/json"}, null));
+        assertNotSame(negotiated, registry.negotiateWrite(Person.class,
+                new String[]{"text/html,application/json"}, "application/json"));
+    }
+
+    @Test
+    public void writeNegotiationFallsBackToDefaultFormat() throws Exception {
+        NegotiatedConverter negotiated = registry.negotiateWrite(Person.class, null, "application/json");
+
+        assertEquals(MediaType.APPLICATION_JSON, negotiated.getMediaType());
+    }
+
+    @Test(expected = HttpMediaTypeNotSupportedException.class)
+    public void writeNegotiationWithoutMediaType() throws Exception {
+        registry.negotiateWrite(Person.class, null, null);
+    }
+
+    @Test(expected = HttpMediaTypeNotAcceptableException.class)
+    public void writeNegotiationWithUnsupportedAcceptHeader() throws Exception {
+        registry.negotiateWrite(Person.class, new String[]{"image/webp"}, null);
+    }
+
+    @Test
+    public void readNegotiationIsCached() {
+        NegotiatedConverter negotiated = registry.negotiateRead(Person.class, "application/json;charset=UTF-8");
+
+        assertEquals(MediaType.parseMediaType("application/json;charset=UTF-8"), negotiated.getMediaType());
+        assertSame(MappingJackson2HttpMessageConverter.class, negotiated.getConverter().getClass());
+        assertSame(negotiated, registry.negotiateRead(Person.class, "application/json;charset=UTF-8"));
+        assertNull(registry.negotiateRead(Person.class, "image/webp"));
+    }
+
+    @Test
+    public void registeringConverterClearsCaches() throws Exception {
+        NegotiatedConverter negotiated = registry.negotiateWrite(Person.class, null, "application/json");
+
+        registry.RegisterMessageConvertor(mock(HttpMessageConverter.class));
+
+        assertNotSame(negotiated, registry.negotiateWrite(Person.class, null, "application/json"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void clearingCachesPicksUpModifiedConverters() throws Exception {
+        NegotiatedConverter negotiated = registry.negotiateWrite(Person.class, null, "application/json");
+        HttpMessageConverter<Object> converter = mock(HttpMessageConverter.class);
+        when(converter.canWrite(any(Class.class), any(MediaType.class))).thenReturn(true);
+        registry.getMessageConverters().add(0, converter);
+
+        assertSame(negotiated, registry.negotiateWrite(Person.class, null, "application/json"));
+
+        registry.clearNegotiationCaches();
+
+        assertSame(converter, registry.negotiateWrite(Person.class, null, "application/json").getConverter());
+    }
+}
@@ -2,6 +2,11 @@ package com.github.dynamicextensionsalfresco.webscripts;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
 import javax.servlet.http.HttpServletResponse;
 
 import org.junit.Before;
@@ -66,4 +71,68 @@ public class WebScriptUriRegistryTest {
 		assertNull(match);
 	}
 
+	@Test
+	public void testWebScriptBatchUnregistrationByOwner() {
+		final Object owner = new Object();
+		final WebScript first = new ExampleWebScript(HttpServletResponse.SC_OK, "/first");
+		final WebScript second = new ExampleWebScript(HttpServletResponse.SC_OK, "/second");
+		webScriptUriRegistry.registerWebScripts(owner, Arrays.asList(first, second));
+		assertEquals(Arrays.asList(first, second), webScriptUriRegistry.getWebScripts(owner));
+		assertEquals(Arrays.asList(webScript, first, second), webScriptUriRegistry.getWebScripts());
+
+		webScriptUriRegistry.unregisterWebScripts(owner);
+		assertTrue(webScriptUriRegistry.getWebScripts(owner).isEmpty());
+		assertEquals(Arrays.asList(webScript), webScriptUriRegistry.getWebScripts());
+		webScriptUriRegistry.clear();
+		assertNull(webScriptUriRegistry.findWebScript("GET", "/first"));
+		assertNull(webScriptUriRegistry.findWebScript("GET", "/second"));
+		assertNotNull(webScriptUriRegistry.findWebScript("GET", "/test"));
+	}
+
+	@Test
+	public void testUriIndexCacheInvalidation() {
+		final List<String> invalidated = new ArrayList<String>();
+		webScriptUriRegistry.setUriIndexCache(new UriIndexCache() {
+
+			@Override
+			public void invalidate(final Collection<String> uriTemplates) {
+				invalidated.addAll(uriTemplates);
+			}
+		});
+		assertTrue(webScriptUriRegistry.isUriIndexCacheInvalidated());
+
+		final WebScript other = new ExampleWebScript(HttpServletResponse.SC_OK, "/other");
+		webScriptUriRegistry.registerWebScript(other);
+		assertEquals(Arrays.asList("/other"), invalidated);
+
+		invalidated.clear();
+		webScriptUriRegistry.unregisterWebScript(webScript);
+		assertEquals(Arrays.asList("/test"), invalidated);
+	}
+
+	@Test
+	public void testLazyWebScriptIsReplacedOnLookup() {
+		final Object placeholders = new Object();
+		final WebScript actual = new ExampleWebScript(HttpServletResponse.SC_OK, "/lazy");
+		final int[] activations = new int[1];
+		final LazyWebScript lazyWebScript = new LazyWebScript(actual.getDescription(), new LazyWebScript.Activation() {
+
+			@Override
+			public void activate() {
+				activations[0]++;
+				webScriptUriRegistry.registerWebScript(actual);
+				webScriptUriRegistry.unregisterWebScripts(placeholders);
+			}
+		});
+		webScriptUriRegistry.registerWebScripts(placeholders, Arrays.asList(lazyWebScript));
+
+		final Match match = webScriptUriRegistry.findWebScript("GET", "/lazy");
+		assertEquals(1, activations[0]);
+		assertSame(actual, ((WebScriptProxy) match.getWebScript()).getWrappedWebScript());
+		assertFalse(webScriptUriRegistry.getWebScripts().contains(lazyWebScript));
+
+		webScriptUriRegistry.findWebScript("GET", "/lazy");
+		assertEquals(1, activations[0]);
+	}
+
 }
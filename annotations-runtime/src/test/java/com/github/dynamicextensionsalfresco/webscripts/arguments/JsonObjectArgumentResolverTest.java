@@ -0,0 +1,93 @@
+package com.github.dynamicextensionsalfresco.webscripts.arguments;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.springframework.extensions.surf.util.Content;
+import org.springframework.extensions.webscripts.Status;
+import org.springframework.extensions.webscripts.WebScriptException;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+public class JsonObjectArgumentResolverTest {
+
+    private final JsonObjectArgumentResolver resolver = new JsonObjectArgumentResolver();
+
+    @Test
+    public void parsesStraightFromTheRequestReader() throws Exception {
+        Content content = mock(Content.class);
+        when(content.getReader()).thenReturn(new StringReader("{\"name\":\"a\",\"items\":[1,2,3]}"));
+
+        JSONObject json = resolve(jsonRequest(content));
+
+        assertEquals("a", json.getString("name"));
+        assertEquals(3, json.getJSONArray("items").length());
+        verify(content, never()).getContent();
+    }
+
+    @Test
+    public void malformedBodyIsABadRequest() throws Exception {
+        Content content = mock(Content.class);
+        when(content.getReader()).thenReturn(new StringReader("{\"name\":"));
+
+        assertBadRequest(jsonRequest(content));
+    }
+
+    @Test
+    public void emptyBodyIsABadRequest() throws Exception {
+        Content content = mock(Content.class);
+        when(content.getReader()).thenReturn(new StringReader(""));
+
+        assertBadRequest(jsonRequest(content));
+    }
+
+    @Test
+    public void unreadableBodyIsABadRequest() throws Exception {
+        Content content = mock(Content.class);
+        when(content.getReader()).thenThrow(new IOException("connection reset"));
+
+        assertBadRequest(jsonRequest(content));
+    }
+
+    @Test
+    public void missingContentResolvesToNull() {
+        assertNull(resolve(jsonRequest(null)));
+    }
+
+    @Test
+    public void ignoresOtherContentTypes() {
+        WebScriptRequest request = mock(WebScriptRequest.class);
+        when(request.getContentType()).thenReturn("application/xml");
+
+        assertNull(resolve(request));
+    }
+
+    private JSONObject resolve(WebScriptRequest request) {
+        return resolver.resolveArgument(JSONObject.class, null, "json", request, mock(WebScriptResponse.class));
+    }
+
+    private void assertBadRequest(WebScriptRequest request) {
+        try {
+            resolve(request);
+            fail("Expected a WebScriptException");
+        } catch (WebScriptException e) {
+            assertEquals(Status.STATUS_BAD_REQUEST, e.getStatus());
+        }
+    }
+
+    private static WebScriptRequest jsonRequest(Content content) {
+        WebScriptRequest request = mock(WebScriptRequest.class);
+        when(request.getContentType()).thenReturn("application/json; charset=UTF-8");
+        when(request.getContent()).thenReturn(content);
+        return request;
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.dynamicextensionsalfresco.webscripts.arguments;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.Test;
+import org.springframework.extensions.surf.util.Content;
+import org.springframework.extensions.webscripts.WebScriptRequest;
+import org.springframework.extensions.webscripts.WebScriptResponse;
+
+public class JsonParserArgumentResolverTest {
+
+    private final JsonParserArgumentResolver resolver = new JsonParserArgumentResolver();
+
+    @Test
+    public void supportsJsonParserParameters() {
+        assertTrue(resolver.supports(JsonParser.class, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void parsesStraightFromTheRequestStream() throws Exception {
+        WebScriptRequest request = mock(WebScriptRequest.class);
+        Content content = mock(Content.class);
+        when(request.getContentType()).thenReturn("application/json; charset=UTF-8");
+        when(request.getContent()).thenReturn(content);
+        when(content.getInputStream()).thenReturn(new ByteArrayInputStream(
+                "[{\"name\":\"a\"},{\"name\":\"b\"}]".getBytes(StandardCharsets.UTF_8)));
+
+        JsonParser parser = resolver.resolveArgument(JsonParser.class, null, "parser", request,
+                mock(WebScriptResponse.class));
+
+        assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        assertEquals("a", parser.readValueAs(Map.class).get("name"));
+        assertEquals(JsonToken.START_OBJECT, parser.nextToken());
+        assertEquals("b", parser.readValueAs(Map.class).get("name"));
+        assertEquals(JsonToken.END_ARRAY, parser.nextToken());
+    }
+
+    @Test
+    public void ignoresOtherContentTypes() {
+        WebScriptRequest request = mock(WebScriptRequest.class);
+        when(request.getContentType()).thenReturn("application/xml");
+
+        assertNull(resolver.resolveArgument(JsonParser.class, null, "parser", request,
+                mock(WebScriptResponse.class)));
+    }
+}
@@ -0,0 +1,186 @@
+package com.github.dynamicextensionsalfresco.annotations.processing;
+
+import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Behaviour;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Writes an index of the compiled classes to {@link #INDEX_LOCATION}, listing for each class whether it declares or
+ * inherits {@link Behaviour}, {@link ActionMethod} or {@link Uri}/{@link WebScript} annotations. The registrars of
+ * Dynamic Extensions use this index to skip beans without annotations instead of reflecting over every bean.
+ * <p>
+ * Every compiled class is listed, including the ones without annotations: classes that are missing from the index, for
+ * example because they come from a library compiled without this processor, are still inspected at runtime.
+ *
+ * @author Laurent Van der Linden
+ */
+@SupportedAnnotationTypes("*")
+public class AnnotationIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_LOCATION = "META-INF/dynamic-extensions/annotation-index.properties";
+
+    public static final String BEHAVIOUR = "behaviour";
+
+    public static final String ACTION = "action";
+
+    public static final String WEB_SCRIPT = "webscript";
+
+    /* The annotations of each class, by binary name. */
+    private final Map<String, Set<String>> index = new TreeMap<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        } else {
+            for (Element element : roundEnv.getRootElements()) {
+                if (element instanceof TypeElement) {
+                    indexType((TypeElement) element);
+                }
+            }
+        }
+        // Other processors may handle the same annotations.
+        return false;
+    }
+
+    private void indexType(TypeElement type) {
+        if (type.getKind() == ElementKind.CLASS) {
+            final Set<String> annotations = new LinkedHashSet<>();
+            if (collectAnnotations(type.asType(), annotations, new HashSet<String>())) {
+                index.put(processingEnv.getElementUtils().getBinaryName(type).toString(), annotations);
+            }
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed instanceof TypeElement) {
+                indexType((TypeElement) enclosed);
+            }
+        }
+    }
+
+    /**
+     * Collects the annotations of a type and its supertypes, like the registrars find them at runtime.
+     *
+     * @return False if part of the hierarchy could not be resolved, so the type should be left out of the index.
+     */
+    private boolean collectAnnotations(TypeMirror typeMirror, Set<String> annotations, Set<String> visited) {
+        if (typeMirror.getKind() == TypeKind.ERROR) {
+            return false;
+        }
+        if (typeMirror.getKind() != TypeKind.DECLARED) {
+            return true;
+        }
+        final TypeElement type = (TypeElement) ((DeclaredType) typeMirror).asElement();
+        if (!visited.add(type.getQualifiedName().toString())) {
+            return true;
+        }
+
+        if (isAnnotated(type, Behaviour.class.getName(), new HashSet<String>())) {
+            annotations.add(BEHAVIOUR);
+        }
+        if (isAnnotated(type, WebScript.class.getName(), new HashSet<String>())) {
+            annotations.add(WEB_SCRIPT);
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            if (enclosed.getKind() == ElementKind.METHOD) {
+                if (isAnnotated(enclosed, ActionMethod.class.getName(), new HashSet<String>())) {
+                    annotations.add(ACTION);
+                }
+                if (isAnnotated(enclosed, Uri.class.getName(), new HashSet<String>())) {
+                    annotations.add(WEB_SCRIPT);
+                }
+            }
+        }
+
+        for (TypeMirror supertype : processingEnv.getTypeUtils().directSupertypes(typeMirror)) {
+            if (!collectAnnotations(supertype, annotations, visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return True if the element carries the annotation, directly or as a meta-annotation.
+     */
+    private boolean isAnnotated(Element element, String annotationName, Set<String> visited) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) annotationMirror.getAnnotationType().asElement();
+            final String name = annotationType.getQualifiedName().toString();
+            if (name.equals(annotationName)) {
+                return true;
+            }
+            if (!name.startsWith("java.lang.annotation.") && visited.add(name)
+                    && isAnnotated(annotationType, annotationName, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeIndex() {
+        if (index.isEmpty()) {
+            return;
+        }
+        try {
+            final FileObject fileObject = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+            try (Writer writer = new OutputStreamWriter(fileObject.openOutputStream(), StandardCharsets.ISO_8859_1)) {
+                writer.write("# Generated by " + getClass().getName() + "\n");
+                for (Entry<String, Set<String>> entry : index.entrySet()) {
+                    writer.write(escape(entry.getKey()));
+                    writer.write('=');
+                    writer.write(String.join(",", entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Could not write the Dynamic Extensions annotation index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Escapes the non-ASCII characters of a class name, as expected by {@link java.util.Properties#load}.
+     */
+    private static String escape(String name) {
+        final StringBuilder escaped = new StringBuilder(name.length());
+        for (char c : name.toCharArray()) {
+            if (c > 0x7e) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
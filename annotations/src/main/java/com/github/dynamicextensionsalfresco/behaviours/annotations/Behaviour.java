@@ -29,4 +29,18 @@ public @interface Behaviour {
      */
     Event event() default Event.ALL;
 
+    /**
+     * The time in milliseconds a single invocation of the Behaviour is expected to take at most. Invocations that take
+     * longer are logged, together with the nodes they were invoked for, and count as failures for the
+     * {@link #circuitBreaker()}. 0 means no budget. This can be overridden for each Policy method. Not supported for
+     * {@link Event#BATCH_COMMIT} and {@link Event#ASYNC_COMMIT}.
+     */
+    long budget() default 0;
+
+    /**
+     * Indicates what happens after repeated slow or failing invocations. This can be overridden for each Policy
+     * method.
+     */
+    CircuitBreaker circuitBreaker() default CircuitBreaker.NONE;
+
 }
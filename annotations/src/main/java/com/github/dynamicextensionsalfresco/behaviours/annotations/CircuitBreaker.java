@@ -0,0 +1,42 @@
+package com.github.dynamicextensionsalfresco.behaviours.annotations;
+
+/**
+ * Indicates what happens to an annotation-based Behaviour after repeated slow or failing invocations.
+ * <p>
+ * An invocation is slow if it takes longer than the budget of the Behaviour. After 5 consecutive slow or failing
+ * invocations, the circuit opens for 60 seconds. After that, a single invocation is tried: if it is fast and succeeds,
+ * the circuit closes again, otherwise it stays open for another 60 seconds.
+ * <p>
+ * Budgets and circuit breakers cannot be combined with {@link Event#BATCH_COMMIT} or {@link Event#ASYNC_COMMIT}.
+ *
+ * @author Laurent Van der Linden
+ */
+public enum CircuitBreaker {
+    /**
+     * Indicates the Behaviour is always invoked. Invocations that exceed the budget are only logged. Use this for
+     * Behaviours that enforce the integrity of the repository.
+     */
+    NONE(),
+
+    /**
+     * Indicates that invocations are skipped while the circuit is open.
+     */
+    SKIP(),
+
+    /**
+     * Indicates that invocations are deferred while the circuit is open: they are invoked after the transaction has
+     * committed, as with {@link Event#ASYNC_COMMIT}. Only supported for policy methods that return void.
+     */
+    DEFER(),
+
+    /**
+     * Indicates that the value should be inherited or default to {@link #NONE}. This effectively acts as a "null"
+     * value for the {@link ClassPolicy#circuitBreaker()}, {@link AssociationPolicy#circuitBreaker()} and
+     * {@link PropertyPolicy#circuitBreaker()}.
+     */
+    INHERITED_OR_NONE();
+
+    CircuitBreaker() {
+    }
+
+}
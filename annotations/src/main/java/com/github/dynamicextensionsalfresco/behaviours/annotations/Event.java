@@ -35,6 +35,31 @@ public enum Event {
      */
     COMMIT(),
 
+    /**
+     * Indicates the Behaviour should be triggered once per transaction, at its commit, for all nodes affected by the
+     * policy. Multiple invocations for the same node are coalesced.
+     * <p>
+     * In addition to the policy method, the Behaviour class must declare a public method with the same name that takes
+     * a single parameter: either a <code>Collection&lt;NodeRef&gt;</code> (or <code>List</code>/<code>Set</code>) of
+     * the affected nodes, or a <code>List&lt;BatchedInvocation&gt;</code> that also holds the policy arguments of the
+     * first and last invocation for each node, for example the properties before and after an update. The policy
+     * method itself is not called.
+     */
+    BATCH_COMMIT(),
+
+    /**
+     * Indicates the Behaviour should be triggered after the transaction has committed, on a background thread of the
+     * Dynamic Extension. Each invocation runs in its own retrying read-write transaction, as the user that made the
+     * change. Changes made by the Behaviour itself do not trigger it again.
+     * <p>
+     * Use this for side effects that do not have to be part of the original transaction, like forwarding audit
+     * events or warming caches. If the transaction is rolled back, the Behaviour is not triggered. When the queue of
+     * the Dynamic Extension is full, the Behaviour runs on the committing thread instead.
+     * <p>
+     * Only supported for policy methods that return void.
+     */
+    ASYNC_COMMIT(),
+
     /**
      * Indicates that the value should be inherited or default to {@link #ALL}. This effectively acts as a "null" value
      * for the {@link ClassPolicy#event()}, {@link AssociationPolicy#event()} and {@link PropertyPolicy#event()}.
@@ -38,4 +38,15 @@ public @interface PropertyPolicy {
      */
     Event event() default Event.INHERITED_OR_ALL;
 
+    /**
+     * The time in milliseconds a single invocation is expected to take at most. 0 means the budget is inherited from
+     * {@link Behaviour#budget()}.
+     */
+    long budget() default 0;
+
+    /**
+     * Indicates what happens after repeated slow or failing invocations.
+     */
+    CircuitBreaker circuitBreaker() default CircuitBreaker.INHERITED_OR_NONE;
+
 }
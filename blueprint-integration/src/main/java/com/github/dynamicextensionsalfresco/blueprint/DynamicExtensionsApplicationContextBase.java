@@ -1,17 +1,25 @@
 package com.github.dynamicextensionsalfresco.blueprint;
 
+import com.github.dynamicextensionsalfresco.AnnotationIndex;
 import com.github.dynamicextensionsalfresco.BeanNames;
 import com.github.dynamicextensionsalfresco.actions.AnnotationBasedActionRegistrar;
 import com.github.dynamicextensionsalfresco.aop.DynamicExtensionsAdvisorAutoProxyCreator;
 import com.github.dynamicextensionsalfresco.event.EventBus;
 import com.github.dynamicextensionsalfresco.event.events.SpringContextException;
 import com.github.dynamicextensionsalfresco.messages.MessagesRegistrar;
-import com.github.dynamicextensionsalfresco.metrics.SpringTimer;
+import com.github.dynamicextensionsalfresco.metrics.DefaultStartupTimeline;
+import com.github.dynamicextensionsalfresco.metrics.MetricsRegistry;
+import com.github.dynamicextensionsalfresco.metrics.MetricsTimer;
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
 import com.github.dynamicextensionsalfresco.models.M2ModelResourceListProvider;
 import com.github.dynamicextensionsalfresco.models.RepositoryModelRegistrar;
 import com.github.dynamicextensionsalfresco.osgi.webscripts.SearchPathRegistry;
 import com.github.dynamicextensionsalfresco.osgi.webscripts.SearchPathRegistryManager;
 import com.github.dynamicextensionsalfresco.policy.AnnotationBasedBehaviourRegistrar;
+import com.github.dynamicextensionsalfresco.policy.AsyncBehaviourExecutor;
+import com.github.dynamicextensionsalfresco.policy.BehaviourSlotRegistry;
+import com.github.dynamicextensionsalfresco.policy.CircuitBreakerRegistry;
 import com.github.dynamicextensionsalfresco.policy.DefaultBehaviourProxyFactory;
 import com.github.dynamicextensionsalfresco.policy.ProxyPolicyComponentFactoryBean;
 import com.github.dynamicextensionsalfresco.resources.DefaultBootstrapService;
@@ -36,7 +44,11 @@ import com.springsource.util.osgi.manifest.ImportedPackage;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.alfresco.service.descriptor.Descriptor;
 import org.alfresco.service.descriptor.DescriptorService;
@@ -53,6 +65,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.parsing.BeanDefinitionParsingException;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
@@ -119,9 +133,25 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
 
     public static final String SPRING_CONFIGURATION_HEADER = "Alfresco-Spring-Configuration";
     public static final String ALFRESCO_DYNAMIC_EXTENSION_HEADER = "Alfresco-Dynamic-Extension";
+    public static final String ACTIVATION_HEADER = "Alfresco-Dynamic-Extension-Activation";
+    public static final String LAZY_ACTIVATION = "lazy";
 
     private static final String HOST_APPLICATION_ALFRESCO_FILTER = "(hostApplication=alfresco)";
 
+    /**
+     * Infrastructure beans whose initialization is recorded in the {@link StartupTimeline}.
+     */
+    private static final Set<String> TIMED_INFRASTRUCTURE_BEANS = new HashSet<>(Arrays.asList(
+            BeanNames.MODEL_REGISTRAR.id(),
+            BeanNames.ANNOTATION_BASED_BEHAVIOUR_REGISTRAR.id(),
+            BeanNames.ANNOTATION_BASED_WEB_SCRIPT_REGISTRAR.id(),
+            BeanNames.SEARCH_PATH_REGISTRY_MANAGER.id()
+    ));
+
+    private StartupTimeline startupTimeline;
+
+    private volatile StartupSpan refreshSpan;
+
     public DynamicExtensionsApplicationContextBase(String[] configurationLocations, ApplicationContext parent) {
         super(configurationLocations, parent);
 
@@ -137,12 +167,45 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
 
     protected abstract DefaultListableBeanFactory createVersionSpecificBeanFactory(VersionNumber version);
 
+    @Override
+    protected void prepareRefresh() {
+        refreshSpan = getStartupTimeline().start("Spring context " + this.getBundle().getSymbolicName());
+        super.prepareRefresh();
+    }
+
+    @Override
+    protected void finishRefresh() {
+        try {
+            super.finishRefresh();
+        } finally {
+            endRefreshSpan();
+        }
+    }
+
+    @Override
+    protected void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        super.postProcessBeanFactory(beanFactory);
+
+        if (this.isAlfrescoDynamicExtension()) {
+            beanFactory.addBeanPostProcessor(new InfrastructureBeanTimingPostProcessor());
+        }
+    }
+
     @Override
     protected void loadBeanDefinitions(@NotNull DefaultListableBeanFactory beanFactory) throws IOException {
         if (beanFactory == null) {
             throw new IllegalArgumentException("beanFactory is null");
         }
 
+        StartupSpan span = getStartupTimeline().start(refreshSpan, "Load bean definitions");
+        try {
+            this.doLoadBeanDefinitions(beanFactory);
+        } finally {
+            span.end();
+        }
+    }
+
+    private void doLoadBeanDefinitions(DefaultListableBeanFactory beanFactory) throws IOException {
         boolean isAlfrescoDynamicExtension = this.isAlfrescoDynamicExtension();
         if (this.hasSpringConfigurationHeader()) {
             if (this.hasXmlConfiguration() && log.isWarnEnabled()) {
@@ -194,6 +257,7 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
             throw new IllegalArgumentException("ex is null");
         }
         super.cancelRefresh(ex);
+        endRefreshSpan();
 
         try {
             getService(EventBus.class).publish(new SpringContextException(this.getBundle(), ex));
@@ -202,6 +266,28 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
         }
     }
 
+    /**
+     * Obtains the {@link StartupTimeline} service, or a private timeline if the service is not available.
+     */
+    protected StartupTimeline getStartupTimeline() {
+        if (startupTimeline == null) {
+            try {
+                startupTimeline = getService(StartupTimeline.class);
+            } catch (RuntimeException e) {
+                log.debug("StartupTimeline service is not available, timeline will not be shared.", e);
+                startupTimeline = new DefaultStartupTimeline();
+            }
+        }
+        return startupTimeline;
+    }
+
+    private void endRefreshSpan() {
+        StartupSpan span = refreshSpan;
+        if (span != null) {
+            span.end();
+        }
+    }
+
     private void scanPackages(DefaultListableBeanFactory beanFactory, String[] configurationPackages) {
         if (log.isWarnEnabled()) {
             logWarnScanningOfImports(configurationPackages);
@@ -323,6 +409,16 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
         return Boolean.valueOf(this.getBundle().getHeaders().get(ALFRESCO_DYNAMIC_EXTENSION_HEADER));
     }
 
+    /**
+     * Indicates whether the Spring context should only be created when one of the extension's Web Scripts is first
+     * requested or one of its Actions is executed.
+     *
+     * @see LazyExtensionActivation
+     */
+    protected final boolean isLazyActivation() {
+        return LAZY_ACTIVATION.equalsIgnoreCase(this.getBundle().getHeaders().get(ACTIVATION_HEADER));
+    }
+
     @Nullable
     protected final String[] getSpringConfigurationPackages() {
         String header = this.getBundle().getHeaders().get(SPRING_CONFIGURATION_HEADER);
@@ -341,12 +437,22 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
             throw new IllegalArgumentException("beanFactory is null");
         }
 
+        StartupSpan span = getStartupTimeline().start(refreshSpan, "Register infrastructure beans");
+        try {
+            doRegisterInfrastructureBeans(beanFactory);
+        } finally {
+            span.end();
+        }
+    }
+
+    private void doRegisterInfrastructureBeans(DefaultListableBeanFactory beanFactory) {
         Descriptor serverDescriptor = this.getService(DescriptorService.class).getServerDescriptor();
 
         registerContentSupportBeans(beanFactory);
         registerModelDeploymentBeans(beanFactory);
         registerWorkflowDeployment(beanFactory);
         registerMessagesDeployment(beanFactory);
+        registerAnnotationIndex(beanFactory);
         registerAnnotationBasedBehaviourBeans(beanFactory);
         registerAnnotationBasedActionBeans(beanFactory);
         registerAnnotationBasedWebScriptBeans(beanFactory);
@@ -418,12 +524,33 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
         }
     }
 
+    /**
+     * Registers the build-time annotation index of the bundle, used by the annotation-based registrars to skip beans
+     * without annotations.
+     */
+    private void registerAnnotationIndex(DefaultListableBeanFactory beanFactory) {
+        this.bean(beanFactory, BeanNames.ANNOTATION_INDEX, AnnotationIndex.class,
+                new BeanDefinitionBuilderCustomizer() {
+                    @Override
+                    public void customize(BeanDefinitionBuilder builder) {
+                        builder.setFactoryMethod("load");
+                        builder.addConstructorArgValue(getClassLoader());
+                    }
+                });
+    }
+
     /**
      * Registers the infrastructure beans that facilitate annotation-based Behaviours.
      */
     private void registerAnnotationBasedBehaviourBeans(DefaultListableBeanFactory beanFactory) {
         this.bean(beanFactory, BeanNames.BEHAVIOUR_PROXY_FACTORY, DefaultBehaviourProxyFactory.class,
-                beanAutowireByType);
+                new BeanDefinitionBuilderCustomizer() {
+                    @Override
+                    public void customize(BeanDefinitionBuilder builder) {
+                        builder.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+                        builder.addPropertyValue("behaviourSlotRegistry", getService(BehaviourSlotRegistry.class));
+                    }
+                });
         this.bean(beanFactory, BeanNames.PROXY_POLICY_COMPONENT, ProxyPolicyComponentFactoryBean.class,
                 new BeanDefinitionBuilderCustomizer() {
                     @Override
@@ -432,13 +559,26 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
                         builder.addPropertyReference("behaviourProxyFactory", BeanNames.BEHAVIOUR_PROXY_FACTORY.id());
                     }
                 });
+        this.bean(beanFactory, BeanNames.ASYNC_BEHAVIOUR_EXECUTOR, AsyncBehaviourExecutor.class,
+                new BeanDefinitionBuilderCustomizer() {
+                    @Override
+                    public void customize(BeanDefinitionBuilder builder) {
+                        builder.addConstructorArgValue(getBundle().getSymbolicName());
+                        builder.setDestroyMethodName("shutdown");
+                    }
+                });
         this.bean(beanFactory, BeanNames.ANNOTATION_BASED_BEHAVIOUR_REGISTRAR, AnnotationBasedBehaviourRegistrar.class,
                 new BeanDefinitionBuilderCustomizer() {
                     @Override
                     public void customize(BeanDefinitionBuilder builder) {
                         builder.addPropertyReference("policyComponent", BeanNames.PROXY_POLICY_COMPONENT.id());
+                        builder.addPropertyReference("asyncBehaviourExecutor",
+                                BeanNames.ASYNC_BEHAVIOUR_EXECUTOR.id());
+                        builder.addPropertyValue("circuitBreakerRegistry", getService(CircuitBreakerRegistry.class));
+                        builder.addPropertyReference("annotationIndex", BeanNames.ANNOTATION_INDEX.id());
                         builder.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
                         builder.setInitMethodName("bindBehaviours");
+                        builder.setDestroyMethodName("unregisterCircuitBreakers");
                     }
                 });
     }
@@ -452,6 +592,7 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
                     @Override
                     public void customize(BeanDefinitionBuilder builder) {
                         builder.setAutowireMode(AbstractBeanDefinition.AUTOWIRE_BY_TYPE);
+                        builder.addPropertyReference("annotationIndex", BeanNames.ANNOTATION_INDEX.id());
                         builder.setInitMethodName("registerAnnotationBasedActions");
                         builder.setDestroyMethodName("unregisterAnnotationBasedActions");
                     }
@@ -491,6 +632,7 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
                                 BeanNames.HANDLER_METHOD_ARGUMENTS_RESOLVER.id());
                         builder.addPropertyReference("messageConverterRegistry",
                                 BeanNames.MESSAGE_CONVERTER_REGISTER.id());
+                        builder.addPropertyReference("timer", BeanNames.METRICS_TIMER.id());
                     }
                 });
 
@@ -501,6 +643,7 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
                         builder.addPropertyReference("annotationBasedWebScriptBuilder",
                                 BeanNames.ANNOTATION_BASED_WEB_SCRIPT_BUILDER.id());
                         builder.addPropertyValue("webScriptUriRegistry", getService(WebScriptUriRegistry.class));
+                        builder.addPropertyReference("annotationIndex", BeanNames.ANNOTATION_INDEX.id());
                         builder.setInitMethodName("registerWebScripts");
                         builder.setDestroyMethodName("unregisterWebScripts");
                     }
@@ -562,13 +705,45 @@ public abstract class DynamicExtensionsApplicationContextBase extends OsgiBundle
     }
 
     private void registerMetrics(DefaultListableBeanFactory beanFactory) {
-        this.bean(beanFactory, BeanNames.METRICS_TIMER, SpringTimer.class, beanAutowireByType);
+        this.bean(beanFactory, BeanNames.METRICS_TIMER, MetricsTimer.class,
+                new BeanDefinitionBuilderCustomizer() {
+                    @Override
+                    public void customize(BeanDefinitionBuilder builder) {
+                        builder.addConstructorArgValue(getService(MetricsRegistry.class));
+                    }
+                });
     }
 
     private void registerWebResources(DefaultListableBeanFactory beanFactory) {
         this.bean(beanFactory, BeanNames.RESOURCES_WEB, WebResourcesRegistrar.class, beanAutowireByType);
     }
 
+    /**
+     * Records the initialization of the {@link #TIMED_INFRASTRUCTURE_BEANS} as children of the context span. Spans of
+     * beans that fail to initialize are ended with the context span.
+     */
+    private class InfrastructureBeanTimingPostProcessor implements BeanPostProcessor {
+
+        private final Map<String, StartupSpan> spans = new ConcurrentHashMap<>();
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+            if (TIMED_INFRASTRUCTURE_BEANS.contains(beanName)) {
+                spans.put(beanName, getStartupTimeline().start(refreshSpan, beanName));
+            }
+            return bean;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+            StartupSpan span = spans.remove(beanName);
+            if (span != null) {
+                span.end();
+            }
+            return bean;
+        }
+    }
+
     // @FunctionalInterface
     public interface BeanDefinitionBuilderCustomizer {
 
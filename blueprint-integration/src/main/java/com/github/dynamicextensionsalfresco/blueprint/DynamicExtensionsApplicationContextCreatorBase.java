@@ -30,6 +30,9 @@ import org.springframework.context.ApplicationContext;
  * <p>
  * Installing parallel versions of regular OSGi bundles - that is: bundles without the
  * <code>Alfresco-Dynamic-Extension</code> header - is still allowed.
+ * <p>
+ * No {@link ApplicationContext} is returned for Dynamic Extensions that are activated lazily, as their context is
+ * created by {@link LazyExtensionActivation} when it is first needed.
  * 
  * @author Laurens Fridael
  * 
@@ -83,6 +86,10 @@ public abstract class DynamicExtensionsApplicationContextCreatorBase implements
 
 		applicationContext.setPublishContextAsService(config.isPublishContextAsService());
 
+		if (applicationContext.isAlfrescoDynamicExtension() && applicationContext.isLazyActivation()
+				&& new LazyExtensionActivation(applicationContext).defer()) {
+			return null;
+		}
 		return applicationContext;
 
 	}
@@ -0,0 +1,294 @@
+package com.github.dynamicextensionsalfresco.blueprint;
+
+import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Behaviour;
+import com.github.dynamicextensionsalfresco.jobs.ScheduledQuartzJob;
+import com.github.dynamicextensionsalfresco.osgi.OsgiService;
+import com.github.dynamicextensionsalfresco.schedule.ScheduledTask;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.alfresco.repo.action.ActionDefinitionImpl;
+import org.alfresco.service.cmr.action.ActionDefinition;
+import org.alfresco.service.cmr.action.ParameterDefinition;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.framework.Bundle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.MethodMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.extensions.webscripts.Description;
+import org.springframework.extensions.webscripts.Description.FormatStyle;
+import org.springframework.extensions.webscripts.Description.RequiredAuthentication;
+import org.springframework.extensions.webscripts.DescriptionImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Determines whether a Dynamic Extension can be activated lazily and, if so, describes the Web Scripts and Actions to
+ * register as placeholders.
+ * <p>
+ * The classes of the extension are read with ASM, so they are not loaded. An extension can only be activated lazily
+ * if Web Scripts and Actions are its only entry points. Behaviours, workflow delegates, scheduled jobs, OSGi services,
+ * Spring XML configuration and content in <code>/META-INF/alfresco</code> all need the Spring context at startup.
+ *
+ * @author Laurent Van der Linden
+ */
+class LazyActivationScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(LazyActivationScanner.class);
+
+    private static final String ALFRESCO_RESOURCES_PATH = "/META-INF/alfresco";
+
+    private static final List<String> EAGER_TYPE_ANNOTATIONS = Arrays.asList(
+            Behaviour.class.getName(),
+            ScheduledQuartzJob.class.getName(),
+            ScheduledTask.class.getName(),
+            OsgiService.class.getName()
+    );
+
+    private static final List<String> WORKFLOW_INTERFACES = Arrays.asList(
+            "org.activiti.engine.delegate.JavaDelegate",
+            "org.activiti.engine.delegate.TaskListener",
+            "org.activiti.engine.delegate.ExecutionListener"
+    );
+
+    /**
+     * The Web Scripts and Actions of an extension that can be activated lazily.
+     */
+    static class Placeholders {
+
+        final List<Description> webScripts = new ArrayList<>();
+
+        final List<ActionPlaceholder> actions = new ArrayList<>();
+
+        boolean isEmpty() {
+            return webScripts.isEmpty() && actions.isEmpty();
+        }
+    }
+
+    /**
+     * The definition of an @{@link ActionMethod}, without the parameter definitions and applicable types that can only
+     * be determined from the loaded classes.
+     */
+    static class ActionPlaceholder {
+
+        final ActionDefinition actionDefinition;
+
+        @Nullable
+        final String queueName;
+
+        ActionPlaceholder(ActionDefinition actionDefinition, @Nullable String queueName) {
+            this.actionDefinition = actionDefinition;
+            this.queueName = queueName;
+        }
+    }
+
+    private final Bundle bundle;
+
+    private final ResourcePatternResolver resourcePatternResolver;
+
+    @Nullable
+    private final String[] packages;
+
+    /**
+     * @param packages The packages scanned for Spring beans, or null if the extension uses Spring XML configuration.
+     */
+    LazyActivationScanner(@NotNull Bundle bundle, @NotNull ResourcePatternResolver resourcePatternResolver,
+            @Nullable String[] packages) {
+        if (bundle == null) {
+            throw new IllegalArgumentException("bundle is null");
+        }
+        if (resourcePatternResolver == null) {
+            throw new IllegalArgumentException("resourcePatternResolver is null");
+        }
+        this.bundle = bundle;
+        this.resourcePatternResolver = resourcePatternResolver;
+        this.packages = packages;
+    }
+
+    @NotNull
+    static LazyActivationScanner forApplicationContext(
+            @NotNull DynamicExtensionsApplicationContextBase applicationContext) {
+        if (applicationContext == null) {
+            throw new IllegalArgumentException("applicationContext is null");
+        }
+        final String[] packages;
+        if (applicationContext.hasSpringConfigurationHeader()) {
+            final String[] configurationPackages = applicationContext.getSpringConfigurationPackages();
+            packages = configurationPackages != null ? configurationPackages : new String[0];
+        } else if (applicationContext.hasXmlConfiguration()) {
+            packages = null;
+        } else {
+            packages = applicationContext.getBundleExportPackages();
+        }
+        return new LazyActivationScanner(applicationContext.getBundle(), applicationContext, packages);
+    }
+
+    /**
+     * @return The placeholders to register, or null if the extension must be activated at startup.
+     */
+    @Nullable
+    Placeholders scan() throws IOException {
+        if (packages == null) {
+            return eager("it has Spring XML configuration");
+        }
+        if (hasEntries(bundle, ALFRESCO_RESOURCES_PATH, "*")) {
+            return eager("it contains " + ALFRESCO_RESOURCES_PATH + " resources");
+        }
+        if (hasEntries(bundle, "/", "*.desc.xml")) {
+            return eager("it contains Web Script descriptors");
+        }
+
+        final Placeholders placeholders = new Placeholders();
+        final MetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(resourcePatternResolver);
+        final Set<String> actionClassNames = new HashSet<>();
+        for (String packageName : packages) {
+            final String pattern = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+                    + ClassUtils.convertClassNameToResourcePath(packageName) + "/**/*.class";
+            for (Resource resource : resourcePatternResolver.getResources(pattern)) {
+                final AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(resource)
+                        .getAnnotationMetadata();
+                final String reason = getEagerReason(metadata);
+                if (reason != null) {
+                    return eager(reason);
+                }
+                if (metadata.isConcrete() && metadata.hasAnnotation(WebScript.class.getName())) {
+                    addDescriptions(metadata, placeholders.webScripts);
+                }
+                if (metadata.isConcrete() && isComponent(metadata)) {
+                    // @ActionMethods are inherited, so the superclasses of each component are read as well
+                    AnnotationMetadata type = metadata;
+                    while (actionClassNames.add(type.getClassName())) {
+                        addActionPlaceholders(type, placeholders.actions);
+                        if (!type.hasSuperClass() || type.getSuperClassName().startsWith("java.")) {
+                            break;
+                        }
+                        type = metadataReaderFactory.getMetadataReader(type.getSuperClassName())
+                                .getAnnotationMetadata();
+                    }
+                }
+            }
+        }
+        if (placeholders.isEmpty()) {
+            return eager("it has no Web Scripts or Actions");
+        }
+        return placeholders;
+    }
+
+    @Nullable
+    private static String getEagerReason(AnnotationMetadata metadata) {
+        final String className = metadata.getClassName();
+        for (String annotation : EAGER_TYPE_ANNOTATIONS) {
+            if (metadata.hasAnnotation(annotation)) {
+                return String.format("'%s' is annotated with @%s", className, ClassUtils.getShortName(annotation));
+            }
+        }
+        if (metadata.isConcrete() && metadata.hasAnnotatedMethods(ActionMethod.class.getName())
+                && !isComponent(metadata)) {
+            // the Actions of beans that are not found by the component scan would not get a placeholder
+            return String.format("'%s' has @ActionMethods, but is not a @Component", className);
+        }
+        for (String interfaceName : metadata.getInterfaceNames()) {
+            if (WORKFLOW_INTERFACES.contains(interfaceName)) {
+                return String.format("'%s' is a workflow delegate", className);
+            }
+        }
+        if (metadata.hasAnnotation(WebScript.class.getName()) && metadata.hasSuperClass()
+                && !Object.class.getName().equals(metadata.getSuperClassName())) {
+            // @Uri methods inherited from the superclass would not get a placeholder
+            return String.format("Web Script '%s' extends '%s'", className, metadata.getSuperClassName());
+        }
+        return null;
+    }
+
+    /**
+     * Describes the placeholders for the @{@link Uri} methods of a @{@link WebScript} class, resolving the URIs the
+     * same way as {@link com.github.dynamicextensionsalfresco.webscripts.AnnotationWebScriptBuilder}.
+     */
+    private static void addDescriptions(AnnotationMetadata metadata, List<Description> descriptions) {
+        final Map<String, Object> webScript = metadata.getAnnotationAttributes(WebScript.class.getName());
+        final String baseUri = ((String) webScript.get("baseUri")).replaceAll("/$", "");
+        for (MethodMetadata method : metadata.getAnnotatedMethods(Uri.class.getName())) {
+            final Map<String, Object> uri = method.getAnnotationAttributes(Uri.class.getName());
+            final String[] values = (String[]) uri.get("value");
+            final String[] uris;
+            if (values.length > 0) {
+                uris = new String[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    uris[i] = baseUri + "/" + values[i].replaceAll("^/", "");
+                }
+            } else if (StringUtils.hasText(baseUri)) {
+                uris = new String[] { baseUri };
+            } else {
+                continue;
+            }
+            final String httpMethod = String.valueOf(uri.get("method"));
+            final DescriptionImpl description = new DescriptionImpl();
+            description.setId(String.format("%s.%s.%s.lazy", metadata.getClassName(), method.getMethodName(),
+                    httpMethod.toLowerCase()));
+            description.setMethod(httpMethod);
+            description.setUris(uris);
+            description.setFormatStyle(FormatStyle.any);
+            description.setRequiredAuthentication(RequiredAuthentication.none);
+            descriptions.add(description);
+        }
+    }
+
+    private static boolean isComponent(AnnotationMetadata metadata) {
+        return metadata.hasAnnotation(Component.class.getName())
+                || metadata.hasMetaAnnotation(Component.class.getName());
+    }
+
+    /**
+     * Describes the placeholders for the @{@link ActionMethod}s declared by a class, naming the Actions the same way as
+     * {@link com.github.dynamicextensionsalfresco.actions.AnnotationBasedActionRegistrar}.
+     */
+    private static void addActionPlaceholders(AnnotationMetadata metadata, List<ActionPlaceholder> actions) {
+        for (MethodMetadata method : metadata.getAnnotatedMethods(ActionMethod.class.getName())) {
+            final Map<String, Object> actionMethod = method.getAnnotationAttributes(ActionMethod.class.getName());
+            String name = (String) actionMethod.get("value");
+            if (!StringUtils.hasLength(name)) {
+                name = String.format("%s.%s", ClassUtils.getShortName(metadata.getClassName()),
+                        method.getMethodName());
+            }
+            final ActionDefinitionImpl actionDefinition = new ActionDefinitionImpl(name);
+            actionDefinition.setParameterDefinitions(Collections.<ParameterDefinition>emptyList());
+            actionDefinition.setAdhocPropertiesAllowed((Boolean) actionMethod.get("adhocPropertiesAllowed"));
+            actionDefinition.setTitleKey(emptyToNull((String) actionMethod.get("titleKey")));
+            actionDefinition.setDescriptionKey(emptyToNull((String) actionMethod.get("descriptionKey")));
+            actionDefinition.setRuleActionExecutor(emptyToNull((String) actionMethod.get("ruleActionExecutor")));
+            actions.add(new ActionPlaceholder(actionDefinition, emptyToNull((String) actionMethod.get("queueName"))));
+        }
+    }
+
+    @Nullable
+    private static String emptyToNull(String value) {
+        return StringUtils.hasLength(value) ? value : null;
+    }
+
+    private static boolean hasEntries(Bundle bundle, String path, String filePattern) {
+        final Enumeration<?> entries = bundle.findEntries(path, filePattern, true);
+        return entries != null && entries.hasMoreElements();
+    }
+
+    private Placeholders eager(String reason) {
+        log.info("Dynamic Extension '{}' is activated at startup instead of lazily, because {}.",
+                bundle.getSymbolicName(), reason);
+        return null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.github.dynamicextensionsalfresco.blueprint;
+
+import com.github.dynamicextensionsalfresco.actions.ActionExecuterRegistry;
+import com.github.dynamicextensionsalfresco.actions.LazyActionExecuter;
+import com.github.dynamicextensionsalfresco.blueprint.LazyActivationScanner.ActionPlaceholder;
+import com.github.dynamicextensionsalfresco.blueprint.LazyActivationScanner.Placeholders;
+import com.github.dynamicextensionsalfresco.webscripts.LazyWebScript;
+import com.github.dynamicextensionsalfresco.webscripts.WebScriptUriRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.alfresco.repo.action.RuntimeActionService;
+import org.alfresco.repo.security.authentication.AuthenticationUtil;
+import org.jetbrains.annotations.NotNull;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.SynchronousBundleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.extensions.webscripts.Description;
+import org.springframework.extensions.webscripts.WebScript;
+
+/**
+ * Defers the creation of the Spring context of a Dynamic Extension with the
+ * {@value DynamicExtensionsApplicationContextBase#ACTIVATION_HEADER} header set to
+ * {@value DynamicExtensionsApplicationContextBase#LAZY_ACTIVATION} until one of its Web Scripts is requested or one of
+ * its Actions is executed.
+ * <p>
+ * Until then, the URIs of the extension are bound to {@link LazyWebScript} placeholders and its Actions to
+ * {@link LazyActionExecuter} placeholders. The context is refreshed on the thread of the first request or Action, as
+ * the system user, and closed when the bundle stops. Gemini Blueprint does not manage the context of a lazily activated
+ * extension.
+ *
+ * @author Laurent Van der Linden
+ */
+class LazyExtensionActivation implements LazyWebScript.Activation, LazyActionExecuter.Activation,
+        SynchronousBundleListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LazyExtensionActivation.class);
+
+    private enum State {
+        DEFERRED, ACTIVE, FAILED, STOPPED
+    }
+
+    private final DynamicExtensionsApplicationContextBase applicationContext;
+
+    private final LazyActivationScanner scanner;
+
+    private final Bundle bundle;
+
+    private WebScriptUriRegistry webScriptUriRegistry;
+
+    private ActionExecuterRegistry actionExecuterRegistry;
+
+    private final List<LazyActionExecuter> actionPlaceholders = new ArrayList<>();
+
+    /* guarded by this */
+    private State state = State.DEFERRED;
+
+    LazyExtensionActivation(@NotNull DynamicExtensionsApplicationContextBase applicationContext) {
+        this(applicationContext, LazyActivationScanner.forApplicationContext(applicationContext));
+    }
+
+    LazyExtensionActivation(@NotNull DynamicExtensionsApplicationContextBase applicationContext,
+            @NotNull LazyActivationScanner scanner) {
+        if (applicationContext == null) {
+            throw new IllegalArgumentException("applicationContext is null");
+        }
+        if (scanner == null) {
+            throw new IllegalArgumentException("scanner is null");
+        }
+        this.applicationContext = applicationContext;
+        this.scanner = scanner;
+        this.bundle = applicationContext.getBundle();
+    }
+
+    /**
+     * Registers the placeholders of the extension's Web Scripts and Actions, if the extension can be activated lazily.
+     *
+     * @return False if the extension has to be activated at startup.
+     */
+    boolean defer() {
+        final Placeholders placeholders;
+        try {
+            placeholders = scanner.scan();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Error scanning Dynamic Extension '{}', activating it at startup instead of lazily.",
+                    bundle.getSymbolicName(), e);
+            return false;
+        }
+        if (placeholders == null) {
+            return false;
+        }
+
+        final List<WebScript> webScriptPlaceholders = new ArrayList<>(placeholders.webScripts.size());
+        for (Description description : placeholders.webScripts) {
+            webScriptPlaceholders.add(new LazyWebScript(description, this));
+        }
+        webScriptUriRegistry = BundleUtils.getService(bundle.getBundleContext(), WebScriptUriRegistry.class);
+        actionExecuterRegistry = BundleUtils.getService(bundle.getBundleContext(), ActionExecuterRegistry.class);
+        bundle.getBundleContext().addBundleListener(this);
+        webScriptUriRegistry.registerWebScripts(this, webScriptPlaceholders);
+        registerActionPlaceholders(placeholders.actions);
+        log.info("Dynamic Extension '{}' will be activated when one of its {} Web Scripts is first requested or one "
+                + "of its {} Actions is executed.", bundle.getSymbolicName(), webScriptPlaceholders.size(),
+                actionPlaceholders.size());
+        return true;
+    }
+
+    private void registerActionPlaceholders(List<ActionPlaceholder> actions) {
+        if (actions.isEmpty()) {
+            return;
+        }
+        // lists the Actions in the ActionService, like AnnotationBasedActionRegistrar does for the actual Actions
+        final RuntimeActionService runtimeActionService = applicationContext.getParent()
+                .getBean(RuntimeActionService.class);
+        for (ActionPlaceholder action : actions) {
+            final String name = action.actionDefinition.getName();
+            if (actionExecuterRegistry.hasActionExecuter(name)) {
+                log.warn("ActionExecuter name {} has already been registered.", name);
+                continue;
+            }
+            final LazyActionExecuter placeholder = new LazyActionExecuter(action.actionDefinition, action.queueName,
+                    actionExecuterRegistry, this);
+            actionExecuterRegistry.registerActionExecuter(placeholder);
+            runtimeActionService.registerActionExecuter(placeholder);
+            actionPlaceholders.add(placeholder);
+        }
+    }
+
+    private void unregisterPlaceholders() {
+        webScriptUriRegistry.unregisterWebScripts(this);
+        for (LazyActionExecuter placeholder : actionPlaceholders) {
+            actionExecuterRegistry.unregisterActionExecuter(placeholder);
+        }
+    }
+
+    @Override
+    public synchronized void activate() {
+        if (state != State.DEFERRED) {
+            return;
+        }
+        log.info("Activating Dynamic Extension '{}'.", bundle.getSymbolicName());
+        try {
+            AuthenticationUtil.runAsSystem(() -> {
+                applicationContext.refresh();
+                return null;
+            });
+            state = State.ACTIVE;
+        } catch (RuntimeException e) {
+            state = State.FAILED;
+            log.error("Error activating Dynamic Extension '{}'.", bundle.getSymbolicName(), e);
+            return;
+        }
+        // the actual Web Scripts and Actions have replaced the placeholders by now
+        unregisterPlaceholders();
+    }
+
+    @Override
+    public void bundleChanged(BundleEvent event) {
+        if (event.getBundle() != bundle || event.getType() != BundleEvent.STOPPING) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.ACTIVE) {
+                applicationContext.close();
+            }
+            state = State.STOPPED;
+        }
+        unregisterPlaceholders();
+        try {
+            bundle.getBundleContext().removeBundleListener(this);
+        } catch (IllegalStateException ignore) {
+            // the listener is removed with the bundle context anyway
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.dynamicextensionsalfresco.blueprint;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.github.dynamicextensionsalfresco.blueprint.LazyActivationScanner.ActionPlaceholder;
+import com.github.dynamicextensionsalfresco.blueprint.LazyActivationScanner.Placeholders;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+import org.osgi.framework.Bundle;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.extensions.webscripts.Description;
+
+public class LazyActivationScannerTest {
+
+    static final String WEB_SCRIPTS = "com.github.dynamicextensionsalfresco.blueprint.lazy.webscripts";
+
+    static final String ACTIONS = "com.github.dynamicextensionsalfresco.blueprint.lazy.actions";
+
+    static final String BEHAVIOURS = "com.github.dynamicextensionsalfresco.blueprint.lazy.behaviours";
+
+    @Test
+    public void describesWebScriptsAndActions() throws IOException {
+        final Placeholders placeholders = scanner(WEB_SCRIPTS, ACTIONS).scan();
+
+        assertNotNull(placeholders);
+        final Map<String, Description> webScripts = new TreeMap<>();
+        for (Description description : placeholders.webScripts) {
+            webScripts.put(description.getMethod() + " " + description.getId(), description);
+        }
+        assertEquals(2, webScripts.size());
+        final Description hello = webScripts.get("GET " + webScriptId("hello", "get"));
+        assertNotNull(hello);
+        assertArrayEquals(new String[] { "/lazy/hello" }, hello.getURIs());
+        final Description bye = webScripts.get("POST " + webScriptId("bye", "post"));
+        assertNotNull(bye);
+        assertArrayEquals(new String[] { "/lazy/bye" }, bye.getURIs());
+
+        final Map<String, ActionPlaceholder> actions = new TreeMap<>();
+        for (ActionPlaceholder action : placeholders.actions) {
+            actions.put(action.actionDefinition.getName(), action);
+        }
+        assertEquals("[AbstractLazyActions.inherited, lazyAction]", actions.keySet().toString());
+        assertEquals("lazyQueue", actions.get("lazyAction").queueName);
+        assertNull(actions.get("AbstractLazyActions.inherited").queueName);
+    }
+
+    @Test
+    public void extensionWithBehavioursIsActivatedAtStartup() throws IOException {
+        assertNull(scanner(WEB_SCRIPTS, BEHAVIOURS).scan());
+    }
+
+    @Test
+    public void extensionWithXmlConfigurationIsActivatedAtStartup() throws IOException {
+        assertNull(new LazyActivationScanner(bundle(), new PathMatchingResourcePatternResolver(), null).scan());
+    }
+
+    @Test
+    public void extensionWithoutEntryPointsIsActivatedAtStartup() throws IOException {
+        assertNull(scanner("com.github.dynamicextensionsalfresco.blueprint.lazy.none").scan());
+    }
+
+    static LazyActivationScanner scanner(String... packages) {
+        return new LazyActivationScanner(bundle(), new PathMatchingResourcePatternResolver(), packages);
+    }
+
+    private static Bundle bundle() {
+        final Bundle bundle = mock(Bundle.class);
+        when(bundle.getSymbolicName()).thenReturn("lazy-example");
+        return bundle;
+    }
+
+    private static String webScriptId(String method, String httpMethod) {
+        return String.format("%s.lazy.webscripts.LazyWebScriptExample.%s.%s.lazy",
+                LazyActivationScannerTest.class.getPackage().getName(), method, httpMethod);
+    }
+}
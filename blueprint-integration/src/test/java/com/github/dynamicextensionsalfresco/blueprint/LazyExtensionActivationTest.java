@@ -0,0 +1,175 @@
+package com.github.dynamicextensionsalfresco.blueprint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.dynamicextensionsalfresco.actions.ActionExecuterRegistry;
+import com.github.dynamicextensionsalfresco.actions.DefaultActionExecuterRegistry;
+import com.github.dynamicextensionsalfresco.actions.LazyActionExecuter;
+import com.github.dynamicextensionsalfresco.webscripts.LazyWebScript;
+import com.github.dynamicextensionsalfresco.webscripts.WebScriptUriRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.alfresco.repo.action.ActionDefinitionImpl;
+import org.alfresco.repo.action.RuntimeActionService;
+import org.alfresco.repo.action.executer.ActionExecuter;
+import org.alfresco.service.cmr.action.Action;
+import org.alfresco.service.cmr.repository.NodeRef;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+import org.springframework.context.ApplicationContext;
+import org.springframework.extensions.webscripts.WebScript;
+
+public class LazyExtensionActivationTest {
+
+    private final DynamicExtensionsApplicationContextBase applicationContext =
+            mock(DynamicExtensionsApplicationContextBase.class);
+
+    private final BundleContext bundleContext = mock(BundleContext.class);
+
+    private final WebScriptUriRegistry webScriptUriRegistry = mock(WebScriptUriRegistry.class);
+
+    private final DefaultActionExecuterRegistry actionExecuterRegistry = new DefaultActionExecuterRegistry();
+
+    private final RuntimeActionService runtimeActionService = mock(RuntimeActionService.class);
+
+    /* registered by the Spring context of the extension when it is refreshed */
+    private final ActionExecuter actionExecuter = mock(ActionExecuter.class);
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        final Bundle bundle = mock(Bundle.class);
+        when(bundle.getSymbolicName()).thenReturn("lazy-example");
+        when(bundle.getBundleContext()).thenReturn(bundleContext);
+        when(applicationContext.getBundle()).thenReturn(bundle);
+        registerService(WebScriptUriRegistry.class, webScriptUriRegistry);
+        registerService(ActionExecuterRegistry.class, actionExecuterRegistry);
+
+        actionExecuterRegistry.setApplicationContext(mock(ApplicationContext.class));
+        final ApplicationContext hostApplicationContext = mock(ApplicationContext.class);
+        when(hostApplicationContext.getBean(RuntimeActionService.class)).thenReturn(runtimeActionService);
+        when(applicationContext.getParent()).thenReturn(hostApplicationContext);
+
+        when(actionExecuter.getActionDefinition()).thenReturn(new ActionDefinitionImpl("lazyAction"));
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                actionExecuterRegistry.registerActionExecuter(actionExecuter);
+                return null;
+            }
+        }).when(applicationContext).refresh();
+    }
+
+    @Test
+    public void activatesOnFirstRequest() {
+        final LazyExtensionActivation activation = new LazyExtensionActivation(applicationContext,
+                LazyActivationScannerTest.scanner(LazyActivationScannerTest.WEB_SCRIPTS));
+        assertTrue(activation.defer());
+
+        final List<WebScript> placeholders = registeredWebScripts(activation);
+        assertEquals(2, placeholders.size());
+        verify(applicationContext, never()).refresh();
+
+        ((LazyWebScript) placeholders.get(0)).activate();
+        ((LazyWebScript) placeholders.get(1)).activate();
+
+        verify(applicationContext, times(1)).refresh();
+        verify(webScriptUriRegistry).unregisterWebScripts(activation);
+    }
+
+    @Test
+    public void activatesOnFirstAction() {
+        final LazyExtensionActivation activation = new LazyExtensionActivation(applicationContext,
+                LazyActivationScannerTest.scanner(LazyActivationScannerTest.ACTIONS));
+        assertTrue(activation.defer());
+
+        final ActionExecuter placeholder = actionExecuterRegistry.getActionExecuter("lazyAction");
+        assertTrue(placeholder instanceof LazyActionExecuter);
+        assertEquals("lazyQueue", placeholder.getQueueName());
+        verify(runtimeActionService).registerActionExecuter(placeholder);
+        assertFalse(actionExecuterRegistry.hasActionExecuter("lazyAction"));
+
+        final Action action = mock(Action.class);
+        final NodeRef nodeRef = new NodeRef("workspace://SpacesStore/lazy");
+        placeholder.execute(action, nodeRef);
+        placeholder.execute(action, nodeRef);
+
+        verify(applicationContext, times(1)).refresh();
+        verify(actionExecuter, times(2)).execute(action, nodeRef);
+        assertSame(actionExecuter, actionExecuterRegistry.getActionExecuter("lazyAction"));
+        // placeholders without an actual Action are removed once the extension is active
+        assertNull(actionExecuterRegistry.getActionExecuter("AbstractLazyActions.inherited"));
+    }
+
+    @Test
+    public void failedActivationMakesActionUnavailable() {
+        doThrow(new IllegalStateException("refresh failed")).when(applicationContext).refresh();
+        final LazyExtensionActivation activation = new LazyExtensionActivation(applicationContext,
+                LazyActivationScannerTest.scanner(LazyActivationScannerTest.ACTIONS));
+        assertTrue(activation.defer());
+
+        final ActionExecuter placeholder = actionExecuterRegistry.getActionExecuter("lazyAction");
+        try {
+            placeholder.execute(mock(Action.class), new NodeRef("workspace://SpacesStore/lazy"));
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("lazyAction"));
+        }
+        verify(actionExecuter, never()).execute(any(Action.class), any(NodeRef.class));
+    }
+
+    @Test
+    public void fallsBackToEagerActivation() {
+        final LazyExtensionActivation activation = new LazyExtensionActivation(applicationContext,
+                LazyActivationScannerTest.scanner(LazyActivationScannerTest.WEB_SCRIPTS,
+                        LazyActivationScannerTest.BEHAVIOURS));
+
+        assertFalse(activation.defer());
+
+        verify(webScriptUriRegistry, never()).registerWebScripts(any(), anyCollection());
+        verify(bundleContext, never()).addBundleListener(activation);
+        assertNull(actionExecuterRegistry.getActionExecuter("lazyAction"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<WebScript> registeredWebScripts(LazyExtensionActivation activation) {
+        final ArgumentCaptor<Collection> webScripts = ArgumentCaptor.forClass(Collection.class);
+        verify(webScriptUriRegistry).registerWebScripts(eq(activation), webScripts.capture());
+        return new ArrayList<WebScript>(webScripts.getValue());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void registerService(Class<T> type, T service) {
+        final ServiceReference<T> reference = mock(ServiceReference.class);
+        try {
+            when(bundleContext.getServiceReferences(type, null))
+                    .thenReturn(Collections.<ServiceReference<T>>singletonList(reference));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        when(bundleContext.getService(reference)).thenReturn(service);
+    }
+}
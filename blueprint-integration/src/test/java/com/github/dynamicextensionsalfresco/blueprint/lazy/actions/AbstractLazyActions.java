@@ -0,0 +1,10 @@
+package com.github.dynamicextensionsalfresco.blueprint.lazy.actions;
+
+import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
+
+public abstract class AbstractLazyActions {
+
+    @ActionMethod
+    public void inherited() {
+    }
+}
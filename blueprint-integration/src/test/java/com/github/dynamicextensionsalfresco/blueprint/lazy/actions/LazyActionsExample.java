@@ -0,0 +1,12 @@
+package com.github.dynamicextensionsalfresco.blueprint.lazy.actions;
+
+import com.github.dynamicextensionsalfresco.actions.annotations.ActionMethod;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LazyActionsExample extends AbstractLazyActions {
+
+    @ActionMethod(value = "lazyAction", queueName = "lazyQueue")
+    public void execute() {
+    }
+}
@@ -0,0 +1,9 @@
+package com.github.dynamicextensionsalfresco.blueprint.lazy.behaviours;
+
+import com.github.dynamicextensionsalfresco.behaviours.annotations.Behaviour;
+import org.springframework.stereotype.Component;
+
+@Component
+@Behaviour("cm:content")
+public class LazyBehaviourExample {
+}
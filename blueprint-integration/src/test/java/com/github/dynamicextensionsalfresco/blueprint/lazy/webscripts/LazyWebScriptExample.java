@@ -0,0 +1,19 @@
+package com.github.dynamicextensionsalfresco.blueprint.lazy.webscripts;
+
+import com.github.dynamicextensionsalfresco.webscripts.annotations.HttpMethod;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import org.springframework.stereotype.Component;
+
+@Component
+@WebScript(baseUri = "/lazy")
+public class LazyWebScriptExample {
+
+    @Uri("/hello")
+    public void hello() {
+    }
+
+    @Uri(value = "/bye", method = HttpMethod.POST)
+    public void bye() {
+    }
+}
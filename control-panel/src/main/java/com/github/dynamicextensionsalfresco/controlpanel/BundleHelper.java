@@ -6,6 +6,7 @@ import com.github.dynamicextensionsalfresco.event.events.SpringContextException;
 import com.github.dynamicextensionsalfresco.osgi.BundleDependencies;
 import com.github.dynamicextensionsalfresco.osgi.ManifestUtils;
 import com.github.dynamicextensionsalfresco.osgi.RepositoryStoreService;
+import com.github.dynamicextensionsalfresco.webscripts.WebScriptUriRegistry;
 import com.springsource.util.osgi.manifest.BundleManifest;
 import com.springsource.util.osgi.manifest.BundleManifestFactory;
 import java.lang.reflect.Field;
@@ -173,9 +174,15 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
      * @throws BundleException
      */
     public Bundle installBundleInRepository(Content content) throws IOException, BundleException {
+        File tempFile;
         try (InputStream stream = content.getInputStream()) {
-            File tempFile = saveToTempFile(stream);
+            tempFile = saveToTempFile(stream);
+        }
+        try {
+            // the single spooled copy is used for both installing the bundle and saving it in the repository
             return doInstallBundleInRepository(tempFile, null);
+        } finally {
+            deleteTempFile(tempFile);
         }
     }
 
@@ -256,11 +263,12 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
                 }
             }
 
-            InputStream inputStream = createStreamForFile(jarToInstall);
             if (bundle != null) {
                 // we stop and delay restarting the bundle, as otherwise, the refresh would cause 2 immediate restarts,
                 bundle.stop();
-                bundle.update(inputStream);
+                try (InputStream inputStream = createStreamForFile(jarToInstall)) {
+                    bundle.update(inputStream);
+                }
 
                 FrameworkWiring wiring = getFrameworkWiring();
 
@@ -295,7 +303,9 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
                     return bundle;
                 }
             } else {
-                bundle = bundleContext.installBundle(location, inputStream);
+                try (InputStream inputStream = createStreamForFile(jarToInstall)) {
+                    bundle = bundleContext.installBundle(location, inputStream);
+                }
                 if (!isFragmentBundle(bundle)) {
                     bundle.start();
                     installResults.add(new InstallResult(null));
@@ -324,7 +334,9 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
             e.printStackTrace();
             return null;
         } finally {
-            //jarToInstall.delete();
+            if (jarToInstall != tempFile) {
+                deleteTempFile(jarToInstall);
+            }
         }
     }
 
@@ -340,10 +352,7 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
     }
 
     private File wrapPlainJar(File tempFile, String fileName) {
-        try {
-            JarFile jar = new JarFile(tempFile);
-
-            Analyzer analyzer = new Analyzer();
+        try (JarFile jar = new JarFile(tempFile); Analyzer analyzer = new Analyzer()) {
             String manifestVersion = ManifestUtils.getImplementationVersion(jar);
             if (manifestVersion != null) {
                 analyzer.setBundleVersion(manifestVersion);
@@ -365,7 +374,12 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
             Manifest manifest = analyzer.calcManifest();
             analyzer.getJar().setManifest(manifest);
             File wrappedTempFile = File.createTempFile("wrapped", ".jar");
-            analyzer.save(wrappedTempFile, true);
+            try {
+                analyzer.save(wrappedTempFile, true);
+            } catch (Exception e) {
+                deleteTempFile(wrappedTempFile);
+                throw e;
+            }
             return wrappedTempFile;
         } catch (Exception e) {
             logger.warn("Failed to wrap plain $tempFile jar using bnd.", e);
@@ -398,6 +412,9 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
         BundleIdentifier identifier = null;
         try (JarFile jarFile = new JarFile(tempFile)) {
             Manifest manifest = jarFile.getManifest();
+            if (manifest == null) {
+                return null;
+            }
             Attributes attributes = manifest.getMainAttributes();
             String symbolicName = attributes.getValue(Constants.BUNDLE_SYMBOLICNAME);
             String version = attributes.getValue(Constants.BUNDLE_VERSION);
@@ -409,7 +426,7 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
     }
 
     protected void saveBundleInRepository(File file, String filename, BundleManifest manifest)
-            throws FileNotFoundException {
+            throws IOException {
         NodeRef bundleFolder = repositoryStoreService.getBundleFolder(true);
         NodeRef nodeRef = fileFolderService.searchSimple(bundleFolder, filename);
         if (nodeRef == null) {
@@ -426,7 +443,15 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
 
         ContentWriter writer = contentService.getWriter(nodeRef, ContentModel.PROP_CONTENT, true);
         writer.setMimetype(MimetypeMap.MIMETYPE_ZIP);
-        writer.putContent(createStreamForFile(file));
+        try (InputStream inputStream = createStreamForFile(file)) {
+            writer.putContent(inputStream);
+        }
+    }
+
+    private void deleteTempFile(File file) {
+        if (file != null && file.exists() && !file.delete()) {
+            logger.debug("Could not delete temporary file {}", file);
+        }
     }
 
     protected String generateRepositoryLocation(String filename) {
@@ -440,8 +465,15 @@ public class BundleHelper implements EventListener<SpringContextException>, Fram
     /**
      * The {@link DeclarativeRegistry} caches 404 results, which can hide new webscript deployments.
      * Unfortunately there is no public API for resetting this cache.
+     * <p>
+     * This is only needed when the {@link WebScriptUriRegistry} does not invalidate the affected cache entries itself.
      */
     protected void resetWebScriptsCache() {
+        final WebScriptUriRegistry uriRegistry = getService(WebScriptUriRegistry.class);
+        if (uriRegistry != null && uriRegistry.isUriIndexCacheInvalidated()) {
+            // the registry already invalidated the cached lookups for the URIs of the installed bundle
+            return;
+        }
         Registry registry = webScriptsContainer.getRegistry();
         if (registry instanceof DeclarativeRegistry) {
             try {
@@ -0,0 +1,60 @@
+package com.github.dynamicextensionsalfresco.controlpanel;
+
+import com.github.dynamicextensionsalfresco.policy.BehaviourCircuitBreaker;
+import com.github.dynamicextensionsalfresco.policy.CircuitBreakerRegistry;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Authentication;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.AuthenticationType;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Cache;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.HttpMethod;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import com.github.dynamicextensionsalfresco.webscripts.resolutions.Resolution;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the budgets and circuit breakers of the Behaviours kept by the {@link CircuitBreakerRegistry} as JSON.
+ * <p>
+ * Budgets are in milliseconds, a budget of 0 means the Behaviour has none.
+ *
+ * @author Laurent Van der Linden
+ */
+@Component
+@WebScript(baseUri = "/dynamic-extensions/api/circuit-breakers", families = "control panel")
+@Authentication(AuthenticationType.ADMIN)
+@Cache(neverCache = true)
+public class CircuitBreakerRestApi {
+
+	/* Dependencies */
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
+	/* Main operations */
+
+	@Uri(method = HttpMethod.GET)
+	public Resolution circuitBreakers() {
+		final JSONArray circuitBreakers = new JSONArray();
+		for (final BehaviourCircuitBreaker circuitBreaker : circuitBreakerRegistry.getCircuitBreakers()) {
+			circuitBreakers.put(new JSONObject()
+					.put("name", circuitBreaker.getName())
+					.put("mode", circuitBreaker.getMode().name())
+					.put("budget", circuitBreaker.getBudgetMillis())
+					.put("state", circuitBreaker.getState().name())
+					.put("consecutiveFailures", circuitBreaker.getConsecutiveFailures())
+					.put("invocations", circuitBreaker.getInvocationCount())
+					.put("slow", circuitBreaker.getSlowCount())
+					.put("failures", circuitBreaker.getFailureCount())
+					.put("skipped", circuitBreaker.getSkippedCount()));
+		}
+		return new JsonObjectResolution(new JSONObject().put("circuitBreakers", circuitBreakers));
+	}
+
+	@Uri(method = HttpMethod.POST, value = "/reset")
+	public Resolution reset() {
+		circuitBreakerRegistry.reset();
+		return new JsonObjectResolution(new JSONObject().put("message", "Circuit breakers have been reset."));
+	}
+}
@@ -2,8 +2,11 @@ package com.github.dynamicextensionsalfresco.controlpanel;
 
 import com.github.dynamicextensionsalfresco.controlpanel.template.TemplateBundle;
 import com.github.dynamicextensionsalfresco.controlpanel.template.TemplateServiceReference;
+import com.github.dynamicextensionsalfresco.controlpanel.template.TemplateStartupSpan;
 import com.github.dynamicextensionsalfresco.controlpanel.template.Variables;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
 import com.github.dynamicextensionsalfresco.osgi.RepositoryStoreService;
+import com.github.dynamicextensionsalfresco.policy.CircuitBreakerRegistry;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Attribute;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.Authentication;
 import com.github.dynamicextensionsalfresco.webscripts.annotations.AuthenticationType;
@@ -62,6 +65,12 @@ public class Container extends AbstractControlPanelHandler {
 	@Autowired
 	private RepositoryStoreService repositoryStoreService;
 
+	@Autowired
+	private StartupTimeline startupTimeline;
+
+	@Autowired
+	private CircuitBreakerRegistry circuitBreakerRegistry;
+
 	/* Main operations */
 
 	@Uri(method = HttpMethod.GET)
@@ -74,6 +83,16 @@ public class Container extends AbstractControlPanelHandler {
 		return model(Variables.SYSTEM_PACKAGES, getSystemPackages());
 	}
 
+	@Uri(method = HttpMethod.GET, value = "/startup-timeline")
+	public Map<String, Object> startupTimeline() {
+		return model(Variables.STARTUP_SPANS, TemplateStartupSpan.flatten(startupTimeline.getSpans()));
+	}
+
+	@Uri(method = HttpMethod.GET, value = "/circuit-breakers")
+	public Map<String, Object> circuitBreakers() {
+		return model(Variables.CIRCUIT_BREAKERS, circuitBreakerRegistry.getCircuitBreakers());
+	}
+
 	@Uri(method = HttpMethod.GET, value = "/services")
 	public Map<String, Object> services() throws InvalidSyntaxException {
 		return model(Variables.SERVICES_BY_BUNDLE, getTemplateServicesByBundle());
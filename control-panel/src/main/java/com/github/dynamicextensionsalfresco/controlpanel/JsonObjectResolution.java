@@ -0,0 +1,23 @@
+package com.github.dynamicextensionsalfresco.controlpanel;
+
+import com.github.dynamicextensionsalfresco.webscripts.resolutions.AbstractJsonResolution;
+import org.json.JSONObject;
+
+/**
+ * Writes a {@link JSONObject} as the response of the control panel REST APIs.
+ *
+ * @author Laurent Van der Linden
+ */
+class JsonObjectResolution extends AbstractJsonResolution {
+
+	private final JSONObject jsonObject;
+
+	JsonObjectResolution(final JSONObject jsonObject) {
+		this.jsonObject = jsonObject;
+	}
+
+	@Override
+	public void resolve() throws Exception {
+		getWriter().append(jsonObject.toString(2));
+	}
+}
@@ -0,0 +1,64 @@
+package com.github.dynamicextensionsalfresco.controlpanel;
+
+import com.github.dynamicextensionsalfresco.metrics.MetricsRegistry;
+import com.github.dynamicextensionsalfresco.metrics.TimerSnapshot;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Authentication;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.AuthenticationType;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Cache;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.HttpMethod;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.RequestParam;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import com.github.dynamicextensionsalfresco.webscripts.resolutions.Resolution;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the timings collected by the {@link MetricsRegistry} as JSON.
+ * <p>
+ * Durations are in milliseconds. The timers can be filtered by type: 'behaviour', 'action', 'webscript' or 'task'.
+ *
+ * @author Laurent Van der Linden
+ */
+@Component
+@WebScript(baseUri = "/dynamic-extensions/api/metrics", families = "control panel")
+@Authentication(AuthenticationType.ADMIN)
+@Cache(neverCache = true)
+public class MetricsRestApi {
+
+	/* Dependencies */
+
+	@Autowired
+	private MetricsRegistry metricsRegistry;
+
+	/* Main operations */
+
+	@Uri(method = HttpMethod.GET)
+	public Resolution timers(@RequestParam(value = "type", required = false) final String type) {
+		final JSONArray timers = new JSONArray();
+		for (final TimerSnapshot snapshot : metricsRegistry.getSnapshots()) {
+			if (type != null && !type.equals(snapshot.getType())) {
+				continue;
+			}
+			timers.put(new JSONObject()
+					.put("type", snapshot.getType())
+					.put("name", snapshot.getName())
+					.put("count", snapshot.getCount())
+					.put("total", snapshot.getTotal())
+					.put("mean", snapshot.getMean())
+					.put("p50", snapshot.getP50())
+					.put("p95", snapshot.getP95())
+					.put("p99", snapshot.getP99())
+					.put("max", snapshot.getMax()));
+		}
+		return new JsonObjectResolution(new JSONObject().put("timers", timers));
+	}
+
+	@Uri(method = HttpMethod.POST, value = "/reset")
+	public Resolution reset() {
+		metricsRegistry.reset();
+		return new JsonObjectResolution(new JSONObject().put("message", "Metrics have been reset."));
+	}
+}
@@ -0,0 +1,64 @@
+package com.github.dynamicextensionsalfresco.controlpanel;
+
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+import com.github.dynamicextensionsalfresco.metrics.StartupTimeline;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Authentication;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.AuthenticationType;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Cache;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.HttpMethod;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.Uri;
+import com.github.dynamicextensionsalfresco.webscripts.annotations.WebScript;
+import com.github.dynamicextensionsalfresco.webscripts.resolutions.Resolution;
+import java.util.List;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the spans recorded by the {@link StartupTimeline} as nested JSON.
+ * <p>
+ * Start times are in milliseconds since the epoch, durations are in milliseconds.
+ *
+ * @author Laurent Van der Linden
+ */
+@Component
+@WebScript(baseUri = "/dynamic-extensions/api/startup-timeline", families = "control panel")
+@Authentication(AuthenticationType.ADMIN)
+@Cache(neverCache = true)
+public class StartupTimelineRestApi {
+
+	/* Dependencies */
+
+	@Autowired
+	private StartupTimeline startupTimeline;
+
+	/* Main operations */
+
+	@Uri(method = HttpMethod.GET)
+	public Resolution spans() {
+		return new JsonObjectResolution(new JSONObject().put("spans", toJson(startupTimeline.getSpans())));
+	}
+
+	@Uri(method = HttpMethod.POST, value = "/reset")
+	public Resolution reset() {
+		startupTimeline.reset();
+		return new JsonObjectResolution(new JSONObject().put("message", "Startup timeline has been reset."));
+	}
+
+	/* Utility operations */
+
+	private static JSONArray toJson(final List<StartupSpan> spans) {
+		final JSONArray array = new JSONArray();
+		for (final StartupSpan span : spans) {
+			array.put(new JSONObject()
+					.put("name", span.getName())
+					.put("thread", span.getThreadName())
+					.put("start", span.getStartTime())
+					.put("duration", span.getDuration())
+					.put("running", span.isRunning())
+					.put("children", toJson(span.getChildren())));
+		}
+		return array;
+	}
+}
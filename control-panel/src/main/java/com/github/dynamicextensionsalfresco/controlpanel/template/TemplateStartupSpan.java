@@ -0,0 +1,67 @@
+package com.github.dynamicextensionsalfresco.controlpanel.template;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.dynamicextensionsalfresco.metrics.StartupSpan;
+
+import org.springframework.util.Assert;
+
+/**
+ * Adapts a {@link StartupSpan} for display as a row in a flattened tree.
+ */
+public class TemplateStartupSpan {
+
+	/**
+	 * Flattens the given spans and their children depth-first.
+	 */
+	public static List<TemplateStartupSpan> flatten(final List<StartupSpan> spans) {
+		final List<TemplateStartupSpan> rows = new ArrayList<TemplateStartupSpan>();
+		for (final StartupSpan span : spans) {
+			addRows(rows, span, 0);
+		}
+		return rows;
+	}
+
+	private static void addRows(final List<TemplateStartupSpan> rows, final StartupSpan span, final int depth) {
+		rows.add(new TemplateStartupSpan(span, depth));
+		for (final StartupSpan child : span.getChildren()) {
+			addRows(rows, child, depth + 1);
+		}
+	}
+
+	private final StartupSpan span;
+
+	private final int depth;
+
+	TemplateStartupSpan(final StartupSpan span, final int depth) {
+		Assert.notNull(span);
+		this.span = span;
+		this.depth = depth;
+	}
+
+	public String getName() {
+		return span.getName();
+	}
+
+	public String getThreadName() {
+		return span.getThreadName();
+	}
+
+	public long getStartTime() {
+		return span.getStartTime();
+	}
+
+	public double getDuration() {
+		return span.getDuration();
+	}
+
+	public boolean isRunning() {
+		return span.isRunning();
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+}
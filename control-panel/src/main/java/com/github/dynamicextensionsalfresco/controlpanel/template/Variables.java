@@ -96,6 +96,16 @@ public class Variables {
 	 */
 	public static final String WEB_SCRIPTS = "webScriptsByFamily";
 
+	/**
+	 * Refers to a {@link List} of {@link TemplateStartupSpan}s.
+	 */
+	public static final String STARTUP_SPANS = "startupSpans";
+
+	/**
+	 * Refers to a {@link List} of {@link com.github.dynamicextensionsalfresco.policy.BehaviourCircuitBreaker}s.
+	 */
+	public static final String CIRCUIT_BREAKERS = "circuitBreakers";
+
 	private Variables() {
 	}
 }
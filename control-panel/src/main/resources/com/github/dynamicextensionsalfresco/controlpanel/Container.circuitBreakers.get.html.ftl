@@ -0,0 +1,40 @@
+<#import "templates/html-macros.inc.ftl" as html>
+<@html.document title="Circuit Breakers - Dynamic Extensions" active="container">
+
+  <h2>Circuit Breakers</h2>
+
+  <p>
+    Behaviours that declare a budget or a circuit breaker. Budgets are in milliseconds.
+    Also available as JSON at <a href="../api/circuit-breakers">api/circuit-breakers</a>.
+  </p>
+
+  <table class="table table-striped table-bordered">
+    <thead>
+      <tr>
+        <th class="name">Behaviour</th>
+        <th class="mode">Mode</th>
+        <th class="budget">Budget (ms)</th>
+        <th class="state">State</th>
+        <th class="invocations">Invocations</th>
+        <th class="slow">Slow</th>
+        <th class="failures">Failures</th>
+        <th class="skipped">Skipped</th>
+      </tr>
+    </thead>
+    <tbody>
+      <#list circuitBreakers as circuitBreaker>
+        <tr>
+          <td class="name">${circuitBreaker.name}</td>
+          <td class="mode">${circuitBreaker.mode}</td>
+          <td class="budget"><#if circuitBreaker.budgetMillis gt 0>${circuitBreaker.budgetMillis?c}<#else>-</#if></td>
+          <td class="state">${circuitBreaker.state}</td>
+          <td class="invocations">${circuitBreaker.invocationCount?c}</td>
+          <td class="slow">${circuitBreaker.slowCount?c}</td>
+          <td class="failures">${circuitBreaker.failureCount?c}</td>
+          <td class="skipped">${circuitBreaker.skippedCount?c}</td>
+        </tr>
+      </#list>
+    </tbody>
+  </table>
+
+</@html.document>
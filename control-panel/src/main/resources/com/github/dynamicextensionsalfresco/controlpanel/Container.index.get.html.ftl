@@ -23,6 +23,23 @@
         <a href="container/services">View all Services</a>
       </p>
 
+      <h2>Startup Timeline</h2>
+      <p>
+        <a href="container/startup-timeline">View the Startup Timeline</a>
+      </p>
+      <p>
+        Shows how long each phase of the OSGi container and Dynamic Extensions startup took, down to
+        the Spring context of each bundle.
+      </p>
+
+      <h2>Circuit Breakers</h2>
+      <p>
+        <a href="container/circuit-breakers">View the Behaviour Circuit Breakers</a>
+      </p>
+      <p>
+        Shows the budget and circuit state of each Behaviour that declares a budget or a circuit breaker.
+      </p>
+
     </div> <#-- .span6 -->
 
     <div class="span6">
@@ -126,6 +143,13 @@
             System classpath scanning: cache mode
           </td>
         </tr>
+        <tr>
+          <td><code>osgi.container.system-package-scan.mode</code></td>
+          <td>${configuration.systemPackageScanMode}</td>
+          <td>
+            System classpath scanning: package discovery
+          </td>
+        </tr>
         </tbody>
       </table>
     </div>
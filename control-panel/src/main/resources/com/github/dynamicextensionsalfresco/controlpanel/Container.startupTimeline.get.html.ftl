@@ -0,0 +1,32 @@
+<#import "templates/html-macros.inc.ftl" as html>
+<@html.document title="Startup Timeline - Dynamic Extensions" active="container">
+
+  <h2>Startup Timeline</h2>
+
+  <p>
+    Durations of the OSGi container and Dynamic Extension startup phases, most recent startups last.
+    Also available as JSON at <a href="../api/startup-timeline">api/startup-timeline</a>.
+  </p>
+
+  <table class="table table-striped table-bordered">
+    <thead>
+      <tr>
+        <th class="name">Phase</th>
+        <th class="thread">Thread</th>
+        <th class="start">Started</th>
+        <th class="duration">Duration (ms)</th>
+      </tr>
+    </thead>
+    <tbody>
+      <#list startupSpans as span>
+        <tr>
+          <td class="name" style="padding-left: ${8 + span.depth * 20}px">${span.name}</td>
+          <td class="thread">${span.threadName}</td>
+          <td class="start">${span.startTime?number_to_datetime?string("yyyy-MM-dd HH:mm:ss.SSS")}</td>
+          <td class="duration">${span.duration?string("0.0")}<#if span.running> (running)</#if></td>
+        </tr>
+      </#list>
+    </tbody>
+  </table>
+
+</@html.document>
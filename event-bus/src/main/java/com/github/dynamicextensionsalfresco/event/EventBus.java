@@ -5,6 +5,19 @@ package com.github.dynamicextensionsalfresco.event;
  */
 public interface EventBus {
 
+    /**
+     * Notifies the listeners of the event on the calling thread.
+     */
     void publish(Event event);
 
+    /**
+     * Queues the event for notifying the listeners on a dispatcher thread. When the queue is full, the calling thread
+     * blocks until there is room again.
+     * <p>
+     * Implementations without asynchronous dispatch notify the listeners on the calling thread.
+     */
+    default void publishAsync(Event event) {
+        publish(event);
+    }
+
 }
@@ -2,6 +2,7 @@ package com.github.dynamicextensionsalfresco.event.impl;
 
 import com.github.dynamicextensionsalfresco.event.EventBus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -10,16 +11,41 @@ import org.osgi.framework.BundleContext;
  */
 public final class Activator implements BundleActivator {
 
+    /**
+     * Framework property for the capacity of the queue of asynchronously published events.
+     */
+    public static final String QUEUE_CAPACITY_PROPERTY = "dynamic-extensions.event-bus.queue-capacity";
+
+    @Nullable
+    private DefaultEventBus eventBus;
+
     public void start(@NotNull BundleContext context) {
         if (context == null) {
             throw new IllegalArgumentException("context is null");
         }
-        context.registerService(EventBus.class, new DefaultEventBus(context), null);
+        eventBus = new DefaultEventBus(context, getQueueCapacity(context));
+        context.registerService(EventBus.class, eventBus, null);
     }
 
     public void stop(@NotNull BundleContext context) {
         if (context == null) {
             throw new IllegalArgumentException("context is null");
         }
+        if (eventBus != null) {
+            eventBus.close();
+            eventBus = null;
+        }
+    }
+
+    private static int getQueueCapacity(@NotNull BundleContext context) {
+        final String queueCapacity = context.getProperty(QUEUE_CAPACITY_PROPERTY);
+        if (queueCapacity == null || queueCapacity.trim().isEmpty()) {
+            return DefaultEventBus.DEFAULT_QUEUE_CAPACITY;
+        }
+        try {
+            return Integer.parseInt(queueCapacity.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + QUEUE_CAPACITY_PROPERTY + ": " + queueCapacity, e);
+        }
     }
 }
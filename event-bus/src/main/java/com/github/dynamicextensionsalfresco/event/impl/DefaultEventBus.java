@@ -3,50 +3,299 @@ package com.github.dynamicextensionsalfresco.event.impl;
 import com.github.dynamicextensionsalfresco.event.Event;
 import com.github.dynamicextensionsalfresco.event.EventBus;
 import com.github.dynamicextensionsalfresco.event.EventListener;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.framework.BundleContext;
-import org.osgi.framework.InvalidSyntaxException;
 import org.osgi.framework.ServiceReference;
+import org.osgi.util.tracker.ServiceTracker;
+import org.osgi.util.tracker.ServiceTrackerCustomizer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Synchronous implementation that only notifies listeners based on their supported events.
+ * Implementation that only notifies listeners based on their supported events.
+ * <p>
+ * Listeners are tracked with a {@link ServiceTracker} and indexed by their supported event types, so publishing an
+ * event does not look up services. A listener is notified of events of its supported types and their subtypes.
+ * <p>
+ * {@link #publishAsync(Event)} queues events in a bounded queue that is drained by a single dispatcher thread, which
+ * preserves the order of events. Publishers block while the queue is full, until the bus is closed.
  *
  * @author Laurent Van der Linden
  */
 public final class DefaultEventBus implements EventBus {
 
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    /* How often a publisher waiting for room in the queue checks if the bus was closed. */
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(DefaultEventBus.class);
+
     private final BundleContext bundleContext;
 
+    private final int queueCapacity;
+
+    private final Object lock = new Object();
+
+    private final Map<ServiceReference<Object>, EventListener<Event>> listeners = new LinkedHashMap<>();
+
+    private volatile ListenerIndex index = ListenerIndex.EMPTY;
+
+    private volatile boolean opened;
+
+    /* guarded by lock */
+    private ServiceTracker<Object, Object> tracker;
+
+    /* guarded by lock */
+    private Dispatcher dispatcher;
+
+    private volatile boolean closed;
+
     public DefaultEventBus(@NotNull BundleContext bundleContext) {
+        this(bundleContext, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public DefaultEventBus(@NotNull BundleContext bundleContext, int queueCapacity) {
         if (bundleContext == null) {
             throw new IllegalArgumentException("bundleContext is null");
         }
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be positive");
+        }
 
         this.bundleContext = bundleContext;
+        this.queueCapacity = queueCapacity;
     }
 
-    @SuppressWarnings("unchecked")
     public void publish(@NotNull final Event event) {
         if (event == null) {
             throw new IllegalArgumentException("event is null");
         }
 
+        for (EventListener<Event> listener : getIndex().getListeners(event.getClass())) {
+            listener.onEvent(event);
+        }
+    }
+
+    @Override
+    public void publishAsync(@NotNull final Event event) {
+        if (event == null) {
+            throw new IllegalArgumentException("event is null");
+        }
+
+        final Dispatcher dispatcher = getDispatcher();
+        if (Thread.currentThread() == dispatcher.thread) {
+            // a listener that publishes would otherwise wait on the thread that has to make room in the queue
+            publish(event);
+            return;
+        }
         try {
-            ServiceReference<?>[] serviceReferences = bundleContext
-                    .getAllServiceReferences(EventListener.class.getName(), null);
-            if (serviceReferences == null || serviceReferences.length == 0) {
-                return;
-            }
-            Arrays.stream(serviceReferences)
-                    .map(bundleContext::getService)
-                    .filter(e -> e instanceof EventListener)
-                    .filter(e -> Arrays.stream(((EventListener) e).supportedEventTypes())
-                            .anyMatch(it -> it == event.getClass()))
-                    .forEach(e -> ((EventListener<Event>) e).onEvent(event));
-        } catch (InvalidSyntaxException e) {
-            throw new IllegalStateException("Strange, 'InvalidSyntaxException' should not be thrown if filter is null?",
-                    e);
+            while (!dispatcher.queue.offer(event, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    throw new IllegalStateException("Event bus is closed");
+                }
+            }
+            if (closed) {
+                throw new IllegalStateException("Event bus is closed, discarded " + event.getClass().getName());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing event " + event.getClass().getName(), e);
+        }
+    }
+
+    /**
+     * Stops tracking listeners and stops the dispatcher thread. Queued events that were not dispatched yet are
+     * discarded, and publishers waiting for room in the queue fail with an {@link IllegalStateException}.
+     */
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            if (tracker != null) {
+                tracker.close();
+                tracker = null;
+            }
+            if (dispatcher != null) {
+                dispatcher.thread.interrupt();
+                // makes room for, and so wakes up, publishers that wait for the queue
+                dispatcher.queue.clear();
+                dispatcher = null;
+            }
+        }
+    }
+
+    /* Utility operations */
+
+    private ListenerIndex getIndex() {
+        if (!opened) {
+            synchronized (lock) {
+                if (closed) {
+                    throw new IllegalStateException("Event bus is closed");
+                }
+                if (tracker == null) {
+                    tracker = new ServiceTracker<>(bundleContext, EventListener.class.getName(),
+                            new ListenerTrackerCustomizer());
+                    tracker.open(true);
+                    opened = true;
+                }
+            }
+        }
+        return index;
+    }
+
+    private Dispatcher getDispatcher() {
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Event bus is closed");
+            }
+            if (dispatcher == null) {
+                dispatcher = new Dispatcher();
+            }
+            return dispatcher;
+        }
+    }
+
+    private void updateIndex() {
+        synchronized (listeners) {
+            index = new ListenerIndex(listeners.values());
+        }
+    }
+
+    private final class ListenerTrackerCustomizer implements ServiceTrackerCustomizer<Object, Object> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object addingService(ServiceReference<Object> reference) {
+            final Object service = bundleContext.getService(reference);
+            if (!(service instanceof EventListener)) {
+                if (service != null) {
+                    bundleContext.ungetService(reference);
+                }
+                return null;
+            }
+            synchronized (listeners) {
+                listeners.put(reference, (EventListener<Event>) service);
+                updateIndex();
+            }
+            return service;
+        }
+
+        @Override
+        public void modifiedService(ServiceReference<Object> reference, Object service) {
+        }
+
+        @Override
+        public void removedService(ServiceReference<Object> reference, Object service) {
+            synchronized (listeners) {
+                listeners.remove(reference);
+                updateIndex();
+            }
+            bundleContext.ungetService(reference);
+        }
+    }
+
+    /**
+     * Immutable index of listeners by supported event type.
+     */
+    private static final class ListenerIndex {
+
+        static final ListenerIndex EMPTY = new ListenerIndex(Collections.<EventListener<Event>>emptyList());
+
+        private final Map<Class<?>, List<EventListener<Event>>> listenersBySupportedType = new HashMap<>();
+
+        private final Map<Class<?>, List<EventListener<Event>>> listenersByEventType = new ConcurrentHashMap<>();
+
+        ListenerIndex(Collection<EventListener<Event>> listeners) {
+            for (EventListener<Event> listener : listeners) {
+                final Class<?>[] supportedEventTypes = listener.supportedEventTypes();
+                if (supportedEventTypes == null) {
+                    continue;
+                }
+                for (Class<?> supportedEventType : supportedEventTypes) {
+                    listenersBySupportedType.computeIfAbsent(supportedEventType, type -> new ArrayList<>())
+                            .add(listener);
+                }
+            }
+        }
+
+        List<EventListener<Event>> getListeners(Class<?> eventType) {
+            if (listenersBySupportedType.isEmpty()) {
+                return Collections.emptyList();
+            }
+            return listenersByEventType.computeIfAbsent(eventType, this::resolveListeners);
+        }
+
+        private List<EventListener<Event>> resolveListeners(Class<?> eventType) {
+            final Set<EventListener<Event>> listeners = new LinkedHashSet<>();
+            for (Class<?> type : getTypeHierarchy(eventType)) {
+                final List<EventListener<Event>> supportingListeners = listenersBySupportedType.get(type);
+                if (supportingListeners != null) {
+                    listeners.addAll(supportingListeners);
+                }
+            }
+            return Collections.unmodifiableList(new ArrayList<>(listeners));
+        }
+
+        private static Set<Class<?>> getTypeHierarchy(Class<?> eventType) {
+            final Set<Class<?>> types = new LinkedHashSet<>();
+            for (Class<?> type = eventType; type != null; type = type.getSuperclass()) {
+                types.add(type);
+            }
+            for (Class<?> type : new ArrayList<>(types)) {
+                addInterfaces(type, types);
+            }
+            return types;
+        }
+
+        private static void addInterfaces(Class<?> type, Set<Class<?>> types) {
+            for (Class<?> anInterface : type.getInterfaces()) {
+                if (types.add(anInterface)) {
+                    addInterfaces(anInterface, types);
+                }
+            }
+        }
+    }
+
+    private final class Dispatcher implements Runnable {
+
+        private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        private final Thread thread;
+
+        Dispatcher() {
+            thread = new Thread(this, "dynamic-extensions-event-bus");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(DefaultEventBus.class.getClassLoader());
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final Event event = queue.take();
+                    try {
+                        publish(event);
+                    } catch (RuntimeException e) {
+                        logger.warn("Error notifying listeners of {}", event.getClass().getName(), e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // closed
+            }
         }
     }
 }
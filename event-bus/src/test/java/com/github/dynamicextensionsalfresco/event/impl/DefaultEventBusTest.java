@@ -0,0 +1,181 @@
+package com.github.dynamicextensionsalfresco.event.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.dynamicextensionsalfresco.event.Event;
+import com.github.dynamicextensionsalfresco.event.EventListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+
+public class DefaultEventBusTest {
+
+    private BundleContext bundleContext;
+
+    private RecordingListener baseListener;
+
+    private RecordingListener specificListener;
+
+    private DefaultEventBus eventBus;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setup() throws InvalidSyntaxException {
+        bundleContext = mock(BundleContext.class);
+        baseListener = new RecordingListener(BaseEvent.class);
+        specificListener = new RecordingListener(SpecificEvent.class);
+        ServiceReference baseReference = mock(ServiceReference.class);
+        ServiceReference specificReference = mock(ServiceReference.class);
+        when(bundleContext.getAllServiceReferences(eq(EventListener.class.getName()), anyString()))
+                .thenReturn(new ServiceReference[]{baseReference, specificReference});
+        when(bundleContext.getService(baseReference)).thenReturn(baseListener);
+        when(bundleContext.getService(specificReference)).thenReturn(specificListener);
+        eventBus = new DefaultEventBus(bundleContext, 2);
+    }
+
+    @After
+    public void tearDown() {
+        eventBus.close();
+    }
+
+    @Test
+    public void listenersAreNotifiedOfSupportedTypesAndSubtypes() {
+        final SpecificEvent specificEvent = new SpecificEvent();
+        final BaseEvent baseEvent = new BaseEvent();
+
+        eventBus.publish(specificEvent);
+        eventBus.publish(baseEvent);
+
+        assertEquals(2, baseListener.events.size());
+        assertEquals(1, specificListener.events.size());
+        assertEquals(specificEvent, specificListener.events.get(0));
+    }
+
+    @Test
+    public void servicesAreLookedUpOnce() throws InvalidSyntaxException {
+        eventBus.publish(new BaseEvent());
+        eventBus.publish(new BaseEvent());
+
+        verify(bundleContext, times(1)).getAllServiceReferences(eq(EventListener.class.getName()), anyString());
+        verify(bundleContext, times(2)).getService(any(ServiceReference.class));
+    }
+
+    @Test
+    public void asynchronousEventsAreDispatchedInOrder() throws InterruptedException {
+        final int count = 10;
+        baseListener.latch = new CountDownLatch(count);
+        final List<Integer> published = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            eventBus.publishAsync(new SequencedEvent(i));
+            published.add(i);
+        }
+
+        assertTrue(baseListener.latch.await(10, TimeUnit.SECONDS));
+        final List<Integer> dispatched = new ArrayList<>();
+        for (Event event : baseListener.events) {
+            dispatched.add(((SequencedEvent) event).sequence);
+        }
+        assertEquals(published, dispatched);
+    }
+
+    @Test
+    public void closeReleasesPublishersWaitingForAFullQueue() throws InterruptedException {
+        final CountDownLatch dispatching = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        baseListener.blockUntil = release;
+        baseListener.latch = dispatching;
+        eventBus.publishAsync(new BaseEvent());
+        assertTrue(dispatching.await(10, TimeUnit.SECONDS));
+        eventBus.publishAsync(new BaseEvent());
+        eventBus.publishAsync(new BaseEvent());
+
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final Thread publisher = new Thread(() -> {
+            try {
+                eventBus.publishAsync(new BaseEvent());
+            } catch (RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        publisher.start();
+        publisher.join(300);
+        assertTrue("Publisher should wait while the queue is full", publisher.isAlive());
+
+        eventBus.close();
+        publisher.join(TimeUnit.SECONDS.toMillis(10));
+        release.countDown();
+
+        assertFalse("Publisher should return after close", publisher.isAlive());
+        assertTrue(failure.get() instanceof IllegalStateException);
+    }
+
+    static class BaseEvent implements Event {
+
+    }
+
+    static class SpecificEvent extends BaseEvent {
+
+    }
+
+    static class SequencedEvent extends BaseEvent {
+
+        final int sequence;
+
+        SequencedEvent(int sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    static class RecordingListener implements EventListener<Event> {
+
+        private final Class<?> supportedEventType;
+
+        final List<Event> events = new CopyOnWriteArrayList<>();
+
+        volatile CountDownLatch latch;
+
+        volatile CountDownLatch blockUntil;
+
+        RecordingListener(Class<?> supportedEventType) {
+            this.supportedEventType = supportedEventType;
+        }
+
+        @Override
+        public void onEvent(Event event) {
+            events.add(event);
+            if (latch != null) {
+                latch.countDown();
+            }
+            if (blockUntil != null) {
+                try {
+                    blockUntil.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        @Override
+        public Class<?>[] supportedEventTypes() {
+            return new Class<?>[]{supportedEventType};
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleDependency;
 import org.gradle.api.plugins.JavaPlugin;
 import org.gradle.api.tasks.bundling.Jar;
 import org.gradle.util.GradleVersion;
@@ -65,6 +66,7 @@ public class DynamicExtensionPlugin implements Plugin<Project> {
      * Configures dynamic extensions dependencies
      *
      * When {@link Versions#getDynamicExtensions()} is present, dependencies on the DE annotations and webscripts are added.
+     * The annotations jar is also added to {@code annotationProcessor}, to generate the annotation index of the bundle.
      *
      * When the {@code eu.xenit.alfresco} gradle plugin is applied, these dependencies are added to {@code alfrescoProvided}.
      * If that plugin is not applied, the dependencies are added to {@code compileOnly}
@@ -81,10 +83,23 @@ public class DynamicExtensionPlugin implements Plugin<Project> {
             }
         });
 
+        Configuration annotationIndex = project.getConfigurations().create("__dynamicExtensionsInternalAnnotationIndexConfiguration");
+        annotationIndex.defaultDependencies(dependencies -> {
+            if(baseConfig.getVersions().getDynamicExtensions().isPresent()) {
+                String dynamicExtensionsVersion = baseConfig.getVersions().getDynamicExtensions().get();
+                ModuleDependency annotations = (ModuleDependency) project.getDependencies().create("eu.xenit.de:annotations:"+dynamicExtensionsVersion);
+                annotations.setTransitive(false);
+                dependencies.add(annotations);
+            }
+        });
+
         project.getPlugins().withType(JavaPlugin.class, p -> {
             project.getConfigurations().named(JavaPlugin.COMPILE_ONLY_CONFIGURATION_NAME).configure(compileOnly -> {
                 compileOnly.extendsFrom(dynamicExtensions);
             });
+            project.getConfigurations().named(JavaPlugin.ANNOTATION_PROCESSOR_CONFIGURATION_NAME).configure(annotationProcessor -> {
+                annotationProcessor.extendsFrom(annotationIndex);
+            });
         });
 
 
@@ -31,6 +31,25 @@ class DependencyVersionsTest {
         Assert.assertEquals("eu.xenit.de:webscripts should default to the same version as the plugin", BuildConfig.VERSION, webscriptsDependency.version)
     }
 
+    @Test
+    public void addsAnnotationIndexProcessor() {
+        Project project = ProjectBuilder.builder().build()
+        project.apply plugin: 'alfresco-dynamic-extension'
+        project.apply plugin: 'java'
+
+        project.configurations.annotationProcessor.runDependencyActions() // Force running defaultDependencies and friends
+
+        DependencySet annotationProcessorDependencies = project.configurations.annotationProcessor.allDependencies
+
+        def annotationsDependency = annotationProcessorDependencies.matching({ it.group == "eu.xenit.de" && it.name == "annotations" }).stream().findFirst().orElse(null)
+        def webscriptsDependency = annotationProcessorDependencies.matching({ it.group == "eu.xenit.de" && it.name == "webscripts" }).stream().findFirst().orElse(null)
+
+        Assert.assertNotNull("A dependency on eu.xenit.de:annotations should be present", annotationsDependency)
+        Assert.assertNull("A dependency on eu.xenit.de:webscripts should not be present", webscriptsDependency)
+
+        Assert.assertEquals("eu.xenit.de:annotations should default to the same version as the plugin", BuildConfig.VERSION, annotationsDependency.version)
+    }
+
     @Test
     public void addsDefaultDependenciesWithAlfrescoPlugin() {
         Project project = ProjectBuilder.builder().build()
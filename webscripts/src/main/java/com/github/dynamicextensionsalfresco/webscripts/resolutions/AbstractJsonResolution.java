@@ -31,7 +31,7 @@ public abstract class AbstractJsonResolution extends AbstractResolution {
     public void resolve(@Nonnull AnnotationWebScriptRequest request,
                         @Nonnull AnnotationWebscriptResponse response,
                         @Nonnull ResolutionParameters params) throws Exception {
-        super.resolve(request, response, params);
+        // the body can commit the response, so the status and headers have to be set before writing it
         response.setContentType(MimetypeMap.MIMETYPE_JSON);
         response.setContentEncoding(UTF_8);
         response.setHeader("Cache-Control", "no-cache,no-store");
@@ -39,5 +39,7 @@ public abstract class AbstractJsonResolution extends AbstractResolution {
         if (status != null) {
             response.setStatus(status);
         }
+
+        super.resolve(request, response, params);
     }
 }
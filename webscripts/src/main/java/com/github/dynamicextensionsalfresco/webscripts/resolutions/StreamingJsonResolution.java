@@ -0,0 +1,49 @@
+package com.github.dynamicextensionsalfresco.webscripts.resolutions;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingJsonFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Writes JSON straight to the response output stream using a Jackson {@link JsonGenerator}, without building the
+ * document in memory first. Use this for large responses, such as listings of many nodes.
+ * <p>
+ * The generator has an {@code ObjectMapper} as codec, so {@link JsonGenerator#writeObject(Object)} can be used to
+ * serialize individual items.
+ *
+ * @author Laurent Van der Linden
+ */
+public abstract class StreamingJsonResolution extends AbstractJsonResolution {
+
+    private static final JsonFactory DEFAULT_JSON_FACTORY = new MappingJsonFactory();
+
+    private final JsonFactory jsonFactory;
+
+    protected StreamingJsonResolution() {
+        this(DEFAULT_JSON_FACTORY);
+    }
+
+    /**
+     * @param jsonFactory factory for the {@link JsonGenerator}, for example obtained from a configured
+     *                    {@code ObjectMapper}.
+     */
+    protected StreamingJsonResolution(@Nonnull JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public void resolve() throws Exception {
+        final JsonGenerator generator = jsonFactory.createGenerator(getResponse().getOutputStream(),
+                JsonEncoding.UTF8);
+        // the output stream is managed by the Web Script container
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        writeJson(generator);
+        generator.close();
+    }
+
+    protected abstract void writeJson(@Nonnull JsonGenerator generator) throws IOException;
+}